@@ -0,0 +1,55 @@
+package benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+
+import model.dungeon.DungeonBatchGenerator;
+import model.dungeon.DungeonParameters;
+import model.location.GridStorage;
+
+/**
+ * Measures how many dungeons per second the {@link DungeonBatchGenerator} generates with a
+ * growing number of threads, up to the number of available processors.
+ *
+ * <p>Run with {@code java -cp <classes> benchmark.BatchThroughput [size] [count]} where size is
+ * the number of rows and columns of the square dungeons and count is the number of dungeons in
+ * every batch.
+ */
+public class BatchThroughput {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the size of the dungeons and the number of dungeons in a batch.
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+    int count = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+    DungeonParameters parameters = new DungeonParameters(size, size, size / 2, true, 20,
+            "Bench", size / 5 + 1, GridStorage.PACKED);
+    int processors = Runtime.getRuntime().availableProcessors();
+    System.out.printf("%-10s %14s %10s %10s%n", "threads", "dungeons/s", "speedup", "failed");
+    double single = 0;
+    for (int threads = 1; threads <= processors; threads *= 2) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      DungeonBatchGenerator generator = new DungeonBatchGenerator(pool);
+      generator.generate(parameters, 0, count, result -> { });
+      int[] failed = {0};
+      long start = System.nanoTime();
+      generator.generate(parameters, count, count, result -> {
+        if (!result.isSuccess()) {
+          failed[0]++;
+        }
+      });
+      double perSecond = count / ((System.nanoTime() - start) / 1e9);
+      if (threads == 1) {
+        single = perSecond;
+      }
+      System.out.printf("%-10d %14.1f %10.2f %10d%n", threads, perSecond, perSecond / single,
+              failed[0]);
+      pool.shutdown();
+      if (threads < processors && threads * 2 > processors) {
+        threads = processors / 2;
+      }
+    }
+  }
+}
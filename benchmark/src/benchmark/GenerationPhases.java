@@ -0,0 +1,54 @@
+package benchmark;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import model.dungeon.DungeonImpl;
+import model.dungeon.GenerationPhase;
+import model.location.GridStorage;
+import model.random.RandomTrue;
+
+/**
+ * Measures how long each {@link GenerationPhase} of a {@link DungeonImpl} takes for growing
+ * square wrapping dungeons. Every size is generated a few times and the fastest time of each
+ * phase is reported, so that the first runs warm up the JIT.
+ *
+ * <p>Run with {@code java -cp <classes> benchmark.GenerationPhases [size...]} where each size is
+ * the number of rows and columns of a square dungeon.
+ */
+public class GenerationPhases {
+
+  private static final int RUNS = 5;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the sizes of the square dungeons to be measured.
+   */
+  public static void main(String[] args) {
+    int[] sizes = args.length == 0 ? new int[]{50, 100, 200, 500} : new int[args.length];
+    for (int i = 0; i < args.length; i++) {
+      sizes[i] = Integer.parseInt(args[i]);
+    }
+    System.out.printf("%-10s", "dungeon");
+    for (GenerationPhase phase : GenerationPhase.values()) {
+      System.out.printf(" %14s", phase);
+    }
+    System.out.printf(" %14s%n", "TOTAL");
+    for (int size : sizes) {
+      Map<GenerationPhase, Long> fastest = new EnumMap<>(GenerationPhase.class);
+      for (int run = 0; run < RUNS; run++) {
+        new DungeonImpl(size, size, size, true, 20, "Bench", 1, new RandomTrue(),
+                GridStorage.PACKED, (phase, elapsedNanos) -> fastest.merge(phase, elapsedNanos,
+                        Math::min));
+      }
+      System.out.printf("%-10s", size + "x" + size);
+      long total = 0;
+      for (GenerationPhase phase : GenerationPhase.values()) {
+        total += fastest.get(phase);
+        System.out.printf(" %14.2f", fastest.get(phase) / 1e6);
+      }
+      System.out.printf(" %14.2f%n", total / 1e6);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import model.location.CaveGrid;
+import model.location.Direction;
+import model.location.GridStorage;
+import model.location.LocationGrid;
+import model.location.LocationUpdateState;
+import model.location.PackedGrid;
+import model.location.Treasure;
+import model.monster.Otyugh;
+import model.weapon.Weapon;
+
+/**
+ * Compares the heap retained by the {@link GridStorage#CAVES} and {@link GridStorage#PACKED}
+ * layouts of a dungeon grid. Both grids are filled the same way a generated dungeon is: every
+ * location gets its exits, a share of them treasures and arrows and a few of them monsters.
+ *
+ * <p>Run with {@code java -cp <classes> benchmark.GridMemoryFootprint [size...]} where each size
+ * is the number of rows and columns of a square grid.
+ */
+public class GridMemoryFootprint {
+
+  /**
+   * Runs the comparison.
+   *
+   * @param args the sizes of the square grids to be measured.
+   */
+  public static void main(String[] args) {
+    int[] sizes = args.length == 0 ? new int[]{100, 250, 500} : new int[args.length];
+    for (int i = 0; i < args.length; i++) {
+      sizes[i] = Integer.parseInt(args[i]);
+    }
+    System.out.printf("%-10s %-8s %14s %12s%n", "grid", "storage", "retained(MB)", "bytes/cell");
+    for (int size : sizes) {
+      for (GridStorage storage : GridStorage.values()) {
+        long before = usedMemory();
+        LocationGrid grid = fill(storage == GridStorage.PACKED ? new PackedGrid(size, size)
+                : new CaveGrid(size, size));
+        long retained = usedMemory() - before;
+        System.out.printf("%-10s %-8s %14.1f %12.1f%n", size + "x" + size, storage,
+                retained / (1024.0 * 1024.0), retained / (double) (size * size));
+        if (grid.getRows() != size) {
+          throw new IllegalStateException("Grid was not kept alive.");
+        }
+      }
+    }
+  }
+
+  private static LocationGrid fill(LocationGrid grid) {
+    Random random = new Random(42);
+    int rows = grid.getRows();
+    int columns = grid.getColumns();
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        LocationUpdateState location = grid.get(i, j);
+        Map<Direction, LocationUpdateState> moves = new EnumMap<>(Direction.class);
+        moves.put(Direction.E, grid.get(i, (j + 1) % columns));
+        moves.put(Direction.W, grid.get(i, (j + columns - 1) % columns));
+        if (random.nextBoolean()) {
+          moves.put(Direction.S, grid.get((i + 1) % rows, j));
+        }
+        location.setValidMoves(moves);
+        if (random.nextInt(100) < 30) {
+          location.addTreasures(List.of(Treasure.RUBY, Treasure.values()[random.nextInt(3)]));
+        }
+        if (random.nextInt(100) < 30) {
+          location.addArrows(List.of(Weapon.ARROW, Weapon.ARROW));
+        }
+        if (random.nextInt(100) < 2) {
+          location.addMonster(new Otyugh());
+        }
+        location.addSmell(random.nextInt(3));
+      }
+    }
+    return grid;
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import model.dungeon.Dungeon;
+import model.dungeon.DungeonImpl;
+import model.location.Direction;
+import model.location.GridStorage;
+import model.random.RandomTrue;
+
+/**
+ * Measures the latency of {@link Dungeon#movePlayer(Direction)} for growing square dungeons.
+ * The player walks back and forth between the starting cave and one of its neighbors, which can
+ * never hold a monster because the only monster guards the destination at least 5 moves away.
+ *
+ * <p>Run with {@code java -cp <classes> benchmark.MoveLatency [size...]} where each size is the
+ * number of rows and columns of a square dungeon.
+ */
+public class MoveLatency {
+
+  private static final int MOVES = 2_000_000;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the sizes of the square dungeons to be measured.
+   */
+  public static void main(String[] args) {
+    int[] sizes = args.length == 0 ? new int[]{10, 100, 500, 1000, 2000} : new int[args.length];
+    for (int i = 0; i < args.length; i++) {
+      sizes[i] = Integer.parseInt(args[i]);
+    }
+    System.out.printf("%-10s %12s%n", "dungeon", "ns/move");
+    for (int size : sizes) {
+      Dungeon dungeon = new DungeonImpl(size, size, 0, true, 20, "Bench", 1,
+              new RandomTrue(), GridStorage.PACKED);
+      Direction there = dungeon.getPlayerLocation().getPossibleMoves().get(0);
+      Direction back = opposite(there);
+      for (int i = 0; i < MOVES; i++) {
+        walk(dungeon, there, back);
+      }
+      long start = System.nanoTime();
+      for (int i = 0; i < MOVES; i++) {
+        walk(dungeon, there, back);
+      }
+      long elapsed = System.nanoTime() - start;
+      System.out.printf("%-10s %12.1f%n", size + "x" + size, elapsed / (2.0 * MOVES));
+    }
+  }
+
+  private static void walk(Dungeon dungeon, Direction there, Direction back) {
+    if (!dungeon.movePlayer(there) || !dungeon.movePlayer(back)) {
+      throw new IllegalStateException("The player was eaten next to the start.");
+    }
+  }
+
+  private static Direction opposite(Direction direction) {
+    switch (direction) {
+      case N:
+        return Direction.S;
+      case S:
+        return Direction.N;
+      case E:
+        return Direction.W;
+      case W:
+        return Direction.E;
+      default:
+        throw new IllegalArgumentException("Invalid direction.");
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonParameters;
+import model.location.GridStorage;
+import model.location.Location;
+import model.random.RandomSeeded;
+
+/**
+ * Measures the latency of the pathfinding queries of {@link DungeonImpl} on a large dungeon: the
+ * first query to a target, which searches the whole dungeon, and the next step and the whole path
+ * to a target whose distances are already kept. Only as many targets are queried as the
+ * dungeon keeps distances to at this size.
+ *
+ * <p>Run with {@code java -cp <classes> benchmark.PathfindingLatency [size] [queries]} where size
+ * is the number of rows and columns of a square dungeon.
+ */
+public class PathfindingLatency {
+
+  private static final int TARGETS = 4;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the size of the square dungeon and the number of queries.
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+    DungeonImpl dungeon = new DungeonParameters(size, size, size / 2, true, 20, "Bench", 1,
+            GridStorage.PACKED).createDungeon(new RandomSeeded(1));
+    RandomSeeded rand = new RandomSeeded(2);
+    Location[] targets = new Location[TARGETS];
+    long first = 0;
+    for (int i = 0; i < TARGETS; i++) {
+      targets[i] = randomLocation(dungeon, rand, size);
+      Location from = randomLocation(dungeon, rand, size);
+      long start = System.nanoTime();
+      dungeon.getNextStep(from, targets[i]);
+      first += System.nanoTime() - start;
+    }
+    print("first query", first, TARGETS);
+
+    Location[] sources = new Location[queries];
+    for (int i = 0; i < queries; i++) {
+      sources[i] = randomLocation(dungeon, rand, size);
+    }
+    long sink = 0;
+    long step = Long.MAX_VALUE;
+    long path = Long.MAX_VALUE;
+    for (int run = 0; run < 3; run++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < queries; i++) {
+        sink += dungeon.getNextStep(sources[i], targets[i % TARGETS]) == null ? 0 : 1;
+      }
+      step = Math.min(step, System.nanoTime() - start);
+      start = System.nanoTime();
+      for (int i = 0; i < queries / 100; i++) {
+        sink += dungeon.getShortestPath(sources[i], targets[i % TARGETS]).size();
+      }
+      path = Math.min(path, System.nanoTime() - start);
+    }
+    print("cached next step", step, queries);
+    print("cached whole path", path, queries / 100);
+    System.out.println("(" + sink + ")");
+  }
+
+  private static Location randomLocation(DungeonImpl dungeon, RandomSeeded rand, int size) {
+    return dungeon.getLocation(rand.getRandom(size, 0), rand.getRandom(size, 0));
+  }
+
+  private static void print(String name, long nanos, int queries) {
+    System.out.printf("%-28s %12.2f us/query%n", name, nanos / 1e3 / queries);
+  }
+}
@@ -0,0 +1,89 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import model.dungeon.DungeonParameters;
+import model.dungeon.GameReplayer;
+import model.dungeon.RecordingDungeon;
+import model.location.Direction;
+import model.location.GridStorage;
+import model.random.RandomSeeded;
+
+/**
+ * Measures how fast a {@link RecordingDungeon} logs a long game of random moves, how many
+ * commands a second {@link GameReplayer} carries out again when it replays the whole game from
+ * its first keyframe, and how long it takes to seek to random turns of the same game logged with
+ * the default keyframe interval.
+ *
+ * <p>Run with {@code java -cp <classes> benchmark.ReplayThroughput [commands] [size]} where size
+ * is the number of rows and columns of a square dungeon.
+ */
+public class ReplayThroughput {
+
+  private static final int RUNS = 5;
+  private static final int SEEKS = 200;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of commands and the size of the square dungeon.
+   * @throws IOException if the logs cannot be written to temporary files.
+   */
+  public static void main(String[] args) throws IOException {
+    int commands = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    int size = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    DungeonParameters parameters = new DungeonParameters(size, size, size / 2, true, 20,
+            "Bench", 1, GridStorage.PACKED);
+    Path file = Files.createTempFile("replay", ".log");
+    try {
+      long record = record(parameters, commands, file, Integer.MAX_VALUE);
+      System.out.printf("%-28s %10.1f ms %8.2fM commands/s%n", "record", record / 1e6,
+              commands * 1e3 / record);
+      GameReplayer replayer = GameReplayer.load(file);
+      long replay = Long.MAX_VALUE;
+      for (int run = 0; run < RUNS; run++) {
+        long start = System.nanoTime();
+        replayer.replay();
+        replay = Math.min(replay, System.nanoTime() - start);
+      }
+      System.out.printf("%-28s %10.1f ms %8.2fM commands/s%n", "replay", replay / 1e6,
+              commands * 1e3 / replay);
+
+      record(parameters, commands, file, RecordingDungeon.DEFAULT_KEYFRAME_INTERVAL);
+      replayer = GameReplayer.load(file);
+      RandomSeeded turns = new RandomSeeded(2);
+      long seek = 0;
+      for (int i = 0; i < SEEKS; i++) {
+        long turn = turns.getRandom(commands + 1, 0);
+        long start = System.nanoTime();
+        replayer.seek(turn);
+        seek += System.nanoTime() - start;
+      }
+      System.out.printf("%-28s %10.1f us (%d keyframes, %d bytes)%n", "seek to a random turn",
+              seek / 1e3 / SEEKS, replayer.getKeyframes(), Files.size(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static long record(DungeonParameters parameters, int commands, Path file,
+                             int keyframeInterval) throws IOException {
+    long start = System.nanoTime();
+    try (RecordingDungeon dungeon = new RecordingDungeon(parameters, 7, file,
+            keyframeInterval)) {
+      RandomSeeded walk = new RandomSeeded(1);
+      while (dungeon.getTurn() < commands) {
+        if (dungeon.getPlayer().isDead() || dungeon.isDestinationReached()) {
+          dungeon.restart();
+        } else {
+          List<Direction> moves = dungeon.getPlayerLocation().getPossibleMoves();
+          dungeon.movePlayer(moves.get(walk.getRandom(moves.size(), 0)));
+        }
+      }
+    }
+    return System.nanoTime() - start;
+  }
+}
@@ -0,0 +1,171 @@
+package benchmark;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import control.server.GameServer;
+import control.server.SessionStore;
+import control.server.SnapshotStorage;
+import model.dungeon.DungeonParameters;
+import model.location.GridStorage;
+import model.random.RandomSeeded;
+import model.simulation.Histogram;
+
+/**
+ * Drives a {@link GameServer} with scripted clients and prints the latency of their commands,
+ * from sending a command to receiving the whole prompt for the next one. Every client picks up
+ * what it finds and moves through a random door, and starts a new game when its game is over.
+ * Idle clients connect first and never send a command, to show what a mostly idle population
+ * of sessions costs the active ones. The server keeps its sessions in a {@link SessionStore}
+ * with the given number of live sessions, and the numbers of the store are printed at the end.
+ *
+ * <p>Run with {@code java -cp <classes> benchmark.SessionLoadGenerator [clients] [commands]
+ * [idle] [live]} where commands is the number of commands every client sends.
+ */
+public class SessionLoadGenerator {
+
+  private static final String PROMPT = "(M-P-S-G)?";
+  private static final String DOORS = "Doors lead to [";
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of clients, commands per client, idle clients and live sessions.
+   * @throws Exception if the server cannot be started or a client fails.
+   */
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int commands = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int idle = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+    int live = args.length > 3 ? Integer.parseInt(args[3]) : clients;
+    DungeonParameters parameters = new DungeonParameters(10, 10, 4, true, 57, "Bench", 2,
+            GridStorage.CAVES);
+    Runtime runtime = Runtime.getRuntime();
+    SessionStore<Long> store = new SessionStore<>(live, Long.MAX_VALUE, SnapshotStorage.HEAP);
+    ExecutorService sessions = GameServer.newSessionExecutor();
+    try (GameServer server = new GameServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), parameters, 1, sessions,
+            store)) {
+      SocketAddress address = server.getAddress();
+      List<SocketChannel> idleClients = new ArrayList<>();
+      for (int i = 0; i < idle; i++) {
+        SocketChannel client = SocketChannel.open(address);
+        idleClients.add(client);
+        readUntilPrompt(client, new StringBuilder());
+      }
+      System.gc();
+      System.out.printf("%-28s %12d%n", "idle sessions", server.getActiveSessions());
+      System.out.printf("%-28s %12.1f KB%n", "used heap per idle session",
+              (runtime.totalMemory() - runtime.freeMemory()) / 1024.0 / Math.max(1, idle));
+
+      Histogram latencies = new Histogram();
+      AtomicLong games = new AtomicLong();
+      ExecutorService pool = GameServer.newSessionExecutor();
+      List<Future<?>> results = new ArrayList<>();
+      long start = System.nanoTime();
+      for (int i = 0; i < clients; i++) {
+        long seed = i;
+        results.add(pool.submit(() -> {
+          drive(address, commands, new RandomSeeded(seed), latencies, games);
+          return null;
+        }));
+      }
+      for (Future<?> result : results) {
+        result.get();
+      }
+      long elapsed = System.nanoTime() - start;
+      pool.shutdown();
+
+      System.out.printf("%-28s %12d%n", "commands", latencies.getCount());
+      System.out.printf("%-28s %12d%n", "games", games.get());
+      System.out.printf("%-28s %12.0f commands/s%n", "throughput",
+              latencies.getCount() / (elapsed / 1e9));
+      System.out.printf("%-28s %12d us%n", "p50 latency", latencies.getPercentile(50));
+      System.out.printf("%-28s %12d us%n", "p99 latency", latencies.getPercentile(99));
+      System.out.printf("%-28s %12d us%n", "max latency", latencies.getMax());
+      System.out.printf("%-28s %12d%n", "live sessions", store.getLiveSessions());
+      System.out.printf("%-28s %12d%n", "evicted sessions", store.getEvictedSessions());
+      System.out.printf("%-28s %12.0f bytes%n", "bytes per snapshot",
+              store.getSnapshotBytes() / (double) Math.max(1, store.getEvictedSessions()));
+      System.out.printf("%-28s %12d%n", "hits", store.getHits());
+      System.out.printf("%-28s %12d%n", "misses", store.getMisses());
+      System.out.printf("%-28s %12d%n", "evictions", store.getEvictions());
+      for (SocketChannel client : idleClients) {
+        client.close();
+      }
+    } finally {
+      sessions.shutdown();
+    }
+  }
+
+  private static void drive(SocketAddress address, int commands, RandomSeeded rand,
+                            Histogram latencies, AtomicLong games) throws IOException {
+    int sent = 0;
+    while (sent < commands) {
+      games.incrementAndGet();
+      try (SocketChannel client = SocketChannel.open(address)) {
+        StringBuilder screen = new StringBuilder();
+        boolean isPlaying = readUntilPrompt(client, screen);
+        while (isPlaying && sent < commands) {
+          String command = nextCommand(screen, rand);
+          screen.setLength(0);
+          long start = System.nanoTime();
+          client.write(ByteBuffer.wrap(command.getBytes(StandardCharsets.UTF_8)));
+          isPlaying = readUntilPrompt(client, screen);
+          int micros = (int) Math.min(Integer.MAX_VALUE, (System.nanoTime() - start) / 1000);
+          synchronized (latencies) {
+            latencies.record(micros);
+          }
+          sent++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Picks up the arrows and the treasures the screen shows, and otherwise moves through one of
+   * the doors.
+   */
+  private static String nextCommand(StringBuilder screen, RandomSeeded rand) {
+    String doors = null;
+    for (String line : screen.toString().split("\n")) {
+      if (line.startsWith("You find") && !line.contains("Otyugh")) {
+        return line.contains("arrow") ? "P arrow\n" : "P treasure\n";
+      }
+      if (line.startsWith(DOORS)) {
+        doors = line.substring(DOORS.length(), line.indexOf(']'));
+      }
+    }
+    String[] directions = doors.split(", ");
+    return "M " + directions[rand.getRandom(directions.length, 0)] + "\n";
+  }
+
+  /**
+   * Reads the output of the session up to the next prompt and returns {@code false} if the
+   * session ended first.
+   */
+  private static boolean readUntilPrompt(SocketChannel client, StringBuilder screen)
+          throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(512);
+    while (screen.length() < PROMPT.length()
+            || screen.lastIndexOf(PROMPT) != screen.length() - PROMPT.length()) {
+      if (client.read(buffer) == -1) {
+        return false;
+      }
+      buffer.flip();
+      screen.append(StandardCharsets.UTF_8.decode(buffer));
+      buffer.clear();
+    }
+    return true;
+  }
+}
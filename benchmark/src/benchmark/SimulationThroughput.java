@@ -0,0 +1,50 @@
+package benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+
+import model.dungeon.DungeonParameters;
+import model.location.GridStorage;
+import model.simulation.RandomWalkBot;
+import model.simulation.SimulationResult;
+import model.simulation.SimulationRunner;
+import model.simulation.SmellAvoidingBot;
+
+/**
+ * Measures how many games a second the {@link SimulationRunner} plays with each bot on one thread
+ * and on all the cores, and prints the results of the games.
+ *
+ * <p>Run with {@code java -cp <classes> benchmark.SimulationThroughput [games] [size]} where size
+ * is the number of rows and columns of a square dungeon.
+ */
+public class SimulationThroughput {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of games and the size of the square dungeon.
+   */
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int size = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    DungeonParameters parameters = new DungeonParameters(size, size, size / 2, true, 30,
+            "Bench", size / 3 + 1, GridStorage.PACKED);
+    int cores = Runtime.getRuntime().availableProcessors();
+    for (int threads : cores == 1 ? new int[]{1} : new int[]{1, cores}) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      try {
+        SimulationRunner runner = new SimulationRunner(pool);
+        runner.run(parameters, RandomWalkBot::new, 0, games / 10, 10 * size * size);
+        for (String bot : new String[]{"random walk", "smell avoiding"}) {
+          long start = System.nanoTime();
+          SimulationResult result = runner.run(parameters, bot.equals("random walk")
+                  ? RandomWalkBot::new : SmellAvoidingBot::new, 1, games, 10 * size * size);
+          long time = System.nanoTime() - start;
+          System.out.printf("%-15s %2d threads %10.0f games/s  %s%n", bot, threads,
+                  games * 1e9 / time, result);
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import java.nio.ByteBuffer;
+
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonSnapshot;
+import model.location.GridStorage;
+import model.random.RandomSeeded;
+
+/**
+ * Measures how long it takes to write a {@link DungeonSnapshot} of square dungeons of growing
+ * size to a buffer and to restore the dungeon from it, next to the time it takes to generate the
+ * same dungeon again from its seed.
+ *
+ * <p>Run with {@code java -cp <classes> benchmark.SnapshotLatency [size...]} where each size is
+ * the number of rows and columns of a square dungeon.
+ */
+public class SnapshotLatency {
+
+  private static final int RUNS = 2000;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the sizes of the square dungeons to be measured.
+   */
+  public static void main(String[] args) {
+    int[] sizes = args.length == 0 ? new int[]{10, 30, 100} : new int[args.length];
+    for (int i = 0; i < args.length; i++) {
+      sizes[i] = Integer.parseInt(args[i]);
+    }
+    System.out.printf("%-10s %10s %14s %14s %14s%n", "dungeon", "bytes", "write us",
+            "read us", "generate us");
+    for (int size : sizes) {
+      DungeonImpl dungeon = generate(size);
+      ByteBuffer buffer = ByteBuffer.allocate(DungeonSnapshot.size(dungeon));
+      long write = Long.MAX_VALUE;
+      long read = Long.MAX_VALUE;
+      long generate = Long.MAX_VALUE;
+      for (int run = 0; run < RUNS; run++) {
+        buffer.clear();
+        long start = System.nanoTime();
+        DungeonSnapshot.write(dungeon, buffer);
+        write = Math.min(write, System.nanoTime() - start);
+        buffer.flip();
+        start = System.nanoTime();
+        DungeonSnapshot.read(buffer);
+        read = Math.min(read, System.nanoTime() - start);
+        if (run < RUNS / 20) {
+          start = System.nanoTime();
+          generate(size);
+          generate = Math.min(generate, System.nanoTime() - start);
+        }
+      }
+      System.out.printf("%-10s %10d %14.1f %14.1f %14.1f%n", size + "x" + size, buffer.limit(),
+              write / 1e3, read / 1e3, generate / 1e3);
+    }
+  }
+
+  private static DungeonImpl generate(int size) {
+    return new DungeonImpl(size, size, size / 2, true, 20, "Bench", size / 5 + 1,
+            new RandomSeeded(size), GridStorage.PACKED);
+  }
+}
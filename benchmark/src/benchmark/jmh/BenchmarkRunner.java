@@ -0,0 +1,35 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of the dungeon model with the GC profiler, so that the allocation rate
+ * of every benchmark is reported next to its throughput. Any of the usual JMH command line
+ * options can be given, for example a regular expression to select the benchmarks or
+ * {@code -p size=10} to narrow a parameter.
+ */
+public class BenchmarkRunner {
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args the JMH command line options.
+   * @throws CommandLineOptionException if the options are invalid.
+   * @throws RunnerException            if a benchmark fails.
+   */
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    OptionsBuilder options = new OptionsBuilder();
+    if (commandLine.getIncludes().isEmpty()) {
+      options.include(BenchmarkRunner.class.getPackageName() + "\\..*");
+    }
+    options.parent(commandLine);
+    options.addProfiler(GCProfiler.class);
+    new Runner(options.build()).run();
+  }
+}
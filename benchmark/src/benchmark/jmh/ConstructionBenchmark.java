@@ -0,0 +1,61 @@
+package benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import model.dungeon.Dungeon;
+import model.dungeon.DungeonImpl;
+import model.location.GridStorage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the construction of a {@link DungeonImpl} over a grid of rows, columns,
+ * interconnectivity, wrapping and storage. Every invocation generates the dungeon of the same
+ * seed, so the numbers of different runs can be compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConstructionBenchmark {
+
+  @Param({"10", "100"})
+  int rows;
+
+  @Param({"10", "100"})
+  int columns;
+
+  @Param({"0", "20"})
+  int interconnectivity;
+
+  @Param({"true", "false"})
+  boolean wrapping;
+
+  @Param({"CAVES", "PACKED"})
+  GridStorage storage;
+
+  @Param({"42"})
+  long seed;
+
+  /**
+   * Generates a dungeon.
+   *
+   * @return the dungeon.
+   */
+  @Benchmark
+  public Dungeon construct() {
+    return new DungeonImpl(this.rows, this.columns, this.interconnectivity, this.wrapping, 20,
+            "Bench", 2, Fixtures.seeded(this.seed), this.storage);
+  }
+}
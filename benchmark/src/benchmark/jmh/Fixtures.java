@@ -0,0 +1,46 @@
+package benchmark.jmh;
+
+import model.location.Direction;
+import model.random.RandomFactory;
+import model.random.RandomGenerator;
+
+/**
+ * Helpers shared by the JMH benchmarks.
+ */
+final class Fixtures {
+
+  private Fixtures() {
+  }
+
+  /**
+   * Returns a random generator that always produces the same numbers for the same seed, so that
+   * every run of a benchmark works on the same dungeons.
+   *
+   * @param seed the seed.
+   * @return the random generator.
+   */
+  static RandomGenerator seeded(long seed) {
+    return new RandomFactory().getRandomGenerator(seed);
+  }
+
+  /**
+   * Returns the direction that leads back to where a move in the given direction started.
+   *
+   * @param direction the direction.
+   * @return the opposite direction.
+   */
+  static Direction opposite(Direction direction) {
+    switch (direction) {
+      case N:
+        return Direction.S;
+      case S:
+        return Direction.N;
+      case E:
+        return Direction.W;
+      case W:
+        return Direction.E;
+      default:
+        throw new IllegalArgumentException("Invalid direction.");
+    }
+  }
+}
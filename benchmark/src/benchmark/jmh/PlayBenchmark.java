@@ -0,0 +1,132 @@
+package benchmark.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import model.dungeon.Dungeon;
+import model.dungeon.DungeonImpl;
+import model.location.Direction;
+import model.location.GridStorage;
+import model.location.LocationUpdateState;
+import model.location.Treasure;
+import model.weapon.Weapon;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the actions of a player in a generated {@link DungeonImpl}. The dungeon of the same
+ * seed is generated once per trial with a single monster, which always guards the destination at
+ * least 5 moves away, so the player can keep playing next to the start. Actions that use up what
+ * they act on first put it back in the location of the player, which is part of the measured
+ * time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayBenchmark {
+
+  private static final List<Weapon> ONE_ARROW = List.of(Weapon.ARROW);
+  private static final List<Treasure> ALL_TREASURES = List.of(Treasure.values());
+
+  @Param({"10", "100", "300"})
+  int size;
+
+  @Param({"CAVES", "PACKED"})
+  GridStorage storage;
+
+  @Param({"42"})
+  long seed;
+
+  private Dungeon dungeon;
+  private Direction there;
+  private Direction back;
+
+  /**
+   * Generates the dungeon and picks a move out of the starting cave and back.
+   */
+  @Setup
+  public void setUp() {
+    this.dungeon = new DungeonImpl(this.size, this.size, 0, true, 20, "Bench", 1,
+            Fixtures.seeded(this.seed), this.storage);
+    this.there = this.dungeon.getPlayerLocation().getPossibleMoves().get(0);
+    this.back = Fixtures.opposite(this.there);
+  }
+
+  /**
+   * Moves the player out of the starting cave and back.
+   *
+   * @return {@code true} if the player survived both moves.
+   */
+  @Benchmark
+  public boolean movePlayer() {
+    return this.dungeon.movePlayer(this.there) & this.dungeon.movePlayer(this.back);
+  }
+
+  /**
+   * Gives the player an arrow and shoots it through the exit of the starting cave.
+   *
+   * @return {@code true} if the arrow hit the monster.
+   */
+  @Benchmark
+  public boolean shootArrow() {
+    location().addArrows(ONE_ARROW);
+    this.dungeon.pickArrows();
+    return this.dungeon.shootArrow(3, this.there);
+  }
+
+  /**
+   * Puts one of every treasure in the starting cave and collects them.
+   *
+   * @param blackhole consumes the collected treasures.
+   */
+  @Benchmark
+  public void collectTreasure(Blackhole blackhole) {
+    location().addTreasures(ALL_TREASURES);
+    this.dungeon.collectTreasure(ALL_TREASURES);
+    blackhole.consume(this.dungeon.getPlayer().getCollectedTreasures());
+  }
+
+  /**
+   * Puts an arrow in the starting cave and picks it. The arrow is then shot at a distance of 0,
+   * which only looks at the starting cave, so that the quiver of the player does not grow. The
+   * difference to {@link #shootArrow()} is the cost of the flight of the arrow.
+   *
+   * @return the number of arrows of the player while holding the picked arrow.
+   */
+  @Benchmark
+  public int pickArrows() {
+    location().addArrows(ONE_ARROW);
+    this.dungeon.pickArrows();
+    int arrows = this.dungeon.getPlayer().getNumberOfArrows();
+    this.dungeon.shootArrow(0, this.there);
+    return arrows;
+  }
+
+  /**
+   * Renders the whole dungeon as a string.
+   *
+   * @return the rendered dungeon.
+   */
+  @Benchmark
+  public String render() {
+    return this.dungeon.toString();
+  }
+
+  private LocationUpdateState location() {
+    return (LocationUpdateState) this.dungeon.getPlayerLocation();
+  }
+}
@@ -1,11 +1,19 @@
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
 
 import control.gui.DungeonControllerImpl;
 import control.gui.PreLaunchView;
 import control.gui.PreLaunchViewImpl;
+import control.server.GameServer;
 import control.textbased.DungeonConsoleController;
 import model.dungeon.Dungeon;
 import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonParameters;
+import model.location.GridStorage;
 import model.random.RandomFactory;
 import model.random.RandomGenerator;
 
@@ -18,8 +26,10 @@ public class Driver {
    * Main method.
    *
    * @param args the arguments.
+   * @throws IOException          if the game server cannot be started.
+   * @throws InterruptedException if the game server is interrupted while serving.
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException, InterruptedException {
 
     if (args.length == 7) {
       System.out.println("Welcome to the World of Dungeon");
@@ -62,6 +72,22 @@ public class Driver {
       Readable input = new InputStreamReader(System.in);
       Appendable output = System.out;
       new DungeonConsoleController(input, output).playGame(dungeon);
+    } else if (args.length == 2 && args[0].equalsIgnoreCase("serve")) {
+      SocketAddress address = args[1].matches("\\d+")
+              ? new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[1]))
+              : UnixDomainSocketAddress.of(args[1]);
+      DungeonParameters parameters = new DungeonParameters(10, 10, 4, true, 57, "Captain", 2,
+              GridStorage.CAVES);
+      GameServer server = new GameServer(address, parameters, System.nanoTime());
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        try {
+          server.close();
+        } catch (IOException e) {
+          // The server is going away with the process anyway.
+        }
+      }));
+      System.out.println("Serving games on " + server.getAddress());
+      server.awaitClose();
     } else {
       PreLaunchView preLaunchView = new PreLaunchViewImpl();
       new DungeonControllerImpl(preLaunchView);
@@ -4,14 +4,15 @@ import java.awt.GridLayout;
 import java.awt.Color;
 import java.awt.BorderLayout;
 import java.awt.Font;
-import java.awt.Image;
-import java.awt.Graphics;
 
 import java.awt.event.ActionEvent;
-import java.io.IOException;
-import java.io.InputStream;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import javax.imageio.ImageIO;
 import javax.swing.JPanel;
 import javax.swing.Icon;
 import javax.swing.JLabel;
@@ -21,18 +22,21 @@ import javax.swing.JMenuItem;
 import javax.swing.AbstractAction;
 import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
+import javax.swing.KeyStroke;
 
 import javax.swing.border.MatteBorder;
 
 import model.dungeon.ReadOnlyDungeon;
+import model.location.Location;
 import model.location.Treasure;
+import model.player.PlayerField;
 
 class DescriptionPanel extends JPanel {
 
   private final ReadOnlyDungeon model;
   private final DungeonGUIController controller;
-  private final JPanel playerDescription;
-  private final JPanel locationDescription;
+  private final PlayerDescription playerDescription;
+  private final LocationDescription locationDescription;
   private final Icon diamond;
   private final Icon emerald;
   private final Icon ruby;
@@ -92,12 +96,26 @@ class DescriptionPanel extends JPanel {
         controller.restartGame();
       }
     });
+    JMenuItem undo = new JMenuItem(new AbstractAction("Undo") {
+      public void actionPerformed(ActionEvent e) {
+        controller.handleUndo();
+      }
+    });
+    undo.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK));
+    JMenuItem redo = new JMenuItem(new AbstractAction("Redo") {
+      public void actionPerformed(ActionEvent e) {
+        controller.handleRedo();
+      }
+    });
+    redo.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK));
     JMenuItem quit = new JMenuItem(new AbstractAction("Quit") {
       public void actionPerformed(ActionEvent e) {
         System.exit(0);
       }
     });
 
+    menu.add(undo);
+    menu.add(redo);
     menu.add(restart);
     menu.add(newGame);
     menu.add(quit);
@@ -140,6 +158,41 @@ class DescriptionPanel extends JPanel {
     }
   }
 
+  /**
+   * Shows again only the labels that depend on what changed in the dungeon: the collected items
+   * if the treasures or arrows of the player changed and the description of the location if the
+   * player moved or the location of the player is among the changed locations.
+   *
+   * @param locations    the ids of the changed locations.
+   * @param playerFields the changed fields of the player.
+   */
+  void dungeonChanged(int[] locations, Set<PlayerField> playerFields) {
+    if (playerFields.contains(PlayerField.TREASURES)) {
+      this.playerDescription.updateTreasures();
+    }
+    if (playerFields.contains(PlayerField.ARROWS)) {
+      this.playerDescription.updateArrows();
+    }
+    int playerLocation = model.getPlayerLocation().getId();
+    boolean isLocationChanged = playerFields.contains(PlayerField.LOCATION);
+    for (int i = 0; i < locations.length && !isLocationChanged; i++) {
+      isLocationChanged = locations[i] == playerLocation;
+    }
+    if (isLocationChanged) {
+      this.locationDescription.update();
+    }
+  }
+
+  /**
+   * Shows the welcome message again, for a game that was restarted.
+   */
+  void reset() {
+    info.setText("Welcome to the world of dungeons!");
+    Font font = new Font("Arial", Font.BOLD, 18);
+    info.setFont(font);
+    info.setForeground(Color.PINK);
+  }
+
   public void setShootResult(boolean result) {
     if (result) {
       info.setText("You hear a great howl in the distance\n");
@@ -164,16 +217,7 @@ class DescriptionPanel extends JPanel {
   }
 
   private ImageIcon getImageIcon(String path) {
-    Image image = null;
-    try {
-      InputStream imageStream = getClass().getClassLoader().getResourceAsStream(path);
-      // convert the input stream into an image
-      image = ImageIO.read(imageStream);
-    } catch (IOException e) {
-      JOptionPane.showMessageDialog(this, e.getMessage());
-      e.printStackTrace();
-    }
-    return new ImageIcon(image);
+    return new ImageIcon(TileAtlas.getInstance().getSprite(path));
   }
 
   private class PlayerDescription extends JPanel {
@@ -225,13 +269,20 @@ class DescriptionPanel extends JPanel {
       add(treasures);
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-      super.paintComponent(g);
-      rubies.setText(model.getPlayer().getCollectedTreasures().get(Treasure.RUBY).toString());
-      sapphires.setText(model.getPlayer().getCollectedTreasures().get(Treasure.SAPPHIRE)
-              .toString());
-      diamonds.setText(model.getPlayer().getCollectedTreasures().get(Treasure.DIAMOND).toString());
+    /**
+     * Shows the collected treasures of the player again.
+     */
+    void updateTreasures() {
+      Map<Treasure, Integer> collected = model.getPlayer().getCollectedTreasures();
+      rubies.setText(collected.get(Treasure.RUBY).toString());
+      sapphires.setText(collected.get(Treasure.SAPPHIRE).toString());
+      diamonds.setText(collected.get(Treasure.DIAMOND).toString());
+    }
+
+    /**
+     * Shows the number of arrows of the player again.
+     */
+    void updateArrows() {
       arrows.setText(String.valueOf(model.getPlayer().getNumberOfArrows()));
     }
   }
@@ -301,18 +352,21 @@ class DescriptionPanel extends JPanel {
       add(smell);
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-      super.paintComponent(g);
-      rubies.setText(String.valueOf(model.getPlayerLocation().getTreasures()
-              .stream().filter(treasure -> treasure.equals(Treasure.RUBY)).count()));
-      sapphires.setText(String.valueOf(model.getPlayerLocation().getTreasures()
-              .stream().filter(treasure -> treasure.equals(Treasure.SAPPHIRE)).count()));
-      diamonds.setText(String.valueOf(model.getPlayerLocation().getTreasures()
-              .stream().filter(treasure -> treasure.equals(Treasure.DIAMOND)).count()));
-      arrows.setText(String.valueOf((long) model.getPlayerLocation().getArrows().size()));
-      if (model.getPlayerLocation().getSmell() > 0) {
-        if (model.getPlayerLocation().getSmell() == 1) {
+    /**
+     * Shows the location of the player again.
+     */
+    void update() {
+      Location location = model.getPlayerLocation();
+      List<Treasure> treasures = location.getTreasures();
+      rubies.setText(String.valueOf(treasures.stream()
+              .filter(treasure -> treasure.equals(Treasure.RUBY)).count()));
+      sapphires.setText(String.valueOf(treasures.stream()
+              .filter(treasure -> treasure.equals(Treasure.SAPPHIRE)).count()));
+      diamonds.setText(String.valueOf(treasures.stream()
+              .filter(treasure -> treasure.equals(Treasure.DIAMOND)).count()));
+      arrows.setText(String.valueOf((long) location.getArrows().size()));
+      if (location.getSmell() > 0) {
+        if (location.getSmell() == 1) {
           smell.setText("Slightly pungent smell");
           smell.setIcon(lightSmell);
         } else {
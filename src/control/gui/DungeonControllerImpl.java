@@ -3,58 +3,83 @@ package control.gui;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.swing.SwingUtilities;
 
 import model.dungeon.Dungeon;
 import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonParameters;
+import model.dungeon.DungeonPool;
+import model.dungeon.GenerationPhase;
 import model.location.Direction;
-import model.location.Location;
+import model.location.GridStorage;
 import model.location.Treasure;
+import model.location.coordinate.Coordinate;
 import model.random.RandomFactory;
 import model.random.RandomGenerator;
 
 /**
  * The DungeonControllerImpl class represents the controller of the dungeon game. It interacts
  * with the model and the graphical view of the game. It tells view when to update it's state and
- * tell model to mutate the state when an action is performed.
+ * tell model to mutate the state when an action is performed. A new dungeon is generated off the
+ * event dispatch thread, while the pre-launch view shows the progress of the generation and lets
+ * the user abort it.
  */
 public class DungeonControllerImpl implements DungeonGUIController, ActionListener {
 
   private final PreLaunchView prelaunchView;
+  private final DungeonPool pool;
   private Dungeon model;
-  private Dungeon freshModel;
   private DungeonView view;
   private int rows;
   private int cols;
+  private CompletableFuture<DungeonImpl> generation;
+  private int generations;
 
   /**
-   * Constructs Dungeon controller.
+   * Constructs Dungeon controller with a {@link DungeonPool} of the default size.
    *
    * @throws IllegalArgumentException if {@code prelaunchView} is {@code null}.
    */
   public DungeonControllerImpl(PreLaunchView prelaunchView) {
-    if (prelaunchView == null) {
+    this(prelaunchView, new DungeonPool(() -> new RandomFactory().getRandomGenerator(true)));
+  }
+
+  /**
+   * Constructs Dungeon controller that takes the dungeons of new games from the given pool when
+   * it has one for the parameters entered in the pre-launch view.
+   *
+   * @throws IllegalArgumentException if {@code prelaunchView} or {@code pool} is {@code null}.
+   */
+  public DungeonControllerImpl(PreLaunchView prelaunchView, DungeonPool pool) {
+    if (prelaunchView == null || pool == null) {
       throw new IllegalArgumentException("Cannot be null");
     }
+    this.pool = pool;
     this.prelaunchView = prelaunchView;
     this.prelaunchView.setCommandButtonListener(this);
+    this.prelaunchView.setCancelButtonListener(event -> cancelGeneration());
     this.prelaunchView.makeVisible();
   }
 
   /**
-   * Constructs Dungeon controller.
+   * Constructs Dungeon controller of a game in progress that takes the dungeons of new games from
+   * the given pool.
    *
-   * @throws IllegalArgumentException if {@code model} or {@code view} or {@code prelaunchView} is
-   *                                  {@code null}.
+   * @throws IllegalArgumentException if {@code model} or {@code view} or {@code prelaunchView} or
+   *                                  {@code pool} is {@code null}.
    */
   public DungeonControllerImpl(Dungeon model, DungeonView view, PreLaunchView prelaunchView,
-                               int rows, int cols) {
-    if (prelaunchView == null || model == null || view == null) {
+                               DungeonPool pool, int rows, int cols) {
+    if (prelaunchView == null || model == null || view == null || pool == null) {
       throw new IllegalArgumentException("Cannot be null");
     }
     this.model = model;
     this.view = view;
     this.prelaunchView = prelaunchView;
+    this.pool = pool;
     this.rows = rows;
     this.cols = cols;
   }
@@ -67,21 +92,24 @@ public class DungeonControllerImpl implements DungeonGUIController, ActionListen
     view.setKeyBoardListeners(this);
   }
 
+  /**
+   * Travels along a shortest route to the clicked location, one move at a time, marking every
+   * location on the way as visited. Travelling stops early if the player is eaten or reaches the
+   * destination cave.
+   */
   @Override
   public boolean handleCellClick(int row, int col) {
     boolean result = false;
     try {
-      Direction direction = null;
-      for (Map.Entry locationWithDirection : model.getPlayerLocation().getNeighborLocations()
-              .entrySet()) {
-        if (((Location) locationWithDirection.getValue()).getCoordinates().getX() == row
-                && ((Location) locationWithDirection.getValue()).getCoordinates().getY() == col) {
-          direction = (Direction) locationWithDirection.getKey();
+      for (Direction direction : model.getShortestPath(model.getPlayerLocation(),
+              model.getLocation(row, col))) {
+        result = model.movePlayer(direction);
+        Coordinate coordinates = model.getPlayerLocation().getCoordinates();
+        view.setLocationAsVisited(coordinates.getX(), coordinates.getY());
+        if (!result || model.isDestinationReached()) {
+          break;
         }
-
       }
-      result = model.movePlayer(direction);
-      view.setLocationAsVisited(row, col);
       view.refresh();
     } catch (IllegalStateException | IllegalArgumentException ignoredException) {
       //exception ignored
@@ -91,12 +119,8 @@ public class DungeonControllerImpl implements DungeonGUIController, ActionListen
 
   @Override
   public void restartGame() {
-    Dungeon restart = new DungeonImpl((DungeonImpl) freshModel);
-    model = new DungeonImpl((DungeonImpl) freshModel);
-    freshModel = new DungeonImpl((DungeonImpl) restart);
-    this.view.close();
-    this.view = new DungeonViewImpl(model, this, rows, cols);
-    playGame();
+    model.restart();
+    view.reset();
   }
 
   @Override
@@ -105,6 +129,18 @@ public class DungeonControllerImpl implements DungeonGUIController, ActionListen
     prelaunchView.makeVisible();
   }
 
+  @Override
+  public void handleUndo() {
+    model.undo();
+    view.refresh();
+  }
+
+  @Override
+  public void handleRedo() {
+    model.redo();
+    view.refresh();
+  }
+
   @Override
   public boolean handleKeyMove(Direction direction) {
     boolean result = false;
@@ -166,8 +202,16 @@ public class DungeonControllerImpl implements DungeonGUIController, ActionListen
     return result;
   }
 
+  /**
+   * Starts a game with a dungeon from the input of the pre-launch view. The dungeon is taken from
+   * the pool if it has one, and generated otherwise, in which case the game starts on the event
+   * dispatch thread once the dungeon is generated, unless the generation was aborted.
+   */
   @Override
   public void actionPerformed(ActionEvent e) {
+    if (this.generation != null) {
+      return;
+    }
     int rows = prelaunchView.getRows();
     int cols = prelaunchView.getCols();
     int interconnectivity = prelaunchView.getInterconnectivity();
@@ -175,12 +219,44 @@ public class DungeonControllerImpl implements DungeonGUIController, ActionListen
     int numberOfMonsters = prelaunchView.getNumberOfMonsters();
     String player = prelaunchView.getNameOfPlayer();
     double percentageOfTreasuresAndArrowsL = prelaunchView.getPercentageOfTreasuresAndArrowsL();
+    DungeonParameters parameters = new DungeonParameters(rows, cols, interconnectivity,
+            isWrapping, percentageOfTreasuresAndArrowsL, player, numberOfMonsters,
+            GridStorage.CAVES);
+    DungeonImpl pooled = this.pool.poll(parameters);
+    if (pooled != null) {
+      startGame(++this.generations, rows, cols, pooled, null);
+      return;
+    }
     RandomFactory randomFactory = new RandomFactory();
     RandomGenerator rand = randomFactory.getRandomGenerator(true);
+    int id = ++this.generations;
+    prelaunchView.showProgress(0, "Generating the dungeon");
+    this.generation = parameters.createDungeonAsync(rand, (phase, elapsedNanos) ->
+            SwingUtilities.invokeLater(() -> showPhase(id, phase)), ForkJoinPool.commonPool());
+    this.generation.whenComplete((dungeon, error) ->
+            SwingUtilities.invokeLater(() -> startGame(id, rows, cols, dungeon, error)));
+  }
+
+  private void showPhase(int id, GenerationPhase phase) {
+    if (id == this.generations && this.generation != null) {
+      int phases = GenerationPhase.values().length;
+      prelaunchView.showProgress(100 * (phase.ordinal() + 1) / phases, "Generated "
+              + phase.toString().toLowerCase().replace('_', ' '));
+    }
+  }
+
+  private void startGame(int id, int rows, int cols, DungeonImpl dungeon, Throwable error) {
+    if (id != this.generations) {
+      return;
+    }
+    this.generation = null;
+    prelaunchView.hideProgress();
+    if (error != null) {
+      System.out.println(error.getMessage());
+      return;
+    }
     try {
-      model = new DungeonImpl(rows, cols, interconnectivity, isWrapping,
-              percentageOfTreasuresAndArrowsL, player, numberOfMonsters, rand);
-      freshModel = new DungeonImpl((DungeonImpl) model);
+      model = dungeon;
       this.view = new DungeonViewImpl(model, this, rows, cols);
       this.rows = rows;
       this.cols = cols;
@@ -189,4 +265,13 @@ public class DungeonControllerImpl implements DungeonGUIController, ActionListen
       System.out.println(ex.getMessage());
     }
   }
+
+  private void cancelGeneration() {
+    if (this.generation != null) {
+      this.generation.cancel(false);
+      this.generation = null;
+      this.generations++;
+      prelaunchView.hideProgress();
+    }
+  }
 }
@@ -34,6 +34,16 @@ public interface DungeonGUIController {
    */
   void newGame();
 
+  /**
+   * Takes back the last action of the player.
+   */
+  void handleUndo();
+
+  /**
+   * Does again the last action of the player that was taken back.
+   */
+  void handleRedo();
+
   /**
    * Handles the up, down, left and right key event actions on model for moving the player.
    *
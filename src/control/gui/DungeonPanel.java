@@ -1,46 +1,38 @@
 package control.gui;
 
-import java.awt.GridLayout;
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Font;
-import java.awt.Graphics2D;
 import java.awt.Graphics;
+import java.awt.Insets;
+import java.awt.Rectangle;
 
-import java.awt.image.BufferedImage;
+import java.util.BitSet;
 
-import java.io.IOException;
-import java.io.InputStream;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
-import javax.imageio.ImageIO;
 import javax.swing.JPanel;
-import javax.swing.BorderFactory;
-import javax.swing.JLabel;
-import javax.swing.ImageIcon;
-import javax.swing.JOptionPane;
-import javax.swing.border.Border;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
 import javax.swing.border.MatteBorder;
 
 import model.dungeon.ReadOnlyDungeon;
-import model.location.coordinate.Coordinate;
-import model.location.coordinate.CoordinateImpl;
+import model.location.Location;
 
 /**
  * Represents the dungeon game panel of the graphical view and provides the user a graphical
- * representation of the dungeon with treasures, monsters, arrows, etc.
+ * representation of the dungeon with treasures, monsters, arrows, etc. The panel paints the cells
+ * itself, straight from the model, and only the cells inside the area being repainted, so it is
+ * meant to be shown in a {@link javax.swing.JScrollPane} and costs the same to paint and keep
+ * whatever the size of the dungeon. The explored locations are drawn as their bare tiles and the
+ * location of the player with everything in it, using the images of the {@link TileAtlas}.
  */
-class DungeonPanel extends JPanel {
+class DungeonPanel extends JPanel implements Scrollable {
   public static final int SIZE = 64;
+  private static final int BORDER = 10;
+  private static final int VISIBLE_CELLS = 10;
   private final ReadOnlyDungeon model;
-  private final java.util.List<java.util.List<Boolean>> exploredDungeon;
-  private final JLabel[][] panelHolder;
-  private final Map<Coordinate, String> previousLocation;
+  private final int rows;
+  private final int cols;
+  private final BitSet exploredDungeon;
+  private final TileAtlas atlas;
 
   /**
    * Constructs the dungeon panel.
@@ -51,137 +43,130 @@ class DungeonPanel extends JPanel {
    */
   DungeonPanel(ReadOnlyDungeon model, int rows, int cols) {
     this.model = model;
-    setLayout(new GridLayout(rows, cols, 0, 0));
-    Border line = BorderFactory.createLineBorder(new Color(27, 28, 27));
-    setBorder(line);
-    setBorder(new MatteBorder(10, 10, 10, 10,
+    this.rows = rows;
+    this.cols = cols;
+    setBorder(new MatteBorder(BORDER, BORDER, BORDER, BORDER,
             new Color(0, 0, 0)));
-    this.exploredDungeon = new ArrayList<>();
     setBackground(Color.black);
-    this.previousLocation = new HashMap<>();
-    panelHolder = new JLabel[rows][cols];
-    setSize(new Dimension(64 * cols, 64 * rows));
-    for (int i = 0; i < rows; i++) {
-      List<Boolean> dungeonCol = new ArrayList<>();
-      for (int j = 0; j < cols; j++) {
-        dungeonCol.add(false);
-      }
-      this.exploredDungeon.add(dungeonCol);
-    }
-
-    for (int i = 0; i < rows; i++) {
-      for (int j = 0; j < cols; j++) {
-        panelHolder[i][j] = new JLabel();
-        add(createJLabel(panelHolder[i][j]));
-      }
-    }
+    this.exploredDungeon = new BitSet(rows * cols);
+    this.atlas = TileAtlas.getInstance();
+    setPreferredSize(new Dimension(SIZE * cols + 2 * BORDER, SIZE * rows + 2 * BORDER));
   }
 
   @Override
   protected void paintComponent(Graphics g) {
     super.paintComponent(g);
-    Graphics2D g2d = (Graphics2D) g;
 
-    g2d.setFont(new Font("Courier New", Font.PLAIN, 20));
+    Location playerLocation = model.getPlayerLocation();
+    int playerRow = playerLocation.getCoordinates().getX();
+    int playerCol = playerLocation.getCoordinates().getY();
+    setLocationAsVisited(playerRow, playerCol);
 
-    this.exploredDungeon.get(model.getPlayerLocation().getCoordinates().getX())
-            .set(model.getPlayerLocation().getCoordinates().getY(), true);
+    Insets insets = getInsets();
+    Rectangle clip = g.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, getWidth(), getHeight());
+    }
+    int firstRow = Math.max(0, (clip.y - insets.top) / SIZE);
+    int lastRow = Math.min(rows - 1, (clip.y + clip.height - 1 - insets.top) / SIZE);
+    int firstCol = Math.max(0, (clip.x - insets.left) / SIZE);
+    int lastCol = Math.min(cols - 1, (clip.x + clip.width - 1 - insets.left) / SIZE);
+    for (int row = firstRow; row <= lastRow; row++) {
+      for (int col = firstCol; col <= lastCol; col++) {
+        int key;
+        if (row == playerRow && col == playerCol) {
+          key = TileAtlas.getKey(playerLocation, true);
+        } else if (this.exploredDungeon.get(row * cols + col)) {
+          key = TileAtlas.getTileKey(model.getLocation(row, col));
+        } else {
+          continue;
+        }
+        this.atlas.getCell(key).paintIcon(this, g, insets.left + col * SIZE,
+                insets.top + row * SIZE);
+      }
+    }
+  }
 
-    if (!this.previousLocation.isEmpty()) {
-      Map.Entry<Coordinate, String> entry = this.previousLocation.entrySet().iterator().next();
+  public void setLocationAsVisited(int row, int col) {
+    this.exploredDungeon.set(row * cols + col);
+  }
 
-      ImageIcon previousIcon = new ImageIcon(getBufferedImage(entry.getValue() + ".png"));
-      panelHolder[entry.getKey().getX()][entry.getKey().getY()].setIcon(previousIcon);
+  /**
+   * Repaints only the cells of the given locations.
+   *
+   * @param locations the ids of the locations.
+   */
+  void repaintLocations(int[] locations) {
+    Insets insets = getInsets();
+    for (int location : locations) {
+      repaint(insets.left + location % cols * SIZE, insets.top + location / cols * SIZE, SIZE,
+              SIZE);
     }
+  }
 
-    if (this.exploredDungeon.get(model.getPlayerLocation().getCoordinates().getX())
-            .get(model.getPlayerLocation().getCoordinates().getY())) {
-      String moveString = model.getPlayerLocation().getPossibleMoves().stream()
-              .map(direction -> String.valueOf(direction))
-              .collect(Collectors.joining());
-      BufferedImage buffered;
-      BufferedImage cell = null;
-
-      try {
-        cell = getBufferedImage(moveString + ".png");
-
-        if (model.getPlayerLocation().getSmell() >= 2) {
-          buffered = getBufferedImage(moveString + ".png");
-          cell = overlay(buffered, getBufferedImage("stench02.png"), 0);
-        } else if (model.getPlayerLocation().getSmell() == 1) {
-          buffered = getBufferedImage(moveString + ".png");
-          cell = overlay(buffered, getBufferedImage("stench01.png"), 0);
-        }
-
-        if (!model.getPlayerLocation().getTreasures().isEmpty()) {
-          cell = overlay(cell, getBufferedImage("treasure.png"), 40, 10);
-        }
+  /**
+   * Hides every location again, as if none of them had been explored.
+   */
+  void reset() {
+    this.exploredDungeon.clear();
+  }
 
-        if (!model.getPlayerLocation().getArrows().isEmpty()) {
-          cell = overlay(cell, getBufferedImage("small-arrow.png"), 40, 30);
-        }
+  /**
+   * Returns the row of the cell at the given height in the panel, or -1 if there is none.
+   */
+  int getRowAt(int y) {
+    return cellAt(y - getInsets().top, rows);
+  }
 
-        if (model.getPlayerLocation().getMonster() != null) {
-          if (model.getPlayerLocation().getMonster().getHealthPercentage() > 0) {
-            cell = overlay(cell, getBufferedImage("small-otyugh.png"), 40);
-          } else {
-            cell = overlay(cell, getBufferedImage("small-dead-monster.png"), 40);
-          }
-        }
+  /**
+   * Returns the column of the cell at the given width in the panel, or -1 if there is none.
+   */
+  int getColumnAt(int x) {
+    return cellAt(x - getInsets().left, cols);
+  }
 
-        cell = overlay(cell, getBufferedImage("player.png"), 5);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
+  /**
+   * Scrolls the enclosing scroll pane, if needed, so the location of the player is in view.
+   */
+  void revealPlayer() {
+    Location playerLocation = model.getPlayerLocation();
+    Insets insets = getInsets();
+    scrollRectToVisible(new Rectangle(insets.left + playerLocation.getCoordinates().getY() * SIZE,
+            insets.top + playerLocation.getCoordinates().getX() * SIZE, SIZE, SIZE));
+  }
 
-      ImageIcon icon = new ImageIcon(cell);
-      panelHolder[model.getPlayerLocation().getCoordinates().getX()]
-              [model.getPlayerLocation().getCoordinates().getY()].setIcon(icon);
-      this.previousLocation.clear();
-      this.previousLocation.put(new CoordinateImpl(model.getPlayerLocation().getCoordinates()
-              .getX(), model.getPlayerLocation().getCoordinates().getY()), moveString);
-    }
+  @Override
+  public Dimension getPreferredScrollableViewportSize() {
+    return new Dimension(SIZE * Math.min(cols, VISIBLE_CELLS) + 2 * BORDER,
+            SIZE * Math.min(rows, VISIBLE_CELLS) + 2 * BORDER);
   }
 
-  public void setLocationAsVisited(int row, int col) {
-    this.exploredDungeon.get(row).set(col, true);
+  @Override
+  public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+    return SIZE;
   }
 
-  private BufferedImage overlay(BufferedImage starting, BufferedImage overlay, int offsetX,
-                                int offsetY)
-          throws IOException {
-    int w = Math.max(starting.getWidth(), overlay.getWidth());
-    int h = Math.max(starting.getHeight(), overlay.getHeight());
-    BufferedImage combined = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
-    Graphics g = combined.getGraphics();
-    g.drawImage(starting, 0, 0, null);
-    g.drawImage(overlay, offsetX, offsetY, null);
-    return combined;
+  @Override
+  public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+    int visible = orientation == SwingConstants.VERTICAL ? visibleRect.height
+            : visibleRect.width;
+    return Math.max(SIZE, visible / SIZE * SIZE);
   }
 
-  private BufferedImage overlay(BufferedImage starting, BufferedImage overlay, int offset)
-          throws IOException {
-    return overlay(starting, overlay, offset, offset);
+  @Override
+  public boolean getScrollableTracksViewportWidth() {
+    return false;
   }
 
-  private BufferedImage getBufferedImage(String path) {
-    BufferedImage image = null;
-    try {
-      InputStream imageStream = getClass().getClassLoader().getResourceAsStream(path);
-      // convert the input stream into an image
-      image = ImageIO.read(imageStream);
-    } catch (IOException e) {
-      JOptionPane.showMessageDialog(this, e.getMessage());
-      e.printStackTrace();
-    }
-    return image;
+  @Override
+  public boolean getScrollableTracksViewportHeight() {
+    return false;
   }
 
-  private JLabel createJLabel(JLabel panel) {
-    panel.setBackground(Color.black);
-    panel.setMinimumSize(new Dimension(64, 64));
-    panel.setMaximumSize(new Dimension(64, 64));
-    panel.setPreferredSize(new Dimension(64, 64));
-    return panel;
+  private static int cellAt(int offset, int cells) {
+    if (offset < 0 || offset >= cells * SIZE) {
+      return -1;
+    }
+    return offset / SIZE;
   }
 }
@@ -38,6 +38,12 @@ public interface DungeonView {
    */
   void setKeyBoardListeners(DungeonGUIController controller);
 
+  /**
+   * Forgets every location explored so far and shows the game from its start again, for a model
+   * that was restarted.
+   */
+  void reset();
+
   /**
    * Sets the visibility of this view as false.
    */
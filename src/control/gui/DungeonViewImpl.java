@@ -4,7 +4,6 @@ import java.awt.GridLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Component;
-import java.awt.Image;
 import java.awt.FlowLayout;
 
 import java.awt.event.KeyAdapter;
@@ -12,10 +11,9 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.IOException;
-import java.io.InputStream;
 
-import javax.imageio.ImageIO;
+import java.util.Set;
+
 import javax.swing.JPanel;
 import javax.swing.Icon;
 import javax.swing.JLabel;
@@ -26,9 +24,9 @@ import javax.swing.JTextField;
 import javax.swing.JScrollPane;
 import javax.swing.WindowConstants;
 import javax.swing.ImageIcon;
-import javax.swing.JOptionPane;
 import model.dungeon.ReadOnlyDungeon;
 import model.location.Direction;
+import model.player.PlayerField;
 
 /**
  * This DungeonImpl class represents the view of the dungeon game. It interacts
@@ -88,10 +86,12 @@ public class DungeonViewImpl extends JFrame implements DungeonView {
     Icon arrow = getImageIcon("arrow-black.png");
     treasures.add(new JButton("Arrow", arrow));
 
-    board.setSize(new Dimension(64 * rows, 64 * cols));
     description.setAlignmentY(Component.BOTTOM_ALIGNMENT);
     container.add(description);
-    container.add(board);
+    JScrollPane boardScrollPane = new JScrollPane(board);
+    boardScrollPane.setBorder(null);
+    boardScrollPane.getViewport().setBackground(Color.black);
+    container.add(boardScrollPane);
 
     JScrollPane scrollPane2 = new JScrollPane(container);
     add(scrollPane2);
@@ -101,6 +101,7 @@ public class DungeonViewImpl extends JFrame implements DungeonView {
     this.shootDialog = new ShootDialog(this);
     this.shootDialog.setLocation(300, 300);
     pack();
+    model.setDungeonListener(this::dungeonChanged);
   }
 
   @Override
@@ -109,8 +110,11 @@ public class DungeonViewImpl extends JFrame implements DungeonView {
       @Override
       public void mouseClicked(MouseEvent event) {
         super.mouseClicked(event);
-        int column = (event.getX()) / DungeonPanel.SIZE;
-        int row = (event.getY()) / DungeonPanel.SIZE;
+        int column = board.getColumnAt(event.getX());
+        int row = board.getRowAt(event.getY());
+        if (row < 0 || column < 0) {
+          return;
+        }
         boolean result = listener.handleCellClick(row, column);
         description.setMoveResult(result);
       }
@@ -118,9 +122,13 @@ public class DungeonViewImpl extends JFrame implements DungeonView {
     board.addMouseListener(clickAdapter);
   }
 
+  /**
+   * Scrolls the board to the player. The cells and labels that changed are repainted when the
+   * model tells the view about the change, so nothing else is painted again.
+   */
   @Override
   public void refresh() {
-    this.repaint();
+    this.board.revealPlayer();
   }
 
   @Override
@@ -207,6 +215,16 @@ public class DungeonViewImpl extends JFrame implements DungeonView {
     this.addKeyListener(keyAdapter);
   }
 
+  @Override
+  public void reset() {
+    this.board.reset();
+    this.description.reset();
+    this.shootDialog.setVisible(false);
+    this.shootMode = false;
+    this.shootDirection = null;
+    this.repaint();
+  }
+
   @Override
   public void close() {
     this.setVisible(false);
@@ -217,17 +235,13 @@ public class DungeonViewImpl extends JFrame implements DungeonView {
     this.board.setLocationAsVisited(row, col);
   }
 
+  private void dungeonChanged(int[] locations, Set<PlayerField> playerFields) {
+    this.board.repaintLocations(locations);
+    this.description.dungeonChanged(locations, playerFields);
+  }
+
   private ImageIcon getImageIcon(String path) {
-    Image image = null;
-    try {
-      InputStream imageStream = getClass().getClassLoader().getResourceAsStream(path);
-      // convert the input stream into an image
-      image = ImageIO.read(imageStream);
-    } catch (IOException e) {
-      JOptionPane.showMessageDialog(this, e.getMessage());
-      e.printStackTrace();
-    }
-    return new ImageIcon(image);
+    return new ImageIcon(TileAtlas.getInstance().getSprite(path));
   }
 
   private class ShootDialog extends JDialog {
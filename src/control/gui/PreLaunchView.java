@@ -15,6 +15,27 @@ public interface PreLaunchView {
    */
   void setCommandButtonListener(ActionListener actionEvent);
 
+  /**
+   * Set up the controller to handle the button that aborts the generation of a dungeon.
+   *
+   * @param actionEvent the actionEvent
+   */
+  void setCancelButtonListener(ActionListener actionEvent);
+
+  /**
+   * Show how far the generation of the dungeon has got. A new game cannot be started while the
+   * progress is shown, and the generation can be aborted.
+   *
+   * @param percent the percentage of the generation that is done.
+   * @param message the message describing the progress.
+   */
+  void showProgress(int percent, String message);
+
+  /**
+   * Hide the progress of the generation, once the dungeon is generated, failed or was aborted.
+   */
+  void hideProgress();
+
   /**
    * Get the number of rows from the user input.
    * @return the number of rows.
@@ -11,6 +11,7 @@ import javax.swing.JButton;
 import javax.swing.JPanel;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
+import javax.swing.JProgressBar;
 import javax.swing.WindowConstants;
 
 /**
@@ -27,6 +28,8 @@ public class PreLaunchViewImpl extends JFrame implements PreLaunchView {
   private final JTextField numberOfMonsters;
   private final JTextField percentageOfTreasuresAndArrows;
   private final JButton start;
+  private final JButton cancel;
+  private final JProgressBar progress;
 
   /**
    * Constructs the pre-launch view.
@@ -81,12 +84,19 @@ public class PreLaunchViewImpl extends JFrame implements PreLaunchView {
     inputPanel.add(percentageOfTreasuresAndArrows);
 
     start = new JButton("Start game");
+    cancel = new JButton("Cancel");
+    cancel.setVisible(false);
+    progress = new JProgressBar(0, 100);
+    progress.setStringPainted(true);
+    progress.setVisible(false);
     container.add(inputPanel);
     container.add(start);
+    container.add(progress);
+    container.add(cancel);
 
     add(container);
 
-    this.setSize(600, 250);
+    this.setSize(600, 280);
     this.setLocation(300, 200);
     this.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
   }
@@ -96,6 +106,29 @@ public class PreLaunchViewImpl extends JFrame implements PreLaunchView {
     start.addActionListener(actionEvent);
   }
 
+  @Override
+  public void setCancelButtonListener(ActionListener actionEvent) {
+    cancel.addActionListener(actionEvent);
+  }
+
+  @Override
+  public void showProgress(int percent, String message) {
+    start.setEnabled(false);
+    progress.setValue(percent);
+    progress.setString(message);
+    progress.setVisible(true);
+    cancel.setVisible(true);
+    validate();
+  }
+
+  @Override
+  public void hideProgress() {
+    start.setEnabled(true);
+    progress.setVisible(false);
+    cancel.setVisible(false);
+    validate();
+  }
+
   @Override
   public int getRows() {
     int row = 0;
@@ -0,0 +1,229 @@
+package control.gui;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+import model.location.Direction;
+import model.location.Location;
+import model.monster.Monster;
+
+/**
+ * This holds every sprite of the graphical view, decoded once when the atlas is first used, and
+ * the images of the cells of the dungeon composed from them. A cell is drawn from its tile, chosen
+ * by its exits, with the smell, the treasures, the arrows, the monster and the player on top of
+ * it, and everything that decides how a cell looks is packed in a small key. The image of a key
+ * is composed the first time it is asked for and kept, so painting the dungeon reads no files and
+ * creates no images once every kind of cell in view has been drawn.
+ *
+ * <p>The composed cells are kept without locking, so the atlas must only be used on the event
+ * dispatch thread. A package-private class.
+ */
+final class TileAtlas {
+
+  /**
+   * The monster state of a cell without a monster.
+   */
+  static final int NO_MONSTER = 0;
+
+  /**
+   * The monster state of a cell with a living monster.
+   */
+  static final int LIVE_MONSTER = 1;
+
+  /**
+   * The monster state of a cell with a dead monster.
+   */
+  static final int DEAD_MONSTER = 2;
+
+  private static final String[] SPRITES = {"arrow-black.png", "arrow-white.png", "diamond.png",
+      "emerald.png", "no-smell.png", "player.png", "ruby.png", "small-arrow.png",
+      "small-dead-monster.png", "small-otyugh.png", "stench01.png", "stench02.png",
+      "treasure.png"};
+  private static final Direction[] TILE_ORDER = {Direction.N, Direction.S, Direction.E,
+      Direction.W};
+  private static final int EXITS = 0xf;
+  private static final int SMELL_SHIFT = 4;
+  private static final int TREASURE = 1 << 6;
+  private static final int ARROWS = 1 << 7;
+  private static final int MONSTER_SHIFT = 8;
+  private static final int PLAYER = 1 << 10;
+  private static final int KEYS = 1 << 11;
+
+  private static TileAtlas instance;
+
+  private final Map<String, BufferedImage> sprites;
+  private final BufferedImage[] tiles;
+  private final ImageIcon[] cells;
+
+  private TileAtlas() {
+    this.sprites = new HashMap<>();
+    for (String sprite : SPRITES) {
+      this.sprites.put(sprite, read(sprite));
+    }
+    this.tiles = new BufferedImage[EXITS + 1];
+    for (int exits = 1; exits <= EXITS; exits++) {
+      StringBuilder name = new StringBuilder();
+      for (Direction direction : TILE_ORDER) {
+        if ((exits & 1 << direction.ordinal()) != 0) {
+          name.append(direction);
+        }
+      }
+      this.tiles[exits] = read(name + ".png");
+      this.sprites.put(name + ".png", this.tiles[exits]);
+    }
+    this.cells = new ImageIcon[KEYS];
+  }
+
+  /**
+   * Returns the atlas, decoding every sprite the first time it is called.
+   *
+   * @return the atlas.
+   * @throws IllegalStateException if a sprite cannot be read.
+   */
+  static TileAtlas getInstance() throws IllegalStateException {
+    if (instance == null) {
+      instance = new TileAtlas();
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the decoded sprite of the given resource.
+   *
+   * @param name the file name of the sprite.
+   * @return the sprite.
+   * @throws IllegalArgumentException if there is no such sprite.
+   */
+  BufferedImage getSprite(String name) throws IllegalArgumentException {
+    BufferedImage sprite = this.sprites.get(name);
+    if (sprite == null) {
+      throw new IllegalArgumentException("No sprite " + name);
+    }
+    return sprite;
+  }
+
+  /**
+   * Returns the key of how the given location looks.
+   *
+   * @param location  the location.
+   * @param hasPlayer whether the player is drawn in the location.
+   * @return the key.
+   */
+  static int getKey(Location location, boolean hasPlayer) {
+    Monster monster = location.getMonster();
+    return getKey(getTileKey(location), location.getSmell(), !location.getTreasures().isEmpty(),
+            !location.getArrows().isEmpty(), monster == null ? NO_MONSTER
+                    : monster.getHealthPercentage() > 0 ? LIVE_MONSTER : DEAD_MONSTER,
+            hasPlayer);
+  }
+
+  /**
+   * Returns the key of a cell.
+   *
+   * @param exits       the exit mask, one bit per {@link Direction} ordinal.
+   * @param smell       the smell, where anything above 2 looks like 2.
+   * @param hasTreasure whether there are treasures.
+   * @param hasArrows   whether there are arrows.
+   * @param monster     the monster state, {@link #NO_MONSTER}, {@link #LIVE_MONSTER} or
+   *                    {@link #DEAD_MONSTER}.
+   * @param hasPlayer   whether the player is there.
+   * @return the key.
+   */
+  static int getKey(int exits, int smell, boolean hasTreasure, boolean hasArrows, int monster,
+                    boolean hasPlayer) {
+    return (exits & EXITS) | Math.min(Math.max(smell, 0), 2) << SMELL_SHIFT
+            | (hasTreasure ? TREASURE : 0) | (hasArrows ? ARROWS : 0) | monster << MONSTER_SHIFT
+            | (hasPlayer ? PLAYER : 0);
+  }
+
+  /**
+   * Returns the key of the bare tile of the given location, with only its exits.
+   *
+   * @param location the location.
+   * @return the key of the tile.
+   */
+  static int getTileKey(Location location) {
+    int exits = 0;
+    for (Direction direction : location.getPossibleMoves()) {
+      exits |= 1 << direction.ordinal();
+    }
+    return exits;
+  }
+
+  /**
+   * Returns the key of the bare tile of the cell of the given key, with only its exits.
+   *
+   * @param key the key of the cell.
+   * @return the key of the tile.
+   */
+  static int getTileKey(int key) {
+    return key & EXITS;
+  }
+
+  /**
+   * Returns the image of the cell of the given key, composing it the first time.
+   *
+   * @param key the key of the cell.
+   * @return the image.
+   */
+  ImageIcon getCell(int key) {
+    ImageIcon cell = this.cells[key];
+    if (cell == null) {
+      cell = new ImageIcon(compose(key));
+      this.cells[key] = cell;
+    }
+    return cell;
+  }
+
+  private BufferedImage compose(int key) {
+    BufferedImage tile = this.tiles[key & EXITS];
+    if (key == getTileKey(key)) {
+      return tile;
+    }
+    int smell = key >> SMELL_SHIFT & 3;
+    int monster = key >> MONSTER_SHIFT & 3;
+    BufferedImage cell = new BufferedImage(tile.getWidth(), tile.getHeight(),
+            BufferedImage.TYPE_INT_ARGB);
+    Graphics g = cell.getGraphics();
+    g.drawImage(tile, 0, 0, null);
+    if (smell >= 2) {
+      g.drawImage(getSprite("stench02.png"), 0, 0, null);
+    } else if (smell == 1) {
+      g.drawImage(getSprite("stench01.png"), 0, 0, null);
+    }
+    if ((key & TREASURE) != 0) {
+      g.drawImage(getSprite("treasure.png"), 40, 10, null);
+    }
+    if ((key & ARROWS) != 0) {
+      g.drawImage(getSprite("small-arrow.png"), 40, 30, null);
+    }
+    if (monster == LIVE_MONSTER) {
+      g.drawImage(getSprite("small-otyugh.png"), 40, 40, null);
+    } else if (monster == DEAD_MONSTER) {
+      g.drawImage(getSprite("small-dead-monster.png"), 40, 40, null);
+    }
+    if ((key & PLAYER) != 0) {
+      g.drawImage(getSprite("player.png"), 5, 5, null);
+    }
+    g.dispose();
+    return cell;
+  }
+
+  private static BufferedImage read(String name) {
+    try (InputStream stream = TileAtlas.class.getClassLoader().getResourceAsStream(name)) {
+      if (stream == null) {
+        throw new IllegalStateException("Missing sprite " + name);
+      }
+      return ImageIO.read(stream);
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot read sprite " + name, e);
+    }
+  }
+}
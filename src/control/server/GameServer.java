@@ -0,0 +1,362 @@
+package control.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import control.textbased.DungeonConsoleController;
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonParameters;
+import model.random.RandomSeeded;
+
+/**
+ * This hosts text games over a local socket, either TCP or a Unix domain socket. Every
+ * connection is a session that plays its own game, generated from the parameters of the server,
+ * through a {@link DungeonConsoleController} reading from and writing to the connection, so a
+ * client sees exactly what the console game prints. A session ends when the game is over or the
+ * client disconnects. A session whose dungeon cannot be generated from its seed tells its client
+ * why and ends straight away.
+ *
+ * <p>Every session runs on its own thread from the executor of the server. The default executor,
+ * see {@link #newSessionExecutor()}, starts a virtual thread per session when the runtime has
+ * them, so a session waiting for its client costs little more than its game and its buffers.
+ * Output is buffered and flushed only when the session is about to wait for the next command, so
+ * a command costs one write to the socket.
+ *
+ * <p>The dungeons of the sessions are kept in a {@link SessionStore}, keyed by the number of the
+ * session. A session is released while it waits for its client and acquired again when the next
+ * command arrives, so a store that keeps only some sessions live evicts the ones waiting the
+ * longest and reads them back when their clients come back.
+ */
+public final class GameServer implements Closeable {
+
+  private static final int BUFFER_CHARS = 512;
+  private static final int PLATFORM_STACK_BYTES = 256 * 1024;
+  private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1000;
+
+  private final ServerSocketChannel server;
+  private final DungeonParameters parameters;
+  private final long seed;
+  private final ExecutorService sessions;
+  private final boolean isOwnExecutor;
+  private final SessionStore<Long> store;
+  private final Set<SocketChannel> connections;
+  private final AtomicInteger activeSessions;
+  private final AtomicLong startedSessions;
+  private final CountDownLatch closed;
+  private volatile boolean isClosed;
+
+  /**
+   * Constructs a server accepting connections on the given address, with every session running
+   * on a thread of {@link #newSessionExecutor()}. Session {@code i} plays the dungeon generated
+   * from the given parameters and a {@link RandomSeeded} generator of seed {@code seed + i}.
+   *
+   * @param address    the address, an {@link InetSocketAddress} or a
+   *                   {@link UnixDomainSocketAddress}.
+   * @param parameters the parameters of the dungeons.
+   * @param seed       the seed of the dungeon of the first session.
+   * @throws IOException              if the address cannot be bound.
+   * @throws IllegalArgumentException if {@code address} or {@code parameters} is {@code null}.
+   */
+  public GameServer(SocketAddress address, DungeonParameters parameters, long seed)
+          throws IOException, IllegalArgumentException {
+    this(address, parameters, seed, newSessionExecutor(), true, SessionStore.unbounded());
+  }
+
+  /**
+   * Constructs a server accepting connections on the given address, with every session running
+   * on a thread of the given executor and keeping every session live. The executor is not shut
+   * down when the server is closed.
+   *
+   * @param address    the address, an {@link InetSocketAddress} or a
+   *                   {@link UnixDomainSocketAddress}.
+   * @param parameters the parameters of the dungeons.
+   * @param seed       the seed of the dungeon of the first session.
+   * @param sessions   the executor of the sessions.
+   * @throws IOException              if the address cannot be bound.
+   * @throws IllegalArgumentException if {@code address}, {@code parameters} or {@code sessions}
+   *                                  is {@code null}.
+   */
+  public GameServer(SocketAddress address, DungeonParameters parameters, long seed,
+                    ExecutorService sessions) throws IOException, IllegalArgumentException {
+    this(address, parameters, seed, sessions, false, SessionStore.unbounded());
+  }
+
+  /**
+   * Constructs a server accepting connections on the given address, with every session running
+   * on a thread of the given executor and kept in the given store. The executor is not shut down
+   * when the server is closed.
+   *
+   * @param address    the address, an {@link InetSocketAddress} or a
+   *                   {@link UnixDomainSocketAddress}.
+   * @param parameters the parameters of the dungeons.
+   * @param seed       the seed of the dungeon of the first session.
+   * @param sessions   the executor of the sessions.
+   * @param store      the store of the dungeons of the sessions.
+   * @throws IOException              if the address cannot be bound.
+   * @throws IllegalArgumentException if any argument but {@code seed} is {@code null}.
+   */
+  public GameServer(SocketAddress address, DungeonParameters parameters, long seed,
+                    ExecutorService sessions, SessionStore<Long> store)
+          throws IOException, IllegalArgumentException {
+    this(address, parameters, seed, sessions, false, store);
+  }
+
+  private GameServer(SocketAddress address, DungeonParameters parameters, long seed,
+                     ExecutorService sessions, boolean isOwnExecutor, SessionStore<Long> store)
+          throws IOException {
+    if (address == null || parameters == null || sessions == null || store == null) {
+      throw new IllegalArgumentException(
+              "Address, parameters, executor and store cannot be null.");
+    }
+    this.parameters = parameters;
+    this.seed = seed;
+    this.sessions = sessions;
+    this.isOwnExecutor = isOwnExecutor;
+    this.store = store;
+    this.connections = ConcurrentHashMap.newKeySet();
+    this.activeSessions = new AtomicInteger();
+    this.startedSessions = new AtomicLong();
+    this.closed = new CountDownLatch(1);
+    this.server = address instanceof UnixDomainSocketAddress
+            ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) : ServerSocketChannel.open();
+    try {
+      this.server.bind(address, 0);
+      this.sessions.execute(this::accept);
+    } catch (IOException | RuntimeException e) {
+      this.server.close();
+      if (isOwnExecutor) {
+        sessions.shutdownNow();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Constructs a server accepting TCP connections on the given port of the loopback address.
+   *
+   * @param port       the port, or 0 for any free port.
+   * @param parameters the parameters of the dungeons.
+   * @param seed       the seed of the dungeon of the first session.
+   * @return the server.
+   * @throws IOException              if the port cannot be bound.
+   * @throws IllegalArgumentException if {@code parameters} is {@code null} or {@code port} is
+   *                                  not a valid port.
+   */
+  public static GameServer onLoopback(int port, DungeonParameters parameters, long seed)
+          throws IOException, IllegalArgumentException {
+    return new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+            parameters, seed);
+  }
+
+  /**
+   * Returns an executor that runs every task on a new virtual thread if the runtime has them,
+   * and otherwise on a pool of daemon platform threads with small stacks that are created as
+   * needed and reused. The virtual thread executor is looked up by reflection, so the server
+   * also runs on runtimes without it.
+   *
+   * @return the executor.
+   */
+  public static ExecutorService newSessionExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+              .invoke(null);
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+      // Virtual threads are missing or are a preview feature that is turned off.
+      AtomicInteger threads = new AtomicInteger();
+      ThreadFactory factory = task -> {
+        Thread thread = new Thread(null, task, "session-" + threads.incrementAndGet(),
+                PLATFORM_STACK_BYTES);
+        thread.setDaemon(true);
+        return thread;
+      };
+      return Executors.newCachedThreadPool(factory);
+    }
+  }
+
+  /**
+   * Returns the address the server accepts connections on, with the actual port if the server
+   * was bound to port 0.
+   *
+   * @return the address.
+   * @throws IOException if the server is closed.
+   */
+  public SocketAddress getAddress() throws IOException {
+    return this.server.getLocalAddress();
+  }
+
+  /**
+   * Returns the number of sessions being played.
+   *
+   * @return the number of sessions.
+   */
+  public int getActiveSessions() {
+    return this.activeSessions.get();
+  }
+
+  /**
+   * Returns the number of sessions started since the server was constructed.
+   *
+   * @return the number of sessions.
+   */
+  public long getStartedSessions() {
+    return this.startedSessions.get();
+  }
+
+  /**
+   * Waits until the server is closed. The threads of the default executor are daemon threads,
+   * so a program that only serves games waits here to keep running.
+   *
+   * @throws InterruptedException if the waiting thread is interrupted.
+   */
+  public void awaitClose() throws InterruptedException {
+    this.closed.await();
+  }
+
+  /**
+   * Stops accepting connections and ends every session by closing its connection. Closing a
+   * closed server does nothing.
+   *
+   * @throws IOException if the server socket cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.isClosed) {
+      return;
+    }
+    this.isClosed = true;
+    SocketAddress address = this.server.getLocalAddress();
+    try {
+      this.server.close();
+      for (SocketChannel connection : this.connections) {
+        closeQuietly(connection);
+      }
+    } finally {
+      if (this.isOwnExecutor) {
+        this.sessions.shutdown();
+      }
+      this.closed.countDown();
+      if (address instanceof UnixDomainSocketAddress) {
+        Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+      }
+    }
+  }
+
+  private void accept() {
+    long backoffMillis = 0;
+    while (!this.isClosed) {
+      SocketChannel connection;
+      try {
+        connection = this.server.accept();
+      } catch (ClosedChannelException e) {
+        return;
+      } catch (IOException e) {
+        // Errors such as running out of file descriptors last a while, so wait longer after
+        // every failure in a row instead of spinning.
+        backoffMillis = Math.min(Math.max(1, 2 * backoffMillis), MAX_ACCEPT_BACKOFF_MILLIS);
+        try {
+          Thread.sleep(backoffMillis);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        continue;
+      }
+      backoffMillis = 0;
+      long session = this.startedSessions.getAndIncrement();
+      this.connections.add(connection);
+      if (this.isClosed) {
+        closeQuietly(connection);
+        return;
+      }
+      this.sessions.execute(() -> play(connection, session));
+    }
+  }
+
+  private void play(SocketChannel connection, long session) {
+    this.activeSessions.incrementAndGet();
+    try (connection) {
+      Writer out = Channels.newWriter(connection, StandardCharsets.UTF_8.newEncoder(),
+              BUFFER_CHARS);
+      Reader in = Channels.newReader(connection, StandardCharsets.UTF_8.newDecoder(),
+              BUFFER_CHARS);
+      DungeonImpl generated;
+      try {
+        generated = this.parameters.createDungeon(new RandomSeeded(this.seed + session));
+      } catch (IllegalArgumentException e) {
+        out.write("Cannot start the game: " + e.getMessage() + "\n");
+        out.flush();
+        return;
+      }
+      SessionStore<Long>.Session dungeon = this.store.put(session, generated);
+      new DungeonConsoleController(new SessionReadable(in, out, dungeon), out).playGame(dungeon);
+      out.flush();
+    } catch (IOException | IllegalStateException e) {
+      // The client went away, the session expired or the server was closed, so the session just
+      // ends.
+    } finally {
+      this.store.remove(session);
+      this.connections.remove(connection);
+      this.activeSessions.decrementAndGet();
+    }
+  }
+
+  private static void closeQuietly(Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      // Nothing else can be done with a connection that cannot be closed.
+    }
+  }
+
+  /**
+   * This reads the commands of a session. It flushes everything the session wrote before waiting
+   * for more input, so the client sees the whole prompt of a command before it is read, and
+   * releases the session to the store while it waits.
+   */
+  private static final class SessionReadable implements Readable {
+
+    private final Reader in;
+    private final Writer out;
+    private final SessionStore<Long>.Session session;
+
+    private SessionReadable(Reader in, Writer out, SessionStore<Long>.Session session) {
+      this.in = in;
+      this.out = out;
+      this.session = session;
+    }
+
+    @Override
+    public int read(CharBuffer buffer) throws IOException {
+      this.out.flush();
+      this.session.release();
+      try {
+        return this.in.read(buffer);
+      } finally {
+        this.session.acquire();
+      }
+    }
+  }
+}
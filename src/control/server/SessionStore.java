@@ -0,0 +1,474 @@
+package control.server;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.dungeon.Dungeon;
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonListener;
+import model.dungeon.DungeonSnapshot;
+import model.location.Direction;
+import model.location.Location;
+import model.location.Treasure;
+import model.player.Player;
+
+/**
+ * This keeps the dungeons of many sessions while holding only some of them live. A session is
+ * used through its {@link Session}, which plays like the dungeon itself while the session is
+ * acquired. A released session can be evicted: its dungeon is written to a compact
+ * {@link DungeonSnapshot} and dropped, and it is read back from the snapshot the next time the
+ * session is acquired, so a session that waits for its player costs only its snapshot.
+ *
+ * <p>The store keeps at most the given number of sessions live and evicts the released session
+ * released the longest ago when there are more. Acquired sessions are never evicted, so there can
+ * be more live sessions than the limit while they are all acquired. The snapshots are kept up to
+ * the given number of bytes, and when there are more the oldest snapshots are dropped and their
+ * sessions expire, which ends them the next time they are acquired.
+ *
+ * <p>All the methods of the store and of its sessions can be called from any thread, but a
+ * session must be played by one thread at a time.
+ *
+ * @param <K> the type of the keys of the sessions.
+ */
+public final class SessionStore<K> {
+
+  private final int maxLiveSessions;
+  private final long maxSnapshotBytes;
+  private final SnapshotStorage storage;
+  private final Map<K, Session> sessions;
+  private final LinkedHashMap<K, Session> released;
+  private final LinkedHashMap<K, Session> evicted;
+  private int liveSessions;
+  private long snapshotBytes;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long expirations;
+
+  /**
+   * Constructs a store.
+   *
+   * @param maxLiveSessions  the largest number of live sessions.
+   * @param maxSnapshotBytes the largest number of bytes of all the snapshots.
+   * @param storage          where the snapshots are kept.
+   * @throws IllegalArgumentException <ul><li>if {@code maxLiveSessions} is less than 1.</li>
+   *                                  <li>if {@code maxSnapshotBytes} is negative.</li>
+   *                                  <li>if {@code storage} is {@code null}.</li></ul>
+   */
+  public SessionStore(int maxLiveSessions, long maxSnapshotBytes, SnapshotStorage storage)
+          throws IllegalArgumentException {
+    if (maxLiveSessions < 1) {
+      throw new IllegalArgumentException("Store must keep at least one live session.");
+    }
+    if (maxSnapshotBytes < 0) {
+      throw new IllegalArgumentException("Snapshot bytes cannot be negative.");
+    }
+    if (storage == null) {
+      throw new IllegalArgumentException("Storage cannot be null.");
+    }
+    this.maxLiveSessions = maxLiveSessions;
+    this.maxSnapshotBytes = maxSnapshotBytes;
+    this.storage = storage;
+    this.sessions = new HashMap<>();
+    this.released = new LinkedHashMap<>();
+    this.evicted = new LinkedHashMap<>();
+  }
+
+  /**
+   * Returns a store that keeps every session live.
+   *
+   * @param <K> the type of the keys of the sessions.
+   * @return the store.
+   */
+  public static <K> SessionStore<K> unbounded() {
+    return new SessionStore<>(Integer.MAX_VALUE, 0, SnapshotStorage.HEAP);
+  }
+
+  /**
+   * Adds a session playing the given dungeon. The session starts acquired.
+   *
+   * @param key     the key of the session.
+   * @param dungeon the dungeon of the session.
+   * @return the session.
+   * @throws IllegalArgumentException <ul><li>if {@code key} or {@code dungeon} is
+   *                                  {@code null}.</li>
+   *                                  <li>if there is already a session with the key.</li></ul>
+   */
+  public synchronized Session put(K key, DungeonImpl dungeon) throws IllegalArgumentException {
+    if (key == null || dungeon == null) {
+      throw new IllegalArgumentException("Key and dungeon cannot be null.");
+    }
+    if (this.sessions.containsKey(key)) {
+      throw new IllegalArgumentException("There is already a session " + key + ".");
+    }
+    Session session = new Session(key, dungeon);
+    this.sessions.put(key, session);
+    this.liveSessions++;
+    evictIfNeeded();
+    return session;
+  }
+
+  /**
+   * Returns the session with the given key, or {@code null} if there is none.
+   *
+   * @param key the key of the session.
+   * @return the session.
+   */
+  public synchronized Session get(K key) {
+    return this.sessions.get(key);
+  }
+
+  /**
+   * Removes the session with the given key and drops its dungeon or snapshot. The session can no
+   * longer be acquired.
+   *
+   * @param key the key of the session.
+   * @return {@code true} if there was a session with the key.
+   */
+  public synchronized boolean remove(K key) {
+    Session session = this.sessions.remove(key);
+    if (session == null) {
+      return false;
+    }
+    if (session.dungeon != null) {
+      this.liveSessions--;
+      this.released.remove(key);
+    } else if (session.snapshot != null) {
+      this.evicted.remove(key);
+      this.snapshotBytes -= session.snapshot.capacity();
+    }
+    session.dungeon = null;
+    session.snapshot = null;
+    session.isAcquired = false;
+    return true;
+  }
+
+  /**
+   * Returns the number of sessions in the store, live or evicted.
+   *
+   * @return the number of sessions.
+   */
+  public synchronized int getSessions() {
+    return this.sessions.size();
+  }
+
+  /**
+   * Returns the number of live sessions.
+   *
+   * @return the number of sessions.
+   */
+  public synchronized int getLiveSessions() {
+    return this.liveSessions;
+  }
+
+  /**
+   * Returns the number of evicted sessions that can still be read back.
+   *
+   * @return the number of sessions.
+   */
+  public synchronized int getEvictedSessions() {
+    return this.evicted.size();
+  }
+
+  /**
+   * Returns the number of bytes of all the snapshots.
+   *
+   * @return the number of bytes.
+   */
+  public synchronized long getSnapshotBytes() {
+    return this.snapshotBytes;
+  }
+
+  /**
+   * Returns the number of times a session was acquired while it was live.
+   *
+   * @return the number of hits.
+   */
+  public synchronized long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Returns the number of times a session was acquired after it was evicted, and so read back
+   * from its snapshot.
+   *
+   * @return the number of misses.
+   */
+  public synchronized long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Returns the number of times a session was evicted.
+   *
+   * @return the number of evictions.
+   */
+  public synchronized long getEvictions() {
+    return this.evictions;
+  }
+
+  /**
+   * Returns the number of snapshots dropped to keep the snapshots within their bytes.
+   *
+   * @return the number of expirations.
+   */
+  public synchronized long getExpirations() {
+    return this.expirations;
+  }
+
+  private synchronized DungeonImpl acquire(Session session) {
+    if (session.isAcquired) {
+      return session.dungeon;
+    }
+    if (this.sessions.get(session.key) != session) {
+      throw new IllegalStateException("Session " + session.key + " was removed.");
+    }
+    if (session.dungeon != null) {
+      this.hits++;
+      this.released.remove(session.key);
+    } else if (session.snapshot != null) {
+      this.misses++;
+      this.evicted.remove(session.key);
+      this.snapshotBytes -= session.snapshot.capacity();
+      session.dungeon = DungeonSnapshot.read(session.snapshot.duplicate().clear());
+      session.dungeon.setDungeonListener(session.listener);
+      session.snapshot = null;
+      this.liveSessions++;
+    } else {
+      throw new IllegalStateException("Session " + session.key + " has expired.");
+    }
+    session.isAcquired = true;
+    evictIfNeeded();
+    return session.dungeon;
+  }
+
+  private synchronized void release(Session session) {
+    if (!session.isAcquired || session.dungeon == null) {
+      return;
+    }
+    session.isAcquired = false;
+    this.released.put(session.key, session);
+    evictIfNeeded();
+  }
+
+  private void evictIfNeeded() {
+    Iterator<Session> oldest = this.released.values().iterator();
+    while (this.liveSessions > this.maxLiveSessions && oldest.hasNext()) {
+      Session session = oldest.next();
+      oldest.remove();
+      int size = DungeonSnapshot.size(session.dungeon);
+      ByteBuffer snapshot = this.storage == SnapshotStorage.DIRECT
+              ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+      DungeonSnapshot.write(session.dungeon, snapshot);
+      session.dungeon = null;
+      session.snapshot = snapshot;
+      this.liveSessions--;
+      this.evictions++;
+      this.evicted.put(session.key, session);
+      this.snapshotBytes += size;
+    }
+    Iterator<Session> oldestSnapshot = this.evicted.values().iterator();
+    while (this.snapshotBytes > this.maxSnapshotBytes && oldestSnapshot.hasNext()) {
+      Session session = oldestSnapshot.next();
+      oldestSnapshot.remove();
+      this.snapshotBytes -= session.snapshot.capacity();
+      session.snapshot = null;
+      this.expirations++;
+    }
+  }
+
+  /**
+   * This represents one session of a {@link SessionStore}. A session plays like its dungeon
+   * while it is acquired, and every method of the dungeon throws {@link IllegalStateException}
+   * while it is released. The locations and the player it returns belong to the dungeon live at
+   * the time and must not be kept past the next release.
+   */
+  public final class Session implements Dungeon {
+
+    private final K key;
+    private DungeonImpl dungeon;
+    private ByteBuffer snapshot;
+    private boolean isAcquired;
+    private DungeonListener listener;
+
+    private Session(K key, DungeonImpl dungeon) {
+      this.key = key;
+      this.dungeon = dungeon;
+      this.isAcquired = true;
+      this.listener = DungeonListener.NONE;
+    }
+
+    /**
+     * Returns the key of the session.
+     *
+     * @return the key.
+     */
+    public K getKey() {
+      return this.key;
+    }
+
+    /**
+     * Makes the dungeon of the session live, reading it back from its snapshot if it was
+     * evicted, and keeps it live until the session is released. Acquiring an acquired session
+     * does nothing.
+     *
+     * @throws IllegalStateException if the session was removed from the store or has expired.
+     */
+    public void acquire() throws IllegalStateException {
+      SessionStore.this.acquire(this);
+    }
+
+    /**
+     * Lets the store evict the session until it is acquired again. Releasing a released session
+     * does nothing.
+     */
+    public void release() {
+      SessionStore.this.release(this);
+    }
+
+    /**
+     * Returns the dungeon of the acquired session. The dungeon must not be kept past the next
+     * release.
+     *
+     * @return the dungeon.
+     * @throws IllegalStateException if the session is released.
+     */
+    public DungeonImpl getDungeon() throws IllegalStateException {
+      if (!this.isAcquired) {
+        throw new IllegalStateException("Session " + this.key + " is not acquired.");
+      }
+      return this.dungeon;
+    }
+
+    @Override
+    public boolean movePlayer(Direction direction) {
+      return getDungeon().movePlayer(direction);
+    }
+
+    @Override
+    public void collectAllTreasures() {
+      getDungeon().collectAllTreasures();
+    }
+
+    @Override
+    public void collectTreasure(List<Treasure> treasures) {
+      getDungeon().collectTreasure(treasures);
+    }
+
+    @Override
+    public boolean shootArrow(int distance, Direction direction) {
+      return getDungeon().shootArrow(distance, direction);
+    }
+
+    @Override
+    public void pickArrows() {
+      getDungeon().pickArrows();
+    }
+
+    @Override
+    public void restart() {
+      getDungeon().restart();
+    }
+
+    @Override
+    public boolean undo() {
+      return getDungeon().undo();
+    }
+
+    @Override
+    public boolean redo() {
+      return getDungeon().redo();
+    }
+
+    /**
+     * Returns the player of the session, which is the player of the dungeon live whenever one
+     * of its methods is called, so unlike the locations it can be kept across releases.
+     *
+     * @return the player.
+     */
+    @Override
+    public Player getPlayer() {
+      return new SessionPlayer();
+    }
+
+    @Override
+    public Location getPlayerLocation() {
+      return getDungeon().getPlayerLocation();
+    }
+
+    @Override
+    public Location getStartingCave() {
+      return getDungeon().getStartingCave();
+    }
+
+    @Override
+    public Location getDestinationCave() {
+      return getDungeon().getDestinationCave();
+    }
+
+    @Override
+    public boolean isDestinationReached() {
+      return getDungeon().isDestinationReached();
+    }
+
+    @Override
+    public Location getLocation(int row, int column) {
+      return getDungeon().getLocation(row, column);
+    }
+
+    /**
+     * Sets the listener of the session, which is kept across evictions and notified by the
+     * dungeon live at the time.
+     */
+    @Override
+    public void setDungeonListener(DungeonListener listener) {
+      getDungeon().setDungeonListener(listener);
+      this.listener = listener;
+    }
+
+    @Override
+    public List<Direction> getShortestPath(Location from, Location to) {
+      return getDungeon().getShortestPath(from, to);
+    }
+
+    @Override
+    public Direction getNextStep(Location from, Location to) {
+      return getDungeon().getNextStep(from, to);
+    }
+
+    /**
+     * This represents the player of a session, looked up in the dungeon live at every call.
+     */
+    private final class SessionPlayer implements Player {
+
+      @Override
+      public String getName() {
+        return getDungeon().getPlayer().getName();
+      }
+
+      @Override
+      public Location getLocation() {
+        return getDungeon().getPlayer().getLocation();
+      }
+
+      @Override
+      public Map<Treasure, Integer> getCollectedTreasures() {
+        return getDungeon().getPlayer().getCollectedTreasures();
+      }
+
+      @Override
+      public int getNumberOfArrows() {
+        return getDungeon().getPlayer().getNumberOfArrows();
+      }
+
+      @Override
+      public boolean isDead() {
+        return getDungeon().getPlayer().isDead();
+      }
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package control.server;
+
+/**
+ * This represents where a {@link SessionStore} keeps the snapshots of the sessions it evicts.
+ */
+public enum SnapshotStorage {
+
+  /**
+   * Every snapshot is a byte array on the heap.
+   */
+  HEAP,
+
+  /**
+   * Every snapshot is a direct buffer outside the heap, so evicted sessions add nothing to the
+   * work of the garbage collector beyond a small object per session.
+   */
+  DIRECT
+}
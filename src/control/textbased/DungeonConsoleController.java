@@ -46,6 +46,7 @@ public class DungeonConsoleController implements Controller {
     knownCommands.put("M", new Move(scan, out));
     knownCommands.put("P", new Pick(scan, out));
     knownCommands.put("S", new Shoot(scan, out));
+    knownCommands.put("G", new GoTo(scan, out));
 
     Player player = dungeon.getPlayer();
 
@@ -86,7 +87,7 @@ public class DungeonConsoleController implements Controller {
         }
 
         out.append("Doors lead to " + player.getLocation().getPossibleMoves() + "\n");
-        out.append("Move, Pickup, or Shoot (M-P-S)?");
+        out.append("Move, Pickup, Shoot, or Goto (M-P-S-G)?");
 
         if (!scan.hasNext()) {
           break;
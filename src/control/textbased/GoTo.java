@@ -0,0 +1,63 @@
+package control.textbased;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Scanner;
+
+import model.dungeon.Dungeon;
+import model.location.Direction;
+import model.location.Location;
+
+/**
+ * This class represents the goto command and makes the player travel to the location at the row
+ * and column entered by user, along the shortest path the model finds. The player stops on the way
+ * if eaten or on reaching the destination cave.
+ */
+public class GoTo implements DungeonCommand {
+
+  private final Appendable out;
+  private final Scanner scan;
+
+  /**
+   * Constructs the goto command.
+   *
+   * @param scan the readable
+   * @param out  the appendable
+   */
+  public GoTo(Scanner scan, Appendable out) {
+    this.out = out;
+    this.scan = scan;
+  }
+
+  @Override
+  public void execute(Dungeon dungeon) {
+    try {
+      out.append("Row and column?");
+      try {
+        int row = Integer.parseInt(scan.next());
+        int column = Integer.parseInt(scan.next());
+        out.append("\n");
+        try {
+          Location target = dungeon.getLocation(row, column);
+          List<Direction> path = dungeon.getShortestPath(dungeon.getPlayerLocation(), target);
+          for (Direction direction : path) {
+            if (!dungeon.movePlayer(direction)) {
+              out.append("Chomp, chomp, chomp, you are eaten by an Otyugh!\nBetter luck next "
+                      + "time\n");
+              return;
+            }
+            if (dungeon.isDestinationReached()) {
+              return;
+            }
+          }
+        } catch (IllegalArgumentException iae) {
+          out.append("No way to that location!\n");
+        }
+      } catch (NumberFormatException nfe) {
+        out.append("\nPlease enter a valid input\n\n");
+      }
+    } catch (IOException ioe) {
+      throw new IllegalStateException("Append failed", ioe);
+    }
+  }
+}
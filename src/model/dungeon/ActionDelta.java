@@ -0,0 +1,197 @@
+package model.dungeon;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import model.location.LocationChanges;
+import model.location.OverlayGrid;
+import model.location.Treasure;
+import model.player.PlayerField;
+import model.player.PlayerImpl;
+import model.player.PlayerUpdateState;
+import model.random.RandomGenerator;
+import model.random.RandomSeeded;
+
+/**
+ * This represents the state a {@link DungeonImpl} had before one action of the player: the
+ * locations touched by the action, the location, treasures, arrows and life of the player and the
+ * position of the random generator. Only what the action can change is kept, so the size of a
+ * delta does not depend on the size of the dungeon. A package-private class.
+ */
+final class ActionDelta {
+
+  private static final Treasure[] TREASURES = Treasure.values();
+  private static final int NO_POSITION = -1;
+
+  private final LocationChanges locations;
+  private final int playerLocation;
+  private final int[] treasures;
+  private final int arrows;
+  private final boolean isDead;
+  private final long randomPosition;
+
+  private ActionDelta(LocationChanges locations, int playerLocation, int[] treasures, int arrows,
+                      boolean isDead, long randomPosition) {
+    this.locations = locations;
+    this.playerLocation = playerLocation;
+    this.treasures = treasures;
+    this.arrows = arrows;
+    this.isDead = isDead;
+    this.randomPosition = randomPosition;
+  }
+
+  /**
+   * Captures the current state of the player and the random generator, together with the given
+   * state of the locations.
+   */
+  static ActionDelta capture(LocationChanges locations, PlayerUpdateState player,
+                             RandomGenerator rand) {
+    Map<Treasure, Integer> collected = player.getCollectedTreasures();
+    int[] treasures = new int[TREASURES.length];
+    for (Treasure treasure : TREASURES) {
+      treasures[treasure.ordinal()] = collected.getOrDefault(treasure, 0);
+    }
+    return new ActionDelta(locations, player.getLocation().getId(), treasures,
+            player.getNumberOfArrows(), player.isDead(), rand instanceof RandomSeeded
+            ? ((RandomSeeded) rand).getPosition() : NO_POSITION);
+  }
+
+  /**
+   * Reads a delta of a dungeon with the given number of locations written by
+   * {@link #write(ByteBuffer)}.
+   *
+   * @throws IllegalArgumentException if the delta is corrupt.
+   * @throws java.nio.BufferUnderflowException if the buffer does not hold the whole delta.
+   */
+  static ActionDelta read(ByteBuffer buffer, int cells) {
+    LocationChanges locations = LocationChanges.read(buffer, cells);
+    int playerLocation = buffer.getInt();
+    if (playerLocation < 0 || playerLocation >= cells) {
+      throw new IllegalArgumentException("Invalid player location " + playerLocation);
+    }
+    int[] treasures = new int[TREASURES.length];
+    for (int i = 0; i < treasures.length; i++) {
+      treasures[i] = buffer.getInt();
+      if (treasures[i] < 0) {
+        throw new IllegalArgumentException("Collected treasures cannot be negative.");
+      }
+    }
+    int arrows = buffer.getInt();
+    if (arrows < 0) {
+      throw new IllegalArgumentException("Number of arrows cannot be negative.");
+    }
+    boolean isDead = buffer.get() != 0;
+    return new ActionDelta(locations, playerLocation, treasures, arrows, isDead,
+            buffer.getLong());
+  }
+
+  /**
+   * Returns a copy of this delta with the given state of the locations.
+   */
+  ActionDelta withLocations(LocationChanges locations) {
+    return new ActionDelta(locations, this.playerLocation, this.treasures, this.arrows,
+            this.isDead, this.randomPosition);
+  }
+
+  /**
+   * Returns if nothing in the dungeon changed between this delta and the given delta, which was
+   * captured later.
+   */
+  boolean isSameAs(ActionDelta later) {
+    return later.locations.isEmpty() && this.playerLocation == later.playerLocation
+            && Arrays.equals(this.treasures, later.treasures) && this.arrows == later.arrows
+            && this.isDead == later.isDead && this.randomPosition == later.randomPosition;
+  }
+
+  LocationChanges getLocations() {
+    return this.locations;
+  }
+
+  /**
+   * Returns the given locations followed by the locations of the player in this delta and in the
+   * given delta that are not among them yet.
+   */
+  int[] addPlayerLocations(int[] locations, ActionDelta later) {
+    int[] changed = Arrays.copyOf(locations, locations.length + 2);
+    int size = add(changed, locations.length, this.playerLocation);
+    return Arrays.copyOf(changed, add(changed, size, later.playerLocation));
+  }
+
+  /**
+   * Returns the fields of the player that are different in the given delta, which was captured
+   * later.
+   */
+  Set<PlayerField> getPlayerChanges(ActionDelta later) {
+    Set<PlayerField> fields = EnumSet.noneOf(PlayerField.class);
+    if (this.playerLocation != later.playerLocation) {
+      fields.add(PlayerField.LOCATION);
+    }
+    if (!Arrays.equals(this.treasures, later.treasures)) {
+      fields.add(PlayerField.TREASURES);
+    }
+    if (this.arrows != later.arrows) {
+      fields.add(PlayerField.ARROWS);
+    }
+    if (this.isDead != later.isDead) {
+      fields.add(PlayerField.LIFE);
+    }
+    return fields;
+  }
+
+  /**
+   * Moves the random generator back to its position in this delta.
+   */
+  void restoreRandom(RandomGenerator rand) {
+    if (this.randomPosition != NO_POSITION && rand instanceof RandomSeeded) {
+      ((RandomSeeded) rand).seek(this.randomPosition);
+    }
+  }
+
+  /**
+   * Returns a player with the given name in the state of this delta, standing on a location of
+   * the given grid.
+   */
+  PlayerUpdateState restorePlayer(String name, OverlayGrid grid) {
+    Map<Treasure, Integer> collected = new EnumMap<>(Treasure.class);
+    for (Treasure treasure : TREASURES) {
+      collected.put(treasure, this.treasures[treasure.ordinal()]);
+    }
+    return new PlayerImpl(name, grid.get(this.playerLocation), collected, this.arrows,
+            this.isDead);
+  }
+
+  /**
+   * Returns the number of bytes written by {@link #write(ByteBuffer)}.
+   */
+  int getBytes() {
+    return this.locations.getBytes() + 4 + 4 * TREASURES.length + 4 + 1 + 8;
+  }
+
+  /**
+   * Writes the delta to the buffer.
+   */
+  void write(ByteBuffer buffer) {
+    this.locations.write(buffer);
+    buffer.putInt(this.playerLocation);
+    for (int count : this.treasures) {
+      buffer.putInt(count);
+    }
+    buffer.putInt(this.arrows);
+    buffer.put((byte) (this.isDead ? 1 : 0));
+    buffer.putLong(this.randomPosition);
+  }
+
+  private static int add(int[] locations, int size, int location) {
+    for (int i = 0; i < size; i++) {
+      if (locations[i] == location) {
+        return size;
+      }
+    }
+    locations[size] = location;
+    return size + 1;
+  }
+}
@@ -0,0 +1,120 @@
+package model.dungeon;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.location.Direction;
+
+/**
+ * This finds the shortest routes between the locations of a {@link Dungeon}. The route to a
+ * target follows the distance field of that target: the number of moves from every location to
+ * the target, computed once by a breadth first search from the target through the open exits.
+ * The exits never change after a dungeon is generated, so a field is never invalidated. The
+ * fields of the most recently used targets are kept, as many as fit in a fixed budget of
+ * locations, so the first route to a target costs as much as the size of the dungeon and every
+ * next step after that costs a few table lookups. The same fields are shared by every copy of a
+ * dungeon and can be used from any thread. A package-private class.
+ */
+final class DistanceFields {
+
+  private static final Direction[] DIRECTION_VALUES = Direction.values();
+  private static final int DIRECTIONS = DIRECTION_VALUES.length;
+  private static final int MAX_FIELDS = 16;
+  private static final int CACHED_LOCATIONS = 1 << 22;
+
+  private final GridTopology topology;
+  private final byte[] exits;
+  private final Map<Integer, int[]> fields;
+  private int[] queue;
+
+  /**
+   * Constructs the distance fields of a dungeon.
+   *
+   * @param topology the neighbor table of the dungeon.
+   * @param exits    the exit mask of every location, one bit per {@link Direction} ordinal.
+   */
+  DistanceFields(GridTopology topology, byte[] exits) {
+    this.topology = topology;
+    this.exits = exits;
+    int maxFields = Math.max(1, Math.min(MAX_FIELDS, CACHED_LOCATIONS / topology.size()));
+    this.fields = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+        return size() > maxFields;
+      }
+    };
+  }
+
+  /**
+   * Returns the first move of a shortest route from one location to another, or {@code null} if
+   * both are the same location.
+   *
+   * @throws IllegalArgumentException if the target cannot be reached.
+   */
+  Direction getNextStep(int from, int to) {
+    int[] field = getField(to);
+    if (field[from] < 0) {
+      throw new IllegalArgumentException("No route from " + from + " to " + to + ".");
+    }
+    int direction = getNextDirection(field, from);
+    return direction < 0 ? null : DIRECTION_VALUES[direction];
+  }
+
+  /**
+   * Returns the moves of a shortest route from one location to another, which is empty if both
+   * are the same location. Among routes of the same length, the one taking the first open exit
+   * in the order of {@link Direction} at every location is returned.
+   *
+   * @throws IllegalArgumentException if the target cannot be reached.
+   */
+  List<Direction> getPath(int from, int to) {
+    int[] field = getField(to);
+    if (field[from] < 0) {
+      throw new IllegalArgumentException("No route from " + from + " to " + to + ".");
+    }
+    List<Direction> path = new ArrayList<>(field[from]);
+    int cell = from;
+    for (int direction = getNextDirection(field, cell); direction >= 0;
+         direction = getNextDirection(field, cell)) {
+      path.add(DIRECTION_VALUES[direction]);
+      cell = this.topology.getNeighbor(cell, DIRECTION_VALUES[direction]);
+    }
+    return path;
+  }
+
+  /**
+   * Returns the ordinal of the exit that leads one move closer to the target of the field, or -1
+   * at the target.
+   */
+  private int getNextDirection(int[] field, int cell) {
+    int distance = field[cell];
+    if (distance == 0) {
+      return -1;
+    }
+    for (int direction = 0; direction < DIRECTIONS; direction++) {
+      if ((this.exits[cell] & (1 << direction)) != 0
+              && field[this.topology.getNeighbor(cell, DIRECTION_VALUES[direction])]
+              == distance - 1) {
+        return direction;
+      }
+    }
+    throw new IllegalStateException("Distance field is inconsistent at " + cell + ".");
+  }
+
+  private int[] getField(int target) {
+    synchronized (this.fields) {
+      int[] field = this.fields.get(target);
+      if (field == null) {
+        if (this.queue == null) {
+          this.queue = new int[this.topology.size()];
+        }
+        field = new int[this.topology.size()];
+        this.topology.fillDistances(target, this.exits, field, this.queue);
+        this.fields.put(target, field);
+      }
+      return field;
+    }
+  }
+}
@@ -54,4 +54,27 @@ public interface Dungeon extends ReadOnlyDungeon {
    * Makes the {@link Player} pick all the arrows available at the current location.
    */
   void pickArrows();
+
+  /**
+   * Restarts the game in the same dungeon. Every location goes back to the state it had when the
+   * dungeon was generated and a new {@link Player} with the same name stands at the starting
+   * cave.
+   */
+  void restart();
+
+  /**
+   * Takes back the last action of the {@link Player} that changed the game: a move, a shot, or
+   * picking treasures or arrows.
+   *
+   * @return {@code true} if an action was taken back, {@code false} if there was none.
+   */
+  boolean undo();
+
+  /**
+   * Does again the last action taken back by {@link #undo()}. Any new action forgets the actions
+   * that can be done again.
+   *
+   * @return {@code true} if an action was done again, {@code false} if there was none.
+   */
+  boolean redo();
 }
@@ -0,0 +1,121 @@
+package model.dungeon;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import model.random.RandomSeeded;
+
+/**
+ * The DungeonBatchGenerator generates many dungeons of the same {@link DungeonParameters} at once
+ * on a {@link ForkJoinPool}. Every dungeon is generated by a task of its own with a
+ * {@link RandomSeeded} generator of its own, and the results are handed to a consumer on the
+ * calling thread in the order of their seeds as soon as they are ready. Only a few tasks per
+ * thread of the pool are in flight at any time, so a batch of any size needs little memory as
+ * long as the consumer does not keep the dungeons. A dungeon that cannot be generated is
+ * reported as a failure of its seed and the rest of the batch goes on.
+ */
+public class DungeonBatchGenerator {
+
+  private static final int TASKS_PER_THREAD = 4;
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs a batch generator that runs on the common pool.
+   */
+  public DungeonBatchGenerator() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a batch generator that runs on the given pool.
+   *
+   * @param pool the pool.
+   * @throws IllegalArgumentException if {@code pool} is {@code null}.
+   */
+  public DungeonBatchGenerator(ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool cannot be null.");
+    }
+    this.pool = pool;
+  }
+
+  /**
+   * Generates a dungeon for every seed from {@code firstSeed} to {@code firstSeed + count - 1}.
+   *
+   * @param parameters the parameters of the dungeons.
+   * @param firstSeed  the first seed.
+   * @param count      the number of dungeons.
+   * @param consumer   the consumer of the results, called in the order of the seeds.
+   * @throws IllegalArgumentException <ul><li>if {@code parameters} or {@code consumer} is
+   *                                  {@code null}.</li>
+   *                                  <li>if {@code count} is negative.</li></ul>
+   */
+  public void generate(DungeonParameters parameters, long firstSeed, int count,
+                       Consumer<GeneratedDungeon> consumer) throws IllegalArgumentException {
+    long[] nextSeed = {firstSeed};
+    generate(parameters, () -> new RandomSeeded(nextSeed[0]++), count, consumer);
+  }
+
+  /**
+   * Generates {@code count} dungeons, each one from a generator split from the given generator.
+   * The seeds of the dungeons are the seeds of the split generators, in the order they were
+   * split.
+   *
+   * @param parameters the parameters of the dungeons.
+   * @param rand       the generator to be split.
+   * @param count      the number of dungeons.
+   * @param consumer   the consumer of the results, called in the order of the seeds.
+   * @throws IllegalArgumentException <ul><li>if {@code parameters}, {@code rand} or
+   *                                  {@code consumer} is {@code null}.</li>
+   *                                  <li>if {@code count} is negative.</li></ul>
+   */
+  public void generate(DungeonParameters parameters, RandomSeeded rand, int count,
+                       Consumer<GeneratedDungeon> consumer) throws IllegalArgumentException {
+    if (rand == null) {
+      throw new IllegalArgumentException("Random generator cannot be null.");
+    }
+    generate(parameters, rand::split, count, consumer);
+  }
+
+  private void generate(DungeonParameters parameters, Supplier<RandomSeeded> generators,
+                        int count, Consumer<GeneratedDungeon> consumer) {
+    if (parameters == null) {
+      throw new IllegalArgumentException("Parameters cannot be null.");
+    }
+    if (consumer == null) {
+      throw new IllegalArgumentException("Consumer cannot be null.");
+    }
+    if (count < 0) {
+      throw new IllegalArgumentException("Number of dungeons cannot be negative.");
+    }
+    int window = Math.max(1, this.pool.getParallelism() * TASKS_PER_THREAD);
+    Deque<ForkJoinTask<GeneratedDungeon>> pending = new ArrayDeque<>(window);
+    int submitted = 0;
+    try {
+      while (submitted < count || !pending.isEmpty()) {
+        while (submitted < count && pending.size() < window) {
+          RandomSeeded rand = generators.get();
+          pending.add(this.pool.submit(() -> generateDungeon(parameters, rand)));
+          submitted++;
+        }
+        consumer.accept(pending.remove().join());
+      }
+    } finally {
+      pending.forEach(task -> task.cancel(false));
+    }
+  }
+
+  private static GeneratedDungeon generateDungeon(DungeonParameters parameters,
+                                                  RandomSeeded rand) {
+    try {
+      return GeneratedDungeon.success(rand.getSeed(), parameters.createDungeon(rand));
+    } catch (RuntimeException e) {
+      return GeneratedDungeon.failure(rand.getSeed(), e);
+    }
+  }
+}
@@ -1,19 +1,25 @@
 package model.dungeon;
 
 import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Collectors;
 
-import model.location.Cave;
+import model.location.CaveGrid;
 import model.location.Direction;
+import model.location.GridStorage;
 import model.location.Location;
+import model.location.LocationChanges;
+import model.location.LocationGrid;
 import model.location.LocationUpdateState;
+import model.location.OverlayGrid;
+import model.location.PackedGrid;
 import model.location.Treasure;
 import model.monster.Monster;
 import model.monster.Otyugh;
@@ -21,6 +27,7 @@ import model.player.Player;
 import model.player.PlayerImpl;
 import model.player.PlayerUpdateState;
 import model.random.RandomGenerator;
+import model.random.RandomSeeded;
 import model.weapon.Weapon;
 
 /**
@@ -30,17 +37,32 @@ import model.weapon.Weapon;
  */
 public class DungeonImpl implements Dungeon {
 
-  private final List<Edge> paths;
-  private final List<Edge> potentialPaths;
+  /**
+   * The number of actions that can be undone unless set otherwise by
+   * {@link #setHistoryDepth(int)}.
+   */
+  public static final int DEFAULT_HISTORY_DEPTH = 100;
+
+  private final byte[] exits;
   private final int rows;
   private final int columns;
   private final int interconnectivity;
   private final boolean isWrapping;
   private final RandomGenerator rand;
-  private final PlayerUpdateState player;
   private final LocationUpdateState start;
   private final LocationUpdateState end;
-  private final List<List<LocationUpdateState>> dungeon;
+  private final LocationGrid grid;
+  private final OverlayGrid overlay;
+  private final Deque<ActionDelta> undoHistory;
+  private final Deque<ActionDelta> redoHistory;
+  private int historyDepth;
+  private DungeonListener listener;
+  private PlayerUpdateState player;
+  private final GridTopology topology;
+  private final TunnelCorridors corridors;
+  private final DistanceFields paths;
+  private final SmellField smell;
+  private final Long seed;
 
   /**
    * Constructs a dungeon.
@@ -67,6 +89,91 @@ public class DungeonImpl implements Dungeon {
                      double percentageOfTreasuresAndArrows, String playerName, int numberOfMonsters,
                      RandomGenerator rand)
           throws IllegalArgumentException {
+    this(rows, columns, interconnectivity, isWrapping, percentageOfTreasuresAndArrows, playerName,
+            numberOfMonsters, rand, GridStorage.CAVES);
+  }
+
+  /**
+   * Constructs a dungeon whose locations are kept in the given {@link GridStorage}. The dungeon
+   * generated for a given random generator is the same for every storage.
+   *
+   * @param rows                           the number of rows.
+   * @param columns                        the number of columns.
+   * @param interconnectivity              the interconnectivity.
+   * @param isWrapping                     {@code true} is dungeon is wrapping otherwise
+   *                                       {@code false}.
+   * @param percentageOfTreasuresAndArrows the percentage of caves to have treasures and the
+   *                                       percentage of locations to have arrows.
+   * @param rand                           the random generator.
+   * @param storage                        the storage of the locations.
+   * @throws IllegalArgumentException <ul><li>for all the cases of
+   *                                  {@link #DungeonImpl(int, int, int, boolean, double, String,
+   *                                  int, RandomGenerator)}.</li>
+   *                                  <li>if {@code storage} is {@code null}.</li></ul>
+   */
+  public DungeonImpl(int rows, int columns, int interconnectivity, boolean isWrapping,
+                     double percentageOfTreasuresAndArrows, String playerName, int numberOfMonsters,
+                     RandomGenerator rand, GridStorage storage)
+          throws IllegalArgumentException {
+    this(rows, columns, interconnectivity, isWrapping, percentageOfTreasuresAndArrows, playerName,
+            numberOfMonsters, rand, storage, GenerationListener.NONE);
+  }
+
+  /**
+   * Constructs a dungeon whose locations are kept in the given {@link GridStorage} and notifies
+   * the given {@link GenerationListener} as every {@link GenerationPhase} is completed.
+   *
+   * @param rows                           the number of rows.
+   * @param columns                        the number of columns.
+   * @param interconnectivity              the interconnectivity.
+   * @param isWrapping                     {@code true} is dungeon is wrapping otherwise
+   *                                       {@code false}.
+   * @param percentageOfTreasuresAndArrows the percentage of caves to have treasures and the
+   *                                       percentage of locations to have arrows.
+   * @param rand                           the random generator.
+   * @param storage                        the storage of the locations.
+   * @param listener                       the listener of the generation phases.
+   * @throws IllegalArgumentException <ul><li>for all the cases of
+   *                                  {@link #DungeonImpl(int, int, int, boolean, double, String,
+   *                                  int, RandomGenerator, GridStorage)}.</li>
+   *                                  <li>if {@code listener} is {@code null}.</li></ul>
+   * @throws CancellationException if the listener stops the generation.
+   */
+  public DungeonImpl(int rows, int columns, int interconnectivity, boolean isWrapping,
+                     double percentageOfTreasuresAndArrows, String playerName, int numberOfMonsters,
+                     RandomGenerator rand, GridStorage storage, GenerationListener listener)
+          throws IllegalArgumentException {
+    this(rows, columns, interconnectivity, isWrapping, percentageOfTreasuresAndArrows, playerName,
+            numberOfMonsters, rand, storage, listener, SmellCurve.DEFAULT);
+  }
+
+  /**
+   * Constructs a dungeon whose monsters smell following the given {@link SmellCurve}, whose
+   * locations are kept in the given {@link GridStorage} and which notifies the given
+   * {@link GenerationListener} as every {@link GenerationPhase} is completed.
+   *
+   * @param rows                           the number of rows.
+   * @param columns                        the number of columns.
+   * @param interconnectivity              the interconnectivity.
+   * @param isWrapping                     {@code true} is dungeon is wrapping otherwise
+   *                                       {@code false}.
+   * @param percentageOfTreasuresAndArrows the percentage of caves to have treasures and the
+   *                                       percentage of locations to have arrows.
+   * @param rand                           the random generator.
+   * @param storage                        the storage of the locations.
+   * @param listener                       the listener of the generation phases.
+   * @param smellCurve                     the smell of the monsters.
+   * @throws IllegalArgumentException <ul><li>for all the cases of
+   *                                  {@link #DungeonImpl(int, int, int, boolean, double, String,
+   *                                  int, RandomGenerator, GridStorage, GenerationListener)}.</li>
+   *                                  <li>if {@code smellCurve} is {@code null}.</li></ul>
+   * @throws CancellationException if the listener stops the generation.
+   */
+  public DungeonImpl(int rows, int columns, int interconnectivity, boolean isWrapping,
+                     double percentageOfTreasuresAndArrows, String playerName, int numberOfMonsters,
+                     RandomGenerator rand, GridStorage storage, GenerationListener listener,
+                     SmellCurve smellCurve)
+          throws IllegalArgumentException {
 
     if (rows + columns < 7 && isWrapping) {
       throw new IllegalArgumentException("Too small model.dungeon. Increase number of rows and/or "
@@ -97,17 +204,40 @@ public class DungeonImpl implements Dungeon {
       throw new IllegalArgumentException("Random generator cannot be null.");
     }
 
+    if (storage == null) {
+      throw new IllegalArgumentException("Grid storage cannot be null.");
+    }
+
+    if (listener == null) {
+      throw new IllegalArgumentException("Generation listener cannot be null.");
+    }
+
+    if (smellCurve == null) {
+      throw new IllegalArgumentException("Smell curve cannot be null.");
+    }
+
     this.rows = rows;
     this.columns = columns;
     this.interconnectivity = interconnectivity;
     this.isWrapping = isWrapping;
     this.rand = rand;
-    this.dungeon = createDungeon();
-    this.potentialPaths = createPotentialPaths();
-    this.paths = createPaths();
+    this.seed = rand instanceof RandomSeeded && ((RandomSeeded) rand).getPosition() == 0
+            ? ((RandomSeeded) rand).getSeed() : null;
+    long phaseStart = System.nanoTime();
+    this.grid = createDungeon(storage);
+    this.topology = new GridTopology(rows, columns, isWrapping);
+    phaseStart = completePhase(listener, GenerationPhase.GRID, phaseStart);
+    this.exits = createPaths(createPotentialPaths());
+    phaseStart = completePhase(listener, GenerationPhase.PATHS, phaseStart);
     getValidMovesForCaves();
+    this.corridors = new TunnelCorridors(this.topology, this.exits);
+    this.paths = new DistanceFields(this.topology, this.exits);
+    this.smell = new SmellField(this.topology, this.exits, smellCurve);
+    phaseStart = completePhase(listener, GenerationPhase.MOVES, phaseStart);
     addTreasureToCaves(percentageOfTreasuresAndArrows);
+    phaseStart = completePhase(listener, GenerationPhase.TREASURES, phaseStart);
     addArrowsToLocations(percentageOfTreasuresAndArrows);
+    phaseStart = completePhase(listener, GenerationPhase.ARROWS, phaseStart);
 
     if (numberOfMonsters == 0) {
       throw new IllegalArgumentException("Invalid number of monsters. There need to be at lE 1 "
@@ -119,14 +249,55 @@ public class DungeonImpl implements Dungeon {
     }
 
     Map.Entry<LocationUpdateState, LocationUpdateState> sourceAndDestination = setStartAndEndCave();
-    this.start = sourceAndDestination.getKey();
-    this.end = sourceAndDestination.getValue();
-    addMonstersToCaves(numberOfMonsters - 1);
+    phaseStart = completePhase(listener, GenerationPhase.START_AND_END, phaseStart);
+    addMonstersToCaves(numberOfMonsters - 1, sourceAndDestination.getKey(),
+            sourceAndDestination.getValue());
+    completePhase(listener, GenerationPhase.MONSTERS, phaseStart);
+    this.overlay = new OverlayGrid(this.grid);
+    this.start = this.overlay.get(sourceAndDestination.getKey().getId());
+    this.end = this.overlay.get(sourceAndDestination.getValue().getId());
     this.player = new PlayerImpl(playerName, this.start);
+    this.undoHistory = new ArrayDeque<>();
+    this.redoHistory = new ArrayDeque<>();
+    this.historyDepth = DEFAULT_HISTORY_DEPTH;
+    this.listener = DungeonListener.NONE;
   }
 
   /**
-   * This is a copy constructor.
+   * Constructs a dungeon from state that was saved earlier, see {@link DungeonSnapshot}. The base
+   * of the overlay must already hold the moves, treasures, arrows, smell and monsters the saved
+   * dungeon started with, the overlay must hold the changes made since and the player must
+   * already stand on one of its locations.
+   */
+  DungeonImpl(int interconnectivity, boolean isWrapping, RandomGenerator rand, Long seed,
+              byte[] exits, OverlayGrid overlay, int start, int end, PlayerUpdateState player,
+              SmellCurve smellCurve) {
+    this.rows = overlay.getRows();
+    this.columns = overlay.getColumns();
+    this.interconnectivity = interconnectivity;
+    this.isWrapping = isWrapping;
+    this.rand = rand;
+    this.seed = seed;
+    this.exits = exits;
+    this.grid = overlay.getBase();
+    this.overlay = overlay;
+    this.topology = new GridTopology(this.rows, this.columns, isWrapping);
+    this.corridors = new TunnelCorridors(this.topology, exits);
+    this.paths = new DistanceFields(this.topology, exits);
+    this.smell = new SmellField(this.topology, exits, smellCurve);
+    this.start = overlay.get(start);
+    this.end = overlay.get(end);
+    this.player = player;
+    this.undoHistory = new ArrayDeque<>();
+    this.redoHistory = new ArrayDeque<>();
+    this.historyDepth = DEFAULT_HISTORY_DEPTH;
+    this.listener = DungeonListener.NONE;
+  }
+
+  /**
+   * This is a copy constructor. The copy shares the locations the dungeon was generated with
+   * and gets its own copy of the changes made to them since, with every monster at full health.
+   * The player of the copy starts again at the starting cave.
    * @param dungeon the dungeon
    */
   public DungeonImpl(DungeonImpl dungeon) {
@@ -138,25 +309,195 @@ public class DungeonImpl implements Dungeon {
     this.interconnectivity = dungeon.interconnectivity;
     this.isWrapping = dungeon.isWrapping;
     this.rand = dungeon.rand;
-    this.dungeon = new ArrayList<>();
-    for (int i = 0; i < this.rows; i++) {
-      List<LocationUpdateState> dungeonCol = new ArrayList<>();
-      for (int j = 0; j < this.columns; j++) {
-        dungeonCol.add(new Cave((this.columns * i) + j, i, j));
-      }
-      this.dungeon.add(dungeonCol);
-    }
-    for (int i = 0; i < rows; i++) {
-      for (int j = 0; j < columns; j++) {
-        this.dungeon.get(i).set(j, new Cave((Cave) dungeon.dungeon.get(i).get(j)));
-      }
-    }
-    this.potentialPaths = dungeon.potentialPaths;
+    this.grid = dungeon.grid;
+    this.overlay = dungeon.overlay.copy();
+    this.topology = dungeon.topology;
+    this.exits = dungeon.exits;
+    this.corridors = dungeon.corridors;
     this.paths = dungeon.paths;
-    this.start = dungeon.start;
-    this.end = dungeon.end;
+    this.smell = dungeon.smell;
+    this.seed = dungeon.seed;
+    this.start = this.overlay.get(dungeon.start.getId());
+    this.end = this.overlay.get(dungeon.end.getId());
     this.player = new PlayerImpl(dungeon.player.getName(), start);
-    getValidMovesForCaves();
+    this.undoHistory = new ArrayDeque<>();
+    this.redoHistory = new ArrayDeque<>();
+    this.historyDepth = dungeon.historyDepth;
+    this.listener = DungeonListener.NONE;
+  }
+
+  /**
+   * Constructs a rollout of the given dungeon, see {@link DungeonRollouts}. The rollout shares
+   * everything that never changes with the dungeon, reads the locations through the given overlay
+   * on top of the overlay of the dungeon, and gets a copy of the player standing on the same
+   * location. The history of the rollout is turned off.
+   */
+  DungeonImpl(DungeonImpl dungeon, OverlayGrid overlay, RandomGenerator rand) {
+    this.rows = dungeon.rows;
+    this.columns = dungeon.columns;
+    this.interconnectivity = dungeon.interconnectivity;
+    this.isWrapping = dungeon.isWrapping;
+    this.rand = rand;
+    this.grid = dungeon.grid;
+    this.overlay = overlay;
+    this.topology = dungeon.topology;
+    this.exits = dungeon.exits;
+    this.corridors = dungeon.corridors;
+    this.paths = dungeon.paths;
+    this.smell = dungeon.smell;
+    this.seed = dungeon.seed;
+    this.start = overlay.get(dungeon.start.getId());
+    this.end = overlay.get(dungeon.end.getId());
+    Player player = dungeon.player;
+    this.player = new PlayerImpl(player.getName(), overlay.get(player.getLocation().getId()),
+            player.getCollectedTreasures(), player.getNumberOfArrows(), player.isDead());
+    this.undoHistory = new ArrayDeque<>();
+    this.redoHistory = new ArrayDeque<>();
+    this.historyDepth = 0;
+    this.listener = DungeonListener.NONE;
+  }
+
+  /**
+   * Returns the seed of the {@link RandomSeeded} generator this dungeon was generated from. The
+   * same dungeon is generated again by passing the same parameters and a new generator of this
+   * seed, for example from {@link model.random.RandomFactory#getRandomGenerator(long)}.
+   *
+   * @return the seed.
+   * @throws IllegalStateException if the dungeon was not generated from a {@link RandomSeeded}
+   *                               generator that had not been drawn from yet.
+   */
+  public long getSeed() throws IllegalStateException {
+    if (this.seed == null) {
+      throw new IllegalStateException("Dungeon was not generated from a fresh seeded random "
+              + "generator.");
+    }
+    return this.seed;
+  }
+
+  int getInterconnectivity() {
+    return this.interconnectivity;
+  }
+
+  boolean isWrapping() {
+    return this.isWrapping;
+  }
+
+  RandomGenerator getRandomGenerator() {
+    return this.rand;
+  }
+
+  Long getSeedIfKnown() {
+    return this.seed;
+  }
+
+  /**
+   * Returns how the smell of the monsters of this dungeon fades with the distance from their
+   * caves.
+   *
+   * @return the smell curve.
+   */
+  public SmellCurve getSmellCurve() {
+    return this.smell.getCurve();
+  }
+
+  byte[] getExits() {
+    return this.exits;
+  }
+
+  OverlayGrid getGrid() {
+    return this.overlay;
+  }
+
+  /**
+   * Restarts the game by throwing away the changes made to the locations since the dungeon was
+   * generated, which costs as much as the number of changed locations.
+   */
+  @Override
+  public void restart() {
+    ActionDelta before = ActionDelta.capture(null, this.player, this.rand);
+    int[] changed = this.listener == DungeonListener.NONE ? null
+            : this.overlay.listChangedLocations();
+    this.overlay.reset();
+    this.player = new PlayerImpl(this.player.getName(), this.start);
+    this.undoHistory.clear();
+    this.redoHistory.clear();
+    if (changed != null) {
+      ActionDelta after = ActionDelta.capture(null, this.player, this.rand);
+      this.listener.dungeonChanged(before.addPlayerLocations(changed, after),
+              before.getPlayerChanges(after));
+    }
+  }
+
+  /**
+   * Sets the number of actions that can be undone. The oldest actions are forgotten first, and a
+   * depth of 0 turns the history off.
+   *
+   * @param depth the number of actions.
+   * @throws IllegalArgumentException if {@code depth} is negative.
+   */
+  public void setHistoryDepth(int depth) throws IllegalArgumentException {
+    if (depth < 0) {
+      throw new IllegalArgumentException("History depth cannot be negative.");
+    }
+    this.historyDepth = depth;
+    while (this.undoHistory.size() > depth) {
+      this.undoHistory.removeLast();
+    }
+    while (this.redoHistory.size() > depth) {
+      this.redoHistory.removeLast();
+    }
+  }
+
+  /**
+   * Returns the number of actions that can be undone.
+   *
+   * @return the number of actions.
+   */
+  public int getHistoryDepth() {
+    return this.historyDepth;
+  }
+
+  /**
+   * Sets the listener notified after every action, undo, redo and restart. The locations of an
+   * action are recorded for the listener even when the history is turned off, so the work of a
+   * notification depends only on the number of changed locations.
+   */
+  @Override
+  public void setDungeonListener(DungeonListener listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null.");
+    }
+    this.listener = listener;
+  }
+
+  Deque<ActionDelta> getUndoHistory() {
+    return this.undoHistory;
+  }
+
+  Deque<ActionDelta> getRedoHistory() {
+    return this.redoHistory;
+  }
+
+  /**
+   * Takes back the last action by putting back only the locations it touched, the player and the
+   * position of the random generator.
+   */
+  @Override
+  public boolean undo() {
+    if (this.undoHistory.isEmpty()) {
+      return false;
+    }
+    this.redoHistory.push(revert(this.undoHistory.pop()));
+    return true;
+  }
+
+  @Override
+  public boolean redo() {
+    if (this.redoHistory.isEmpty()) {
+      return false;
+    }
+    this.undoHistory.push(revert(this.redoHistory.pop()));
+    return true;
   }
 
   @Override
@@ -179,6 +520,30 @@ public class DungeonImpl implements Dungeon {
     return this.end;
   }
 
+  @Override
+  public Location getLocation(int row, int column) throws IllegalArgumentException {
+    if (row < 0 || row >= this.rows || column < 0 || column >= this.columns) {
+      throw new IllegalArgumentException("Location is outside the dungeon.");
+    }
+    return this.overlay.get(row, column);
+  }
+
+  /**
+   * Returns the moves of a shortest route from one location to another. The distances to the
+   * most recently used targets are kept, so only the first route to a target searches the whole
+   * dungeon, see {@link DistanceFields}.
+   */
+  @Override
+  public List<Direction> getShortestPath(Location from, Location to)
+          throws IllegalArgumentException {
+    return this.paths.getPath(getCell(from), getCell(to));
+  }
+
+  @Override
+  public Direction getNextStep(Location from, Location to) throws IllegalArgumentException {
+    return this.paths.getNextStep(getCell(from), getCell(to));
+  }
+
   @Override
   public boolean movePlayer(Direction direction)
           throws IllegalArgumentException {
@@ -189,63 +554,18 @@ public class DungeonImpl implements Dungeon {
       throw new IllegalStateException("Game is already over!");
     }
 
-    LocationUpdateState newLocation;
-
-    int currentRow = 0;
-    int currentColumn = 0;
-
-    for (int i = 0; i < this.rows; i++) {
-      for (int j = 0; j < this.columns; j++) {
-        if (this.dungeon.get(i).get(j).getId() == this.player.getLocation().getId()) {
-          currentRow = i;
-          currentColumn = j;
-        }
-      }
+    ActionDelta before = startAction();
+    try {
+      return move(direction);
+    } finally {
+      endAction(before);
     }
+  }
 
-    int newRow = currentRow;
-    int newCol = currentColumn;
-
-    switch (direction) {
-      case S:
-        newRow = currentRow + 1;
-        if (this.isWrapping) {
-          if (newRow == this.rows) {
-            newRow = 0;
-          }
-        }
-        break;
-
-      case N:
-        newRow = currentRow - 1;
-        if (this.isWrapping) {
-          if (newRow == -1) {
-            newRow = this.rows - 1;
-          }
-        }
-        break;
-
-      case W:
-        newCol = currentColumn - 1;
-        if (this.isWrapping) {
-          if (newCol == -1) {
-            newCol = this.columns - 1;
-          }
-        }
-        break;
-
-      case E:
-        newCol = currentColumn + 1;
-        if (this.isWrapping) {
-          if (newCol == this.columns) {
-            newCol = 0;
-          }
-        }
-        break;
-
-      default: //No action required.
-    }
-    newLocation = this.dungeon.get(newRow).get(newCol);
+  private boolean move(Direction direction) {
+    int currentCell = this.player.getLocation().getId();
+    LocationUpdateState newLocation = this.overlay.get(this.topology.getNeighbor(currentCell,
+            direction));
     this.player.move(newLocation);
     Monster locationMonster = ((LocationUpdateState)this.player.getLocation()).getMonster();
     if (locationMonster != null) {
@@ -271,7 +591,12 @@ public class DungeonImpl implements Dungeon {
 
   @Override
   public void collectAllTreasures() {
-    this.player.collectTreasures(List.of(Treasure.values()));
+    ActionDelta before = startAction();
+    try {
+      this.player.collectTreasures(List.of(Treasure.values()));
+    } finally {
+      endAction(before);
+    }
   }
 
   @Override
@@ -279,7 +604,12 @@ public class DungeonImpl implements Dungeon {
     if (treasures == null) {
       throw new IllegalArgumentException("Treasures cannot be null.");
     }
-    this.player.collectTreasures(new ArrayList<>(treasures));
+    ActionDelta before = startAction();
+    try {
+      this.player.collectTreasures(new ArrayList<>(treasures));
+    } finally {
+      endAction(before);
+    }
   }
 
   @Override
@@ -292,15 +622,41 @@ public class DungeonImpl implements Dungeon {
     if (!this.player.getLocation().getPossibleMoves().contains(direction)) {
       throw new IllegalArgumentException("Direction is wrong");
     }
-    player.shootArrow();
-    int x = this.player.getLocation().getCoordinates().getX();
-    int y = this.player.getLocation().getCoordinates().getY();
-    return moveArrow(distance, this.dungeon.get(x).get(y), direction);
+    ActionDelta before = startAction();
+    try {
+      return shoot(distance, direction);
+    } finally {
+      endAction(before);
+    }
+  }
+
+  private boolean shoot(int distance, Direction direction) {
+    this.player.shootArrow();
+    int flight = this.corridors.fly(this.player.getLocation().getId(), direction.ordinal(),
+            distance);
+    if (flight == TunnelCorridors.LOST) {
+      return false;
+    }
+    LocationUpdateState location = this.overlay.get(TunnelCorridors.getCell(flight));
+    Monster monster = location.getMonster();
+    if (monster != null && monster.getHealthPercentage() > 0) {
+      monster.reduceHealth(50);
+      if (monster.getHealthPercentage() == 0) {
+        this.smell.remove(location.getId(), this.overlay);
+      }
+      return true;
+    }
+    return false;
   }
 
   @Override
   public void pickArrows() {
-    this.player.pickArrows();
+    ActionDelta before = startAction();
+    try {
+      this.player.pickArrows();
+    } finally {
+      endAction(before);
+    }
   }
 
   @Override
@@ -308,7 +664,7 @@ public class DungeonImpl implements Dungeon {
     StringBuilder dungeonBuilder = new StringBuilder();
     for (int i = 0; i < rows; i++) {
       for (int j = 0; j < columns; j++) {
-        if (this.dungeon.get(i).get(j).getPossibleMoves().contains(Direction.N)) {
+        if (this.overlay.get(i, j).getPossibleMoves().contains(Direction.N)) {
           dungeonBuilder.append("     |     ");
         } else {
           dungeonBuilder.append("           ");
@@ -317,12 +673,12 @@ public class DungeonImpl implements Dungeon {
       dungeonBuilder.append("\n");
       for (int j = 0; j < columns; j++) {
 
-        if (this.dungeon.get(i).get(j).getPossibleMoves().contains(Direction.W)) {
+        if (this.overlay.get(i, j).getPossibleMoves().contains(Direction.W)) {
           dungeonBuilder.append("--- ");
         } else {
           dungeonBuilder.append("    ");
         }
-        Location location = this.dungeon.get(i).get(j);
+        Location location = this.overlay.get(i, j);
         String locationString;
         if (this.player != null && location.getId() == this.player.getLocation().getId()) {
           locationString = "P";
@@ -334,7 +690,7 @@ public class DungeonImpl implements Dungeon {
           locationString = location.toString();
         }
         dungeonBuilder.append(String.format("[%s]", locationString));
-        if (this.dungeon.get(i).get(j).getPossibleMoves().contains(Direction.E)) {
+        if (this.overlay.get(i, j).getPossibleMoves().contains(Direction.E)) {
           dungeonBuilder.append(" ---");
         } else {
           dungeonBuilder.append("    ");
@@ -342,7 +698,7 @@ public class DungeonImpl implements Dungeon {
       }
       dungeonBuilder.append("\n");
       for (int j = 0; j < columns; j++) {
-        if (this.dungeon.get(i).get(j).getPossibleMoves().contains(Direction.S)) {
+        if (this.overlay.get(i, j).getPossibleMoves().contains(Direction.S)) {
           dungeonBuilder.append("     |     ");
         } else {
           dungeonBuilder.append("           ");
@@ -354,89 +710,6 @@ public class DungeonImpl implements Dungeon {
     return dungeonBuilder.toString();
   }
 
-  private boolean moveArrow(int distance, LocationUpdateState location, Direction direction) {
-    if (distance == 0) {
-      if (location.getMonster() != null && location.getMonster().getHealthPercentage() > 0) {
-        location.getMonster().reduceHealth(50);
-        if (location.getMonster().getHealthPercentage() == 0) {
-          removeMonsterSmellFromLocations(location);
-        }
-        return true;
-      }
-      return false;
-    }
-    List<Integer> nextPosition;
-    if (location.getPossibleMoves().contains(direction) || location.isTunnel()) {
-      Direction enteringDirection = null;
-
-      if (location.isTunnel()) {
-        switch (direction) {
-          case E:
-            enteringDirection = Direction.W;
-            break;
-          case W:
-            enteringDirection = Direction.E;
-            break;
-          case N:
-            enteringDirection = Direction.S;
-            break;
-          case S:
-            enteringDirection = Direction.N;
-            break;
-          default: //no action
-        }
-
-        Direction finalEnteringDirection = enteringDirection;
-        direction = location.getPossibleMoves().contains(direction)
-                ? direction : location.getPossibleMoves().stream()
-                .filter(l -> !l.equals(finalEnteringDirection)).findFirst().get();
-
-      }
-      nextPosition = getNextArrowCoordinate(direction, location);
-      distance = this.dungeon.get(location.getCoordinates().getX() + nextPosition.get(0))
-              .get(location.getCoordinates().getY() + nextPosition.get(1)).isTunnel() ? distance
-              : --distance;
-
-      return moveArrow(distance, this.dungeon.get(location.getCoordinates().getX()
-              + nextPosition.get(0)).get(location.getCoordinates().getY()
-              + nextPosition.get(1)), direction);
-    }
-    return false;
-  }
-
-  private List<Integer> getNextArrowCoordinate(Direction direction, LocationUpdateState location) {
-    int i = 0;
-    int j = 0;
-    switch (direction) {
-      case E:
-        j = 1;
-        if (isWrapping && location.getCoordinates().getY() == this.columns - 1) {
-          j = -location.getCoordinates().getY();
-        }
-        break;
-      case W:
-        j = -1;
-        if (isWrapping && location.getCoordinates().getY() == 0) {
-          j = this.columns - 1;
-        }
-        break;
-      case N:
-        i = -1;
-        if (isWrapping && location.getCoordinates().getX() == 0) {
-          i = this.rows - 1;
-        }
-        break;
-      case S:
-        i = 1;
-        if (isWrapping && location.getCoordinates().getX() == this.rows - 1) {
-          i = -location.getCoordinates().getX();
-        }
-        break;
-      default: //no action
-    }
-    return List.of(i, j);
-  }
-
   private void addTreasureToCaves(double percentageOfTreasures) {
     List<LocationUpdateState> allLocations = getCavesOnly();
     int cavesWithTreasures = (int) (allLocations.size() * percentageOfTreasures / 100);
@@ -456,16 +729,17 @@ public class DungeonImpl implements Dungeon {
     }
   }
 
-  private void addMonstersToCaves(double numberOfMonsters) {
+  private void addMonstersToCaves(double numberOfMonsters, LocationUpdateState start,
+                                  LocationUpdateState end) {
     List<LocationUpdateState> potentialMonsterCaves = getCavesOnly().stream()
-            .filter(c -> !c.equals(this.start) && !c.equals(this.end))
+            .filter(c -> !c.equals(start) && !c.equals(end))
             .collect(Collectors.toList());
 
     while (numberOfMonsters > 0) {
       int index = rand.getRandom(potentialMonsterCaves.size(), 0);
       LocationUpdateState cave = potentialMonsterCaves.get(index);
 
-      if (!cave.equals(this.end)) {
+      if (!cave.equals(end)) {
         potentialMonsterCaves.get(index).addMonster(new Otyugh());
         potentialMonsterCaves.remove(index);
         numberOfMonsters--;
@@ -475,51 +749,18 @@ public class DungeonImpl implements Dungeon {
   }
 
   private void addMonsterSmellToLocations() {
-    for (int i = 0; i < this.rows; i++) {
-      for (int j = 0; j < this.columns; j++) {
-        if (this.dungeon.get(i).get(j).getMonster() != null) {
-          this.dungeon.get(i).get(j).addSmell(2);
-
-          //add smell to direct neighbor locations
-          for (LocationUpdateState neighbor : this.dungeon.get(i).get(j).getNeighbors()) {
-            neighbor.addSmell(2);
-          }
-
-          List<Integer> neighborsWithSmell = new ArrayList<>();
-          //adds smell to neighbor locations with distance 2.
-          for (LocationUpdateState location : this.dungeon.get(i).get(j).getNeighbors()) {
-            for (LocationUpdateState neighbor : location.getNeighbors()) {
-              if (!neighborsWithSmell.contains(neighbor.getId())) {
-                neighbor.addSmell(1);
-                neighborsWithSmell.add(neighbor.getId());
-              }
-            }
-          }
-        }
-      }
-    }
-  }
-
-  private void removeMonsterSmellFromLocations(LocationUpdateState location) {
-
-    location.reduceSmell(2);
-
-    //reduces smell from direct neighbor locations
-    for (LocationUpdateState neighbor : location.getNeighbors()) {
-      neighbor.reduceSmell(2);
-    }
-
-    //reduces smell from neighbor locations with distance 2.
-    for (LocationUpdateState loc : location.getNeighbors()) {
-      for (LocationUpdateState neighbor : loc.getNeighbors()) {
-        neighbor.reduceSmell(1);
+    int[] monsters = new int[this.rows * this.columns];
+    int count = 0;
+    for (int i = 0; i < monsters.length; i++) {
+      if (this.grid.get(i).getMonster() != null) {
+        monsters[count++] = i;
       }
     }
+    this.smell.spread(Arrays.copyOf(monsters, count), this.grid);
   }
 
   private void addArrowsToLocations(double percentageOfArrows) {
-    List<LocationUpdateState> allLocations = this.dungeon.stream().flatMap(Collection::stream)
-            .collect(Collectors.toList());
+    List<LocationUpdateState> allLocations = getAllLocations();
     int locationsWithArrows = (int) (allLocations.size() * percentageOfArrows / 100);
 
     for (int i = 0; i < locationsWithArrows; i++) {
@@ -534,350 +775,282 @@ public class DungeonImpl implements Dungeon {
     }
   }
 
-  private List<List<LocationUpdateState>> createDungeon() {
-    List<List<LocationUpdateState>> dungeon = new ArrayList<>();
-    for (int i = 0; i < this.rows; i++) {
-      List<LocationUpdateState> dungeonCol = new ArrayList<>();
-      for (int j = 0; j < this.columns; j++) {
-        dungeonCol.add(new Cave((this.columns * i) + j, i, j));
-      }
-      dungeon.add(dungeonCol);
+  private LocationGrid createDungeon(GridStorage storage) {
+    switch (storage) {
+      case PACKED:
+        return new PackedGrid(this.rows, this.columns);
+      case CAVES:
+      default:
+        return new CaveGrid(this.rows, this.columns);
     }
-    return dungeon;
   }
 
-  private List<Edge> createPotentialPaths() {
-    List<Edge> possibleEdges = new ArrayList<>();
+  private int[] createPotentialPaths() {
+    int[] possibleEdges = new int[4 * this.rows * this.columns];
+    int edges = 0;
     for (int i = 0; i < rows - 1; i++) {
       for (int j = 0; j < columns - 1; j++) {
-        possibleEdges.add(new Edge(this.dungeon.get(i).get(j).getId(),
-                this.dungeon.get(i).get(j + 1).getId()));
-        possibleEdges.add(new Edge(this.dungeon.get(i).get(j).getId(),
-                this.dungeon.get(i + 1).get(j).getId()));
+        edges = addEdge(possibleEdges, edges, getId(i, j), getId(i, j + 1));
+        edges = addEdge(possibleEdges, edges, getId(i, j), getId(i + 1, j));
       }
     }
 
     //border edges
     for (int j = 0; j < columns - 1; j++) {
-      possibleEdges.add(new Edge(this.dungeon.get(rows - 1).get(j).getId(),
-              this.dungeon.get(rows - 1).get(j + 1).getId()));
+      edges = addEdge(possibleEdges, edges, getId(rows - 1, j), getId(rows - 1, j + 1));
     }
     for (int i = 0; i < rows - 1; i++) {
-      possibleEdges.add(new Edge(this.dungeon.get(i).get(columns - 1).getId(),
-              this.dungeon.get(i + 1).get(columns - 1).getId()));
+      edges = addEdge(possibleEdges, edges, getId(i, columns - 1), getId(i + 1, columns - 1));
     }
 
     //edges for wrapping model.dungeon
     if (this.isWrapping) {
       for (int i = 0; i < rows; i++) {
-        possibleEdges.add(new Edge(this.dungeon.get(i).get(0).getId(), this.dungeon.get(i)
-                .get(columns - 1).getId()));
+        edges = addEdge(possibleEdges, edges, getId(i, 0), getId(i, columns - 1));
       }
       for (int j = 0; j < columns; j++) {
-        possibleEdges.add(new Edge(this.dungeon.get(0).get(j).getId(), this.dungeon.get(rows - 1)
-                .get(j).getId()));
+        edges = addEdge(possibleEdges, edges, getId(0, j), getId(rows - 1, j));
       }
     }
-    return possibleEdges;
+    return Arrays.copyOf(possibleEdges, 2 * edges);
   }
 
-  private List<Edge> createPaths() {
-    List<Edge> potentialPaths = new ArrayList<>(this.potentialPaths);
-    List<Edge> paths = new ArrayList<>();
-    List<Edge> leftOverPaths = new ArrayList<>();
+  private int addEdge(int[] edges, int count, int firstLocation, int secondLocation) {
+    edges[2 * count] = firstLocation;
+    edges[2 * count + 1] = secondLocation;
+    return count + 1;
+  }
+
+  private int getId(int row, int column) {
+    return (this.columns * row) + column;
+  }
+
+  /**
+   * Builds the paths with Kruskal's algorithm over the potential edges, which are stored as
+   * pairs of location ids. Each edge is picked by a random position among the edges not picked
+   * yet, exactly like picking and removing a random index of a list, so the same random stream
+   * always builds the same paths. Every picked edge is written straight into the exit masks of
+   * both its locations, indexed by the location id.
+   */
+  private byte[] createPaths(int[] potentialPaths) {
     int nodes = this.rows * this.columns;
-    Subset[] subsets = new Subset[nodes];
+    byte[] exitMasks = new byte[nodes];
+    RankedSelection remainingPaths = new RankedSelection(potentialPaths.length / 2);
+    int[] leftOverPaths = new int[potentialPaths.length / 2];
+    int leftOverCount = 0;
+    int[] parents = new int[nodes];
+    byte[] ranks = new byte[nodes];
     for (int i = 0; i < nodes; i++) {
-      subsets[i] = new Subset(i, 0);
+      parents[i] = i;
     }
     int currentEdge = 0;
 
-    while (currentEdge < nodes - 1 && potentialPaths.size() > 1) {
-      int randomIndex = this.rand.getRandom(potentialPaths.size(), 0);
-      Edge nextEdge = potentialPaths.get(randomIndex);
+    while (currentEdge < nodes - 1 && remainingPaths.size() > 1) {
+      int nextEdge = remainingPaths.removeAt(this.rand.getRandom(remainingPaths.size(), 0));
 
-      int x = find(subsets, nextEdge.getFirstLocation());
-      int y = find(subsets, nextEdge.getSecondLocation());
+      int x = find(parents, potentialPaths[2 * nextEdge]);
+      int y = find(parents, potentialPaths[2 * nextEdge + 1]);
 
       if (x != y) {
-        paths.add(nextEdge);
-        union(subsets, x, y);
+        connect(exitMasks, potentialPaths[2 * nextEdge], potentialPaths[2 * nextEdge + 1]);
+        union(parents, ranks, x, y);
         currentEdge++;
       } else {
-        leftOverPaths.add(nextEdge);
+        leftOverPaths[leftOverCount++] = nextEdge;
       }
-      potentialPaths.remove(randomIndex);
     }
 
+    RankedSelection remainingLeftOverPaths = new RankedSelection(leftOverCount);
     for (int i = 0; i < this.interconnectivity; i++) {
-      if (leftOverPaths.size() == 0) {
-        int randomIndex = this.rand.getRandom(potentialPaths.size(), 0);
-        paths.add(potentialPaths.get(randomIndex));
-        potentialPaths.remove(randomIndex);
+      int nextEdge;
+      if (remainingLeftOverPaths.size() == 0) {
+        nextEdge = remainingPaths.removeAt(this.rand.getRandom(remainingPaths.size(), 0));
       } else {
-        int randomIndex = this.rand.getRandom(leftOverPaths.size(), 0);
-        paths.add(leftOverPaths.get(randomIndex));
-        leftOverPaths.remove(randomIndex);
+        nextEdge = leftOverPaths[remainingLeftOverPaths.removeAt(
+                this.rand.getRandom(remainingLeftOverPaths.size(), 0))];
       }
+      connect(exitMasks, potentialPaths[2 * nextEdge], potentialPaths[2 * nextEdge + 1]);
       currentEdge++;
     }
-    return paths;
+    return exitMasks;
   }
 
-  private int find(Subset[] subsets, int i) {
-    if (subsets[i].parent != i) {
-      subsets[i].parent = find(subsets, subsets[i].parent);
+  /**
+   * Opens the exits of both locations of an edge. On narrow wrapping dungeons two directions of
+   * a location can lead to the same neighbor, in which case both of them are opened.
+   */
+  private void connect(byte[] exitMasks, int firstLocation, int secondLocation) {
+    for (Direction direction : Direction.values()) {
+      if (this.topology.getNeighbor(firstLocation, direction) == secondLocation) {
+        exitMasks[firstLocation] |= 1 << direction.ordinal();
+      }
+      if (this.topology.getNeighbor(secondLocation, direction) == firstLocation) {
+        exitMasks[secondLocation] |= 1 << direction.ordinal();
+      }
     }
-    return subsets[i].parent;
   }
 
-  private void union(Subset[] subsets, int x, int y) {
-    int rootOfX = find(subsets, x);
-    int rootOfY = find(subsets, y);
+  private int find(int[] parents, int i) {
+    while (parents[i] != i) {
+      parents[i] = parents[parents[i]];
+      i = parents[i];
+    }
+    return i;
+  }
 
-    if (subsets[rootOfX].rank < subsets[rootOfY].rank) {
-      subsets[rootOfX].parent = rootOfY;
-    } else if (subsets[rootOfX].rank > subsets[rootOfY].rank) {
-      subsets[rootOfY].parent = rootOfX;
+  private void union(int[] parents, byte[] ranks, int rootOfX, int rootOfY) {
+    if (ranks[rootOfX] < ranks[rootOfY]) {
+      parents[rootOfX] = rootOfY;
+    } else if (ranks[rootOfX] > ranks[rootOfY]) {
+      parents[rootOfY] = rootOfX;
     } else {
-      subsets[rootOfY].parent = rootOfX;
-      subsets[rootOfX].rank++;
+      parents[rootOfY] = rootOfX;
+      ranks[rootOfX]++;
     }
   }
 
   private void getValidMovesForCaves() {
-    for (int i = 0; i < this.rows; i++) {
-      for (int j = 0; j < this.columns; j++) {
-        Map<Direction, LocationUpdateState> validDirections = new HashMap<>();
-        LocationUpdateState cave = this.dungeon.get(i).get(j);
-
-        //down
-        if (i < this.rows - 1) {
-          if (this.paths.contains(new Edge(cave.getId(), this.dungeon.get(i + 1).get(j).getId()))) {
-            validDirections.put(Direction.S, this.dungeon.get(i + 1).get(j));
-          }
-        } else if (isWrapping) {
-          if (this.paths.contains(new Edge(cave.getId(), this.dungeon.get(0).get(j).getId()))) {
-            validDirections.put(Direction.S, this.dungeon.get(0).get(j));
-          }
-        }
-        //up
-        if (i > 0) {
-          if (this.paths.contains(new Edge(cave.getId(), this.dungeon.get(i - 1).get(j).getId()))) {
-            validDirections.put(Direction.N, this.dungeon.get(i - 1).get(j));
-          }
-        } else if (isWrapping) {
-          if (this.paths.contains(new Edge(cave.getId(), this.dungeon.get(this.rows - 1).get(j)
-                  .getId()))) {
-            validDirections.put(Direction.N, this.dungeon.get(this.rows - 1).get(j));
-          }
-        }
-        //right
-        if (j < this.columns - 1) {
-          if (this.paths.contains(new Edge(cave.getId(), this.dungeon.get(i).get(j + 1).getId()))) {
-            validDirections.put(Direction.E, this.dungeon.get(i).get(j + 1));
-          }
-        } else if (isWrapping) {
-          if (this.paths.contains(new Edge(cave.getId(), this.dungeon.get(i).get(0).getId()))) {
-            validDirections.put(Direction.E, this.dungeon.get(i).get(0));
-          }
-        }
-        //left
-        if (j > 0) {
-          if (this.paths.contains(new Edge(cave.getId(), this.dungeon.get(i).get(j - 1).getId()))) {
-            validDirections.put(Direction.W, this.dungeon.get(i).get(j - 1));
-          }
-        } else if (isWrapping) {
-          if (this.paths.contains(new Edge(cave.getId(), this.dungeon.get(i).get(this.columns - 1)
-                  .getId()))) {
-            validDirections.put(Direction.W, this.dungeon.get(i).get(this.columns - 1));
-          }
+    for (int cell = 0; cell < this.topology.size(); cell++) {
+      Map<Direction, LocationUpdateState> validDirections = new HashMap<>();
+      for (Direction direction : Direction.values()) {
+        if ((this.exits[cell] & (1 << direction.ordinal())) != 0) {
+          validDirections.put(direction, this.grid.get(this.topology.getNeighbor(cell,
+                  direction)));
         }
-        cave.setValidMoves(validDirections);
       }
+      this.grid.get(cell).setValidMoves(validDirections);
     }
   }
 
-  private List<LocationUpdateState> getCavesOnly() {
-    List<LocationUpdateState> allLocations = new ArrayList<>();
-    for (List<LocationUpdateState> locations : this.dungeon) {
-      allLocations.addAll(locations);
+  /**
+   * Starts recording the locations touched by an action and returns the state of the player and
+   * the random generator before it, or {@code null} if the history is turned off and nobody
+   * listens to the changes.
+   */
+  private ActionDelta startAction() {
+    if (this.historyDepth == 0 && this.listener == DungeonListener.NONE) {
+      return null;
     }
-    return allLocations.stream().filter(location -> !location.isTunnel())
-            .collect(Collectors.toList());
-  }
-
-  private LocationUpdateState getRandomCave(List<LocationUpdateState> locations) {
-    int index = this.rand.getRandom(locations.size(), 0);
-    return locations.get(index);
+    this.overlay.startRecording();
+    return ActionDelta.capture(null, this.player, this.rand);
   }
 
-  private AbstractMap.SimpleImmutableEntry<LocationUpdateState, LocationUpdateState>
-              setStartAndEndCave() throws IllegalArgumentException {
-    List<LocationUpdateState> potentialSources = getCavesOnly();
-    LocationUpdateState source;
-    LocationUpdateState destination;
-
-    do {
-      source = getRandomCave(potentialSources);
-      destination = setEndCave(source);
-      potentialSources.remove(source);
+  /**
+   * Stops recording, keeps the state before the action in the history and tells the listener
+   * what changed, unless the action did not change anything.
+   */
+  private void endAction(ActionDelta before) {
+    if (before == null) {
+      return;
     }
-    while (destination == null && potentialSources.size() != 0);
-
-    if (destination == null) {
-      throw new IllegalArgumentException("Dungeon too small or interconnected! Cannot find any"
-              + " path of at length 5 between two nodes.");
+    LocationChanges locations = this.overlay.stopRecording();
+    ActionDelta after = ActionDelta.capture(locations, this.player, this.rand);
+    if (before.isSameAs(after)) {
+      return;
     }
-    destination.addMonster(new Otyugh());
-    return new AbstractMap.SimpleImmutableEntry<>(source, destination);
+    if (this.historyDepth > 0) {
+      this.undoHistory.push(before.withLocations(locations));
+      if (this.undoHistory.size() > this.historyDepth) {
+        this.undoHistory.removeLast();
+      }
+      this.redoHistory.clear();
+    }
+    notifyListener(before, after);
   }
 
-  private LocationUpdateState setEndCave(LocationUpdateState source) {
-    LocationUpdateState destination;
-    int distance;
-    List<LocationUpdateState> allLocations = getCavesOnly();
+  private ActionDelta revert(ActionDelta delta) {
+    ActionDelta current = ActionDelta.capture(this.overlay.apply(delta.getLocations()),
+            this.player, this.rand);
+    delta.restoreRandom(this.rand);
+    this.player = delta.restorePlayer(this.player.getName(), this.overlay);
+    notifyListener(current, ActionDelta.capture(current.getLocations(), this.player, this.rand));
+    return current;
+  }
 
-    do {
-      destination = getRandomCave(allLocations);
-      distance = getMinimumDistance(source, destination);
-      allLocations.remove(destination);
+  /**
+   * Tells the listener about the changes between two states, where the later one holds the
+   * locations that changed.
+   */
+  private void notifyListener(ActionDelta before, ActionDelta after) {
+    if (this.listener == DungeonListener.NONE) {
+      return;
     }
-    while (distance < 5 && allLocations.size() > 0);
+    this.listener.dungeonChanged(before.addPlayerLocations(after.getLocations().getLocations(),
+            after), before.getPlayerChanges(after));
+  }
 
-    if (distance < 5) {
-      return null;
+  private int getCell(Location location) {
+    if (location == null || location.getId() < 0 || location.getId() >= this.topology.size()) {
+      throw new IllegalArgumentException("Location is not in the dungeon.");
     }
-
-    return destination;
+    return location.getId();
   }
 
-  private int getMinimumDistance(LocationUpdateState start, LocationUpdateState end) {
-    NodeWithDistanceFromSource source = new NodeWithDistanceFromSource(0, 0, 0);
-    Queue<NodeWithDistanceFromSource> nodes = new LinkedList<>();
-    boolean[][] visited = new boolean[this.dungeon.size()][this.dungeon.get(0).size()];
+  private long completePhase(GenerationListener listener, GenerationPhase phase,
+                             long phaseStart) {
+    long phaseEnd = System.nanoTime();
+    listener.phaseCompleted(phase, phaseEnd - phaseStart);
+    if (listener.isCancelled()) {
+      throw new CancellationException("Generation was cancelled after " + phase + ".");
+    }
+    return phaseEnd;
+  }
 
-    sourceLoop:
+  private List<LocationUpdateState> getAllLocations() {
+    List<LocationUpdateState> allLocations = new ArrayList<>();
     for (int i = 0; i < this.rows; i++) {
       for (int j = 0; j < this.columns; j++) {
-        if (this.dungeon.get(i).get(j).getId() == start.getId()) {
-          source.x = i;
-          source.y = j;
-          break sourceLoop;
-        }
+        allLocations.add(this.grid.get(i, j));
       }
     }
+    return allLocations;
+  }
 
-    nodes.add(new NodeWithDistanceFromSource(source.x, source.y, 0));
-    visited[source.x][source.y] = true;
-
-    while (!nodes.isEmpty()) {
-      NodeWithDistanceFromSource node = nodes.remove();
-      int x;
-      int y;
-
-      // Destination reached
-      if (this.dungeon.get(node.x).get(node.y).getId() == end.getId()) {
-        return node.distance;
-      }
-
-      // up
-      x = node.x - 1;
-      y = node.y;
-      if (this.isWrapping && node.x == 0) {
-        x = this.rows - 1;
-      }
-      if (isValid(x, y, visited)
-              && this.dungeon.get(node.x).get(node.y).getPossibleMoves()
-              .contains(Direction.N)) {
-        nodes.add(new NodeWithDistanceFromSource(x, y,
-                node.distance + 1));
-        visited[x][y] = true;
-      }
-
-      // down
-      x = node.x + 1;
-      y = node.y;
-      if (this.isWrapping && node.x == this.rows - 1) {
-        x = 0;
-      }
-      if (isValid(x, y, visited)
-              && this.dungeon.get(node.x).get(node.y).getPossibleMoves()
-              .contains(Direction.S)) {
-        nodes.add(new NodeWithDistanceFromSource(x, y,
-                node.distance + 1));
-        visited[x][y] = true;
-      }
-
-      // left
-      x = node.x;
-      y = node.y - 1;
-      if (this.isWrapping && node.y == 0) {
-        y = this.columns - 1;
-      }
-      if (isValid(x, y, visited)
-              && this.dungeon.get(node.x).get(node.y).getPossibleMoves().contains(Direction.W)) {
-        nodes.add(new NodeWithDistanceFromSource(x, y,
-                node.distance + 1));
-        visited[x][y] = true;
-      }
-
-      // right
-      x = node.x;
-      y = node.y + 1;
-      if (this.isWrapping && node.y == this.columns - 1) {
-        y = 0;
-      }
-      if (isValid(x, y, visited)
-              && this.dungeon.get(node.x).get(node.y).getPossibleMoves().contains(Direction.E)) {
-        nodes.add(new NodeWithDistanceFromSource(x, y,
-                node.distance + 1));
-        visited[x][y] = true;
-      }
-    }
-    return -1;
+  private List<LocationUpdateState> getCavesOnly() {
+    return getAllLocations().stream().filter(location -> !location.isTunnel())
+            .collect(Collectors.toList());
   }
 
-  private boolean isValid(int x, int y, boolean[][] visited) {
-    return (x >= 0 && y >= 0 && x < this.dungeon.size() && y < this.dungeon.get(0).size()
-            && !visited[x][y]);
+  private LocationUpdateState getRandomCave(List<LocationUpdateState> locations) {
+    int index = this.rand.getRandom(locations.size(), 0);
+    return locations.get(index);
   }
 
   /**
-   * This represents a {@link Location} in the dungeon with co-ordinates of the location in the
-   * dungeon grid and its distance from the source location.
+   * Picks a random source among the caves and computes the distance of every location from it.
+   * The destination is picked with a single random draw among the caves at a distance of at
+   * least 5, which is the same as drawing caves until one is far enough. Another source is only
+   * picked if no cave is far enough from the current one.
    */
-  private static class NodeWithDistanceFromSource {
-    private final int distance;
-    private int x;
-    private int y;
+  private AbstractMap.SimpleImmutableEntry<LocationUpdateState, LocationUpdateState>
+              setStartAndEndCave() throws IllegalArgumentException {
+    List<LocationUpdateState> caves = getCavesOnly();
+    List<LocationUpdateState> potentialSources = new ArrayList<>(caves);
+    List<LocationUpdateState> potentialDestinations = new ArrayList<>();
+    int[] distances = new int[this.topology.size()];
+    int[] queue = new int[this.topology.size()];
+    LocationUpdateState source;
 
-    /**
-     * Constructs a location node.
-     *
-     * @param x        the x co-ordinate of location in the dungeon grid.
-     * @param y        the y co-ordinate of location in the dungeon grid.
-     * @param distance the distance from the source location.
-     */
-    private NodeWithDistanceFromSource(int x, int y, int distance) {
-      this.x = x;
-      this.y = y;
-      this.distance = distance;
+    do {
+      int index = this.rand.getRandom(potentialSources.size(), 0);
+      source = potentialSources.remove(index);
+      this.topology.fillDistances(source.getId(), this.exits, distances, queue);
+      potentialDestinations.clear();
+      for (LocationUpdateState cave : caves) {
+        if (distances[cave.getId()] >= 5) {
+          potentialDestinations.add(cave);
+        }
+      }
     }
-  }
-
-  /**
-   * This represents a subset of the dungeon grid with the root parent and rank. This class is used
-   * for building the dungeon grid.
-   */
-  private static class Subset {
-    private int parent;
-    private int rank;
+    while (potentialDestinations.isEmpty() && potentialSources.size() != 0);
 
-    private Subset(int parent, int rank) {
-      this.parent = parent;
-      this.rank = rank;
+    if (potentialDestinations.isEmpty()) {
+      throw new IllegalArgumentException("Dungeon too small or interconnected! Cannot find any"
+              + " path of at length 5 between two nodes.");
     }
+    LocationUpdateState destination = getRandomCave(potentialDestinations);
+    destination.addMonster(new Otyugh());
+    return new AbstractMap.SimpleImmutableEntry<>(source, destination);
   }
 
 }
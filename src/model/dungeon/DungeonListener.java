@@ -0,0 +1,28 @@
+package model.dungeon;
+
+import java.util.Set;
+
+import model.player.PlayerField;
+
+/**
+ * The DungeonListener is notified by a {@link ReadOnlyDungeon} every time an action of the
+ * player, an undo, a redo or a restart changes the dungeon, with only what changed, so a view can
+ * redraw the changed locations and fields without reading the whole dungeon again.
+ */
+public interface DungeonListener {
+
+  /**
+   * A listener that ignores all the changes.
+   */
+  DungeonListener NONE = (locations, playerFields) -> {
+  };
+
+  /**
+   * Called after the dungeon changed.
+   *
+   * @param locations    the ids of the locations whose state changed and of the locations the
+   *                     player left or entered, each given once.
+   * @param playerFields the fields of the player that changed.
+   */
+  void dungeonChanged(int[] locations, Set<PlayerField> playerFields);
+}
@@ -0,0 +1,196 @@
+package model.dungeon;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import model.location.GridStorage;
+import model.random.RandomGenerator;
+
+/**
+ * This represents the parameters a {@link DungeonImpl} is generated with, apart from the random
+ * generator. The same parameters can be used to generate many dungeons, one for every random
+ * generator. Parameters are equal when all their values are equal, so they can be used as keys.
+ */
+public final class DungeonParameters {
+
+  private final int rows;
+  private final int columns;
+  private final int interconnectivity;
+  private final boolean isWrapping;
+  private final double percentageOfTreasuresAndArrows;
+  private final String playerName;
+  private final int numberOfMonsters;
+  private final GridStorage storage;
+
+  /**
+   * Constructs the parameters of a dungeon. The parameters are only checked when a dungeon is
+   * generated, by {@link DungeonImpl}.
+   *
+   * @param rows                           the number of rows.
+   * @param columns                        the number of columns.
+   * @param interconnectivity              the interconnectivity.
+   * @param isWrapping                     {@code true} is dungeon is wrapping otherwise
+   *                                       {@code false}.
+   * @param percentageOfTreasuresAndArrows the percentage of caves to have treasures and the
+   *                                       percentage of locations to have arrows.
+   * @param playerName                     the name of the player.
+   * @param numberOfMonsters               the number of monsters.
+   * @param storage                        the storage of the locations.
+   */
+  public DungeonParameters(int rows, int columns, int interconnectivity, boolean isWrapping,
+                           double percentageOfTreasuresAndArrows, String playerName,
+                           int numberOfMonsters, GridStorage storage) {
+    this.rows = rows;
+    this.columns = columns;
+    this.interconnectivity = interconnectivity;
+    this.isWrapping = isWrapping;
+    this.percentageOfTreasuresAndArrows = percentageOfTreasuresAndArrows;
+    this.playerName = playerName;
+    this.numberOfMonsters = numberOfMonsters;
+    this.storage = storage;
+  }
+
+  /**
+   * Generates a dungeon with these parameters.
+   *
+   * @param rand the random generator.
+   * @return the dungeon.
+   * @throws IllegalArgumentException for all the cases of
+   *                                  {@link DungeonImpl#DungeonImpl(int, int, int, boolean, double,
+   *                                  String, int, RandomGenerator, GridStorage)}.
+   */
+  public DungeonImpl createDungeon(RandomGenerator rand) throws IllegalArgumentException {
+    return new DungeonImpl(this.rows, this.columns, this.interconnectivity, this.isWrapping,
+            this.percentageOfTreasuresAndArrows, this.playerName, this.numberOfMonsters, rand,
+            this.storage);
+  }
+
+  /**
+   * Generates a dungeon with these parameters and notifies the given listener as every
+   * {@link GenerationPhase} is completed.
+   *
+   * @param rand     the random generator.
+   * @param listener the listener of the generation phases.
+   * @return the dungeon.
+   * @throws IllegalArgumentException for all the cases of
+   *                                  {@link DungeonImpl#DungeonImpl(int, int, int, boolean, double,
+   *                                  String, int, RandomGenerator, GridStorage,
+   *                                  GenerationListener)}.
+   * @throws CancellationException    if the listener stops the generation.
+   */
+  public DungeonImpl createDungeon(RandomGenerator rand, GenerationListener listener)
+          throws IllegalArgumentException, CancellationException {
+    return new DungeonImpl(this.rows, this.columns, this.interconnectivity, this.isWrapping,
+            this.percentageOfTreasuresAndArrows, this.playerName, this.numberOfMonsters, rand,
+            this.storage, listener);
+  }
+
+  /**
+   * Generates a dungeon with these parameters on the given executor. The listener is notified on
+   * the generating thread as every {@link GenerationPhase} is completed. Cancelling the returned
+   * future stops the generation at the end of the phase it is in, and a dungeon that cannot be
+   * generated completes the future with the {@link IllegalArgumentException} of
+   * {@link #createDungeon(RandomGenerator, GenerationListener)}.
+   *
+   * @param rand     the random generator, which must not be used by anyone else until the
+   *                 future is done.
+   * @param listener the listener of the generation phases.
+   * @param executor the executor that runs the generation.
+   * @return the future dungeon.
+   * @throws IllegalArgumentException if {@code listener} or {@code executor} is {@code null}.
+   */
+  public CompletableFuture<DungeonImpl> createDungeonAsync(RandomGenerator rand,
+                                                           GenerationListener listener,
+                                                           Executor executor)
+          throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Generation listener cannot be null.");
+    }
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor cannot be null.");
+    }
+    CompletableFuture<DungeonImpl> dungeon = new CompletableFuture<>();
+    GenerationListener cancellable = new GenerationListener() {
+      @Override
+      public void phaseCompleted(GenerationPhase phase, long elapsedNanos) {
+        listener.phaseCompleted(phase, elapsedNanos);
+      }
+
+      @Override
+      public boolean isCancelled() {
+        return dungeon.isCancelled() || listener.isCancelled();
+      }
+    };
+    executor.execute(() -> {
+      if (dungeon.isDone()) {
+        return;
+      }
+      try {
+        dungeon.complete(createDungeon(rand, cancellable));
+      } catch (RuntimeException e) {
+        dungeon.completeExceptionally(e);
+      }
+    });
+    return dungeon;
+  }
+
+  public int getRows() {
+    return this.rows;
+  }
+
+  public int getColumns() {
+    return this.columns;
+  }
+
+  public int getInterconnectivity() {
+    return this.interconnectivity;
+  }
+
+  public boolean isWrapping() {
+    return this.isWrapping;
+  }
+
+  public double getPercentageOfTreasuresAndArrows() {
+    return this.percentageOfTreasuresAndArrows;
+  }
+
+  public String getPlayerName() {
+    return this.playerName;
+  }
+
+  public int getNumberOfMonsters() {
+    return this.numberOfMonsters;
+  }
+
+  public GridStorage getStorage() {
+    return this.storage;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o instanceof DungeonParameters) {
+      DungeonParameters parameters = (DungeonParameters) o;
+      return this.rows == parameters.rows && this.columns == parameters.columns
+              && this.interconnectivity == parameters.interconnectivity
+              && this.isWrapping == parameters.isWrapping
+              && Double.compare(this.percentageOfTreasuresAndArrows,
+                      parameters.percentageOfTreasuresAndArrows) == 0
+              && Objects.equals(this.playerName, parameters.playerName)
+              && this.numberOfMonsters == parameters.numberOfMonsters
+              && this.storage == parameters.storage;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.rows, this.columns, this.interconnectivity, this.isWrapping,
+            this.percentageOfTreasuresAndArrows, this.playerName, this.numberOfMonsters,
+            this.storage);
+  }
+}
@@ -0,0 +1,365 @@
+package model.dungeon;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import model.random.RandomGenerator;
+
+/**
+ * This keeps dungeons generated ahead of time for the {@link DungeonParameters} that were asked
+ * for most recently, so a new game with the same parameters does not wait for its dungeon. Every
+ * time a dungeon is asked for with {@link #poll(DungeonParameters)}, its parameters become the
+ * most recently used ones and the pool generates dungeons for them in the background until it
+ * holds the given number of dungeons for each of them.
+ *
+ * <p>The pool keeps dungeons for at most the given number of parameters, and forgets the least
+ * recently used parameters and their dungeons when there are more. The memory of a dungeon grows
+ * with its number of locations, so the pool also keeps at most the given number of locations in
+ * all its dungeons, and drops the dungeons of the least recently used parameters to make room for
+ * the more recently used ones. Parameters a dungeon cannot be generated for are forgotten.
+ *
+ * <p>The dungeons are generated one at a time on an executor, by default a single daemon thread
+ * of the lowest priority, so the pool only uses the processor when nothing else needs it. All the
+ * methods of the pool can be called from any thread.
+ */
+public final class DungeonPool implements AutoCloseable {
+
+  /**
+   * The number of parameters dungeons are kept for unless set otherwise.
+   */
+  public static final int DEFAULT_PARAMETER_SETS = 3;
+
+  /**
+   * The number of dungeons kept for each of the parameters unless set otherwise.
+   */
+  public static final int DEFAULT_DUNGEONS_PER_SET = 1;
+
+  /**
+   * The number of locations in all the kept dungeons unless set otherwise.
+   */
+  public static final long DEFAULT_MAX_LOCATIONS = 1_000_000;
+
+  private final int maxParameterSets;
+  private final int dungeonsPerSet;
+  private final long maxLocations;
+  private final Supplier<RandomGenerator> rand;
+  private final Executor executor;
+  private final boolean isOwnExecutor;
+  private final Map<DungeonParameters, Deque<DungeonImpl>> dungeons;
+  private long locations;
+  private boolean isGenerating;
+  private boolean isClosed;
+  private long hits;
+  private long misses;
+  private long generated;
+
+  /**
+   * Constructs a pool with the default bounds that generates its dungeons with the given random
+   * generators on a background thread of its own.
+   *
+   * @param rand the supplier of a random generator for every dungeon.
+   * @throws IllegalArgumentException if {@code rand} is {@code null}.
+   */
+  public DungeonPool(Supplier<RandomGenerator> rand) throws IllegalArgumentException {
+    this(DEFAULT_PARAMETER_SETS, DEFAULT_DUNGEONS_PER_SET, DEFAULT_MAX_LOCATIONS, rand);
+  }
+
+  /**
+   * Constructs a pool that generates its dungeons with the given random generators on a
+   * background thread of its own.
+   *
+   * @param maxParameterSets the largest number of parameters dungeons are kept for.
+   * @param dungeonsPerSet   the number of dungeons kept for each of the parameters.
+   * @param maxLocations     the largest number of locations in all the kept dungeons.
+   * @param rand             the supplier of a random generator for every dungeon.
+   * @throws IllegalArgumentException for all the cases of
+   *                                  {@link #DungeonPool(int, int, long, Supplier, Executor)}.
+   */
+  public DungeonPool(int maxParameterSets, int dungeonsPerSet, long maxLocations,
+                     Supplier<RandomGenerator> rand) throws IllegalArgumentException {
+    this(maxParameterSets, dungeonsPerSet, maxLocations, rand, null, true);
+  }
+
+  /**
+   * Constructs a pool that generates its dungeons with the given random generators on the given
+   * executor. The executor is not shut down by {@link #close()}.
+   *
+   * @param maxParameterSets the largest number of parameters dungeons are kept for.
+   * @param dungeonsPerSet   the number of dungeons kept for each of the parameters.
+   * @param maxLocations     the largest number of locations in all the kept dungeons.
+   * @param rand             the supplier of a random generator for every dungeon.
+   * @param executor         the executor that generates the dungeons.
+   * @throws IllegalArgumentException <ul><li>if {@code maxParameterSets} or
+   *                                  {@code dungeonsPerSet} is less than 1.</li>
+   *                                  <li>if {@code maxLocations} is negative.</li>
+   *                                  <li>if {@code rand} or {@code executor} is
+   *                                  {@code null}.</li></ul>
+   */
+  public DungeonPool(int maxParameterSets, int dungeonsPerSet, long maxLocations,
+                     Supplier<RandomGenerator> rand, Executor executor)
+          throws IllegalArgumentException {
+    this(maxParameterSets, dungeonsPerSet, maxLocations, rand, executor, false);
+  }
+
+  private DungeonPool(int maxParameterSets, int dungeonsPerSet, long maxLocations,
+                      Supplier<RandomGenerator> rand, Executor executor, boolean isOwnExecutor) {
+    if (maxParameterSets < 1) {
+      throw new IllegalArgumentException("Number of parameter sets must be at least 1.");
+    }
+    if (dungeonsPerSet < 1) {
+      throw new IllegalArgumentException("Number of dungeons per set must be at least 1.");
+    }
+    if (maxLocations < 0) {
+      throw new IllegalArgumentException("Number of locations cannot be negative.");
+    }
+    if (rand == null) {
+      throw new IllegalArgumentException("Random generator supplier cannot be null.");
+    }
+    if (executor == null && !isOwnExecutor) {
+      throw new IllegalArgumentException("Executor cannot be null.");
+    }
+    this.maxParameterSets = maxParameterSets;
+    this.dungeonsPerSet = dungeonsPerSet;
+    this.maxLocations = maxLocations;
+    this.rand = rand;
+    this.executor = isOwnExecutor ? newBackgroundExecutor() : executor;
+    this.isOwnExecutor = isOwnExecutor;
+    this.dungeons = new LinkedHashMap<>();
+  }
+
+  /**
+   * Takes a dungeon generated ahead of time for the given parameters, if there is one, and makes
+   * the parameters the most recently used ones, so the pool generates dungeons for them next.
+   *
+   * @param parameters the parameters.
+   * @return the dungeon, or {@code null} if there is none for the parameters yet.
+   * @throws IllegalArgumentException if {@code parameters} is {@code null}.
+   * @throws IllegalStateException    if the pool is closed.
+   */
+  public synchronized DungeonImpl poll(DungeonParameters parameters)
+          throws IllegalArgumentException, IllegalStateException {
+    if (parameters == null) {
+      throw new IllegalArgumentException("Parameters cannot be null.");
+    }
+    if (this.isClosed) {
+      throw new IllegalStateException("Pool is closed.");
+    }
+    Deque<DungeonImpl> pooled = this.dungeons.remove(parameters);
+    if (pooled == null) {
+      pooled = new ArrayDeque<>();
+    }
+    this.dungeons.put(parameters, pooled);
+    forgetLeastRecentlyUsed();
+    DungeonImpl dungeon = pooled.poll();
+    if (dungeon == null) {
+      this.misses++;
+    } else {
+      this.hits++;
+      this.locations -= getLocations(parameters);
+    }
+    startGenerating();
+    return dungeon;
+  }
+
+  /**
+   * Forgets every parameters and dungeon of the pool and stops generating. A pool with its own
+   * executor shuts it down.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      this.isClosed = true;
+      this.dungeons.clear();
+      this.locations = 0;
+    }
+    if (this.isOwnExecutor) {
+      ((ExecutorService) this.executor).shutdown();
+    }
+  }
+
+  /**
+   * Returns the number of dungeons kept in the pool.
+   *
+   * @return the number of dungeons.
+   */
+  public synchronized int getDungeons() {
+    int count = 0;
+    for (Deque<DungeonImpl> pooled : this.dungeons.values()) {
+      count += pooled.size();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of dungeons kept for the given parameters.
+   *
+   * @param parameters the parameters.
+   * @return the number of dungeons.
+   */
+  public synchronized int getDungeons(DungeonParameters parameters) {
+    Deque<DungeonImpl> pooled = this.dungeons.get(parameters);
+    return pooled == null ? 0 : pooled.size();
+  }
+
+  /**
+   * Returns the number of parameters dungeons are kept for.
+   *
+   * @return the number of parameters.
+   */
+  public synchronized int getParameterSets() {
+    return this.dungeons.size();
+  }
+
+  /**
+   * Returns the number of locations in all the kept dungeons.
+   *
+   * @return the number of locations.
+   */
+  public synchronized long getLocations() {
+    return this.locations;
+  }
+
+  /**
+   * Returns the number of times a dungeon was taken from the pool.
+   *
+   * @return the number of hits.
+   */
+  public synchronized long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Returns the number of times there was no dungeon for the asked parameters.
+   *
+   * @return the number of misses.
+   */
+  public synchronized long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Returns the number of dungeons generated by the pool.
+   *
+   * @return the number of generated dungeons.
+   */
+  public synchronized long getGenerated() {
+    return this.generated;
+  }
+
+  /**
+   * Returns a single-thread executor whose thread is a daemon of the lowest priority, so it
+   * neither slows down nor holds up anything else.
+   *
+   * @return the executor.
+   */
+  public static ExecutorService newBackgroundExecutor() {
+    return Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "dungeon-pool");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+  }
+
+  private void forgetLeastRecentlyUsed() {
+    while (this.dungeons.size() > this.maxParameterSets) {
+      Map.Entry<DungeonParameters, Deque<DungeonImpl>> eldest = this.dungeons.entrySet()
+              .iterator().next();
+      this.locations -= eldest.getValue().size() * getLocations(eldest.getKey());
+      this.dungeons.remove(eldest.getKey());
+    }
+  }
+
+  private void startGenerating() {
+    if (!this.isGenerating && !this.isClosed && nextToGenerate() != null) {
+      this.isGenerating = true;
+      this.executor.execute(this::generate);
+    }
+  }
+
+  /**
+   * Generates dungeons one at a time, for the most recently used parameters first, until every
+   * parameters has its dungeons or no more fit in the pool.
+   */
+  private void generate() {
+    while (true) {
+      DungeonParameters parameters;
+      synchronized (this) {
+        parameters = this.isClosed ? null : nextToGenerate();
+        if (parameters == null) {
+          this.isGenerating = false;
+          return;
+        }
+      }
+      DungeonImpl dungeon;
+      try {
+        dungeon = parameters.createDungeon(this.rand.get());
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          Deque<DungeonImpl> pooled = this.dungeons.remove(parameters);
+          if (pooled != null) {
+            this.locations -= pooled.size() * getLocations(parameters);
+          }
+        }
+        continue;
+      }
+      synchronized (this) {
+        this.generated++;
+        add(parameters, dungeon);
+      }
+    }
+  }
+
+  /**
+   * Returns the most recently used parameters that need a dungeon which fits in the pool, after
+   * dropping the dungeons of less recently used parameters if that makes it fit, or {@code null}
+   * if there are none. Nothing is dropped for parameters whose dungeon would not fit anyway.
+   */
+  private DungeonParameters nextToGenerate() {
+    List<DungeonParameters> byUse = new ArrayList<>(this.dungeons.keySet());
+    for (int i = byUse.size() - 1; i >= 0; i--) {
+      DungeonParameters parameters = byUse.get(i);
+      Deque<DungeonImpl> pooled = this.dungeons.get(parameters);
+      long needed = getLocations(parameters);
+      if (pooled.size() >= this.dungeonsPerSet || needed > this.maxLocations) {
+        continue;
+      }
+      long droppable = 0;
+      for (int j = 0; j < i; j++) {
+        droppable += this.dungeons.get(byUse.get(j)).size() * getLocations(byUse.get(j));
+      }
+      if (this.locations - droppable + needed > this.maxLocations) {
+        continue;
+      }
+      for (int j = 0; j < i && this.locations + needed > this.maxLocations; j++) {
+        Deque<DungeonImpl> older = this.dungeons.get(byUse.get(j));
+        this.locations -= older.size() * getLocations(byUse.get(j));
+        older.clear();
+      }
+      return parameters;
+    }
+    return null;
+  }
+
+  private void add(DungeonParameters parameters, DungeonImpl dungeon) {
+    Deque<DungeonImpl> pooled = this.dungeons.get(parameters);
+    long needed = getLocations(parameters);
+    if (pooled != null && pooled.size() < this.dungeonsPerSet
+            && this.locations + needed <= this.maxLocations) {
+      pooled.add(dungeon);
+      this.locations += needed;
+    }
+  }
+
+  private static long getLocations(DungeonParameters parameters) {
+    return (long) parameters.getRows() * parameters.getColumns();
+  }
+}
@@ -0,0 +1,52 @@
+package model.dungeon;
+
+import model.location.OverlayGrid;
+import model.random.RandomGenerator;
+
+/**
+ * This hands out rollouts of a {@link DungeonImpl}: dungeons that play on from the current state
+ * of the dungeon without changing it and without copying it. Every rollout reads the locations of
+ * the dungeon through an overlay of its own changes, such as the health of the monsters it shot,
+ * and has a copy of the player, so starting a rollout costs as much as the number of locations
+ * the previous rollout changed.
+ *
+ * <p>The overlay is reused from one rollout to the next, so a rollout can no longer be used once
+ * the next one is handed out, and a source of rollouts is only used by one thread. Any number of
+ * sources can read the same dungeon from different threads as long as the dungeon itself does not
+ * change.
+ */
+public final class DungeonRollouts {
+
+  private final DungeonImpl dungeon;
+  private final OverlayGrid overlay;
+
+  /**
+   * Constructs a source of rollouts of the given dungeon.
+   *
+   * @param dungeon the dungeon.
+   * @throws IllegalArgumentException if {@code dungeon} is {@code null}.
+   */
+  public DungeonRollouts(DungeonImpl dungeon) throws IllegalArgumentException {
+    if (dungeon == null) {
+      throw new IllegalArgumentException("Dungeon cannot be null.");
+    }
+    this.dungeon = dungeon;
+    this.overlay = new OverlayGrid(dungeon.getGrid());
+  }
+
+  /**
+   * Starts a new rollout from the current state of the dungeon. The previous rollout can no
+   * longer be used.
+   *
+   * @param rand the random generator of the rollout, which decides how injured monsters fight.
+   * @return the rollout.
+   * @throws IllegalArgumentException if {@code rand} is {@code null}.
+   */
+  public DungeonImpl next(RandomGenerator rand) throws IllegalArgumentException {
+    if (rand == null) {
+      throw new IllegalArgumentException("Random generator cannot be null.");
+    }
+    this.overlay.reset();
+    return new DungeonImpl(this.dungeon, this.overlay, rand);
+  }
+}
@@ -0,0 +1,341 @@
+package model.dungeon;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+
+import model.location.Direction;
+import model.location.LocationGrid;
+import model.location.OverlayGrid;
+import model.location.PackedGrid;
+import model.location.Treasure;
+import model.player.Player;
+import model.player.PlayerImpl;
+import model.random.RandomGenerator;
+import model.random.RandomSeeded;
+import model.random.RandomTrue;
+
+/**
+ * This represents the binary snapshot format of a {@link DungeonImpl}. A snapshot holds
+ * everything needed to continue a game: the size of the grid, the exit mask of every location,
+ * the treasures, arrows, smell and monster health of every location, the starting and the
+ * destination caves, the state of the player, the seed the dungeon was generated from, the
+ * position of its random generator and the {@link SmellCurve} of its monsters.
+ *
+ * <p>A snapshot starts with a header of fixed size followed by the name of the player, the state
+ * the locations were generated with, the changes made to them since, see {@link OverlayGrid}, the
+ * actions that can be undone and redone, and the smell curve. The state of the locations is
+ * grouped by kind, so the locations are read back with bulk copies straight into the arrays of a
+ * {@link PackedGrid} without creating an object per location, and a restored dungeon can be
+ * restarted and undone like the saved one. A restored dungeon always keeps its locations in a
+ * {@link PackedGrid}. If the random generator of the saved dungeon was not a {@link RandomSeeded}
+ * generator, the restored dungeon gets a new {@link RandomTrue} generator.
+ */
+public final class DungeonSnapshot {
+
+  /**
+   * The first four bytes of every snapshot.
+   */
+  public static final int MAGIC = 0x44554e47;
+
+  /**
+   * The version of the snapshot format written by this class.
+   */
+  public static final short VERSION = 1;
+
+  private static final int TREASURE_TYPES = Treasure.values().length;
+  private static final int HEADER_BYTES = 4 + 2 + 4 + 4 + 4 + 1 + 8 + 8 + 8 + 4 + 4 + 4 + 1 + 4
+          + 4 * TREASURE_TYPES + 2;
+  private static final int WRAPPING = 1;
+  private static final int HAS_SEED = 1 << 1;
+  private static final int HAS_RANDOM_STATE = 1 << 2;
+
+  private DungeonSnapshot() {
+  }
+
+  /**
+   * Returns the number of bytes of the snapshot of the given dungeon.
+   *
+   * @param dungeon the dungeon.
+   * @return the number of bytes.
+   * @throws IllegalArgumentException if {@code dungeon} is {@code null}.
+   */
+  public static int size(DungeonImpl dungeon) throws IllegalArgumentException {
+    if (dungeon == null) {
+      throw new IllegalArgumentException("Dungeon cannot be null.");
+    }
+    OverlayGrid grid = dungeon.getGrid();
+    int cells = grid.getRows() * grid.getColumns();
+    return HEADER_BYTES + encodeName(dungeon.getPlayer()).length
+            + cells * (1 + PackedGrid.STATE_BYTES_PER_LOCATION) + grid.getChangesBytes()
+            + 4 + getBytes(dungeon.getUndoHistory()) + getBytes(dungeon.getRedoHistory())
+            + 2 + 2 * (dungeon.getSmellCurve().getRadius() + 1);
+  }
+
+  /**
+   * Writes the snapshot of the given dungeon to the buffer, starting at its position.
+   *
+   * @param dungeon the dungeon.
+   * @param buffer  the buffer, with at least {@link #size(DungeonImpl)} bytes left.
+   * @throws IllegalArgumentException if {@code dungeon} or {@code buffer} is {@code null}.
+   * @throws java.nio.BufferOverflowException if the buffer does not have enough space left.
+   */
+  public static void write(DungeonImpl dungeon, ByteBuffer buffer)
+          throws IllegalArgumentException {
+    if (dungeon == null || buffer == null) {
+      throw new IllegalArgumentException("Dungeon and buffer cannot be null.");
+    }
+    OverlayGrid grid = dungeon.getGrid();
+    Player player = dungeon.getPlayer();
+    Long seed = dungeon.getSeedIfKnown();
+    RandomGenerator rand = dungeon.getRandomGenerator();
+    int flags = (dungeon.isWrapping() ? WRAPPING : 0) | (seed != null ? HAS_SEED : 0)
+            | (rand instanceof RandomSeeded ? HAS_RANDOM_STATE : 0);
+    buffer.putInt(MAGIC);
+    buffer.putShort(VERSION);
+    buffer.putInt(grid.getRows());
+    buffer.putInt(grid.getColumns());
+    buffer.putInt(dungeon.getInterconnectivity());
+    buffer.put((byte) flags);
+    buffer.putLong(seed != null ? seed : 0);
+    buffer.putLong(rand instanceof RandomSeeded ? ((RandomSeeded) rand).getSeed() : 0);
+    buffer.putLong(rand instanceof RandomSeeded ? ((RandomSeeded) rand).getPosition() : 0);
+    buffer.putInt(dungeon.getStartingCave().getId());
+    buffer.putInt(dungeon.getDestinationCave().getId());
+    buffer.putInt(player.getLocation().getId());
+    buffer.put((byte) (player.isDead() ? 1 : 0));
+    buffer.putInt(player.getNumberOfArrows());
+    Map<Treasure, Integer> treasures = player.getCollectedTreasures();
+    for (Treasure treasure : Treasure.values()) {
+      buffer.putInt(treasures.getOrDefault(treasure, 0));
+    }
+    byte[] name = encodeName(player);
+    buffer.putShort((short) name.length);
+    buffer.put(name);
+    buffer.put(dungeon.getExits());
+    grid.getBase().writeState(buffer);
+    grid.writeChanges(buffer);
+    buffer.putInt(dungeon.getHistoryDepth());
+    write(dungeon.getUndoHistory(), buffer);
+    write(dungeon.getRedoHistory(), buffer);
+    SmellCurve curve = dungeon.getSmellCurve();
+    buffer.putShort((short) curve.getRadius());
+    for (int distance = 0; distance <= curve.getRadius(); distance++) {
+      buffer.putShort((short) curve.getStrength(distance));
+    }
+  }
+
+  /**
+   * Reads a dungeon back from a snapshot in the buffer, starting at its position. The position
+   * of the buffer is moved past the snapshot.
+   *
+   * @param buffer the buffer.
+   * @return the dungeon.
+   * @throws IllegalArgumentException <ul><li>if {@code buffer} is {@code null}.</li>
+   *                                  <li>if the buffer does not hold a whole snapshot of
+   *                                  {@link #VERSION}.</li></ul>
+   */
+  public static DungeonImpl read(ByteBuffer buffer) throws IllegalArgumentException {
+    if (buffer == null) {
+      throw new IllegalArgumentException("Buffer cannot be null.");
+    }
+    if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+      throw new IllegalArgumentException("Not a dungeon snapshot.");
+    }
+    short version = buffer.getShort();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported dungeon snapshot version " + version
+              + ".");
+    }
+    int rows = buffer.getInt();
+    int columns = buffer.getInt();
+    int interconnectivity = buffer.getInt();
+    int flags = buffer.get();
+    long seed = buffer.getLong();
+    long randomSeed = buffer.getLong();
+    long randomPosition = buffer.getLong();
+    int start = buffer.getInt();
+    int end = buffer.getInt();
+    int playerLocation = buffer.getInt();
+    boolean isDead = buffer.get() != 0;
+    int arrows = buffer.getInt();
+    Map<Treasure, Integer> treasures = new EnumMap<>(Treasure.class);
+    for (Treasure treasure : Treasure.values()) {
+      treasures.put(treasure, buffer.getInt());
+    }
+    int nameLength = Short.toUnsignedInt(buffer.getShort());
+    if (rows <= 0 || columns <= 0 || buffer.remaining() < nameLength
+            || (long) rows * columns * (1 + PackedGrid.STATE_BYTES_PER_LOCATION)
+            > buffer.remaining() - nameLength) {
+      throw new IllegalArgumentException("Dungeon snapshot is truncated or corrupt.");
+    }
+    int cells = rows * columns;
+    if (start < 0 || start >= cells || end < 0 || end >= cells || playerLocation < 0
+            || playerLocation >= cells) {
+      throw new IllegalArgumentException("Dungeon snapshot is truncated or corrupt.");
+    }
+    byte[] nameBytes = new byte[nameLength];
+    buffer.get(nameBytes);
+    String name = new String(nameBytes, StandardCharsets.UTF_8);
+    byte[] exits = new byte[cells];
+    buffer.get(exits);
+    if (!hasMatchingExits(exits, new GridTopology(rows, columns, (flags & WRAPPING) != 0))) {
+      throw new IllegalArgumentException("Dungeon snapshot is truncated or corrupt.");
+    }
+    LocationGrid base = new PackedGrid(rows, columns, exits, buffer);
+    OverlayGrid grid;
+    try {
+      grid = new OverlayGrid(base, buffer);
+    } catch (IllegalArgumentException | BufferUnderflowException e) {
+      throw new IllegalArgumentException("Dungeon snapshot is truncated or corrupt.", e);
+    }
+
+    RandomGenerator rand = (flags & HAS_RANDOM_STATE) != 0
+            ? new RandomSeeded(randomSeed, randomPosition) : new RandomTrue();
+    try {
+      int historyDepth = buffer.getInt();
+      Deque<ActionDelta> undoHistory = new ArrayDeque<>();
+      Deque<ActionDelta> redoHistory = new ArrayDeque<>();
+      read(buffer, cells, undoHistory);
+      read(buffer, cells, redoHistory);
+      SmellCurve curve = readSmellCurve(buffer);
+      DungeonImpl dungeon = new DungeonImpl(interconnectivity, (flags & WRAPPING) != 0, rand,
+              (flags & HAS_SEED) != 0 ? seed : null, exits, grid, start, end,
+              new PlayerImpl(name, grid.get(playerLocation), treasures, arrows, isDead), curve);
+      dungeon.setHistoryDepth(historyDepth);
+      dungeon.getUndoHistory().addAll(undoHistory);
+      dungeon.getRedoHistory().addAll(redoHistory);
+      return dungeon;
+    } catch (IllegalArgumentException | BufferUnderflowException e) {
+      throw new IllegalArgumentException("Dungeon snapshot is truncated or corrupt.", e);
+    }
+  }
+
+  /**
+   * Saves the snapshot of the given dungeon to a file, replacing the file if it exists.
+   *
+   * @param dungeon the dungeon.
+   * @param file    the file.
+   * @throws IOException              if the file cannot be written.
+   * @throws IllegalArgumentException if {@code dungeon} or {@code file} is {@code null}.
+   */
+  public static void save(DungeonImpl dungeon, Path file)
+          throws IOException, IllegalArgumentException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null.");
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size(dungeon));
+    write(dungeon, buffer);
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Loads a dungeon from a file with a snapshot.
+   *
+   * @param file the file.
+   * @return the dungeon.
+   * @throws IOException              if the file cannot be read.
+   * @throws IllegalArgumentException <ul><li>if {@code file} is {@code null}.</li>
+   *                                  <li>if the file does not hold a whole snapshot of
+   *                                  {@link #VERSION}.</li></ul>
+   */
+  public static DungeonImpl load(Path file) throws IOException, IllegalArgumentException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null.");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Dungeon snapshot is too large.");
+      }
+      ByteBuffer buffer = ByteBuffer.allocate((int) size);
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // Keep reading until the whole file is in the buffer.
+      }
+      buffer.flip();
+      return read(buffer);
+    }
+  }
+
+  /**
+   * Returns whether every exit of every location leads to a location of the grid that has the
+   * exit back.
+   */
+  private static boolean hasMatchingExits(byte[] exits, GridTopology topology) {
+    Direction[] directions = Direction.values();
+    for (int cell = 0; cell < exits.length; cell++) {
+      if ((exits[cell] & ~((1 << directions.length) - 1)) != 0) {
+        return false;
+      }
+      for (Direction direction : directions) {
+        if ((exits[cell] & (1 << direction.ordinal())) != 0) {
+          int neighbor = topology.getNeighbor(cell, direction);
+          int back = (direction.ordinal() + directions.length / 2) % directions.length;
+          if (neighbor == GridTopology.NONE || (exits[neighbor] & (1 << back)) == 0) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  private static int getBytes(Deque<ActionDelta> history) {
+    int bytes = 4;
+    for (ActionDelta delta : history) {
+      bytes += delta.getBytes();
+    }
+    return bytes;
+  }
+
+  private static void write(Deque<ActionDelta> history, ByteBuffer buffer) {
+    buffer.putInt(history.size());
+    for (ActionDelta delta : history) {
+      delta.write(buffer);
+    }
+  }
+
+  private static void read(ByteBuffer buffer, int cells, Deque<ActionDelta> history) {
+    int count = buffer.getInt();
+    if (count < 0 || count > buffer.remaining()) {
+      throw new IllegalArgumentException("Invalid number of actions " + count);
+    }
+    for (int i = 0; i < count; i++) {
+      history.addLast(ActionDelta.read(buffer, cells));
+    }
+  }
+
+  private static SmellCurve readSmellCurve(ByteBuffer buffer) {
+    int radius = buffer.getShort();
+    if (radius < 0) {
+      throw new IllegalArgumentException("Invalid smell radius " + radius);
+    }
+    int[] strengths = new int[radius + 1];
+    for (int i = 0; i < strengths.length; i++) {
+      strengths[i] = buffer.getShort();
+    }
+    return new SmellCurve(strengths);
+  }
+
+  private static byte[] encodeName(Player player) {
+    byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+    if (name.length > 0xffff) {
+      throw new IllegalArgumentException("Player name is too long to be saved.");
+    }
+    return name;
+  }
+}
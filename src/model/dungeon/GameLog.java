@@ -0,0 +1,149 @@
+package model.dungeon;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import model.location.GridStorage;
+
+/**
+ * This represents the binary format of the game logs written by {@link RecordingDungeon} and read
+ * by {@link GameReplayer}. A log starts with a header holding the parameters and the seed of the
+ * dungeon, followed by one record for every command and a keyframe record, a
+ * {@link DungeonSnapshot} of the whole game, every few commands. A log that was closed ends with
+ * an index of the keyframes, the position of the index and {@link #END_MAGIC}.
+ *
+ * <p>Every record starts with an opcode byte:
+ * <ul>
+ *   <li>{@link #MOVE}: the direction as a byte.</li>
+ *   <li>{@link #SHOOT}: the direction as a byte and the distance as an int.</li>
+ *   <li>{@link #COLLECT}: the treasures as a byte with one bit for every kind of treasure.</li>
+ *   <li>{@link #HISTORY_DEPTH}: the depth as an int.</li>
+ *   <li>{@link #KEYFRAME}: the turn as a long, the size of the snapshot as an int and the
+ *   snapshot.</li>
+ *   <li>{@link #INDEX}: the number of turns as a long, the number of keyframes as an int and the
+ *   turn and the position of every keyframe as longs.</li>
+ *   <li>{@link #COLLECT_ALL}, {@link #PICK_ARROWS}, {@link #RESTART}, {@link #UNDO} and
+ *   {@link #REDO} have nothing else.</li>
+ * </ul>
+ * A package-private class.
+ */
+final class GameLog {
+
+  static final int MAGIC = 0x444c4f47;
+  static final int END_MAGIC = 0x444c454e;
+  static final short VERSION = 1;
+
+  static final byte MOVE = 1;
+  static final byte SHOOT = 2;
+  static final byte COLLECT_ALL = 3;
+  static final byte COLLECT = 4;
+  static final byte PICK_ARROWS = 5;
+  static final byte RESTART = 6;
+  static final byte UNDO = 7;
+  static final byte REDO = 8;
+  static final byte HISTORY_DEPTH = 9;
+  static final byte KEYFRAME = 10;
+  static final byte INDEX = 11;
+
+  static final int KEYFRAME_HEADER_BYTES = 1 + 8 + 4;
+  static final int INDEX_ENTRY_BYTES = 8 + 8;
+  static final int TRAILER_BYTES = 8 + 4;
+
+  private static final int HEADER_BYTES = 4 + 2 + 4 + 4 + 4 + 1 + 8 + 4 + 1 + 8 + 4 + 2;
+  private static final GridStorage[] STORAGES = GridStorage.values();
+
+  private GameLog() {
+  }
+
+  /**
+   * Returns the number of bytes of the header of a log of a dungeon with the given parameters.
+   */
+  static int getHeaderBytes(DungeonParameters parameters) {
+    return HEADER_BYTES + encodeName(parameters.getPlayerName()).length;
+  }
+
+  /**
+   * Writes the header of a log to the buffer.
+   */
+  static void writeHeader(DungeonParameters parameters, long seed, int keyframeInterval,
+                          ByteBuffer buffer) {
+    byte[] name = encodeName(parameters.getPlayerName());
+    buffer.putInt(MAGIC);
+    buffer.putShort(VERSION);
+    buffer.putInt(parameters.getRows());
+    buffer.putInt(parameters.getColumns());
+    buffer.putInt(parameters.getInterconnectivity());
+    buffer.put((byte) (parameters.isWrapping() ? 1 : 0));
+    buffer.putDouble(parameters.getPercentageOfTreasuresAndArrows());
+    buffer.putInt(parameters.getNumberOfMonsters());
+    buffer.put((byte) parameters.getStorage().ordinal());
+    buffer.putShort((short) name.length);
+    buffer.put(name);
+    buffer.putLong(seed);
+    buffer.putInt(keyframeInterval);
+  }
+
+  /**
+   * Reads the parameters of the dungeon from the header of a log. The seed and the keyframe
+   * interval, which follow them, are left in the buffer.
+   *
+   * @throws IllegalArgumentException if the buffer does not start with a header of a version that
+   *                                  can be read.
+   * @throws java.nio.BufferUnderflowException if the buffer does not hold the whole header.
+   */
+  static DungeonParameters readParameters(ByteBuffer buffer) {
+    if (buffer.getInt() != MAGIC) {
+      throw new IllegalArgumentException("Not a game log.");
+    }
+    short version = buffer.getShort();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported game log version " + version);
+    }
+    int rows = buffer.getInt();
+    int columns = buffer.getInt();
+    int interconnectivity = buffer.getInt();
+    boolean isWrapping = buffer.get() != 0;
+    double percentage = buffer.getDouble();
+    int monsters = buffer.getInt();
+    int storage = buffer.get();
+    if (storage < 0 || storage >= STORAGES.length) {
+      throw new IllegalArgumentException("Invalid grid storage " + storage);
+    }
+    byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+    buffer.get(name);
+    return new DungeonParameters(rows, columns, interconnectivity, isWrapping, percentage,
+            new String(name, StandardCharsets.UTF_8), monsters, STORAGES[storage]);
+  }
+
+  /**
+   * Returns the number of bytes of a record with the given opcode after the opcode, or -1 if
+   * the opcode is not known or the record is a keyframe or an index, whose size is in the record.
+   */
+  static int getRecordBytes(byte opcode) {
+    switch (opcode) {
+      case MOVE:
+      case COLLECT:
+        return 1;
+      case SHOOT:
+        return 1 + 4;
+      case HISTORY_DEPTH:
+        return 4;
+      case COLLECT_ALL:
+      case PICK_ARROWS:
+      case RESTART:
+      case UNDO:
+      case REDO:
+        return 0;
+      default:
+        return -1;
+    }
+  }
+
+  private static byte[] encodeName(String name) {
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > 0xffff) {
+      throw new IllegalArgumentException("Player name is too long to be logged.");
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,335 @@
+package model.dungeon;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import model.location.Direction;
+import model.location.Treasure;
+import model.random.RandomSeeded;
+
+/**
+ * This rebuilds the games written by {@link RecordingDungeon} from their logs, see
+ * {@link GameLog}, by carrying out the logged commands on a {@link DungeonImpl} directly, without
+ * any controller or view. Moving to a turn starts from the last keyframe at or before that turn,
+ * found by a binary search over the keyframes, so only the commands after that keyframe are
+ * carried out again.
+ *
+ * <p>A log that was closed is read through its index of keyframes. A log that was not closed, for
+ * example because the game crashed, is scanned once for its keyframes and replays up to its last
+ * whole record.
+ */
+public final class GameReplayer {
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final Treasure[] TREASURES = Treasure.values();
+
+  private final ByteBuffer log;
+  private final DungeonParameters parameters;
+  private final long seed;
+  private final int firstRecord;
+  private int end;
+  private long turns;
+  private long[] keyframeTurns;
+  private int[] keyframePositions;
+  private int keyframes;
+
+  /**
+   * Constructs a replayer of the log in the buffer, from its position to its limit. The buffer is
+   * not changed.
+   *
+   * @param log the log.
+   * @throws IllegalArgumentException <ul><li>if {@code log} is {@code null}.</li>
+   *                                  <li>if the buffer does not hold a log of a version that can
+   *                                  be read.</li></ul>
+   */
+  public GameReplayer(ByteBuffer log) throws IllegalArgumentException {
+    if (log == null) {
+      throw new IllegalArgumentException("Log cannot be null.");
+    }
+    this.log = log.slice();
+    ByteBuffer header = this.log.duplicate();
+    try {
+      this.parameters = GameLog.readParameters(header);
+      this.seed = header.getLong();
+      if (header.getInt() <= 0) {
+        throw new IllegalArgumentException("Keyframe interval must be positive.");
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Game log is truncated.", e);
+    }
+    this.firstRecord = header.position();
+    this.keyframeTurns = new long[16];
+    this.keyframePositions = new int[16];
+    if (!readIndex()) {
+      scan();
+    }
+  }
+
+  /**
+   * Loads the log in the given file.
+   *
+   * @param file the file.
+   * @return the replayer.
+   * @throws IOException              if the file cannot be read.
+   * @throws IllegalArgumentException <ul><li>if {@code file} is {@code null}.</li>
+   *                                  <li>if the file does not hold a log of a version that can be
+   *                                  read.</li></ul>
+   */
+  public static GameReplayer load(Path file) throws IOException, IllegalArgumentException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null.");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Game log is too large.");
+      }
+      ByteBuffer buffer = ByteBuffer.allocate((int) size);
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // Keep reading until the whole file is in the buffer.
+      }
+      buffer.flip();
+      return new GameReplayer(buffer);
+    }
+  }
+
+  /**
+   * Returns the parameters the dungeon of the game was generated with.
+   *
+   * @return the parameters.
+   */
+  public DungeonParameters getParameters() {
+    return this.parameters;
+  }
+
+  /**
+   * Returns the seed the dungeon of the game was generated from.
+   *
+   * @return the seed.
+   */
+  public long getSeed() {
+    return this.seed;
+  }
+
+  /**
+   * Returns the number of commands in the log.
+   *
+   * @return the number of commands.
+   */
+  public long getTurns() {
+    return this.turns;
+  }
+
+  /**
+   * Returns the number of keyframes in the log.
+   *
+   * @return the number of keyframes.
+   */
+  public int getKeyframes() {
+    return this.keyframes;
+  }
+
+  /**
+   * Rebuilds the game after all the commands in the log.
+   *
+   * @return the dungeon.
+   * @throws IllegalArgumentException if the commands in the log cannot be carried out again.
+   */
+  public DungeonImpl replay() throws IllegalArgumentException {
+    return seek(this.turns);
+  }
+
+  /**
+   * Rebuilds the game after the given number of commands.
+   *
+   * @param turn the number of commands.
+   * @return the dungeon.
+   * @throws IllegalArgumentException <ul><li>if {@code turn} is negative or greater than
+   *                                  {@link #getTurns()}.</li>
+   *                                  <li>if the commands in the log cannot be carried out
+   *                                  again.</li></ul>
+   */
+  public DungeonImpl seek(long turn) throws IllegalArgumentException {
+    if (turn < 0 || turn > this.turns) {
+      throw new IllegalArgumentException("Turn must be between 0 and " + this.turns + ".");
+    }
+    ByteBuffer records = this.log.duplicate();
+    records.limit(this.end);
+    DungeonImpl dungeon;
+    long current;
+    int keyframe = Arrays.binarySearch(this.keyframeTurns, 0, this.keyframes, turn);
+    if (keyframe < 0) {
+      keyframe = -keyframe - 2;
+    }
+    if (keyframe >= 0) {
+      records.position(this.keyframePositions[keyframe] + 1);
+      current = records.getLong();
+      int size = records.getInt();
+      ByteBuffer snapshot = records.duplicate();
+      snapshot.limit(records.position() + size);
+      dungeon = DungeonSnapshot.read(snapshot);
+      records.position(records.position() + size);
+    } else {
+      records.position(this.firstRecord);
+      current = 0;
+      dungeon = this.parameters.createDungeon(new RandomSeeded(this.seed));
+    }
+    try {
+      while (current < turn) {
+        byte opcode = records.get();
+        if (opcode == GameLog.KEYFRAME) {
+          records.position(records.position() + 8);
+          records.position(records.position() + 4 + records.getInt(records.position()));
+        } else {
+          apply(dungeon, opcode, records);
+          current++;
+        }
+      }
+    } catch (IllegalStateException | BufferUnderflowException e) {
+      throw new IllegalArgumentException("Game log does not match its game.", e);
+    }
+    return dungeon;
+  }
+
+  private static void apply(DungeonImpl dungeon, byte opcode, ByteBuffer records) {
+    switch (opcode) {
+      case GameLog.MOVE:
+        dungeon.movePlayer(getDirection(records.get()));
+        break;
+      case GameLog.SHOOT:
+        Direction direction = getDirection(records.get());
+        dungeon.shootArrow(records.getInt(), direction);
+        break;
+      case GameLog.COLLECT_ALL:
+        dungeon.collectAllTreasures();
+        break;
+      case GameLog.COLLECT:
+        int mask = records.get();
+        List<Treasure> treasures = new ArrayList<>(TREASURES.length);
+        for (Treasure treasure : TREASURES) {
+          if ((mask & (1 << treasure.ordinal())) != 0) {
+            treasures.add(treasure);
+          }
+        }
+        dungeon.collectTreasure(treasures);
+        break;
+      case GameLog.PICK_ARROWS:
+        dungeon.pickArrows();
+        break;
+      case GameLog.RESTART:
+        dungeon.restart();
+        break;
+      case GameLog.UNDO:
+        dungeon.undo();
+        break;
+      case GameLog.REDO:
+        dungeon.redo();
+        break;
+      case GameLog.HISTORY_DEPTH:
+        dungeon.setHistoryDepth(records.getInt());
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid opcode " + opcode);
+    }
+  }
+
+  private static Direction getDirection(byte ordinal) {
+    if (ordinal < 0 || ordinal >= DIRECTIONS.length) {
+      throw new IllegalArgumentException("Invalid direction " + ordinal);
+    }
+    return DIRECTIONS[ordinal];
+  }
+
+  /**
+   * Reads the index at the end of a closed log. Returns {@code false} if the log has no index.
+   */
+  private boolean readIndex() {
+    int limit = this.log.limit();
+    if (limit - this.firstRecord < 1 + 8 + 4 + GameLog.TRAILER_BYTES
+            || this.log.getInt(limit - 4) != GameLog.END_MAGIC) {
+      return false;
+    }
+    long index = this.log.getLong(limit - GameLog.TRAILER_BYTES);
+    if (index < this.firstRecord || index > limit - GameLog.TRAILER_BYTES - (1 + 8 + 4)
+            || this.log.get((int) index) != GameLog.INDEX) {
+      throw new IllegalArgumentException("Invalid keyframe index.");
+    }
+    ByteBuffer entries = this.log.duplicate();
+    entries.position((int) index + 1);
+    this.turns = entries.getLong();
+    int count = entries.getInt();
+    if (this.turns < 0 || count < 0 || count > (entries.remaining() - GameLog.TRAILER_BYTES)
+            / GameLog.INDEX_ENTRY_BYTES) {
+      throw new IllegalArgumentException("Invalid keyframe index.");
+    }
+    for (int i = 0; i < count; i++) {
+      long turn = entries.getLong();
+      long position = entries.getLong();
+      if (position < this.firstRecord || position > index - GameLog.KEYFRAME_HEADER_BYTES
+              || this.log.get((int) position) != GameLog.KEYFRAME
+              || turn < 0 || turn > this.turns
+              || (this.keyframes > 0 && turn < this.keyframeTurns[this.keyframes - 1])) {
+        throw new IllegalArgumentException("Invalid keyframe index.");
+      }
+      addKeyframe(turn, (int) position);
+    }
+    this.end = (int) index;
+    return true;
+  }
+
+  /**
+   * Finds the keyframes and counts the commands of a log that was not closed, up to its last
+   * whole record.
+   */
+  private void scan() {
+    ByteBuffer records = this.log.duplicate();
+    records.position(this.firstRecord);
+    this.end = this.firstRecord;
+    while (records.hasRemaining()) {
+      int position = records.position();
+      byte opcode = records.get();
+      int bytes = GameLog.getRecordBytes(opcode);
+      if (opcode == GameLog.KEYFRAME) {
+        if (records.remaining() < GameLog.KEYFRAME_HEADER_BYTES - 1) {
+          break;
+        }
+        long turn = records.getLong();
+        int size = records.getInt();
+        if (turn != this.turns || size < 0) {
+          throw new IllegalArgumentException("Invalid keyframe at " + position);
+        }
+        if (size > records.remaining()) {
+          break;
+        }
+        records.position(records.position() + size);
+        addKeyframe(turn, position);
+      } else if (bytes < 0) {
+        throw new IllegalArgumentException("Invalid opcode " + opcode + " at " + position);
+      } else {
+        if (bytes > records.remaining()) {
+          break;
+        }
+        records.position(records.position() + bytes);
+        this.turns++;
+      }
+      this.end = records.position();
+    }
+  }
+
+  private void addKeyframe(long turn, int position) {
+    if (this.keyframes == this.keyframeTurns.length) {
+      this.keyframeTurns = Arrays.copyOf(this.keyframeTurns, 2 * this.keyframes);
+      this.keyframePositions = Arrays.copyOf(this.keyframePositions, 2 * this.keyframes);
+    }
+    this.keyframeTurns[this.keyframes] = turn;
+    this.keyframePositions[this.keyframes] = position;
+    this.keyframes++;
+  }
+}
@@ -0,0 +1,68 @@
+package model.dungeon;
+
+/**
+ * This represents the outcome of generating a dungeon from one seed of a batch of the
+ * {@link DungeonBatchGenerator}: either the dungeon, or the exception that stopped the dungeon
+ * from being generated.
+ */
+public final class GeneratedDungeon {
+
+  private final long seed;
+  private final DungeonImpl dungeon;
+  private final RuntimeException failure;
+
+  private GeneratedDungeon(long seed, DungeonImpl dungeon, RuntimeException failure) {
+    this.seed = seed;
+    this.dungeon = dungeon;
+    this.failure = failure;
+  }
+
+  static GeneratedDungeon success(long seed, DungeonImpl dungeon) {
+    return new GeneratedDungeon(seed, dungeon, null);
+  }
+
+  static GeneratedDungeon failure(long seed, RuntimeException failure) {
+    return new GeneratedDungeon(seed, null, failure);
+  }
+
+  /**
+   * Returns the seed of the random generator the dungeon was generated from.
+   *
+   * @return the seed.
+   */
+  public long getSeed() {
+    return this.seed;
+  }
+
+  /**
+   * Returns if the dungeon was generated.
+   *
+   * @return {@code true} if the dungeon was generated otherwise {@code false}.
+   */
+  public boolean isSuccess() {
+    return this.dungeon != null;
+  }
+
+  /**
+   * Returns the generated dungeon.
+   *
+   * @return the dungeon.
+   * @throws IllegalStateException if the dungeon could not be generated.
+   */
+  public DungeonImpl getDungeon() throws IllegalStateException {
+    if (this.dungeon == null) {
+      throw new IllegalStateException("Dungeon of seed " + this.seed + " was not generated.",
+              this.failure);
+    }
+    return this.dungeon;
+  }
+
+  /**
+   * Returns the exception that stopped the dungeon from being generated.
+   *
+   * @return the exception, or {@code null} if the dungeon was generated.
+   */
+  public RuntimeException getFailure() {
+    return this.failure;
+  }
+}
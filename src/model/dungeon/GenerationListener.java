@@ -0,0 +1,34 @@
+package model.dungeon;
+
+/**
+ * The GenerationListener is notified by a {@link DungeonImpl} every time one of the
+ * {@link GenerationPhase}(s) of its generation is completed, and it can stop the generation from
+ * going on to the next phase.
+ */
+public interface GenerationListener {
+
+  /**
+   * A listener that ignores all the phases.
+   */
+  GenerationListener NONE = (phase, elapsedNanos) -> {
+  };
+
+  /**
+   * Called when a phase of the generation is completed.
+   *
+   * @param phase        the completed phase.
+   * @param elapsedNanos the time taken by the phase in nanoseconds.
+   */
+  void phaseCompleted(GenerationPhase phase, long elapsedNanos);
+
+  /**
+   * Returns if the generation should stop. It is asked after every phase is completed, and the
+   * generation throws {@link java.util.concurrent.CancellationException} as soon as it returns
+   * {@code true}.
+   *
+   * @return {@code true} if the generation should stop, {@code false} by default.
+   */
+  default boolean isCancelled() {
+    return false;
+  }
+}
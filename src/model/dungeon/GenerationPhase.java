@@ -0,0 +1,43 @@
+package model.dungeon;
+
+/**
+ * This represents the phases a {@link DungeonImpl} goes through while it is generated, in the
+ * order they run.
+ */
+public enum GenerationPhase {
+
+  /**
+   * The locations and the table of their neighbors are created.
+   */
+  GRID,
+
+  /**
+   * The paths between the locations are picked.
+   */
+  PATHS,
+
+  /**
+   * The picked paths become the possible moves of every location.
+   */
+  MOVES,
+
+  /**
+   * Treasures are added to the caves.
+   */
+  TREASURES,
+
+  /**
+   * Arrows are added to the locations.
+   */
+  ARROWS,
+
+  /**
+   * The starting and the destination caves are picked.
+   */
+  START_AND_END,
+
+  /**
+   * Monsters and their smell are added to the caves.
+   */
+  MONSTERS
+}
@@ -0,0 +1,110 @@
+package model.dungeon;
+
+import java.util.Arrays;
+
+import model.location.Direction;
+
+/**
+ * This represents the shape of the {@link Dungeon} grid as a table of the neighbor of every
+ * location in each {@link Direction}. Locations are referred to by their index in the grid,
+ * which is the same as their id, and wrapping is already applied to the table. A package-private
+ * class.
+ */
+final class GridTopology {
+
+  static final int NONE = -1;
+  private static final int DIRECTIONS = Direction.values().length;
+
+  private final int rows;
+  private final int columns;
+  private final int[] neighbors;
+
+  /**
+   * Constructs the topology of a grid.
+   *
+   * @param rows       the number of rows.
+   * @param columns    the number of columns.
+   * @param isWrapping {@code true} if the grid wraps from one side to the other.
+   */
+  GridTopology(int rows, int columns, boolean isWrapping) {
+    this.rows = rows;
+    this.columns = columns;
+    this.neighbors = new int[rows * columns * DIRECTIONS];
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        int cell = i * columns + j;
+        this.neighbors[cell * DIRECTIONS + Direction.N.ordinal()] =
+                getCell(i - 1, j, isWrapping);
+        this.neighbors[cell * DIRECTIONS + Direction.E.ordinal()] =
+                getCell(i, j + 1, isWrapping);
+        this.neighbors[cell * DIRECTIONS + Direction.S.ordinal()] =
+                getCell(i + 1, j, isWrapping);
+        this.neighbors[cell * DIRECTIONS + Direction.W.ordinal()] =
+                getCell(i, j - 1, isWrapping);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of locations in the grid.
+   *
+   * @return the number of locations.
+   */
+  int size() {
+    return this.rows * this.columns;
+  }
+
+  /**
+   * Returns the index of the neighbor of the given location in the given direction, or
+   * {@link #NONE} if the location is on the border of a non wrapping grid.
+   *
+   * @param cell      the index of the location.
+   * @param direction the direction.
+   * @return the index of the neighbor.
+   */
+  int getNeighbor(int cell, Direction direction) {
+    return this.neighbors[cell * DIRECTIONS + direction.ordinal()];
+  }
+
+  /**
+   * Fills the distance of every location from the source location, moving only through the
+   * open exits of the locations. Locations that cannot be reached get the distance -1. The
+   * given arrays are reused so that the distances from many sources can be computed without
+   * allocating.
+   *
+   * @param source    the index of the source location.
+   * @param exits     the exit mask of every location, one bit per {@link Direction} ordinal.
+   * @param distances the array to be filled, one element per location.
+   * @param queue     an array used as the queue of the breadth first search, one element per
+   *                  location.
+   */
+  void fillDistances(int source, byte[] exits, int[] distances, int[] queue) {
+    Arrays.fill(distances, -1);
+    distances[source] = 0;
+    queue[0] = source;
+    int head = 0;
+    int tail = 1;
+    while (head < tail) {
+      int cell = queue[head++];
+      for (int direction = 0; direction < DIRECTIONS; direction++) {
+        if ((exits[cell] & (1 << direction)) != 0) {
+          int neighbor = this.neighbors[cell * DIRECTIONS + direction];
+          if (distances[neighbor] < 0) {
+            distances[neighbor] = distances[cell] + 1;
+            queue[tail++] = neighbor;
+          }
+        }
+      }
+    }
+  }
+
+  private int getCell(int row, int column, boolean isWrapping) {
+    if (isWrapping) {
+      row = Math.floorMod(row, this.rows);
+      column = Math.floorMod(column, this.columns);
+    } else if (row < 0 || row >= this.rows || column < 0 || column >= this.columns) {
+      return NONE;
+    }
+    return row * this.columns + column;
+  }
+}
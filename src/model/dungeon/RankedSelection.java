@@ -0,0 +1,98 @@
+package model.dungeon;
+
+/**
+ * This represents the slots {@code 0..n-1} of a list from which elements are picked by their
+ * position among the slots that have not been picked yet, the same way a random index is picked
+ * from an {@link java.util.ArrayList} and removed from it. Remaining slots are kept as a bitmap
+ * with the number of remaining slots counted for every block of 64 words and every super block of
+ * 64 blocks. Picking an element scans at most 64 counts on each level instead of shifting the
+ * rest of the list, and the counts stay small enough to be read from cache. A package-private
+ * class.
+ */
+final class RankedSelection {
+
+  private static final int FAN_OUT_BITS = 6;
+  private static final int FAN_OUT = 1 << FAN_OUT_BITS;
+
+  private final long[] slots;
+  private final int[] blockCounts;
+  private final int[] superBlockCounts;
+  private int size;
+
+  /**
+   * Constructs a selection over the slots {@code 0..n-1} with none of them picked.
+   *
+   * @param n the number of slots.
+   */
+  RankedSelection(int n) {
+    int words = (n + FAN_OUT - 1) >>> FAN_OUT_BITS;
+    int blocks = (words + FAN_OUT - 1) >>> FAN_OUT_BITS;
+    this.slots = new long[words];
+    this.blockCounts = new int[blocks];
+    this.superBlockCounts = new int[(blocks + FAN_OUT - 1) >>> FAN_OUT_BITS];
+    for (int i = 0; i < words; i++) {
+      int slotsInWord = Math.min(FAN_OUT, n - (i << FAN_OUT_BITS));
+      this.slots[i] = slotsInWord == FAN_OUT ? -1L : (1L << slotsInWord) - 1;
+      this.blockCounts[i >>> FAN_OUT_BITS] += slotsInWord;
+      this.superBlockCounts[i >>> (2 * FAN_OUT_BITS)] += slotsInWord;
+    }
+    this.size = n;
+  }
+
+  /**
+   * Returns the number of slots that have not been picked yet.
+   *
+   * @return the number of remaining slots.
+   */
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * Picks the slot at the given position among the remaining slots, in their original order.
+   *
+   * @param rank the position among the remaining slots.
+   * @return the picked slot.
+   * @throws IndexOutOfBoundsException if {@code rank} is not a position of a remaining slot.
+   */
+  int removeAt(int rank) {
+    if (rank < 0 || rank >= this.size) {
+      throw new IndexOutOfBoundsException("Index " + rank + " out of bounds for length "
+              + this.size);
+    }
+    int remaining = rank;
+    int superBlock = 0;
+    while (this.superBlockCounts[superBlock] <= remaining) {
+      remaining -= this.superBlockCounts[superBlock++];
+    }
+    int block = superBlock << FAN_OUT_BITS;
+    while (this.blockCounts[block] <= remaining) {
+      remaining -= this.blockCounts[block++];
+    }
+    int word = block << FAN_OUT_BITS;
+    int count;
+    while ((count = Long.bitCount(this.slots[word])) <= remaining) {
+      remaining -= count;
+      word++;
+    }
+    int bit = selectBit(this.slots[word], remaining);
+    this.slots[word] &= ~(1L << bit);
+    this.blockCounts[block]--;
+    this.superBlockCounts[superBlock]--;
+    this.size--;
+    return (word << FAN_OUT_BITS) + bit;
+  }
+
+  private static int selectBit(long bits, int rank) {
+    int position = 0;
+    for (int width = FAN_OUT / 2; width > 0; width >>= 1) {
+      int count = Long.bitCount(bits & ((1L << width) - 1));
+      if (rank >= count) {
+        rank -= count;
+        bits >>>= width;
+        position += width;
+      }
+    }
+    return position;
+  }
+}
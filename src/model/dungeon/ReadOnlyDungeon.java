@@ -1,6 +1,9 @@
 package model.dungeon;
 
 
+import java.util.List;
+
+import model.location.Direction;
 import model.location.Location;
 import model.player.Player;
 
@@ -47,4 +50,43 @@ public interface ReadOnlyDungeon {
    * @return {@code true} if current model.location is destination cave otherwise {@code false}.
    */
   boolean isDestinationReached();
+
+  /**
+   * Returns the location at the given row and column of the dungeon.
+   *
+   * @param row    the row.
+   * @param column the column.
+   * @return the location.
+   * @throws IllegalArgumentException if the row or the column is outside the dungeon.
+   */
+  Location getLocation(int row, int column);
+
+  /**
+   * Returns the moves of a shortest route from one location to another. The route is empty if
+   * both are the same location.
+   *
+   * @param from the location to start from.
+   * @param to   the location to reach.
+   * @return the moves of the route.
+   * @throws IllegalArgumentException if a location is {@code null} or not in the dungeon.
+   */
+  List<Direction> getShortestPath(Location from, Location to);
+
+  /**
+   * Returns the first move of a shortest route from one location to another.
+   *
+   * @param from the location to start from.
+   * @param to   the location to reach.
+   * @return the first move, or {@code null} if both are the same location.
+   * @throws IllegalArgumentException if a location is {@code null} or not in the dungeon.
+   */
+  Direction getNextStep(Location from, Location to);
+
+  /**
+   * Sets the listener notified every time the dungeon changes, in place of the previous one.
+   *
+   * @param listener the listener, or {@link DungeonListener#NONE} to stop the notifications.
+   * @throws IllegalArgumentException if {@code listener} is {@code null}.
+   */
+  void setDungeonListener(DungeonListener listener);
 }
@@ -0,0 +1,432 @@
+package model.dungeon;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import model.location.Direction;
+import model.location.Location;
+import model.location.Treasure;
+import model.player.Player;
+import model.random.RandomSeeded;
+
+/**
+ * This class implements {@link Dungeon} and plays a game in a {@link DungeonImpl} generated from
+ * the given parameters and seed, while writing the parameters, the seed and every command that
+ * was carried out to an append-only game log, see {@link GameLog}. Commands that throw are not
+ * written, as they do not change the game. A keyframe with the whole state of the game is written
+ * at the start and after every few commands, so {@link GameReplayer} can move to any turn without
+ * replaying the whole log.
+ *
+ * <p>The log is written through a buffer, so a command reaches the file only when the buffer is
+ * full, on {@link #flush()} and on {@link #close()}. A log that was not closed can still be
+ * replayed up to the last command that reached the file.
+ */
+public final class RecordingDungeon implements Dungeon, Closeable {
+
+  /**
+   * The number of commands between two keyframes when none is given.
+   */
+  public static final int DEFAULT_KEYFRAME_INTERVAL = 1024;
+
+  private static final int BUFFER_BYTES = 1 << 16;
+
+  private final DungeonImpl dungeon;
+  private final long seed;
+  private final int keyframeInterval;
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private long written;
+  private long turn;
+  private long[] keyframeTurns;
+  private long[] keyframePositions;
+  private int keyframes;
+  private boolean isClosed;
+
+  /**
+   * Constructs a dungeon from the given parameters and seed and starts a new game log in the given
+   * file, replacing the file if it exists.
+   *
+   * @param parameters the parameters of the dungeon.
+   * @param seed       the seed of the dungeon.
+   * @param file       the file of the log.
+   * @throws IOException              if the file cannot be written.
+   * @throws IllegalArgumentException <ul><li>if {@code parameters} or {@code file} is
+   *                                  {@code null}.</li>
+   *                                  <li>for all the cases of
+   *                                  {@link DungeonParameters#createDungeon(
+   *                                  model.random.RandomGenerator)}.</li></ul>
+   */
+  public RecordingDungeon(DungeonParameters parameters, long seed, Path file)
+          throws IOException, IllegalArgumentException {
+    this(parameters, seed, file, DEFAULT_KEYFRAME_INTERVAL);
+  }
+
+  /**
+   * Constructs a dungeon from the given parameters and seed and starts a new game log in the given
+   * file, replacing the file if it exists, with a keyframe after every given number of commands.
+   *
+   * @param parameters       the parameters of the dungeon.
+   * @param seed             the seed of the dungeon.
+   * @param file             the file of the log.
+   * @param keyframeInterval the number of commands between two keyframes.
+   * @throws IOException              if the file cannot be written.
+   * @throws IllegalArgumentException <ul><li>if {@code parameters} or {@code file} is
+   *                                  {@code null}.</li>
+   *                                  <li>if {@code keyframeInterval} is not positive.</li>
+   *                                  <li>for all the cases of
+   *                                  {@link DungeonParameters#createDungeon(
+   *                                  model.random.RandomGenerator)}.</li></ul>
+   */
+  public RecordingDungeon(DungeonParameters parameters, long seed, Path file,
+                          int keyframeInterval) throws IOException, IllegalArgumentException {
+    if (parameters == null || file == null) {
+      throw new IllegalArgumentException("Parameters and file cannot be null.");
+    }
+    if (keyframeInterval <= 0) {
+      throw new IllegalArgumentException("Keyframe interval must be positive.");
+    }
+    this.dungeon = parameters.createDungeon(new RandomSeeded(seed));
+    this.seed = seed;
+    this.keyframeInterval = keyframeInterval;
+    this.buffer = ByteBuffer.allocate(Math.max(BUFFER_BYTES,
+            GameLog.getHeaderBytes(parameters)));
+    this.keyframeTurns = new long[16];
+    this.keyframePositions = new long[16];
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    try {
+      GameLog.writeHeader(parameters, seed, keyframeInterval, this.buffer);
+      writeKeyframe();
+    } catch (IOException | RuntimeException e) {
+      this.channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the seed the dungeon was generated from.
+   *
+   * @return the seed.
+   */
+  public long getSeed() {
+    return this.seed;
+  }
+
+  /**
+   * Returns the number of commands written to the log.
+   *
+   * @return the number of commands.
+   */
+  public long getTurn() {
+    return this.turn;
+  }
+
+  /**
+   * Sets the number of actions that can be undone, see
+   * {@link DungeonImpl#setHistoryDepth(int)}.
+   *
+   * @param depth the number of actions.
+   * @throws IllegalArgumentException if {@code depth} is negative.
+   * @throws IllegalStateException    if the log is closed.
+   */
+  public void setHistoryDepth(int depth) throws IllegalArgumentException, IllegalStateException {
+    checkOpen();
+    this.dungeon.setHistoryDepth(depth);
+    reserve(1 + 4).put(GameLog.HISTORY_DEPTH).putInt(depth);
+    endCommand();
+  }
+
+  /**
+   * Returns the number of actions that can be undone, see
+   * {@link DungeonImpl#getHistoryDepth()}.
+   *
+   * @return the number of actions.
+   */
+  public int getHistoryDepth() {
+    return this.dungeon.getHistoryDepth();
+  }
+
+  @Override
+  public Player getPlayer() {
+    return this.dungeon.getPlayer();
+  }
+
+  @Override
+  public Location getPlayerLocation() {
+    return this.dungeon.getPlayerLocation();
+  }
+
+  @Override
+  public Location getStartingCave() {
+    return this.dungeon.getStartingCave();
+  }
+
+  @Override
+  public Location getDestinationCave() {
+    return this.dungeon.getDestinationCave();
+  }
+
+  @Override
+  public boolean isDestinationReached() {
+    return this.dungeon.isDestinationReached();
+  }
+
+  @Override
+  public Location getLocation(int row, int column) {
+    return this.dungeon.getLocation(row, column);
+  }
+
+  @Override
+  public List<Direction> getShortestPath(Location from, Location to) {
+    return this.dungeon.getShortestPath(from, to);
+  }
+
+  @Override
+  public Direction getNextStep(Location from, Location to) {
+    return this.dungeon.getNextStep(from, to);
+  }
+
+  @Override
+  public void setDungeonListener(DungeonListener listener) {
+    this.dungeon.setDungeonListener(listener);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException if the log is closed.
+   */
+  @Override
+  public boolean movePlayer(Direction direction) {
+    checkOpen();
+    boolean isAlive = this.dungeon.movePlayer(direction);
+    reserve(1 + 1).put(GameLog.MOVE).put((byte) direction.ordinal());
+    endCommand();
+    return isAlive;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException if the log is closed.
+   */
+  @Override
+  public void collectAllTreasures() {
+    checkOpen();
+    this.dungeon.collectAllTreasures();
+    reserve(1).put(GameLog.COLLECT_ALL);
+    endCommand();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException if the log is closed.
+   */
+  @Override
+  public void collectTreasure(List<Treasure> treasures) {
+    checkOpen();
+    this.dungeon.collectTreasure(treasures);
+    int mask = 0;
+    for (Treasure treasure : treasures) {
+      mask |= 1 << treasure.ordinal();
+    }
+    reserve(1 + 1).put(GameLog.COLLECT).put((byte) mask);
+    endCommand();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException if the log is closed.
+   */
+  @Override
+  public boolean shootArrow(int distance, Direction direction) {
+    checkOpen();
+    boolean isHit = this.dungeon.shootArrow(distance, direction);
+    reserve(1 + 1 + 4).put(GameLog.SHOOT).put((byte) direction.ordinal()).putInt(distance);
+    endCommand();
+    return isHit;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException if the log is closed.
+   */
+  @Override
+  public void pickArrows() {
+    checkOpen();
+    this.dungeon.pickArrows();
+    reserve(1).put(GameLog.PICK_ARROWS);
+    endCommand();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException if the log is closed.
+   */
+  @Override
+  public void restart() {
+    checkOpen();
+    this.dungeon.restart();
+    reserve(1).put(GameLog.RESTART);
+    endCommand();
+  }
+
+  /**
+   * {@inheritDoc} Only undoing an action is written to the log.
+   *
+   * @throws IllegalStateException if the log is closed.
+   */
+  @Override
+  public boolean undo() {
+    checkOpen();
+    if (!this.dungeon.undo()) {
+      return false;
+    }
+    reserve(1).put(GameLog.UNDO);
+    endCommand();
+    return true;
+  }
+
+  /**
+   * {@inheritDoc} Only doing an action again is written to the log.
+   *
+   * @throws IllegalStateException if the log is closed.
+   */
+  @Override
+  public boolean redo() {
+    checkOpen();
+    if (!this.dungeon.redo()) {
+      return false;
+    }
+    reserve(1).put(GameLog.REDO);
+    endCommand();
+    return true;
+  }
+
+  /**
+   * Writes the commands kept in the buffer to the file.
+   *
+   * @throws IOException           if the file cannot be written.
+   * @throws IllegalStateException if the log is closed.
+   */
+  public void flush() throws IOException, IllegalStateException {
+    checkOpen();
+    drain();
+  }
+
+  /**
+   * Writes the index of the keyframes and closes the log. Closing a closed log does nothing.
+   *
+   * @throws IOException if the file cannot be written.
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.isClosed) {
+      return;
+    }
+    this.isClosed = true;
+    try {
+      long index = position();
+      ensureRemaining(1 + 8 + 4);
+      this.buffer.put(GameLog.INDEX).putLong(this.turn).putInt(this.keyframes);
+      for (int i = 0; i < this.keyframes; i++) {
+        ensureRemaining(GameLog.INDEX_ENTRY_BYTES);
+        this.buffer.putLong(this.keyframeTurns[i]).putLong(this.keyframePositions[i]);
+      }
+      ensureRemaining(GameLog.TRAILER_BYTES);
+      this.buffer.putLong(index).putInt(GameLog.END_MAGIC);
+      drain();
+    } finally {
+      this.channel.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return this.dungeon.toString();
+  }
+
+  private void checkOpen() {
+    if (this.isClosed) {
+      throw new IllegalStateException("Game log is closed.");
+    }
+  }
+
+  private long position() {
+    return this.written + this.buffer.position();
+  }
+
+  /**
+   * Makes room for a record of the given size and returns the buffer to write it to.
+   */
+  private ByteBuffer reserve(int bytes) {
+    try {
+      ensureRemaining(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return this.buffer;
+  }
+
+  private void ensureRemaining(int bytes) throws IOException {
+    if (this.buffer.remaining() < bytes) {
+      drain();
+    }
+  }
+
+  private void endCommand() {
+    this.turn++;
+    if (this.turn % this.keyframeInterval == 0) {
+      try {
+        writeKeyframe();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  private void writeKeyframe() throws IOException {
+    if (this.keyframes == this.keyframeTurns.length) {
+      this.keyframeTurns = Arrays.copyOf(this.keyframeTurns, 2 * this.keyframes);
+      this.keyframePositions = Arrays.copyOf(this.keyframePositions, 2 * this.keyframes);
+    }
+    int size = DungeonSnapshot.size(this.dungeon);
+    ensureRemaining(GameLog.KEYFRAME_HEADER_BYTES);
+    this.keyframeTurns[this.keyframes] = this.turn;
+    this.keyframePositions[this.keyframes] = position();
+    this.keyframes++;
+    this.buffer.put(GameLog.KEYFRAME).putLong(this.turn).putInt(size);
+    ensureRemaining(size);
+    if (size <= this.buffer.remaining()) {
+      DungeonSnapshot.write(this.dungeon, this.buffer);
+    } else {
+      ByteBuffer snapshot = ByteBuffer.allocate(size);
+      DungeonSnapshot.write(this.dungeon, snapshot);
+      snapshot.flip();
+      write(snapshot);
+    }
+  }
+
+  private void drain() throws IOException {
+    this.buffer.flip();
+    write(this.buffer);
+    this.buffer.clear();
+  }
+
+  private void write(ByteBuffer bytes) throws IOException {
+    while (bytes.hasRemaining()) {
+      this.written += this.channel.write(bytes);
+    }
+  }
+}
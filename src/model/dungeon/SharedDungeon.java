@@ -0,0 +1,595 @@
+package model.dungeon;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import model.location.Direction;
+import model.location.DirectionComparator;
+import model.location.Location;
+import model.location.LocationUpdateState;
+import model.location.Treasure;
+import model.location.coordinate.Coordinate;
+import model.location.coordinate.CoordinateImpl;
+import model.monster.Monster;
+import model.player.Player;
+import model.player.PlayerField;
+import model.random.RandomGenerator;
+import model.weapon.Weapon;
+
+/**
+ * This represents a dungeon explored by many players at the same time, each on their own thread.
+ * The dungeon starts with the locations of a {@link DungeonImpl} as they are when it is
+ * constructed, and every player who joins gets a {@link PlayerHandle} that plays the game like a
+ * {@link Dungeon} of its own, starting at the starting cave.
+ *
+ * <p>The treasures, arrows, smell and monster health of every location are kept in atomic arrays
+ * indexed by the location id, and every change to them is a single atomic operation on the
+ * element of one location: picking up takes all the items of a kind with one
+ * {@code getAndSet}, so an item is never collected twice or lost, and an arrow wounds a monster
+ * with a compare and set on its health, so exactly one arrow kills it and only the player whose
+ * arrow killed it takes its smell away. No lock is ever taken, so players only slow each other
+ * down when they act on the same location at the same time.
+ */
+public final class SharedDungeon {
+
+  private static final Treasure[] TREASURES = Treasure.values();
+  private static final int TREASURE_TYPES = TREASURES.length;
+  private static final Direction[] DIRECTION_VALUES = Direction.values();
+  private static final int NO_MONSTER = Integer.MIN_VALUE;
+
+  private final int rows;
+  private final int columns;
+  private final byte[] exits;
+  private final int start;
+  private final int end;
+  private final GridTopology topology;
+  private final TunnelCorridors corridors;
+  private final DistanceFields paths;
+  private final SmellField smell;
+  private final AtomicIntegerArray smellAt;
+  private final AtomicIntegerArray treasures;
+  private final AtomicIntegerArray arrows;
+  private final AtomicIntegerArray monsterHealth;
+
+  /**
+   * Constructs a shared dungeon with the locations of the given dungeon as they are now. Later
+   * changes to the given dungeon are not seen by the shared dungeon.
+   *
+   * @param dungeon the dungeon.
+   * @throws IllegalArgumentException if {@code dungeon} is {@code null}.
+   */
+  public SharedDungeon(DungeonImpl dungeon) throws IllegalArgumentException {
+    if (dungeon == null) {
+      throw new IllegalArgumentException("Dungeon cannot be null.");
+    }
+    this.rows = dungeon.getGrid().getRows();
+    this.columns = dungeon.getGrid().getColumns();
+    this.exits = dungeon.getExits();
+    this.start = dungeon.getStartingCave().getId();
+    this.end = dungeon.getDestinationCave().getId();
+    this.topology = new GridTopology(this.rows, this.columns, dungeon.isWrapping());
+    this.corridors = new TunnelCorridors(this.topology, this.exits);
+    this.paths = new DistanceFields(this.topology, this.exits);
+    this.smell = new SmellField(this.topology, this.exits, dungeon.getSmellCurve());
+    int cells = this.rows * this.columns;
+    this.smellAt = new AtomicIntegerArray(cells);
+    this.treasures = new AtomicIntegerArray(cells * TREASURE_TYPES);
+    this.arrows = new AtomicIntegerArray(cells);
+    this.monsterHealth = new AtomicIntegerArray(cells);
+    for (int cell = 0; cell < cells; cell++) {
+      Location location = dungeon.getLocation(cell / this.columns, cell % this.columns);
+      this.smellAt.set(cell, location.getSmell());
+      for (Treasure treasure : location.getTreasures()) {
+        this.treasures.incrementAndGet(cell * TREASURE_TYPES + treasure.ordinal());
+      }
+      this.arrows.set(cell, location.getArrows().size());
+      Monster monster = location.getMonster();
+      this.monsterHealth.set(cell, monster == null ? NO_MONSTER : monster.getHealthPercentage());
+    }
+  }
+
+  /**
+   * Adds a player to the dungeon at the starting cave with three arrows.
+   *
+   * @param name the name of the player.
+   * @param rand the random generator deciding if the player escapes an injured monster.
+   * @return the handle the player plays with.
+   * @throws IllegalArgumentException <ul><li>if {@code name} is {@code null} or empty.</li>
+   *                                  <li>if {@code rand} is {@code null}.</li></ul>
+   */
+  public PlayerHandle join(String name, RandomGenerator rand) throws IllegalArgumentException {
+    if (name == null || name.equals("")) {
+      throw new IllegalArgumentException("Player name cannot be null or empty");
+    }
+    if (rand == null) {
+      throw new IllegalArgumentException("Random generator cannot be null.");
+    }
+    return new PlayerHandle(name, rand);
+  }
+
+  /**
+   * Returns the location at the given row and column.
+   *
+   * @param row    the row.
+   * @param column the column.
+   * @return the location.
+   * @throws IllegalArgumentException if the row or the column is outside the dungeon.
+   */
+  public Location getLocation(int row, int column) throws IllegalArgumentException {
+    if (row < 0 || row >= this.rows || column < 0 || column >= this.columns) {
+      throw new IllegalArgumentException("Location is outside the dungeon.");
+    }
+    return new SharedLocation(row * this.columns + column);
+  }
+
+  private int getCell(Location location) {
+    if (location == null || location.getId() < 0 || location.getId() >= this.topology.size()) {
+      throw new IllegalArgumentException("Location is not in the dungeon.");
+    }
+    return location.getId();
+  }
+
+  private boolean hasExit(int cell, Direction direction) {
+    return direction != null && (this.exits[cell] & (1 << direction.ordinal())) != 0;
+  }
+
+  /**
+   * Wounds the monster at the given location if it is alive and takes its smell away if the
+   * wound killed it, giving every location whose smell changed to {@code smelled}. Returns
+   * {@code true} if there was a monster alive.
+   */
+  private boolean wound(int cell, IntConsumer smelled) {
+    while (true) {
+      int health = this.monsterHealth.get(cell);
+      if (health == NO_MONSTER || health <= 0) {
+        return false;
+      }
+      int wounded = Math.max(0, health - 50);
+      if (this.monsterHealth.compareAndSet(cell, health, wounded)) {
+        if (wounded == 0) {
+          this.smell.remove(cell, (location, strength) -> {
+            this.smellAt.addAndGet(location, -strength);
+            smelled.accept(location);
+          });
+        }
+        return true;
+      }
+    }
+  }
+
+  /**
+   * This represents one player of a {@link SharedDungeon}. A handle plays the game like a
+   * {@link Dungeon} of its own, and the locations it sees and changes are those of the shared
+   * dungeon. The player is kept in the handle, so a handle must be used by one thread at a time,
+   * while different handles can be used from different threads. The actions of a player cannot
+   * be undone, as other players may have acted on the same locations since. The listener of a
+   * handle is only told about the changes made by its own player.
+   */
+  public final class PlayerHandle implements Dungeon {
+
+    private final String name;
+    private final RandomGenerator rand;
+    private final int[] collected;
+    private int location;
+    private int quiver;
+    private boolean isDead;
+    private DungeonListener listener;
+
+    private PlayerHandle(String name, RandomGenerator rand) {
+      this.name = name;
+      this.rand = rand;
+      this.collected = new int[TREASURE_TYPES];
+      this.location = start;
+      this.quiver = 3;
+      this.listener = DungeonListener.NONE;
+    }
+
+    @Override
+    public Player getPlayer() {
+      return new SharedPlayer();
+    }
+
+    @Override
+    public Location getPlayerLocation() {
+      return new SharedLocation(this.location);
+    }
+
+    @Override
+    public Location getStartingCave() {
+      return new SharedLocation(start);
+    }
+
+    @Override
+    public Location getDestinationCave() {
+      return new SharedLocation(end);
+    }
+
+    @Override
+    public boolean isDestinationReached() {
+      return this.location == end;
+    }
+
+    @Override
+    public Location getLocation(int row, int column) throws IllegalArgumentException {
+      return SharedDungeon.this.getLocation(row, column);
+    }
+
+    @Override
+    public List<Direction> getShortestPath(Location from, Location to)
+            throws IllegalArgumentException {
+      return paths.getPath(getCell(from), getCell(to));
+    }
+
+    @Override
+    public Direction getNextStep(Location from, Location to) throws IllegalArgumentException {
+      return paths.getNextStep(getCell(from), getCell(to));
+    }
+
+    @Override
+    public boolean movePlayer(Direction direction) throws IllegalArgumentException {
+      if (!hasExit(this.location, direction)) {
+        throw new IllegalArgumentException("Invalid direction!");
+      }
+      if (isDestinationReached() || this.isDead) {
+        throw new IllegalStateException("Game is already over!");
+      }
+      int from = this.location;
+      this.location = topology.getNeighbor(this.location, direction);
+      this.isDead = !survives();
+      this.listener.dungeonChanged(new int[] {from, this.location}, this.isDead
+              ? EnumSet.of(PlayerField.LOCATION, PlayerField.LIFE)
+              : EnumSet.of(PlayerField.LOCATION));
+      return !this.isDead;
+    }
+
+    private boolean survives() {
+      int health = monsterHealth.get(this.location);
+      if (health == NO_MONSTER || health == 0) {
+        return true;
+      }
+      //chance a player can survive with the injured monster. 1 player is saved. 0 monster kills
+      // player.
+      return health < 100 && this.rand.getRandom(2, 0) == 1;
+    }
+
+    @Override
+    public void collectAllTreasures() {
+      int count = 0;
+      for (Treasure treasure : TREASURES) {
+        count += collect(treasure);
+      }
+      notifyCollected(count, PlayerField.TREASURES);
+    }
+
+    @Override
+    public void collectTreasure(List<Treasure> treasureList) throws IllegalArgumentException {
+      if (treasureList == null) {
+        throw new IllegalArgumentException("Treasures cannot be null.");
+      }
+      for (Treasure treasure : treasureList) {
+        if (treasure == null) {
+          throw new IllegalArgumentException("List of treasures cannot have null elements.");
+        }
+      }
+      int count = 0;
+      for (Treasure treasure : TREASURES) {
+        if (treasureList.contains(treasure)) {
+          count += collect(treasure);
+        }
+      }
+      notifyCollected(count, PlayerField.TREASURES);
+    }
+
+    private int collect(Treasure treasure) {
+      int count = treasures.getAndSet(this.location * TREASURE_TYPES + treasure.ordinal(), 0);
+      this.collected[treasure.ordinal()] += count;
+      return count;
+    }
+
+    @Override
+    public boolean shootArrow(int distance, Direction direction)
+            throws IllegalArgumentException, IllegalStateException {
+      if (!hasExit(this.location, direction)) {
+        throw new IllegalArgumentException("Direction is wrong");
+      }
+      if (this.quiver <= 0) {
+        throw new IllegalStateException("Can't shoot! You are out of arrows.");
+      }
+      this.quiver--;
+      int flight = corridors.fly(this.location, direction.ordinal(), distance);
+      IntStream.Builder changed = IntStream.builder();
+      boolean isHit = flight != TunnelCorridors.LOST
+              && wound(TunnelCorridors.getCell(flight), changed);
+      if (isHit) {
+        changed.add(TunnelCorridors.getCell(flight));
+      }
+      this.listener.dungeonChanged(changed.build().distinct().toArray(),
+              EnumSet.of(PlayerField.ARROWS));
+      return isHit;
+    }
+
+    @Override
+    public void pickArrows() {
+      int count = arrows.getAndSet(this.location, 0);
+      this.quiver += count;
+      notifyCollected(count, PlayerField.ARROWS);
+    }
+
+    @Override
+    public void setDungeonListener(DungeonListener listener) throws IllegalArgumentException {
+      if (listener == null) {
+        throw new IllegalArgumentException("Listener cannot be null.");
+      }
+      this.listener = listener;
+    }
+
+    private void notifyCollected(int count, PlayerField field) {
+      if (count > 0) {
+        this.listener.dungeonChanged(new int[] {this.location}, EnumSet.of(field));
+      }
+    }
+
+    /**
+     * A player of a shared dungeon cannot start again, as the locations are shared with the
+     * other players.
+     *
+     * @throws IllegalStateException always.
+     */
+    @Override
+    public void restart() throws IllegalStateException {
+      throw new IllegalStateException("A shared dungeon cannot be restarted.");
+    }
+
+    /**
+     * The actions of a player of a shared dungeon cannot be undone.
+     *
+     * @return {@code false}.
+     */
+    @Override
+    public boolean undo() {
+      return false;
+    }
+
+    /**
+     * The actions of a player of a shared dungeon cannot be undone, so there is nothing to do
+     * again.
+     *
+     * @return {@code false}.
+     */
+    @Override
+    public boolean redo() {
+      return false;
+    }
+
+    /**
+     * This represents a view of the player of the handle.
+     */
+    private final class SharedPlayer implements Player {
+
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public Location getLocation() {
+        return new SharedLocation(location);
+      }
+
+      @Override
+      public Map<Treasure, Integer> getCollectedTreasures() {
+        Map<Treasure, Integer> treasureMap = new EnumMap<>(Treasure.class);
+        for (Treasure treasure : TREASURES) {
+          treasureMap.put(treasure, collected[treasure.ordinal()]);
+        }
+        return treasureMap;
+      }
+
+      @Override
+      public int getNumberOfArrows() {
+        return quiver;
+      }
+
+      @Override
+      public boolean isDead() {
+        return isDead;
+      }
+    }
+  }
+
+  /**
+   * This represents a view of a single location of the {@link SharedDungeon}. The locations of a
+   * shared dungeon are changed only by the actions of its players, so every method that would
+   * change the location throws {@link IllegalStateException}.
+   */
+  private final class SharedLocation implements LocationUpdateState {
+
+    private final int index;
+
+    private SharedLocation(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public int getId() {
+      return this.index;
+    }
+
+    @Override
+    public Coordinate getCoordinates() {
+      return new CoordinateImpl(this.index / columns, this.index % columns);
+    }
+
+    @Override
+    public List<Treasure> getTreasures() {
+      List<Treasure> treasureList = new ArrayList<>();
+      for (Treasure treasure : TREASURES) {
+        for (int i = treasures.get(this.index * TREASURE_TYPES + treasure.ordinal()); i > 0;
+             i--) {
+          treasureList.add(treasure);
+        }
+      }
+      return treasureList;
+    }
+
+    @Override
+    public List<Direction> getPossibleMoves() {
+      List<Direction> possibleDirections = new ArrayList<>();
+      for (Direction direction : DIRECTION_VALUES) {
+        if (hasExit(this.index, direction)) {
+          possibleDirections.add(direction);
+        }
+      }
+      possibleDirections.sort(new DirectionComparator());
+      return possibleDirections;
+    }
+
+    @Override
+    public boolean isTunnel() {
+      return Integer.bitCount(exits[this.index]) == 2;
+    }
+
+    @Override
+    public int getSmell() {
+      return smellAt.get(this.index);
+    }
+
+    @Override
+    public List<Weapon> getArrows() {
+      List<Weapon> weapons = new ArrayList<>();
+      for (int i = arrows.get(this.index); i > 0; i--) {
+        weapons.add(Weapon.ARROW);
+      }
+      return weapons;
+    }
+
+    @Override
+    public Monster getMonster() {
+      return monsterHealth.get(this.index) == NO_MONSTER ? null : new SharedMonster(this.index);
+    }
+
+    @Override
+    public Map<Direction, LocationUpdateState> getNeighborLocations() {
+      Map<Direction, LocationUpdateState> neighbors = new EnumMap<>(Direction.class);
+      for (Direction direction : DIRECTION_VALUES) {
+        if (hasExit(this.index, direction)) {
+          neighbors.put(direction, new SharedLocation(topology.getNeighbor(this.index,
+                  direction)));
+        }
+      }
+      return neighbors;
+    }
+
+    @Override
+    public List<LocationUpdateState> getNeighbors() {
+      return new ArrayList<>(getNeighborLocations().values());
+    }
+
+    @Override
+    public void setValidMoves(Map<Direction, LocationUpdateState> validMoves) {
+      throw new IllegalStateException("Moves of a shared dungeon cannot be changed.");
+    }
+
+    @Override
+    public void addTreasures(List<Treasure> treasureList) {
+      throw new IllegalStateException("Treasures of a shared dungeon are changed by players.");
+    }
+
+    @Override
+    public void removeTreasures(List<Treasure> treasureList) {
+      throw new IllegalStateException("Treasures of a shared dungeon are changed by players.");
+    }
+
+    @Override
+    public void addSmell(int smellToAdd) {
+      throw new IllegalStateException("Smell of a shared dungeon is changed by players.");
+    }
+
+    @Override
+    public void reduceSmell(int smellToReduce) {
+      throw new IllegalStateException("Smell of a shared dungeon is changed by players.");
+    }
+
+    @Override
+    public void addArrows(List<Weapon> weapons) {
+      throw new IllegalStateException("Arrows of a shared dungeon are changed by players.");
+    }
+
+    @Override
+    public void addMonster(Monster otyugh) {
+      throw new IllegalStateException("Monsters of a shared dungeon are changed by players.");
+    }
+
+    @Override
+    public void removeArrows() {
+      throw new IllegalStateException("Arrows of a shared dungeon are changed by players.");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o instanceof SharedLocation) {
+        SharedLocation location = (SharedLocation) o;
+        return this.index == location.index && this.getDungeon() == location.getDungeon();
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.index;
+    }
+
+    /**
+     * Returns the string representation of the location. "T" in case of a tunnel, "O" in case of
+     * a cave with a monster and "C" in case of a cave.
+     *
+     * @return the string representation.
+     */
+    @Override
+    public String toString() {
+      if (isTunnel()) {
+        return "T";
+      } else if (monsterHealth.get(this.index) != NO_MONSTER) {
+        return "O";
+      } else {
+        return "C";
+      }
+    }
+
+    private SharedDungeon getDungeon() {
+      return SharedDungeon.this;
+    }
+  }
+
+  /**
+   * This represents a view of the monster of a single location of the {@link SharedDungeon}.
+   * Monsters are wounded only by the arrows of the players.
+   */
+  private final class SharedMonster implements Monster {
+
+    private final int index;
+
+    private SharedMonster(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public void reduceHealth(int percentage) {
+      throw new IllegalStateException("Monsters of a shared dungeon are wounded by arrows.");
+    }
+
+    @Override
+    public int getHealthPercentage() {
+      return monsterHealth.get(this.index);
+    }
+  }
+}
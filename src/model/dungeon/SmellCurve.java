@@ -0,0 +1,94 @@
+package model.dungeon;
+
+import java.util.Arrays;
+
+/**
+ * This represents how the smell of a {@link model.monster.Monster} fades with the number of
+ * moves from its cave: the strength of the smell at every distance up to the radius of the
+ * smell, beyond which the monster cannot be smelled. The smells of all the monsters that can be
+ * smelled at a location add up.
+ */
+public final class SmellCurve {
+
+  /**
+   * The smell of the monsters of the game: 3 in the cave of the monster, 2 one move away and 1
+   * two moves away, so a single monster two moves away smells lightly and a monster one move
+   * away, or two monsters two moves away, smell strongly.
+   */
+  public static final SmellCurve DEFAULT = new SmellCurve(3, 2, 1);
+
+  private final int[] strengths;
+
+  /**
+   * Constructs a curve from the strength of the smell at every distance from the cave of the
+   * monster, starting with the cave itself. The radius of the smell is one less than the number
+   * of strengths.
+   *
+   * @param strengths the strength at every distance.
+   * @throws IllegalArgumentException <ul><li>if {@code strengths} is {@code null} or
+   *                                  empty.</li>
+   *                                  <li>if there are more than {@link Short#MAX_VALUE}
+   *                                  strengths.</li>
+   *                                  <li>if any strength is negative or more than
+   *                                  {@link Short#MAX_VALUE}.</li></ul>
+   */
+  public SmellCurve(int... strengths) throws IllegalArgumentException {
+    if (strengths == null || strengths.length == 0) {
+      throw new IllegalArgumentException("Smell curve needs at least one strength.");
+    }
+    if (strengths.length > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Smell radius is too large.");
+    }
+    for (int strength : strengths) {
+      if (strength < 0 || strength > Short.MAX_VALUE) {
+        throw new IllegalArgumentException("Invalid smell strength " + strength);
+      }
+    }
+    this.strengths = strengths.clone();
+  }
+
+  /**
+   * Returns the largest number of moves from the cave of a monster at which it can be smelled.
+   *
+   * @return the radius.
+   */
+  public int getRadius() {
+    return this.strengths.length - 1;
+  }
+
+  /**
+   * Returns the strength of the smell at the given number of moves from the cave of a monster,
+   * which is 0 beyond the radius.
+   *
+   * @param distance the number of moves.
+   * @return the strength.
+   * @throws IllegalArgumentException if {@code distance} is negative.
+   */
+  public int getStrength(int distance) throws IllegalArgumentException {
+    if (distance < 0) {
+      throw new IllegalArgumentException("Distance cannot be negative.");
+    }
+    return distance < this.strengths.length ? this.strengths[distance] : 0;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SmellCurve)) {
+      return false;
+    }
+    return Arrays.equals(this.strengths, ((SmellCurve) o).strengths);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(this.strengths);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(this.strengths);
+  }
+}
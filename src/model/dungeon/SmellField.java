@@ -0,0 +1,175 @@
+package model.dungeon;
+
+import java.util.Arrays;
+
+import model.location.Direction;
+import model.location.LocationGrid;
+
+/**
+ * This spreads the smell of the monsters of a {@link Dungeon} through its open exits, following a
+ * {@link SmellCurve}. The smell of a monster reaches only the locations within the radius of the
+ * curve, found by a breadth first search from the cave of the monster that stops at the radius,
+ * so spreading or removing the smell of one monster costs as much as the number of locations
+ * within the radius, not the size of the dungeon. The locations reached so far are kept in a
+ * small hash table instead of an array over the whole dungeon. The smell at a location is the
+ * sum of the smells of the monsters that reach it, so removing the smell of a dead monster leaves
+ * exactly the smell that spreading the smell of the other monsters from scratch would give.
+ *
+ * <p>A field keeps no state between calls, so the same field is shared by every copy of a
+ * dungeon and can be used from any thread. A package-private class.
+ */
+final class SmellField {
+
+  private static final Direction[] DIRECTION_VALUES = Direction.values();
+  private static final int EMPTY = -1;
+
+  private final GridTopology topology;
+  private final byte[] exits;
+  private final SmellCurve curve;
+  private final int maxReached;
+
+  /**
+   * Constructs the smell field of a dungeon.
+   *
+   * @param topology the neighbor table of the dungeon.
+   * @param exits    the exit mask of every location, one bit per {@link Direction} ordinal.
+   * @param curve    the strength of the smell at every distance.
+   */
+  SmellField(GridTopology topology, byte[] exits, SmellCurve curve) {
+    this.topology = topology;
+    this.exits = exits;
+    this.curve = curve;
+    long radius = curve.getRadius();
+    this.maxReached = (int) Math.min(topology.size(), 2 * radius * radius + 2 * radius + 1);
+  }
+
+  SmellCurve getCurve() {
+    return this.curve;
+  }
+
+  /**
+   * Returns the smell at every location of monsters in the given locations, computed from
+   * scratch. The smells are added up in one array, so every location is written to the grid at
+   * most once by {@link #spread(int[], LocationGrid)}.
+   */
+  int[] compute(int[] sources) {
+    int[] field = new int[this.topology.size()];
+    Search search = new Search();
+    for (int source : sources) {
+      int reached = search.run(source);
+      for (int i = 0; i < reached; i++) {
+        field[search.cells[i]] += this.curve.getStrength(search.distances[i]);
+      }
+    }
+    return field;
+  }
+
+  /**
+   * Adds the smell of monsters in the given locations to the locations of the grid.
+   */
+  void spread(int[] sources, LocationGrid grid) {
+    int[] field = compute(sources);
+    for (int cell = 0; cell < field.length; cell++) {
+      if (field[cell] != 0) {
+        grid.get(cell).addSmell(field[cell]);
+      }
+    }
+  }
+
+  /**
+   * Removes the smell of the monster in the given location from the locations of the grid,
+   * touching only the locations within the radius of the smell.
+   */
+  void remove(int source, LocationGrid grid) {
+    remove(source, (cell, strength) -> grid.get(cell).reduceSmell(strength));
+  }
+
+  /**
+   * Hands the smell of the monster in the given location at every location within the radius of
+   * the smell to the given sink, to be taken away from the smell kept there.
+   */
+  void remove(int source, Sink sink) {
+    Search search = new Search();
+    int reached = search.run(source);
+    for (int i = 0; i < reached; i++) {
+      int strength = this.curve.getStrength(search.distances[i]);
+      if (strength != 0) {
+        sink.accept(search.cells[i], strength);
+      }
+    }
+  }
+
+  /**
+   * Receives the smell of a monster at one location.
+   */
+  interface Sink {
+
+    void accept(int cell, int strength);
+  }
+
+  /**
+   * A breadth first search from one location up to the radius of the smell. The reached
+   * locations double as the queue of the search.
+   */
+  private final class Search {
+
+    private final int[] cells;
+    private final int[] distances;
+    private final int[] table;
+    private final int mask;
+
+    private Search() {
+      this.cells = new int[maxReached];
+      this.distances = new int[maxReached];
+      this.table = new int[Integer.highestOneBit(2 * maxReached - 1) << 1];
+      this.mask = this.table.length - 1;
+    }
+
+    /**
+     * Finds the locations within the radius of the given location and returns how many there
+     * are.
+     */
+    private int run(int source) {
+      Arrays.fill(this.table, EMPTY);
+      int radius = curve.getRadius();
+      add(source);
+      this.cells[0] = source;
+      this.distances[0] = 0;
+      int head = 0;
+      int tail = 1;
+      while (head < tail) {
+        int cell = this.cells[head];
+        int distance = this.distances[head++];
+        if (distance == radius) {
+          continue;
+        }
+        for (Direction direction : DIRECTION_VALUES) {
+          if ((exits[cell] & (1 << direction.ordinal())) != 0) {
+            int neighbor = topology.getNeighbor(cell, direction);
+            if (add(neighbor)) {
+              this.cells[tail] = neighbor;
+              this.distances[tail++] = distance + 1;
+            }
+          }
+        }
+      }
+      return tail;
+    }
+
+    /**
+     * Adds a location to the table of reached locations and returns {@code false} if it was
+     * already there.
+     */
+    private boolean add(int cell) {
+      int slot = (cell * 0x9e3779b1) >>> 7 & this.mask;
+      while (this.table[slot] != EMPTY) {
+        if (this.table[slot] == cell) {
+          return false;
+        }
+        slot = (slot + 1) & this.mask;
+      }
+      this.table[slot] = cell;
+      return true;
+    }
+  }
+}
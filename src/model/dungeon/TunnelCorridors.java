@@ -0,0 +1,149 @@
+package model.dungeon;
+
+import java.util.Arrays;
+
+import model.location.Direction;
+
+/**
+ * This represents the flight of an arrow through the tunnels of the {@link Dungeon}. An arrow
+ * that leaves a cave follows the tunnels, turning with them, until it reaches the cave at the
+ * other end of the corridor. The cave reached and the direction of the arrow when it gets there
+ * are precomputed for every exit of every cave, so a shot costs one table lookup per cave
+ * crossed. A package-private class.
+ */
+final class TunnelCorridors {
+
+  static final int LOST = -1;
+  private static final Direction[] DIRECTION_VALUES = Direction.values();
+  private static final int DIRECTIONS = DIRECTION_VALUES.length;
+  private static final int[] TURN_ORDER = {Direction.N.ordinal(), Direction.S.ordinal(),
+      Direction.E.ordinal(), Direction.W.ordinal()};
+
+  private final GridTopology topology;
+  private final byte[] exits;
+  private final int[] corridorEnds;
+
+  /**
+   * Constructs the corridors of a dungeon.
+   *
+   * @param topology the neighbor table of the dungeon.
+   * @param exits    the exit mask of every location, one bit per {@link Direction} ordinal.
+   */
+  TunnelCorridors(GridTopology topology, byte[] exits) {
+    this.topology = topology;
+    this.exits = exits;
+    this.corridorEnds = new int[topology.size() * DIRECTIONS];
+    Arrays.fill(this.corridorEnds, LOST);
+    for (int cell = 0; cell < topology.size(); cell++) {
+      if (!isTunnel(cell)) {
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+          if (hasExit(cell, direction)) {
+            this.corridorEnds[cell * DIRECTIONS + direction] = walk(cell, direction);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns where an arrow ends up after leaving the given location in the given direction and
+   * crossing the given number of caves, tunnels are not counted. The result packs the location
+   * index and the direction ordinal of the arrow as {@code cell * 4 + direction}, use
+   * {@link #getCell(int)} and {@link #getDirection(int)} to read them. Returns {@link #LOST} if
+   * the arrow hits a wall before crossing all the caves. An arrow shot at a negative distance
+   * can never stop in a cave, so it is always lost.
+   *
+   * @param cell      the index of the location the arrow is shot from.
+   * @param direction the ordinal of the direction the arrow is shot in.
+   * @param distance  the number of caves to be crossed.
+   * @return the packed location and direction of the arrow, or {@link #LOST}.
+   */
+  int fly(int cell, int direction, int distance) {
+    if (distance < 0) {
+      return LOST;
+    }
+    if (distance != 0 && isTunnel(cell)) {
+      int end = walk(cell, turn(cell, direction));
+      if (end == LOST) {
+        return LOST;
+      }
+      cell = getCell(end);
+      direction = getDirection(end);
+      distance--;
+    }
+    while (distance != 0) {
+      if (!hasExit(cell, direction)) {
+        return LOST;
+      }
+      int end = this.corridorEnds[cell * DIRECTIONS + direction];
+      if (end == LOST) {
+        return LOST;
+      }
+      cell = getCell(end);
+      direction = getDirection(end);
+      distance--;
+    }
+    return cell * DIRECTIONS + direction;
+  }
+
+  /**
+   * Returns the location index of a packed result of {@link #fly(int, int, int)}.
+   *
+   * @param flight the packed result.
+   * @return the location index.
+   */
+  static int getCell(int flight) {
+    return flight / DIRECTIONS;
+  }
+
+  /**
+   * Returns the direction ordinal of a packed result of {@link #fly(int, int, int)}.
+   *
+   * @param flight the packed result.
+   * @return the direction ordinal.
+   */
+  static int getDirection(int flight) {
+    return flight % DIRECTIONS;
+  }
+
+  /**
+   * Moves from the given location through the given exit and on through the tunnels until a
+   * cave is reached. A walk longer than the number of locations can only go round a loop of
+   * tunnels, which is reported as {@link #LOST}.
+   */
+  private int walk(int cell, int direction) {
+    for (int steps = 0; steps <= this.topology.size(); steps++) {
+      cell = this.topology.getNeighbor(cell, DIRECTION_VALUES[direction]);
+      if (!isTunnel(cell)) {
+        return cell * DIRECTIONS + direction;
+      }
+      direction = turn(cell, direction);
+    }
+    return LOST;
+  }
+
+  /**
+   * An arrow keeps its direction through a tunnel if it can, otherwise it leaves through the
+   * first other exit in the order N, S, E, W that is not the one it came in from.
+   */
+  private int turn(int cell, int direction) {
+    if (hasExit(cell, direction)) {
+      return direction;
+    }
+    int entering = (direction + DIRECTIONS / 2) % DIRECTIONS;
+    for (int turned : TURN_ORDER) {
+      if (turned != entering && hasExit(cell, turned)) {
+        return turned;
+      }
+    }
+    return direction;
+  }
+
+  private boolean hasExit(int cell, int direction) {
+    return (this.exits[cell] & (1 << direction)) != 0;
+  }
+
+  private boolean isTunnel(int cell) {
+    return Integer.bitCount(this.exits[cell]) == 2;
+  }
+}
@@ -0,0 +1,101 @@
+package model.location;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.monster.Monster;
+
+/**
+ * The CaveGrid implements {@link LocationGrid} and stores every location of the grid as a
+ * {@link Cave} object.
+ */
+public class CaveGrid implements LocationGrid {
+
+  private final int rows;
+  private final int columns;
+  private final List<List<LocationUpdateState>> caves;
+
+  /**
+   * Constructs a grid of caves without any moves, treasures, arrows or monsters.
+   *
+   * @param rows    the number of rows.
+   * @param columns the number of columns.
+   * @throws IllegalArgumentException if {@code rows} or {@code columns} is not positive.
+   */
+  public CaveGrid(int rows, int columns) {
+    if (rows <= 0 || columns <= 0) {
+      throw new IllegalArgumentException("Rows and columns must be positive.");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.caves = new ArrayList<>();
+    for (int i = 0; i < rows; i++) {
+      List<LocationUpdateState> caveRow = new ArrayList<>();
+      for (int j = 0; j < columns; j++) {
+        caveRow.add(new Cave((columns * i) + j, i, j));
+      }
+      this.caves.add(caveRow);
+    }
+  }
+
+  private CaveGrid(CaveGrid grid) {
+    this.rows = grid.rows;
+    this.columns = grid.columns;
+    this.caves = new ArrayList<>();
+    for (int i = 0; i < rows; i++) {
+      List<LocationUpdateState> caveRow = new ArrayList<>();
+      for (int j = 0; j < columns; j++) {
+        caveRow.add(new Cave((Cave) grid.get(i, j)));
+      }
+      this.caves.add(caveRow);
+    }
+  }
+
+  @Override
+  public int getRows() {
+    return this.rows;
+  }
+
+  @Override
+  public int getColumns() {
+    return this.columns;
+  }
+
+  @Override
+  public LocationUpdateState get(int row, int column) {
+    return this.caves.get(row).get(column);
+  }
+
+  @Override
+  public LocationUpdateState get(int index) {
+    return this.caves.get(index / this.columns).get(index % this.columns);
+  }
+
+  @Override
+  public LocationGrid copy() {
+    return new CaveGrid(this);
+  }
+
+  @Override
+  public void writeState(ByteBuffer buffer) {
+    int cells = this.rows * this.columns;
+    for (int i = 0; i < cells; i++) {
+      buffer.putShort((short) get(i).getSmell());
+    }
+    for (int i = 0; i < cells; i++) {
+      List<Treasure> treasures = get(i).getTreasures();
+      for (Treasure treasure : Treasure.values()) {
+        buffer.put((byte) treasures.stream().filter(treasure::equals).count());
+      }
+    }
+    for (int i = 0; i < cells; i++) {
+      buffer.put((byte) get(i).getArrows().size());
+    }
+    for (int i = 0; i < cells; i++) {
+      Monster monster = get(i).getMonster();
+      buffer.putShort(monster == null ? PackedGrid.NO_MONSTER
+              : (short) monster.getHealthPercentage());
+    }
+  }
+}
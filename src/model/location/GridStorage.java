@@ -0,0 +1,19 @@
+package model.location;
+
+/**
+ * This represents the different ways the locations of a {@link model.dungeon.Dungeon} can be
+ * stored in memory.
+ */
+public enum GridStorage {
+
+  /**
+   * Every location is a {@link Cave} object with its own moves, treasures and arrows.
+   */
+  CAVES,
+
+  /**
+   * All the locations are kept in flat primitive arrays indexed by the location id and
+   * {@link Location}(s) are lightweight views over them.
+   */
+  PACKED
+}
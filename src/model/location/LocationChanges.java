@@ -0,0 +1,153 @@
+package model.location;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This represents the state a few locations of an {@link OverlayGrid} had at some point: the
+ * smell, the treasures, the arrows and the monster health of every location, or the fact that a
+ * location had not been changed from the base grid yet. Changes are recorded by
+ * {@link OverlayGrid#startRecording()} and put back by {@link OverlayGrid#apply(LocationChanges)},
+ * and they keep nothing for the locations that were not touched.
+ */
+public final class LocationChanges {
+
+  private static final int TREASURE_TYPES = Treasure.values().length;
+  private static final int INITIAL_CAPACITY = 4;
+  private static final int[] NO_LOCATIONS = new int[0];
+  private static final boolean[] NO_FLAGS = new boolean[0];
+  private static final short[] NO_SHORTS = new short[0];
+  private static final byte[] NO_BYTES = new byte[0];
+
+  int[] locations;
+  boolean[] inOverlay;
+  short[] smell;
+  byte[] treasures;
+  byte[] arrows;
+  short[] monsterHealth;
+  int size;
+
+  LocationChanges() {
+    this.locations = NO_LOCATIONS;
+    this.inOverlay = NO_FLAGS;
+    this.smell = NO_SHORTS;
+    this.treasures = NO_BYTES;
+    this.arrows = NO_BYTES;
+    this.monsterHealth = NO_SHORTS;
+  }
+
+  /**
+   * Reads changes written by {@link #write(ByteBuffer)}.
+   *
+   * @param buffer the buffer to read from.
+   * @param cells  the number of locations of the grid the changes belong to.
+   * @return the changes.
+   * @throws IllegalArgumentException if the number of changed locations is negative or a
+   *                                  location is not in the grid.
+   * @throws java.nio.BufferUnderflowException if the buffer does not hold all the changes.
+   */
+  public static LocationChanges read(ByteBuffer buffer, int cells) {
+    int size = buffer.getInt();
+    if (size < 0 || size > buffer.remaining()) {
+      throw new IllegalArgumentException("Invalid number of changed locations " + size);
+    }
+    LocationChanges changes = new LocationChanges();
+    for (int i = 0; i < size; i++) {
+      int location = buffer.getInt();
+      if (location < 0 || location >= cells) {
+        throw new IllegalArgumentException("Invalid changed location " + location);
+      }
+      boolean isInOverlay = buffer.get() != 0;
+      int position = changes.add(location, isInOverlay);
+      changes.smell[position] = buffer.getShort();
+      buffer.get(changes.treasures, position * TREASURE_TYPES, TREASURE_TYPES);
+      changes.arrows[position] = buffer.get();
+      changes.monsterHealth[position] = buffer.getShort();
+    }
+    return changes;
+  }
+
+  /**
+   * Returns the number of locations in the changes.
+   *
+   * @return the number of locations.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns if there are no locations in the changes.
+   *
+   * @return {@code true} if there are no locations otherwise {@code false}.
+   */
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Returns the indexes of the locations in the changes.
+   *
+   * @return the indexes of the locations.
+   */
+  public int[] getLocations() {
+    return Arrays.copyOf(this.locations, this.size);
+  }
+
+  /**
+   * Returns the number of bytes written by {@link #write(ByteBuffer)}.
+   *
+   * @return the number of bytes.
+   */
+  public int getBytes() {
+    return 4 + this.size * (4 + 1 + PackedGrid.STATE_BYTES_PER_LOCATION);
+  }
+
+  /**
+   * Writes the changes to the buffer: the number of locations as an int and then, for every
+   * location, its index as an int, a byte telling if it was changed from the base grid and its
+   * smell, treasures, arrows and monster health.
+   *
+   * @param buffer the buffer to write to.
+   * @throws java.nio.BufferOverflowException if the buffer does not have enough space left.
+   */
+  public void write(ByteBuffer buffer) {
+    buffer.putInt(this.size);
+    for (int i = 0; i < this.size; i++) {
+      buffer.putInt(this.locations[i]);
+      buffer.put((byte) (this.inOverlay[i] ? 1 : 0));
+      buffer.putShort(this.smell[i]);
+      buffer.put(this.treasures, i * TREASURE_TYPES, TREASURE_TYPES);
+      buffer.put(this.arrows[i]);
+      buffer.putShort(this.monsterHealth[i]);
+    }
+  }
+
+  boolean contains(int location) {
+    for (int i = 0; i < this.size; i++) {
+      if (this.locations[i] == location) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Adds a location and returns its position in the changes. The state of the location is filled
+   * in by the caller.
+   */
+  int add(int location, boolean isInOverlay) {
+    if (this.size == this.locations.length) {
+      int capacity = Math.max(INITIAL_CAPACITY, 2 * this.size);
+      this.locations = Arrays.copyOf(this.locations, capacity);
+      this.inOverlay = Arrays.copyOf(this.inOverlay, capacity);
+      this.smell = Arrays.copyOf(this.smell, capacity);
+      this.treasures = Arrays.copyOf(this.treasures, capacity * TREASURE_TYPES);
+      this.arrows = Arrays.copyOf(this.arrows, capacity);
+      this.monsterHealth = Arrays.copyOf(this.monsterHealth, capacity);
+    }
+    this.locations[this.size] = location;
+    this.inOverlay[this.size] = isInOverlay;
+    return this.size++;
+  }
+}
@@ -0,0 +1,65 @@
+package model.location;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The LocationGrid represents the storage of all the {@link LocationUpdateState}(s) of the
+ * {@link model.dungeon.Dungeon} grid. Locations can be looked up either by their row and column
+ * or by their index in the grid, where the index of a location is {@code row * columns + column}
+ * and is the same as its id.
+ */
+public interface LocationGrid {
+
+  /**
+   * Returns the number of rows in the grid.
+   *
+   * @return the number of rows.
+   */
+  int getRows();
+
+  /**
+   * Returns the number of columns in the grid.
+   *
+   * @return the number of columns.
+   */
+  int getColumns();
+
+  /**
+   * Returns the location at the given row and column of the grid.
+   *
+   * @param row    the row (x) coordinate in the grid.
+   * @param column the column (y) coordinate in the grid.
+   * @return the location.
+   */
+  LocationUpdateState get(int row, int column);
+
+  /**
+   * Returns the location at the given index of the grid.
+   *
+   * @param index the index of the location.
+   * @return the location.
+   */
+  LocationUpdateState get(int index);
+
+  /**
+   * Returns a copy of the grid. Every location is copied the same way {@link Cave#Cave(Cave)}
+   * copies a cave, which means any monster in the copy starts with full health again.
+   *
+   * @return the copy of the grid.
+   */
+  LocationGrid copy();
+
+  /**
+   * Writes the state of every location to the buffer, in the order of the location index and
+   * grouped by kind: the smell as a short, the number of each {@link Treasure} as a byte in the
+   * order of the treasures, the number of arrows as a byte and the health of the monster as a
+   * short, or {@link PackedGrid#NO_MONSTER} if there is no monster. The buffer needs
+   * {@link PackedGrid#STATE_BYTES_PER_LOCATION} bytes per location and the state is read back by
+   * {@link PackedGrid#PackedGrid(int, int, byte[], ByteBuffer)}. The moves of the locations are
+   * not written.
+   *
+   * @param buffer the buffer to write to.
+   * @throws java.nio.BufferOverflowException if the buffer does not have enough space left.
+   */
+  void writeState(ByteBuffer buffer);
+}
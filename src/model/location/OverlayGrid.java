@@ -0,0 +1,655 @@
+package model.location;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.location.coordinate.Coordinate;
+import model.monster.Monster;
+import model.weapon.Weapon;
+
+/**
+ * The OverlayGrid implements {@link LocationGrid} on top of a base grid that is never changed
+ * through the overlay. The first change to a location copies its smell, treasures, arrows and
+ * monster health into the overlay and every later change is kept there, so the base keeps the
+ * state the locations had when the overlay was created. {@link #reset()} throws all the changes
+ * away and costs as much as the number of changed locations, whatever the size of the grid. The
+ * moves of the locations always come from the base and cannot be changed.
+ *
+ * <p>The overlay can also record the state every location had before it was first touched since
+ * {@link #startRecording()}, so a few changes can be taken back with
+ * {@link #apply(LocationChanges)} at a cost that depends only on the number of touched locations.
+ */
+public class OverlayGrid implements LocationGrid {
+
+  private static final int TREASURE_TYPES = Treasure.values().length;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int UNCHANGED = -1;
+
+  private final LocationGrid base;
+  private final int[] slots;
+  private int[] changed;
+  private short[] smell;
+  private byte[] treasures;
+  private byte[] arrows;
+  private short[] monsterHealth;
+  private int size;
+  private LocationChanges recording;
+
+  /**
+   * Constructs an overlay without any changes on top of the given grid.
+   *
+   * @param base the base grid.
+   * @throws IllegalArgumentException if {@code base} is {@code null}.
+   */
+  public OverlayGrid(LocationGrid base) {
+    if (base == null) {
+      throw new IllegalArgumentException("Base grid cannot be null.");
+    }
+    this.base = base;
+    this.slots = new int[base.getRows() * base.getColumns()];
+    Arrays.fill(this.slots, UNCHANGED);
+    this.changed = new int[INITIAL_CAPACITY];
+    this.smell = new short[INITIAL_CAPACITY];
+    this.treasures = new byte[INITIAL_CAPACITY * TREASURE_TYPES];
+    this.arrows = new byte[INITIAL_CAPACITY];
+    this.monsterHealth = new short[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Constructs an overlay on top of the given grid with the changes written by
+   * {@link #writeChanges(ByteBuffer)}. The changes are copied straight from the buffer into the
+   * arrays of the overlay, and the position of the buffer is moved past them.
+   *
+   * @param base    the base grid.
+   * @param changes the buffer to read the changes from.
+   * @throws IllegalArgumentException <ul><li>if {@code base} is {@code null}.</li>
+   *                                  <li>if the changes are not of locations of the base grid, or
+   *                                  a location is changed more than once.</li></ul>
+   * @throws java.nio.BufferUnderflowException if the buffer does not hold all the changes.
+   */
+  public OverlayGrid(LocationGrid base, ByteBuffer changes) {
+    this(base);
+    int count = changes.getInt();
+    if (count < 0 || count > this.slots.length) {
+      throw new IllegalArgumentException("Invalid number of changed locations " + count);
+    }
+    ensureCapacity(count);
+    changes.asIntBuffer().get(this.changed, 0, count);
+    changes.position(changes.position() + 4 * count);
+    for (int slot = 0; slot < count; slot++) {
+      int index = this.changed[slot];
+      if (index < 0 || index >= this.slots.length || this.slots[index] != UNCHANGED) {
+        throw new IllegalArgumentException("Invalid changed location " + index);
+      }
+      this.slots[index] = slot;
+    }
+    this.size = count;
+    changes.asShortBuffer().get(this.smell, 0, count);
+    changes.position(changes.position() + 2 * count);
+    changes.get(this.treasures, 0, count * TREASURE_TYPES);
+    changes.get(this.arrows, 0, count);
+    changes.asShortBuffer().get(this.monsterHealth, 0, count);
+    changes.position(changes.position() + 2 * count);
+  }
+
+  private OverlayGrid(OverlayGrid grid) {
+    this.base = grid.base;
+    this.slots = grid.slots.clone();
+    this.changed = grid.changed.clone();
+    this.smell = grid.smell.clone();
+    this.treasures = grid.treasures.clone();
+    this.arrows = grid.arrows.clone();
+    this.monsterHealth = grid.monsterHealth.clone();
+    this.size = grid.size;
+    for (int slot = 0; slot < this.size; slot++) {
+      if (this.monsterHealth[slot] != PackedGrid.NO_MONSTER) {
+        this.monsterHealth[slot] = 100;
+      }
+    }
+  }
+
+  /**
+   * Returns the base grid of the overlay.
+   *
+   * @return the base grid.
+   */
+  public LocationGrid getBase() {
+    return this.base;
+  }
+
+  /**
+   * Returns the number of locations changed since the overlay was created or last reset.
+   *
+   * @return the number of changed locations.
+   */
+  public int getChangedLocations() {
+    return this.size;
+  }
+
+  /**
+   * Returns the indexes of the locations changed since the overlay was created or last reset, in
+   * no particular order.
+   *
+   * @return the indexes of the changed locations.
+   */
+  public int[] listChangedLocations() {
+    return Arrays.copyOf(this.changed, this.size);
+  }
+
+  /**
+   * Throws away every change, so all the locations are back to the state of the base grid. Any
+   * recording is stopped.
+   */
+  public void reset() {
+    this.recording = null;
+    for (int slot = 0; slot < this.size; slot++) {
+      this.slots[this.changed[slot]] = UNCHANGED;
+    }
+    this.size = 0;
+  }
+
+  /**
+   * Starts recording the state of every location before it is first touched, until
+   * {@link #stopRecording()} is called.
+   *
+   * @throws IllegalStateException if the overlay is already recording.
+   */
+  public void startRecording() throws IllegalStateException {
+    if (this.recording != null) {
+      throw new IllegalStateException("Overlay is already recording.");
+    }
+    this.recording = new LocationChanges();
+  }
+
+  /**
+   * Stops recording and returns the state the touched locations had when the recording started.
+   * Locations that were written with the values they already had are left out.
+   *
+   * @return the recorded state.
+   * @throws IllegalStateException if the overlay is not recording.
+   */
+  public LocationChanges stopRecording() throws IllegalStateException {
+    if (this.recording == null) {
+      throw new IllegalStateException("Overlay is not recording.");
+    }
+    LocationChanges recorded = this.recording;
+    this.recording = null;
+    LocationChanges changes = new LocationChanges();
+    for (int i = 0; i < recorded.size; i++) {
+      if (!isUnchanged(recorded, i)) {
+        copy(recorded, i, changes);
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * Puts the locations back to the given recorded state and returns the state they had before, so
+   * applying the returned state takes the call back again. A location that had not been changed
+   * from the base grid in the recorded state is dropped from the overlay.
+   *
+   * @param changes the recorded state.
+   * @return the state of the same locations before the call.
+   * @throws IllegalArgumentException if {@code changes} is {@code null} or holds a location that
+   *                                  is not in the grid.
+   * @throws IllegalStateException    if the overlay is recording.
+   */
+  public LocationChanges apply(LocationChanges changes)
+          throws IllegalArgumentException, IllegalStateException {
+    if (changes == null) {
+      throw new IllegalArgumentException("Changes cannot be null.");
+    }
+    if (this.recording != null) {
+      throw new IllegalStateException("Changes cannot be applied while recording.");
+    }
+    LocationChanges previous = new LocationChanges();
+    for (int i = 0; i < changes.size; i++) {
+      int index = changes.locations[i];
+      if (index < 0 || index >= this.slots.length) {
+        throw new IllegalArgumentException("Invalid changed location " + index);
+      }
+      record(previous, index);
+      if (!changes.inOverlay[i]) {
+        drop(index);
+        continue;
+      }
+      int slot = materialize(index);
+      this.smell[slot] = changes.smell[i];
+      System.arraycopy(changes.treasures, i * TREASURE_TYPES, this.treasures,
+              slot * TREASURE_TYPES, TREASURE_TYPES);
+      this.arrows[slot] = changes.arrows[i];
+      this.monsterHealth[slot] = changes.monsterHealth[i];
+    }
+    return previous;
+  }
+
+  /**
+   * Returns the number of bytes written by {@link #writeChanges(ByteBuffer)}.
+   *
+   * @return the number of bytes.
+   */
+  public int getChangesBytes() {
+    return 4 + this.size * (4 + PackedGrid.STATE_BYTES_PER_LOCATION);
+  }
+
+  /**
+   * Writes the changed locations to the buffer: their number as an int, the index of every
+   * changed location as an int and then their state in the layout of
+   * {@link LocationGrid#writeState(ByteBuffer)}. The changes are read back by
+   * {@link #OverlayGrid(LocationGrid, ByteBuffer)}.
+   *
+   * @param buffer the buffer to write to.
+   * @throws java.nio.BufferOverflowException if the buffer does not have enough space left.
+   */
+  public void writeChanges(ByteBuffer buffer) {
+    buffer.putInt(this.size);
+    buffer.asIntBuffer().put(this.changed, 0, this.size);
+    buffer.position(buffer.position() + 4 * this.size);
+    buffer.asShortBuffer().put(this.smell, 0, this.size);
+    buffer.position(buffer.position() + 2 * this.size);
+    buffer.put(this.treasures, 0, this.size * TREASURE_TYPES);
+    buffer.put(this.arrows, 0, this.size);
+    buffer.asShortBuffer().put(this.monsterHealth, 0, this.size);
+    buffer.position(buffer.position() + 2 * this.size);
+  }
+
+  @Override
+  public int getRows() {
+    return this.base.getRows();
+  }
+
+  @Override
+  public int getColumns() {
+    return this.base.getColumns();
+  }
+
+  @Override
+  public LocationUpdateState get(int row, int column) {
+    return get(row * this.base.getColumns() + column);
+  }
+
+  @Override
+  public LocationUpdateState get(int index) {
+    if (index < 0 || index >= this.slots.length) {
+      throw new IndexOutOfBoundsException("Invalid location index " + index);
+    }
+    return new OverlayLocation(index);
+  }
+
+  /**
+   * Returns a copy of the overlay that shares the base grid and has its own copy of the changes.
+   * Any monster in a changed location of the copy starts with full health again.
+   *
+   * @return the copy of the overlay.
+   */
+  @Override
+  public OverlayGrid copy() {
+    return new OverlayGrid(this);
+  }
+
+  /**
+   * Writes the state of every location, with the changes applied on top of the state of the base
+   * grid.
+   *
+   * @param buffer the buffer to write to.
+   * @throws java.nio.BufferOverflowException if the buffer does not have enough space left.
+   */
+  @Override
+  public void writeState(ByteBuffer buffer) {
+    int cells = this.slots.length;
+    int smellStart = buffer.position();
+    int treasuresStart = smellStart + 2 * cells;
+    int arrowsStart = treasuresStart + TREASURE_TYPES * cells;
+    int monsterStart = arrowsStart + cells;
+    this.base.writeState(buffer);
+    for (int slot = 0; slot < this.size; slot++) {
+      int index = this.changed[slot];
+      buffer.putShort(smellStart + 2 * index, this.smell[slot]);
+      for (int i = 0; i < TREASURE_TYPES; i++) {
+        buffer.put(treasuresStart + index * TREASURE_TYPES + i,
+                this.treasures[slot * TREASURE_TYPES + i]);
+      }
+      buffer.put(arrowsStart + index, this.arrows[slot]);
+      buffer.putShort(monsterStart + 2 * index, this.monsterHealth[slot]);
+    }
+  }
+
+  private int change(int index) {
+    if (this.recording != null && !this.recording.contains(index)) {
+      record(this.recording, index);
+    }
+    return materialize(index);
+  }
+
+  private void record(LocationChanges changes, int index) {
+    int slot = this.slots[index];
+    int position = changes.add(index, slot != UNCHANGED);
+    if (slot != UNCHANGED) {
+      changes.smell[position] = this.smell[slot];
+      System.arraycopy(this.treasures, slot * TREASURE_TYPES, changes.treasures,
+              position * TREASURE_TYPES, TREASURE_TYPES);
+      changes.arrows[position] = this.arrows[slot];
+      changes.monsterHealth[position] = this.monsterHealth[slot];
+    }
+  }
+
+  /**
+   * Returns if a recorded location has the same state now as when it was recorded, which is the
+   * case when it was only written with the values it already had.
+   */
+  private boolean isUnchanged(LocationChanges changes, int position) {
+    int index = changes.locations[position];
+    LocationUpdateState location = get(index);
+    if (!changes.inOverlay[position]) {
+      LocationUpdateState original = this.base.get(index);
+      return location.getSmell() == original.getSmell()
+              && Arrays.equals(countTreasures(location), countTreasures(original))
+              && location.getArrows().size() == original.getArrows().size()
+              && getHealth(location) == getHealth(original);
+    }
+    return location.getSmell() == changes.smell[position]
+            && Arrays.equals(countTreasures(location), Arrays.copyOfRange(changes.treasures,
+            position * TREASURE_TYPES, (position + 1) * TREASURE_TYPES))
+            && location.getArrows().size() == changes.arrows[position]
+            && getHealth(location) == changes.monsterHealth[position];
+  }
+
+  private static byte[] countTreasures(Location location) {
+    byte[] counts = new byte[TREASURE_TYPES];
+    for (Treasure treasure : location.getTreasures()) {
+      counts[treasure.ordinal()]++;
+    }
+    return counts;
+  }
+
+  private static int getHealth(Location location) {
+    Monster monster = location.getMonster();
+    return monster == null ? PackedGrid.NO_MONSTER : monster.getHealthPercentage();
+  }
+
+  private static void copy(LocationChanges from, int position, LocationChanges to) {
+    int copied = to.add(from.locations[position], from.inOverlay[position]);
+    to.smell[copied] = from.smell[position];
+    System.arraycopy(from.treasures, position * TREASURE_TYPES, to.treasures,
+            copied * TREASURE_TYPES, TREASURE_TYPES);
+    to.arrows[copied] = from.arrows[position];
+    to.monsterHealth[copied] = from.monsterHealth[position];
+  }
+
+  /**
+   * Drops a location from the overlay by moving the last changed location into its slot.
+   */
+  private void drop(int index) {
+    int slot = this.slots[index];
+    if (slot == UNCHANGED) {
+      return;
+    }
+    int last = --this.size;
+    if (slot != last) {
+      this.changed[slot] = this.changed[last];
+      this.smell[slot] = this.smell[last];
+      System.arraycopy(this.treasures, last * TREASURE_TYPES, this.treasures,
+              slot * TREASURE_TYPES, TREASURE_TYPES);
+      this.arrows[slot] = this.arrows[last];
+      this.monsterHealth[slot] = this.monsterHealth[last];
+      this.slots[this.changed[slot]] = slot;
+    }
+    this.slots[index] = UNCHANGED;
+  }
+
+  private int materialize(int index) {
+    int slot = this.slots[index];
+    if (slot != UNCHANGED) {
+      return slot;
+    }
+    slot = this.size;
+    ensureCapacity(slot + 1);
+    LocationUpdateState location = this.base.get(index);
+    this.smell[slot] = (short) location.getSmell();
+    System.arraycopy(countTreasures(location), 0, this.treasures, slot * TREASURE_TYPES,
+            TREASURE_TYPES);
+    this.arrows[slot] = (byte) location.getArrows().size();
+    this.monsterHealth[slot] = (short) getHealth(location);
+    this.changed[slot] = index;
+    this.slots[index] = slot;
+    this.size++;
+    return slot;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= this.changed.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, 2 * this.changed.length);
+    this.changed = Arrays.copyOf(this.changed, newCapacity);
+    this.smell = Arrays.copyOf(this.smell, newCapacity);
+    this.treasures = Arrays.copyOf(this.treasures, newCapacity * TREASURE_TYPES);
+    this.arrows = Arrays.copyOf(this.arrows, newCapacity);
+    this.monsterHealth = Arrays.copyOf(this.monsterHealth, newCapacity);
+  }
+
+  /**
+   * This represents a view of a single location of the {@link OverlayGrid}. A view holds only the
+   * index of the location. It reads the base grid until the location is changed, and the overlay
+   * after that.
+   */
+  private class OverlayLocation implements LocationUpdateState {
+
+    private final int index;
+
+    private OverlayLocation(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public int getId() {
+      return this.index;
+    }
+
+    @Override
+    public Coordinate getCoordinates() {
+      return base.get(this.index).getCoordinates();
+    }
+
+    @Override
+    public List<Treasure> getTreasures() {
+      int slot = slots[this.index];
+      if (slot == UNCHANGED) {
+        return base.get(this.index).getTreasures();
+      }
+      List<Treasure> treasureList = new ArrayList<>();
+      for (Treasure treasure : Treasure.values()) {
+        for (int i = 0; i < treasures[slot * TREASURE_TYPES + treasure.ordinal()]; i++) {
+          treasureList.add(treasure);
+        }
+      }
+      return treasureList;
+    }
+
+    @Override
+    public List<Direction> getPossibleMoves() {
+      return base.get(this.index).getPossibleMoves();
+    }
+
+    @Override
+    public boolean isTunnel() {
+      return base.get(this.index).isTunnel();
+    }
+
+    @Override
+    public int getSmell() {
+      int slot = slots[this.index];
+      return slot == UNCHANGED ? base.get(this.index).getSmell() : smell[slot];
+    }
+
+    @Override
+    public List<Weapon> getArrows() {
+      int slot = slots[this.index];
+      if (slot == UNCHANGED) {
+        return base.get(this.index).getArrows();
+      }
+      List<Weapon> weapons = new ArrayList<>();
+      for (int i = 0; i < arrows[slot]; i++) {
+        weapons.add(Weapon.ARROW);
+      }
+      return weapons;
+    }
+
+    @Override
+    public Monster getMonster() {
+      int slot = slots[this.index];
+      if (slot == UNCHANGED) {
+        return base.get(this.index).getMonster() == null ? null : new OverlayMonster(this.index);
+      }
+      return monsterHealth[slot] == PackedGrid.NO_MONSTER ? null : new OverlayMonster(this.index);
+    }
+
+    @Override
+    public Map<Direction, LocationUpdateState> getNeighborLocations() {
+      Map<Direction, LocationUpdateState> neighbors = new LinkedHashMap<>();
+      for (Map.Entry<Direction, LocationUpdateState> neighbor
+              : base.get(this.index).getNeighborLocations().entrySet()) {
+        neighbors.put(neighbor.getKey(), new OverlayLocation(neighbor.getValue().getId()));
+      }
+      return neighbors;
+    }
+
+    @Override
+    public void setValidMoves(Map<Direction, LocationUpdateState> validMoves) {
+      throw new IllegalStateException("Moves of a location cannot be changed in an overlay.");
+    }
+
+    @Override
+    public void addTreasures(List<Treasure> treasureList) {
+      int slot = change(this.index);
+      Arrays.fill(treasures, slot * TREASURE_TYPES, (slot + 1) * TREASURE_TYPES, (byte) 0);
+      for (Treasure treasure : treasureList) {
+        treasures[slot * TREASURE_TYPES + treasure.ordinal()]++;
+      }
+    }
+
+    @Override
+    public void removeTreasures(List<Treasure> treasureList) {
+      int slot = change(this.index);
+      for (Treasure treasure : treasureList) {
+        treasures[slot * TREASURE_TYPES + treasure.ordinal()] = 0;
+      }
+    }
+
+    @Override
+    public void addSmell(int smellToAdd) {
+      int slot = change(this.index);
+      smell[slot] += smellToAdd;
+    }
+
+    @Override
+    public void reduceSmell(int smellToReduce) {
+      int slot = change(this.index);
+      smell[slot] = (short) Math.max(0, smell[slot] - smellToReduce);
+    }
+
+    @Override
+    public void addArrows(List<Weapon> weapons) {
+      if (weapons == null) {
+        throw new IllegalArgumentException("List of arrows cannot be null.");
+      }
+      weapons.forEach(arrow -> {
+        if (arrow == null) {
+          throw new IllegalArgumentException("List of arrows cannot be null elements");
+        }
+      });
+      int slot = change(this.index);
+      arrows[slot] += weapons.size();
+    }
+
+    @Override
+    public void addMonster(Monster otyugh) {
+      int slot = change(this.index);
+      monsterHealth[slot] = otyugh == null ? PackedGrid.NO_MONSTER
+              : (short) otyugh.getHealthPercentage();
+    }
+
+    @Override
+    public List<LocationUpdateState> getNeighbors() {
+      return new ArrayList<>(getNeighborLocations().values());
+    }
+
+    @Override
+    public void removeArrows() {
+      int slot = change(this.index);
+      arrows[slot] = 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o instanceof OverlayLocation) {
+        OverlayLocation location = (OverlayLocation) o;
+        return this.index == location.index && this.getGrid() == location.getGrid();
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.index;
+    }
+
+    /**
+     * Returns the string representation of the location. "T" in case of a tunnel, "O" in case of
+     * a cave with a monster and "C" in case of a cave.
+     *
+     * @return the string representation.
+     */
+    @Override
+    public String toString() {
+      if (isTunnel()) {
+        return "T";
+      } else if (getMonster() != null) {
+        return "O";
+      } else {
+        return "C";
+      }
+    }
+
+    private OverlayGrid getGrid() {
+      return OverlayGrid.this;
+    }
+  }
+
+  /**
+   * This represents a view of the monster of a single location of the {@link OverlayGrid}. The
+   * health of the monster is read from the base grid until the monster is hurt.
+   */
+  private class OverlayMonster implements Monster {
+
+    private final int index;
+
+    private OverlayMonster(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public void reduceHealth(int percentage) {
+      if (percentage < 0 || percentage > 100) {
+        throw new IllegalArgumentException("Health percentage cannot be less than 0 or greater than"
+                + " 100.");
+      }
+      int slot = change(this.index);
+      monsterHealth[slot] -= percentage;
+    }
+
+    @Override
+    public int getHealthPercentage() {
+      int slot = slots[this.index];
+      return slot == UNCHANGED ? base.get(this.index).getMonster().getHealthPercentage()
+              : monsterHealth[slot];
+    }
+  }
+}
@@ -0,0 +1,385 @@
+package model.location;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import model.location.coordinate.Coordinate;
+import model.location.coordinate.CoordinateImpl;
+import model.monster.Monster;
+import model.weapon.Weapon;
+
+/**
+ * The PackedGrid implements {@link LocationGrid} and stores the state of all the locations in
+ * flat primitive arrays indexed by the location id: a byte exit mask, the smell, the number of
+ * each {@link Treasure}, the number of arrows and the health of the monster. The
+ * {@link LocationUpdateState}(s) returned by the grid are lightweight views that read and write
+ * these arrays, so no object is kept per location.
+ */
+public class PackedGrid implements LocationGrid {
+
+  /**
+   * The health written by {@link LocationGrid#writeState(ByteBuffer)} for a location without a
+   * monster.
+   */
+  public static final short NO_MONSTER = Short.MIN_VALUE;
+
+  private static final int TREASURE_TYPES = Treasure.values().length;
+
+  /**
+   * The number of bytes written by {@link LocationGrid#writeState(ByteBuffer)} for every
+   * location.
+   */
+  public static final int STATE_BYTES_PER_LOCATION = 2 + TREASURE_TYPES + 1 + 2;
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final int rows;
+  private final int columns;
+  private final byte[] exits;
+  private final short[] smell;
+  private final byte[] treasures;
+  private final byte[] arrows;
+  private final short[] monsterHealth;
+
+  /**
+   * Constructs a packed grid without any moves, treasures, arrows or monsters.
+   *
+   * @param rows    the number of rows.
+   * @param columns the number of columns.
+   * @throws IllegalArgumentException if {@code rows} or {@code columns} is not positive.
+   */
+  public PackedGrid(int rows, int columns) {
+    if (rows <= 0 || columns <= 0) {
+      throw new IllegalArgumentException("Rows and columns must be positive.");
+    }
+    int cells = rows * columns;
+    this.rows = rows;
+    this.columns = columns;
+    this.exits = new byte[cells];
+    this.smell = new short[cells];
+    this.treasures = new byte[cells * TREASURE_TYPES];
+    this.arrows = new byte[cells];
+    this.monsterHealth = new short[cells];
+    Arrays.fill(this.monsterHealth, NO_MONSTER);
+  }
+
+  /**
+   * Constructs a packed grid from the exit masks of the locations and a state written by
+   * {@link LocationGrid#writeState(ByteBuffer)}. The state is copied straight from the buffer
+   * into the arrays of the grid, and the position of the buffer is moved past it.
+   *
+   * @param rows    the number of rows.
+   * @param columns the number of columns.
+   * @param exits   the exit mask of every location, one bit per {@link Direction} ordinal. The
+   *                grid keeps its own copy.
+   * @param state   the buffer to read the state from.
+   * @throws IllegalArgumentException <ul><li>if {@code rows} or {@code columns} is not
+   *                                  positive.</li>
+   *                                  <li>if {@code exits} does not have one mask per
+   *                                  location.</li></ul>
+   * @throws java.nio.BufferUnderflowException if the buffer does not hold the whole state.
+   */
+  public PackedGrid(int rows, int columns, byte[] exits, ByteBuffer state) {
+    this(rows, columns);
+    if (exits.length != this.exits.length) {
+      throw new IllegalArgumentException("There must be one exit mask for every location.");
+    }
+    System.arraycopy(exits, 0, this.exits, 0, exits.length);
+    int cells = exits.length;
+    state.asShortBuffer().get(this.smell);
+    state.position(state.position() + 2 * cells);
+    state.get(this.treasures);
+    state.get(this.arrows);
+    state.asShortBuffer().get(this.monsterHealth);
+    state.position(state.position() + 2 * cells);
+  }
+
+  private PackedGrid(PackedGrid grid) {
+    this.rows = grid.rows;
+    this.columns = grid.columns;
+    this.exits = grid.exits.clone();
+    this.smell = grid.smell.clone();
+    this.treasures = grid.treasures.clone();
+    this.arrows = grid.arrows.clone();
+    this.monsterHealth = grid.monsterHealth.clone();
+    for (int i = 0; i < this.monsterHealth.length; i++) {
+      if (this.monsterHealth[i] != NO_MONSTER) {
+        this.monsterHealth[i] = 100;
+      }
+    }
+  }
+
+  @Override
+  public int getRows() {
+    return this.rows;
+  }
+
+  @Override
+  public int getColumns() {
+    return this.columns;
+  }
+
+  @Override
+  public LocationUpdateState get(int row, int column) {
+    return get(row * this.columns + column);
+  }
+
+  @Override
+  public LocationUpdateState get(int index) {
+    if (index < 0 || index >= this.exits.length) {
+      throw new IndexOutOfBoundsException("Invalid location index " + index);
+    }
+    return new PackedLocation(index);
+  }
+
+  @Override
+  public LocationGrid copy() {
+    return new PackedGrid(this);
+  }
+
+  @Override
+  public void writeState(ByteBuffer buffer) {
+    buffer.asShortBuffer().put(this.smell);
+    buffer.position(buffer.position() + 2 * this.smell.length);
+    buffer.put(this.treasures);
+    buffer.put(this.arrows);
+    buffer.asShortBuffer().put(this.monsterHealth);
+    buffer.position(buffer.position() + 2 * this.monsterHealth.length);
+  }
+
+  private int getNeighborIndex(int index, Direction direction) {
+    int row = index / this.columns;
+    int column = index % this.columns;
+    switch (direction) {
+      case N:
+        row = Math.floorMod(row - 1, this.rows);
+        break;
+      case S:
+        row = Math.floorMod(row + 1, this.rows);
+        break;
+      case E:
+        column = Math.floorMod(column + 1, this.columns);
+        break;
+      case W:
+        column = Math.floorMod(column - 1, this.columns);
+        break;
+      default: //No action required.
+    }
+    return row * this.columns + column;
+  }
+
+  /**
+   * This represents a view of a single location of the {@link PackedGrid}. A view holds only the
+   * index of the location, every state change is written straight through to the grid.
+   */
+  private class PackedLocation implements LocationUpdateState {
+
+    private final int index;
+
+    private PackedLocation(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public int getId() {
+      return this.index;
+    }
+
+    @Override
+    public Coordinate getCoordinates() {
+      return new CoordinateImpl(this.index / columns, this.index % columns);
+    }
+
+    @Override
+    public List<Treasure> getTreasures() {
+      List<Treasure> treasureList = new ArrayList<>();
+      for (Treasure treasure : Treasure.values()) {
+        for (int i = 0; i < treasures[this.index * TREASURE_TYPES + treasure.ordinal()]; i++) {
+          treasureList.add(treasure);
+        }
+      }
+      return treasureList;
+    }
+
+    @Override
+    public List<Direction> getPossibleMoves() {
+      List<Direction> possibleDirections = new ArrayList<>();
+      for (Direction direction : DIRECTIONS) {
+        if ((exits[this.index] & (1 << direction.ordinal())) != 0) {
+          possibleDirections.add(direction);
+        }
+      }
+      possibleDirections.sort(new DirectionComparator());
+      return possibleDirections;
+    }
+
+    @Override
+    public boolean isTunnel() {
+      return Integer.bitCount(exits[this.index]) == 2;
+    }
+
+    @Override
+    public int getSmell() {
+      return smell[this.index];
+    }
+
+    @Override
+    public List<Weapon> getArrows() {
+      List<Weapon> weapons = new ArrayList<>();
+      for (int i = 0; i < arrows[this.index]; i++) {
+        weapons.add(Weapon.ARROW);
+      }
+      return weapons;
+    }
+
+    @Override
+    public Monster getMonster() {
+      return monsterHealth[this.index] == NO_MONSTER ? null : new PackedMonster(this.index);
+    }
+
+    @Override
+    public Map<Direction, LocationUpdateState> getNeighborLocations() {
+      Map<Direction, LocationUpdateState> neighbors = new EnumMap<>(Direction.class);
+      for (Direction direction : DIRECTIONS) {
+        if ((exits[this.index] & (1 << direction.ordinal())) != 0) {
+          neighbors.put(direction, new PackedLocation(getNeighborIndex(this.index, direction)));
+        }
+      }
+      return neighbors;
+    }
+
+    @Override
+    public void setValidMoves(Map<Direction, LocationUpdateState> validMoves) {
+      byte mask = 0;
+      for (Direction direction : validMoves.keySet()) {
+        mask |= 1 << direction.ordinal();
+      }
+      exits[this.index] = mask;
+    }
+
+    @Override
+    public void addTreasures(List<Treasure> treasureList) {
+      for (int i = 0; i < TREASURE_TYPES; i++) {
+        treasures[this.index * TREASURE_TYPES + i] = 0;
+      }
+      for (Treasure treasure : treasureList) {
+        treasures[this.index * TREASURE_TYPES + treasure.ordinal()]++;
+      }
+    }
+
+    @Override
+    public void removeTreasures(List<Treasure> treasureList) {
+      for (Treasure treasure : treasureList) {
+        treasures[this.index * TREASURE_TYPES + treasure.ordinal()] = 0;
+      }
+    }
+
+    @Override
+    public void addSmell(int smellToAdd) {
+      smell[this.index] += smellToAdd;
+    }
+
+    @Override
+    public void reduceSmell(int smellToReduce) {
+      smell[this.index] = (short) Math.max(0, smell[this.index] - smellToReduce);
+    }
+
+    @Override
+    public void addArrows(List<Weapon> weapons) {
+      if (weapons == null) {
+        throw new IllegalArgumentException("List of arrows cannot be null.");
+      }
+      weapons.forEach(arrow -> {
+        if (arrow == null) {
+          throw new IllegalArgumentException("List of arrows cannot be null elements");
+        }
+      });
+      arrows[this.index] += weapons.size();
+    }
+
+    @Override
+    public void addMonster(Monster otyugh) {
+      monsterHealth[this.index] = otyugh == null ? NO_MONSTER
+              : (short) otyugh.getHealthPercentage();
+    }
+
+    @Override
+    public List<LocationUpdateState> getNeighbors() {
+      return new ArrayList<>(getNeighborLocations().values());
+    }
+
+    @Override
+    public void removeArrows() {
+      arrows[this.index] = 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o instanceof PackedLocation) {
+        PackedLocation location = (PackedLocation) o;
+        return this.index == location.index && this.getGrid() == location.getGrid();
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.index;
+    }
+
+    /**
+     * Returns the string representation of the location. "T" in case of a tunnel, "O" in case of
+     * a cave with a monster and "C" in case of a cave.
+     *
+     * @return the string representation.
+     */
+    @Override
+    public String toString() {
+      if (isTunnel()) {
+        return "T";
+      } else if (monsterHealth[this.index] != NO_MONSTER) {
+        return "O";
+      } else {
+        return "C";
+      }
+    }
+
+    private PackedGrid getGrid() {
+      return PackedGrid.this;
+    }
+  }
+
+  /**
+   * This represents a view of the monster of a single location of the {@link PackedGrid}. The
+   * health of the monster is kept in the grid.
+   */
+  private class PackedMonster implements Monster {
+
+    private final int index;
+
+    private PackedMonster(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public void reduceHealth(int percentage) {
+      if (percentage < 0 || percentage > 100) {
+        throw new IllegalArgumentException("Health percentage cannot be less than 0 or greater than"
+                + " 100.");
+      }
+      monsterHealth[this.index] -= percentage;
+    }
+
+    @Override
+    public int getHealthPercentage() {
+      return monsterHealth[this.index];
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package model.player;
+
+/**
+ * This represents the parts of a {@link Player} that can change while the game is played.
+ */
+public enum PlayerField {
+
+  /**
+   * The location of the player.
+   */
+  LOCATION,
+
+  /**
+   * The collected treasures.
+   */
+  TREASURES,
+
+  /**
+   * The number of arrows.
+   */
+  ARROWS,
+
+  /**
+   * Whether the player is dead.
+   */
+  LIFE
+}
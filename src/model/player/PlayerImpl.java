@@ -47,6 +47,43 @@ public class PlayerImpl implements PlayerUpdateState {
     this.isDead = false;
   }
 
+  /**
+   * Constructs a model.player in the middle of a game, for example one restored from a saved
+   * game.
+   *
+   * @param name                the name of the player.
+   * @param currentLocation     the current location of the player.
+   * @param collectedTreasures  the number of each treasure collected so far.
+   * @param numberOfArrows      the number of arrows.
+   * @param isDead              {@code true} if the player has been killed.
+   * @throws IllegalArgumentException <ul><li>for all the cases of
+   *                                  {@link #PlayerImpl(String, LocationUpdateState)}.</li>
+   *                                  <li>if {@code collectedTreasures} is {@code null} or has
+   *                                  a negative number.</li>
+   *                                  <li>if {@code numberOfArrows} is negative.</li></ul>
+   */
+  public PlayerImpl(String name, LocationUpdateState currentLocation,
+                    Map<Treasure, Integer> collectedTreasures, int numberOfArrows, boolean isDead) {
+    this(name, currentLocation);
+    if (collectedTreasures == null) {
+      throw new IllegalArgumentException("Collected treasures cannot be null.");
+    }
+    if (numberOfArrows < 0) {
+      throw new IllegalArgumentException("Number of arrows cannot be negative.");
+    }
+    collectedTreasures.forEach((treasure, count) -> {
+      if (treasure == null || count == null || count < 0) {
+        throw new IllegalArgumentException("Collected treasures cannot be null or negative.");
+      }
+      this.treasures.put(treasure, count);
+    });
+    this.arrows.clear();
+    for (int i = 0; i < numberOfArrows; i++) {
+      this.arrows.add(Weapon.ARROW);
+    }
+    this.isDead = isDead;
+  }
+
   @Override
   public String getName() {
     return this.name;
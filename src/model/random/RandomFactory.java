@@ -20,4 +20,15 @@ public class RandomFactory {
     //not random
     return new RandomFalse();
   }
-}
\ No newline at end of file
+
+  /**
+   * Generates an instance of {@link RandomSeeded} which always generates the same numbers for the
+   * given seed.
+   *
+   * @param seed the seed.
+   * @return the instance of {@link RandomSeeded}.
+   */
+  public RandomSeeded getRandomGenerator(long seed) {
+    return new RandomSeeded(seed);
+  }
+}
@@ -0,0 +1,116 @@
+package model.random;
+
+/**
+ * This class implements {@link RandomGenerator} and represents a random number generation class
+ * that always generates the same numbers for the same seed. The numbers come from the SplitMix64
+ * generator, whose state is the seed moved forward by a fixed step for every number drawn, so
+ * every generator keeps its own state and can be handed to a different thread. A generator can
+ * be split into a child generator with a seed of its own.
+ */
+public class RandomSeeded implements RandomGenerator {
+
+  private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+  private final long seed;
+  private long state;
+  private long position;
+
+  /**
+   * Constructs a random generator.
+   *
+   * @param seed the seed.
+   */
+  public RandomSeeded(long seed) {
+    this(seed, 0);
+  }
+
+  /**
+   * Constructs a random generator of the given seed that has already made the given number of
+   * draws, so it generates the same numbers a generator of that seed would generate from that
+   * point on. Moving to any position costs the same.
+   *
+   * @param seed     the seed.
+   * @param position the number of draws already made.
+   * @throws IllegalArgumentException if {@code position} is negative.
+   */
+  public RandomSeeded(long seed, long position) {
+    if (position < 0) {
+      throw new IllegalArgumentException("Position cannot be negative.");
+    }
+    this.seed = seed;
+    this.state = seed + position * GAMMA;
+    this.position = position;
+  }
+
+  /**
+   * Generates a random number within the range. Every number costs exactly one draw of the
+   * generator.
+   *
+   * @param upperBound the exclusive upper bound of the range.
+   * @param lowerBound the inclusive lower bound of the range.
+   * @return the random number.
+   * @throws IllegalArgumentException if {@code upperBound} is not greater than
+   *                                  {@code lowerBound}.
+   */
+  @Override
+  public int getRandom(int upperBound, int lowerBound) {
+    if (upperBound <= lowerBound) {
+      throw new IllegalArgumentException("Upper bound must be greater than the lower bound.");
+    }
+    long bound = (long) upperBound - lowerBound;
+    return (int) (((nextLong() >>> 32) * bound) >>> 32) + lowerBound;
+  }
+
+  /**
+   * Returns the seed the generator was constructed with.
+   *
+   * @return the seed.
+   */
+  public long getSeed() {
+    return this.seed;
+  }
+
+  /**
+   * Returns the number of draws made since the generator was constructed.
+   *
+   * @return the number of draws.
+   */
+  public long getPosition() {
+    return this.position;
+  }
+
+  /**
+   * Moves the generator to the given number of draws since it was constructed, forwards or
+   * backwards, so it generates the same numbers it generated from that point on before. Moving to
+   * any position costs the same.
+   *
+   * @param position the number of draws.
+   * @throws IllegalArgumentException if {@code position} is negative.
+   */
+  public void seek(long position) {
+    if (position < 0) {
+      throw new IllegalArgumentException("Position cannot be negative.");
+    }
+    this.state = this.seed + position * GAMMA;
+    this.position = position;
+  }
+
+  /**
+   * Returns a new generator whose seed is the next number drawn from this generator. The child
+   * generator does not share any state with this generator, and splitting a generator of the same
+   * seed at the same position always gives the same child.
+   *
+   * @return the child generator.
+   */
+  public RandomSeeded split() {
+    return new RandomSeeded(nextLong());
+  }
+
+  private long nextLong() {
+    this.position++;
+    long z = (this.state += GAMMA);
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
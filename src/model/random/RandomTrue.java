@@ -1,17 +1,18 @@
 package model.random;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * This class implements  {@link RandomGenerator} and represents a truly random number generation
- * class.
+ * class. Every instance is a {@link RandomSeeded} generator with a seed picked at random, so the
+ * numbers of every instance are different but can still be generated again from its seed.
  */
-public class RandomTrue implements RandomGenerator {
+public class RandomTrue extends RandomSeeded {
 
-  private static final Random RAND = new Random();
-
-  @Override
-  public int getRandom(int upperBound, int lowerBound) {
-    return RAND.nextInt(upperBound - lowerBound) + lowerBound;
+  /**
+   * Constructs a random generator with a seed picked at random.
+   */
+  public RandomTrue() {
+    super(new SplittableRandom().nextLong());
   }
 }
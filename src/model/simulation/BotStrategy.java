@@ -0,0 +1,30 @@
+package model.simulation;
+
+import model.dungeon.Dungeon;
+import model.dungeon.ReadOnlyDungeon;
+import model.random.RandomGenerator;
+
+/**
+ * The BotStrategy represents a way of playing a {@link Dungeon} without a player, used by the
+ * {@link SimulationRunner}. A strategy plays one game at a time, and a strategy that keeps state
+ * between turns resets it when a new game starts. A strategy is only ever used by one thread.
+ */
+public interface BotStrategy {
+
+  /**
+   * Called before the first turn of every game.
+   *
+   * @param dungeon the dungeon of the new game.
+   */
+  default void startGame(ReadOnlyDungeon dungeon) {
+  }
+
+  /**
+   * Takes one turn in a game that is not over yet: any number of actions on the dungeon, at least
+   * one of which should be a move or a shot, so the game goes on.
+   *
+   * @param dungeon the dungeon.
+   * @param rand    the random generator of the bot, which it does not share with any other bot.
+   */
+  void takeTurn(Dungeon dungeon, RandomGenerator rand);
+}
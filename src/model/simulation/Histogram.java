@@ -0,0 +1,174 @@
+package model.simulation;
+
+import java.util.Arrays;
+
+/**
+ * This represents a histogram of non-negative whole numbers with one bucket for every value, such
+ * as the number of turns of a game. The buckets grow with the largest value recorded, so the
+ * histogram keeps its counts exact. Histograms filled on different threads are combined with
+ * {@link #merge(Histogram)}, which gives the same histogram as recording all the values in one.
+ */
+public final class Histogram {
+
+  private static final int INITIAL_BUCKETS = 16;
+
+  private long[] counts;
+  private long count;
+  private long sum;
+  private long min;
+  private long max;
+
+  /**
+   * Constructs an empty histogram.
+   */
+  public Histogram() {
+    this.counts = new long[INITIAL_BUCKETS];
+    this.min = Long.MAX_VALUE;
+    this.max = Long.MIN_VALUE;
+  }
+
+  /**
+   * Records one value.
+   *
+   * @param value the value.
+   * @throws IllegalArgumentException if {@code value} is negative or too large to have a bucket.
+   */
+  public void record(int value) throws IllegalArgumentException {
+    if (value < 0 || value == Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Value must be between 0 and "
+              + (Integer.MAX_VALUE - 1) + ".");
+    }
+    if (value >= this.counts.length) {
+      grow(value + 1);
+    }
+    this.counts[value]++;
+    this.count++;
+    this.sum += value;
+    this.min = Math.min(this.min, value);
+    this.max = Math.max(this.max, value);
+  }
+
+  /**
+   * Adds all the values recorded in the given histogram to this histogram.
+   *
+   * @param other the histogram.
+   * @return this histogram.
+   * @throws IllegalArgumentException if {@code other} is {@code null}.
+   */
+  public Histogram merge(Histogram other) throws IllegalArgumentException {
+    if (other == null) {
+      throw new IllegalArgumentException("Histogram cannot be null.");
+    }
+    if (other.count == 0) {
+      return this;
+    }
+    if (other.max >= this.counts.length) {
+      grow((int) other.max + 1);
+    }
+    for (int value = (int) other.min; value <= other.max; value++) {
+      this.counts[value] += other.counts[value];
+    }
+    this.count += other.count;
+    this.sum += other.sum;
+    this.min = Math.min(this.min, other.min);
+    this.max = Math.max(this.max, other.max);
+    return this;
+  }
+
+  /**
+   * Returns the number of values recorded.
+   *
+   * @return the number of values.
+   */
+  public long getCount() {
+    return this.count;
+  }
+
+  /**
+   * Returns the number of times the given value was recorded.
+   *
+   * @param value the value.
+   * @return the number of times.
+   */
+  public long getCount(int value) {
+    return value < 0 || value >= this.counts.length ? 0 : this.counts[value];
+  }
+
+  /**
+   * Returns the sum of the values recorded.
+   *
+   * @return the sum.
+   */
+  public long getSum() {
+    return this.sum;
+  }
+
+  /**
+   * Returns the mean of the values recorded.
+   *
+   * @return the mean, or 0 if no value was recorded.
+   */
+  public double getMean() {
+    return this.count == 0 ? 0 : (double) this.sum / this.count;
+  }
+
+  /**
+   * Returns the smallest value recorded.
+   *
+   * @return the smallest value.
+   * @throws IllegalStateException if no value was recorded.
+   */
+  public int getMin() throws IllegalStateException {
+    checkNotEmpty();
+    return (int) this.min;
+  }
+
+  /**
+   * Returns the largest value recorded.
+   *
+   * @return the largest value.
+   * @throws IllegalStateException if no value was recorded.
+   */
+  public int getMax() throws IllegalStateException {
+    checkNotEmpty();
+    return (int) this.max;
+  }
+
+  /**
+   * Returns the smallest value that is at least as large as the given percentage of the values
+   * recorded.
+   *
+   * @param percentile the percentage, from 0 to 100.
+   * @return the value.
+   * @throws IllegalArgumentException if {@code percentile} is not between 0 and 100.
+   * @throws IllegalStateException    if no value was recorded.
+   */
+  public int getPercentile(double percentile)
+          throws IllegalArgumentException, IllegalStateException {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+    }
+    checkNotEmpty();
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+    long seen = 0;
+    for (int value = (int) this.min; value < this.max; value++) {
+      seen += this.counts[value];
+      if (seen >= rank) {
+        return value;
+      }
+    }
+    return (int) this.max;
+  }
+
+  private void checkNotEmpty() {
+    if (this.count == 0) {
+      throw new IllegalStateException("No value was recorded.");
+    }
+  }
+
+  private void grow(int buckets) {
+    int length = (int) Math.min(Integer.MAX_VALUE,
+            Math.max(buckets, 2L * this.counts.length));
+    this.counts = Arrays.copyOf(this.counts, length);
+  }
+}
@@ -0,0 +1,28 @@
+package model.simulation;
+
+import java.util.List;
+
+import model.dungeon.Dungeon;
+import model.location.Direction;
+import model.location.Location;
+import model.random.RandomGenerator;
+
+/**
+ * This class implements {@link BotStrategy} and picks up everything at its location and then
+ * moves in a random direction, without ever shooting.
+ */
+public class RandomWalkBot implements BotStrategy {
+
+  @Override
+  public void takeTurn(Dungeon dungeon, RandomGenerator rand) {
+    Location location = dungeon.getPlayerLocation();
+    if (!location.getTreasures().isEmpty()) {
+      dungeon.collectAllTreasures();
+    }
+    if (!location.getArrows().isEmpty()) {
+      dungeon.pickArrows();
+    }
+    List<Direction> moves = location.getPossibleMoves();
+    dungeon.movePlayer(moves.get(rand.getRandom(moves.size(), 0)));
+  }
+}
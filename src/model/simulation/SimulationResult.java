@@ -0,0 +1,119 @@
+package model.simulation;
+
+/**
+ * This represents the outcome of many games played by the {@link SimulationRunner}: how many
+ * games were won, lost to a monster or cut off at the turn limit, and histograms of the turns
+ * taken and the treasures collected in every game. Results of games played on different threads
+ * are combined with {@link #merge(SimulationResult)}.
+ */
+public final class SimulationResult {
+
+  private long games;
+  private long wins;
+  private long deaths;
+  private final Histogram turns;
+  private final Histogram treasures;
+
+  /**
+   * Constructs an empty result.
+   */
+  public SimulationResult() {
+    this.turns = new Histogram();
+    this.treasures = new Histogram();
+  }
+
+  void recordGame(boolean isWin, boolean isDeath, int turns, int treasures) {
+    this.games++;
+    if (isWin) {
+      this.wins++;
+    }
+    if (isDeath) {
+      this.deaths++;
+    }
+    this.turns.record(turns);
+    this.treasures.record(treasures);
+  }
+
+  /**
+   * Adds the games of the given result to this result.
+   *
+   * @param other the result.
+   * @return this result.
+   * @throws IllegalArgumentException if {@code other} is {@code null}.
+   */
+  public SimulationResult merge(SimulationResult other) throws IllegalArgumentException {
+    if (other == null) {
+      throw new IllegalArgumentException("Result cannot be null.");
+    }
+    this.games += other.games;
+    this.wins += other.wins;
+    this.deaths += other.deaths;
+    this.turns.merge(other.turns);
+    this.treasures.merge(other.treasures);
+    return this;
+  }
+
+  public long getGames() {
+    return this.games;
+  }
+
+  public long getWins() {
+    return this.wins;
+  }
+
+  public long getDeaths() {
+    return this.deaths;
+  }
+
+  /**
+   * Returns the number of games that were neither won nor lost within the turn limit.
+   *
+   * @return the number of games.
+   */
+  public long getTimeouts() {
+    return this.games - this.wins - this.deaths;
+  }
+
+  /**
+   * Returns the fraction of the games that reached the destination cave alive.
+   *
+   * @return the win rate, or 0 if no game was played.
+   */
+  public double getWinRate() {
+    return this.games == 0 ? 0 : (double) this.wins / this.games;
+  }
+
+  /**
+   * Returns the fraction of the games in which a monster ate the player.
+   *
+   * @return the death rate, or 0 if no game was played.
+   */
+  public double getDeathRate() {
+    return this.games == 0 ? 0 : (double) this.deaths / this.games;
+  }
+
+  /**
+   * Returns the histogram of the number of turns of every game.
+   *
+   * @return the histogram.
+   */
+  public Histogram getTurns() {
+    return this.turns;
+  }
+
+  /**
+   * Returns the histogram of the number of treasures collected in every game.
+   *
+   * @return the histogram.
+   */
+  public Histogram getTreasures() {
+    return this.treasures;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("games: %d, wins: %.4f, deaths: %.4f, timeouts: %d, mean turns: %.2f,"
+                    + " mean treasures: %.2f", this.games, getWinRate(), getDeathRate(),
+            getTimeouts(), this.turns.getMean(), this.treasures.getMean());
+  }
+}
@@ -0,0 +1,151 @@
+package model.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonParameters;
+import model.random.RandomSeeded;
+
+/**
+ * The SimulationRunner plays many games with bots on a {@link ForkJoinPool}, without any
+ * controller or view. Every game gets a dungeon of its own, generated from the given
+ * {@link DungeonParameters}, and is played by a {@link BotStrategy} until the player reaches the
+ * destination cave, dies or runs out of turns. The games are split between the threads of the
+ * pool in ranges, every range is played by a strategy of its own and the results of the ranges
+ * are merged as the ranges finish.
+ *
+ * <p>The dungeon and the bot of game {@code i} use random generators split from the draws
+ * {@code 2i} and {@code 2i + 1} of a {@link RandomSeeded} generator of the given seed, so every
+ * thread works with generators of its own and a simulation gives the same result on any number
+ * of threads.
+ */
+public class SimulationRunner {
+
+  private static final int RANGES_PER_THREAD = 8;
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs a runner that runs on the common pool.
+   */
+  public SimulationRunner() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a runner that runs on the given pool.
+   *
+   * @param pool the pool.
+   * @throws IllegalArgumentException if {@code pool} is {@code null}.
+   */
+  public SimulationRunner(ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool cannot be null.");
+    }
+    this.pool = pool;
+  }
+
+  /**
+   * Plays the given number of games.
+   *
+   * @param parameters the parameters of the dungeons.
+   * @param strategies the supplier of the strategies, called once for every range of games.
+   * @param seed       the seed of the simulation.
+   * @param games      the number of games.
+   * @param maxTurns   the number of turns after which a game is cut off.
+   * @return the result of the games.
+   * @throws IllegalArgumentException <ul><li>if {@code parameters} or {@code strategies} is
+   *                                  {@code null}.</li>
+   *                                  <li>if {@code games} is negative or {@code maxTurns} is not
+   *                                  positive.</li>
+   *                                  <li>for all the cases of
+   *                                  {@link DungeonParameters#createDungeon(
+   *                                  model.random.RandomGenerator)}.</li></ul>
+   */
+  public SimulationResult run(DungeonParameters parameters, Supplier<BotStrategy> strategies,
+                              long seed, int games, int maxTurns)
+          throws IllegalArgumentException {
+    if (parameters == null || strategies == null) {
+      throw new IllegalArgumentException("Parameters and strategies cannot be null.");
+    }
+    if (games < 0) {
+      throw new IllegalArgumentException("Number of games cannot be negative.");
+    }
+    if (maxTurns <= 0) {
+      throw new IllegalArgumentException("Number of turns must be positive.");
+    }
+    int range = Math.max(1, games / (this.pool.getParallelism() * RANGES_PER_THREAD));
+    return this.pool.invoke(new Games(parameters, strategies, seed, maxTurns, 0, games, range));
+  }
+
+  /**
+   * Plays one game and adds it to the result.
+   */
+  private static void play(DungeonParameters parameters, BotStrategy strategy, long seed,
+                           long game, int maxTurns, SimulationResult result) {
+    RandomSeeded rand = new RandomSeeded(seed, 2 * game);
+    DungeonImpl dungeon = parameters.createDungeon(rand.split());
+    RandomSeeded botRand = rand.split();
+    dungeon.setHistoryDepth(0);
+    strategy.startGame(dungeon);
+    int turns = 0;
+    while (turns < maxTurns && !dungeon.getPlayer().isDead() && !dungeon.isDestinationReached()) {
+      strategy.takeTurn(dungeon, botRand);
+      turns++;
+    }
+    int treasures = 0;
+    for (int count : dungeon.getPlayer().getCollectedTreasures().values()) {
+      treasures += count;
+    }
+    boolean isDead = dungeon.getPlayer().isDead();
+    result.recordGame(!isDead && dungeon.isDestinationReached(), isDead, turns, treasures);
+  }
+
+  /**
+   * A range of games, split in halves until it is small enough to be played by one thread.
+   */
+  private static final class Games extends RecursiveTask<SimulationResult> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DungeonParameters parameters;
+    private final Supplier<BotStrategy> strategies;
+    private final long seed;
+    private final int maxTurns;
+    private final int from;
+    private final int to;
+    private final int range;
+
+    Games(DungeonParameters parameters, Supplier<BotStrategy> strategies, long seed,
+          int maxTurns, int from, int to, int range) {
+      this.parameters = parameters;
+      this.strategies = strategies;
+      this.seed = seed;
+      this.maxTurns = maxTurns;
+      this.from = from;
+      this.to = to;
+      this.range = range;
+    }
+
+    @Override
+    protected SimulationResult compute() {
+      if (this.to - this.from <= this.range) {
+        BotStrategy strategy = this.strategies.get();
+        SimulationResult result = new SimulationResult();
+        for (int game = this.from; game < this.to; game++) {
+          play(this.parameters, strategy, this.seed, game, this.maxTurns, result);
+        }
+        return result;
+      }
+      int middle = (this.from + this.to) >>> 1;
+      Games second = new Games(this.parameters, this.strategies, this.seed, this.maxTurns,
+              middle, this.to, this.range);
+      second.fork();
+      SimulationResult first = new Games(this.parameters, this.strategies, this.seed,
+              this.maxTurns, this.from, middle, this.range).compute();
+      return first.merge(second.join());
+    }
+  }
+}
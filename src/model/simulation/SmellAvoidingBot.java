@@ -0,0 +1,56 @@
+package model.simulation;
+
+import java.util.List;
+import java.util.Map;
+
+import model.dungeon.Dungeon;
+import model.location.Direction;
+import model.location.Location;
+import model.location.LocationUpdateState;
+import model.random.RandomGenerator;
+
+/**
+ * This class implements {@link BotStrategy} and picks up everything at its location and shoots
+ * towards the neighbor with the strongest smell while the smell is strong and it has arrows.
+ * Otherwise it moves to a random neighbor, and once it is out of arrows, to a random neighbor
+ * without a strong smell if there is one.
+ */
+public class SmellAvoidingBot implements BotStrategy {
+
+  private static final int STRONG_SMELL = 2;
+
+  @Override
+  public void takeTurn(Dungeon dungeon, RandomGenerator rand) {
+    Location location = dungeon.getPlayerLocation();
+    if (!location.getTreasures().isEmpty()) {
+      dungeon.collectAllTreasures();
+    }
+    if (!location.getArrows().isEmpty()) {
+      dungeon.pickArrows();
+    }
+    List<Direction> moves = location.getPossibleMoves();
+    Map<Direction, LocationUpdateState> neighbors = location.getNeighborLocations();
+    if (location.getSmell() >= STRONG_SMELL && dungeon.getPlayer().getNumberOfArrows() > 0) {
+      Direction strongest = moves.get(0);
+      for (Direction direction : moves) {
+        if (neighbors.get(direction).getSmell() > neighbors.get(strongest).getSmell()) {
+          strongest = direction;
+        }
+      }
+      dungeon.shootArrow(1, strongest);
+      return;
+    }
+    int safeSmell = dungeon.getPlayer().getNumberOfArrows() > 0 ? Integer.MAX_VALUE
+            : STRONG_SMELL;
+    int choices = 0;
+    Direction choice = null;
+    for (Direction direction : moves) {
+      // Reservoir sampling picks uniformly among the safe neighbors in a single pass.
+      if (neighbors.get(direction).getSmell() < safeSmell
+              && rand.getRandom(++choices, 0) == 0) {
+        choice = direction;
+      }
+    }
+    dungeon.movePlayer(choice != null ? choice : moves.get(rand.getRandom(moves.size(), 0)));
+  }
+}
@@ -0,0 +1,84 @@
+package model.simulation;
+
+/**
+ * This represents the estimate of the {@link SurvivalEstimator}: the number of rollouts, how many
+ * of them reached the destination cave alive, and the Wilson score interval of the probability of
+ * surviving at the confidence the estimate was made with.
+ */
+public final class SurvivalEstimate {
+
+  private final long rollouts;
+  private final long survivals;
+  private final double z;
+
+  SurvivalEstimate(long rollouts, long survivals, double z) {
+    this.rollouts = rollouts;
+    this.survivals = survivals;
+    this.z = z;
+  }
+
+  public long getRollouts() {
+    return this.rollouts;
+  }
+
+  public long getSurvivals() {
+    return this.survivals;
+  }
+
+  /**
+   * Returns the fraction of the rollouts that reached the destination cave alive.
+   *
+   * @return the probability, or 0 if there were no rollouts.
+   */
+  public double getProbability() {
+    return this.rollouts == 0 ? 0 : (double) this.survivals / this.rollouts;
+  }
+
+  /**
+   * Returns the lower bound of the confidence interval of the probability.
+   *
+   * @return the lower bound.
+   */
+  public double getLowerBound() {
+    return Math.max(0, getCenter() - getHalfWidth());
+  }
+
+  /**
+   * Returns the upper bound of the confidence interval of the probability.
+   *
+   * @return the upper bound.
+   */
+  public double getUpperBound() {
+    return Math.min(1, getCenter() + getHalfWidth());
+  }
+
+  /**
+   * Returns half of the width of the confidence interval of the probability.
+   *
+   * @return the half width, or 0.5 if there were no rollouts.
+   */
+  public double getHalfWidth() {
+    if (this.rollouts == 0) {
+      return 0.5;
+    }
+    double n = this.rollouts;
+    double p = getProbability();
+    double z2 = this.z * this.z;
+    return this.z / (1 + z2 / n) * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n));
+  }
+
+  private double getCenter() {
+    if (this.rollouts == 0) {
+      return 0.5;
+    }
+    double n = this.rollouts;
+    double z2 = this.z * this.z;
+    return (getProbability() + z2 / (2 * n)) / (1 + z2 / n);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%.4f [%.4f, %.4f] from %d rollouts", getProbability(),
+            getLowerBound(), getUpperBound(), this.rollouts);
+  }
+}
@@ -0,0 +1,167 @@
+package model.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonRollouts;
+import model.random.RandomSeeded;
+
+/**
+ * The SurvivalEstimator estimates the probability that a {@link BotStrategy} reaches the
+ * destination cave of a dungeon alive, starting from the current state of the dungeon. The
+ * estimate comes from rollouts, see {@link DungeonRollouts}, which play on from the current state
+ * without changing or copying the dungeon. Every rollout gives the strategy a generator of the
+ * same seed, so the rollouts only differ in how the fights with injured monsters end.
+ *
+ * <p>The rollouts are played in rounds, every round split between the threads of a
+ * {@link ForkJoinPool}, and the estimate stops as soon as the confidence interval is narrow
+ * enough. The strategy gets a generator split from the first draw of a {@link RandomSeeded}
+ * generator of the given seed and rollout {@code i} fights with a generator split from the draw
+ * {@code i + 1}, so an estimate is the same on any number of threads.
+ */
+public class SurvivalEstimator {
+
+  /**
+   * The z score of the 95% confidence interval.
+   */
+  public static final double Z_95 = 1.959963984540054;
+
+  private static final int ROUND = 256;
+  private static final int RANGES_PER_THREAD = 4;
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs an estimator that runs on the common pool.
+   */
+  public SurvivalEstimator() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs an estimator that runs on the given pool.
+   *
+   * @param pool the pool.
+   * @throws IllegalArgumentException if {@code pool} is {@code null}.
+   */
+  public SurvivalEstimator(ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool cannot be null.");
+    }
+    this.pool = pool;
+  }
+
+  /**
+   * Estimates the probability of surviving the dungeon with the 95% confidence interval. The
+   * dungeon must not change until the estimate is done.
+   *
+   * @param dungeon     the dungeon.
+   * @param policy      the supplier of the strategies, called once for every range of rollouts.
+   * @param seed        the seed of the estimate.
+   * @param halfWidth   the half width of the confidence interval to stop at.
+   * @param maxRollouts the number of rollouts to stop at if the interval is still wider.
+   * @param maxTurns    the number of turns after which a rollout counts as not surviving.
+   * @return the estimate.
+   * @throws IllegalArgumentException <ul><li>if {@code dungeon} or {@code policy} is
+   *                                  {@code null}.</li>
+   *                                  <li>if {@code halfWidth} is not between 0 and 0.5, or
+   *                                  {@code maxRollouts} or {@code maxTurns} is not
+   *                                  positive.</li></ul>
+   */
+  public SurvivalEstimate estimate(DungeonImpl dungeon, Supplier<BotStrategy> policy, long seed,
+                                   double halfWidth, int maxRollouts, int maxTurns)
+          throws IllegalArgumentException {
+    if (dungeon == null || policy == null) {
+      throw new IllegalArgumentException("Dungeon and policy cannot be null.");
+    }
+    if (!(halfWidth > 0 && halfWidth <= 0.5)) {
+      throw new IllegalArgumentException("Half width must be greater than 0 and at most 0.5.");
+    }
+    if (maxRollouts <= 0 || maxTurns <= 0) {
+      throw new IllegalArgumentException("Number of rollouts and turns must be positive.");
+    }
+    int round = Math.max(ROUND, this.pool.getParallelism() * RANGES_PER_THREAD);
+    int range = Math.max(1, round / (this.pool.getParallelism() * RANGES_PER_THREAD));
+    long policySeed = new RandomSeeded(seed).split().getSeed();
+    long survivals = 0;
+    int rollouts = 0;
+    SurvivalEstimate estimate = new SurvivalEstimate(0, 0, Z_95);
+    while (rollouts < maxRollouts && estimate.getHalfWidth() > halfWidth) {
+      int end = (int) Math.min(maxRollouts, (long) rollouts + round);
+      survivals += this.pool.invoke(new Rollouts(dungeon, policy, seed, policySeed, maxTurns,
+              rollouts, end, range));
+      rollouts = end;
+      estimate = new SurvivalEstimate(rollouts, survivals, Z_95);
+    }
+    return estimate;
+  }
+
+  /**
+   * Plays one rollout and returns if it reached the destination cave alive.
+   */
+  private static boolean play(DungeonRollouts rollouts, BotStrategy strategy, long seed,
+                              long policySeed, long rollout, int maxTurns) {
+    DungeonImpl dungeon = rollouts.next(new RandomSeeded(seed, rollout + 1).split());
+    RandomSeeded policyRand = new RandomSeeded(policySeed);
+    strategy.startGame(dungeon);
+    for (int turn = 0; turn < maxTurns && !dungeon.getPlayer().isDead()
+            && !dungeon.isDestinationReached(); turn++) {
+      strategy.takeTurn(dungeon, policyRand);
+    }
+    return !dungeon.getPlayer().isDead() && dungeon.isDestinationReached();
+  }
+
+  /**
+   * A range of rollouts, split in halves until it is small enough to be played by one thread.
+   * Returns the number of rollouts that survived.
+   */
+  private static final class Rollouts extends RecursiveTask<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DungeonImpl dungeon;
+    private final Supplier<BotStrategy> policy;
+    private final long seed;
+    private final long policySeed;
+    private final int maxTurns;
+    private final int from;
+    private final int to;
+    private final int range;
+
+    Rollouts(DungeonImpl dungeon, Supplier<BotStrategy> policy, long seed, long policySeed,
+             int maxTurns, int from, int to, int range) {
+      this.dungeon = dungeon;
+      this.policy = policy;
+      this.seed = seed;
+      this.policySeed = policySeed;
+      this.maxTurns = maxTurns;
+      this.from = from;
+      this.to = to;
+      this.range = range;
+    }
+
+    @Override
+    protected Long compute() {
+      if (this.to - this.from <= this.range) {
+        DungeonRollouts rollouts = new DungeonRollouts(this.dungeon);
+        BotStrategy strategy = this.policy.get();
+        long survivals = 0;
+        for (int rollout = this.from; rollout < this.to; rollout++) {
+          if (play(rollouts, strategy, this.seed, this.policySeed, rollout, this.maxTurns)) {
+            survivals++;
+          }
+        }
+        return survivals;
+      }
+      int middle = (this.from + this.to) >>> 1;
+      Rollouts second = new Rollouts(this.dungeon, this.policy, this.seed, this.policySeed,
+              this.maxTurns, middle, this.to, this.range);
+      second.fork();
+      long first = new Rollouts(this.dungeon, this.policy, this.seed, this.policySeed,
+              this.maxTurns, this.from, middle, this.range).compute();
+      return first + second.join();
+    }
+  }
+}
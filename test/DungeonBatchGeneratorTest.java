@@ -0,0 +1,124 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import model.dungeon.DungeonBatchGenerator;
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonParameters;
+import model.dungeon.GeneratedDungeon;
+import model.location.GridStorage;
+import model.random.RandomSeeded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link DungeonBatchGenerator}.
+ */
+public class DungeonBatchGeneratorTest {
+
+  ForkJoinPool pool;
+  DungeonBatchGenerator generator;
+  DungeonParameters parameters;
+  List<GeneratedDungeon> results;
+
+  @Before
+  public void setUp() {
+    pool = new ForkJoinPool(4);
+    generator = new DungeonBatchGenerator(pool);
+    parameters = new DungeonParameters(3, 4, 3, true, 25, "Nishtha", 1, GridStorage.PACKED);
+    results = new ArrayList<>();
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void testSeedRangeInOrder() {
+    generator.generate(parameters, 100, 50, results::add);
+    assertEquals(50, results.size());
+    for (int i = 0; i < 50; i++) {
+      assertEquals(100 + i, results.get(i).getSeed());
+    }
+  }
+
+  @Test
+  public void testSameDungeonsAsOneAtATime() {
+    generator.generate(parameters, 100, 50, results::add);
+    int failures = 0;
+    for (GeneratedDungeon result : results) {
+      try {
+        DungeonImpl dungeon = parameters.createDungeon(new RandomSeeded(result.getSeed()));
+        assertTrue(result.isSuccess());
+        assertEquals(dungeon.toString(), result.getDungeon().toString());
+        assertEquals(result.getSeed(), result.getDungeon().getSeed());
+      } catch (IllegalArgumentException e) {
+        assertFalse(result.isSuccess());
+        assertEquals(e.getMessage(), result.getFailure().getMessage());
+        failures++;
+      }
+    }
+    assertTrue(failures > 0 && failures < results.size());
+  }
+
+  @Test
+  public void testSplitGenerators() {
+    generator.generate(parameters, new RandomSeeded(7), 20, results::add);
+    RandomSeeded rand = new RandomSeeded(7);
+    for (GeneratedDungeon result : results) {
+      assertEquals(rand.split().getSeed(), result.getSeed());
+    }
+  }
+
+  @Test
+  public void testFailuresDoNotAbortBatch() {
+    parameters = new DungeonParameters(3, 4, 13, true, 25, "Nishtha", 1, GridStorage.PACKED);
+    generator.generate(parameters, 0, 10, results::add);
+    assertEquals(10, results.size());
+    for (GeneratedDungeon result : results) {
+      assertFalse(result.isSuccess());
+      assertTrue(result.getFailure() instanceof IllegalArgumentException);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGetDungeonOfFailure() {
+    parameters = new DungeonParameters(3, 4, 13, true, 25, "Nishtha", 1, GridStorage.PACKED);
+    generator.generate(parameters, 0, 1, results::add);
+    results.get(0).getDungeon();
+  }
+
+  @Test
+  public void testConsumerExceptionStopsBatch() {
+    try {
+      generator.generate(parameters, 0, 1000, result -> {
+        results.add(result);
+        if (results.size() == 3) {
+          throw new IllegalStateException("stop");
+        }
+      });
+      fail("Exception of the consumer was not thrown.");
+    } catch (IllegalStateException e) {
+      assertEquals("stop", e.getMessage());
+    }
+    assertEquals(3, results.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeCount() {
+    generator.generate(parameters, 0, -1, results::add);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullParameters() {
+    generator.generate(null, 0, 1, results::add);
+  }
+}
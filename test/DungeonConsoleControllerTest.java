@@ -87,6 +87,32 @@ public class DungeonConsoleControllerTest {
     assertEquals("You find an arrow here.", gameLog.toString().split("\n")[7]);
   }
 
+  @Test
+  public void testGoTo() {
+    Readable input = new StringReader("G 1 0");
+    Appendable gameLog = new StringBuilder();
+    Controller c = new DungeonConsoleController(input, gameLog);
+    c.playGame(model);
+    assertEquals(4, model.getPlayerLocation().getId());
+  }
+
+  @Test
+  public void testGoToOutsideDungeon() {
+    Readable input = new StringReader("G 9 0");
+    Controller c = new DungeonConsoleController(input, log);
+    c.playGame(model);
+    assertEquals(1, model.getPlayerLocation().getId());
+    assertEquals("No way to that location!", log.toString().split("\n")[5]);
+  }
+
+  @Test
+  public void testGoToInvalidInput() {
+    Readable input = new StringReader("G a b");
+    Controller c = new DungeonConsoleController(input, log);
+    c.playGame(model);
+    assertEquals("Please enter a valid input", log.toString().split("\n")[5]);
+  }
+
   @Test
   public void testPickInvalidItem() {
     Readable input = new StringReader("P abc");
@@ -149,7 +175,7 @@ public class DungeonConsoleControllerTest {
     Appendable gameLog = new StringBuilder();
     Controller c = new DungeonConsoleController(input, gameLog);
     c.playGame(model);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?You hear a "
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?You hear a "
             + "great howl in the distance", gameLog.toString().split("\n")[5]);
   }
 
@@ -159,7 +185,7 @@ public class DungeonConsoleControllerTest {
     Appendable gameLog = new StringBuilder();
     Controller c = new DungeonConsoleController(input, gameLog);
     c.playGame(model);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You shoot an arrow into the darkness", gameLog.toString().split("\n")[4]);
   }
 
@@ -171,7 +197,7 @@ public class DungeonConsoleControllerTest {
     c.playGame(model);
     assertEquals("You are out of arrows, explore to find more", gameLog.toString()
             .split("\n")[18]);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You are out of arrows, explore to find more", gameLog.toString()
             .split("\n")[24]);
   }
@@ -182,7 +208,7 @@ public class DungeonConsoleControllerTest {
     Appendable gameLog = new StringBuilder();
     Controller c = new DungeonConsoleController(input, gameLog);
     c.playGame(model);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
                     + "No door in that direction. You shoot an arrow into the same cave.",
             gameLog.toString().split("\n")[4]);
   }
@@ -270,12 +296,12 @@ public class DungeonConsoleControllerTest {
     c.playGame(model);
     assertEquals("You smell something terribly pungent here.",
             gameLog.toString().split("\n")[0]);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?You hear a "
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?You hear a "
             + "great howl in the distance", gameLog.toString().split("\n")[5]);
     assertEquals("You smell something terribly pungent here.",
             gameLog.toString().split("\n")[7]);
 
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?You hear a "
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?You hear a "
             + "great howl in the distance", gameLog.toString().split("\n")[12]);
     assertEquals("You are in a cave", gameLog.toString().split("\n")[14]);
     assertEquals("You smell something lightly pungent here.",
@@ -323,9 +349,9 @@ public class DungeonConsoleControllerTest {
     Controller c = new DungeonConsoleController(input, gameLog);
     c.playGame(model);
     assertEquals("You pick up an arrow", gameLog.toString().split("\n")[6]);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You hear a great howl in the distance", gameLog.toString().split("\n")[11]);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You hear a great howl in the distance", gameLog.toString().split("\n")[17]);
     assertEquals("You are in a cave", gameLog.toString().split("\n")[19]);
     assertEquals("You are in a cave", gameLog.toString().split("\n")[23]);
@@ -336,10 +362,10 @@ public class DungeonConsoleControllerTest {
     assertEquals("You are in a cave", gameLog.toString().split("\n")[48]);
     assertEquals("You are in a cave", gameLog.toString().split("\n")[52]);
     assertEquals("You are in a cave", gameLog.toString().split("\n")[56]);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You hear a great howl in the distance", gameLog.toString().split("\n")[58]);
     assertEquals("You are in a cave", gameLog.toString().split("\n")[61]);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You hear a great howl in the distance", gameLog.toString().split("\n")[63]);
     assertEquals("You are in a cave", gameLog.toString().split("\n")[67]);
 
@@ -367,9 +393,9 @@ public class DungeonConsoleControllerTest {
     Appendable gameLog = new StringBuilder();
     Controller c = new DungeonConsoleController(input, gameLog);
     c.playGame(model);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You hear a great howl in the distance", gameLog.toString().split("\n")[15]);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You hear a great howl in the distance", gameLog.toString().split("\n")[21]);
   }
 
@@ -381,9 +407,9 @@ public class DungeonConsoleControllerTest {
     Appendable gameLog = new StringBuilder();
     Controller c = new DungeonConsoleController(input, gameLog);
     c.playGame(model);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You hear a great howl in the distance", gameLog.toString().split("\n")[14]);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You hear a great howl in the distance", gameLog.toString().split("\n")[18]);
   }
 
@@ -395,9 +421,9 @@ public class DungeonConsoleControllerTest {
     Appendable gameLog = new StringBuilder();
     Controller c = new DungeonConsoleController(input, gameLog);
     c.playGame(model);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You hear a great howl in the distance", gameLog.toString().split("\n")[25]);
-    assertEquals("Move, Pickup, or Shoot (M-P-S)?No. of caves (1-n)?Where to?"
+    assertEquals("Move, Pickup, Shoot, or Goto (M-P-S-G)?No. of caves (1-n)?Where to?"
             + "You hear a great howl in the distance", gameLog.toString().split("\n")[31]);
   }
 }
\ No newline at end of file
@@ -1,3 +1,4 @@
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -5,7 +6,9 @@ import control.gui.DungeonControllerImpl;
 import control.gui.DungeonGUIController;
 import control.gui.PreLaunchView;
 import model.dungeon.Dungeon;
+import model.dungeon.DungeonPool;
 import model.location.Direction;
+import model.random.RandomSeeded;
 
 import static org.junit.Assert.assertEquals;
 
@@ -16,6 +19,7 @@ public class DungeonGUIControllerTest {
 
   private Appendable log;
   private DungeonGUIController controller;
+  private DungeonPool pool;
 
 
   @Before
@@ -24,7 +28,13 @@ public class DungeonGUIControllerTest {
     PreLaunchView mockPreLaunchView = new MockPreLaunchView();
     Dungeon model = new MockModel(log);
     MockView view = new MockView(log);
-    controller = new DungeonControllerImpl(model, view, mockPreLaunchView, 6, 4);
+    pool = new DungeonPool(1, 1, 0, () -> new RandomSeeded(0), Runnable::run);
+    controller = new DungeonControllerImpl(model, view, mockPreLaunchView, pool, 6, 4);
+  }
+
+  @After
+  public void tearDown() {
+    pool.close();
   }
 
   @Test
@@ -33,6 +43,35 @@ public class DungeonGUIControllerTest {
     assertEquals("close called", log.toString());
   }
 
+  @Test
+  public void testRestartGame() {
+    controller.restartGame();
+    assertEquals("restart called\nreset called", log.toString());
+  }
+
+  @Test
+  public void testHandleUndo() {
+    controller.handleUndo();
+    assertEquals("undo called\nrefresh called", log.toString());
+  }
+
+  @Test
+  public void testHandleRedo() {
+    controller.handleRedo();
+    assertEquals("redo called\nrefresh called", log.toString());
+  }
+
+  @Test
+  public void testHandleCellClick() {
+    controller.handleCellClick(3, 2);
+    assertEquals("getPlayerLocation called\ngetLocation called 3 2\n"
+            + "getShortestPath called 7 14\n"
+            + "movePlayer called\ngetPlayerLocation called\nsetLocationAsVisited called:1, 3"
+            + "isDestinationReached called\n"
+            + "movePlayer called\ngetPlayerLocation called\nsetLocationAsVisited called:1, 3"
+            + "isDestinationReached called\nrefresh called", log.toString());
+  }
+
   @Test
   public void testHandleKeyMove() {
     controller.handleKeyMove(Direction.E);
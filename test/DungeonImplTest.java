@@ -2,23 +2,34 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 import model.dungeon.Dungeon;
 import model.dungeon.DungeonImpl;
+import model.dungeon.GenerationListener;
+import model.dungeon.GenerationPhase;
+import model.dungeon.SmellCurve;
 import model.location.Direction;
+import model.location.GridStorage;
+import model.location.Location;
 import model.location.Treasure;
 import model.player.Player;
+import model.player.PlayerField;
 import model.random.RandomFactory;
 import model.random.RandomFalseWithUpperBound;
 import model.random.RandomGenerator;
+import model.random.RandomSeeded;
 import model.weapon.Weapon;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -191,6 +202,84 @@ public class DungeonImplTest {
     assertEquals(5, dungeon.getPlayerLocation().getId());
   }
 
+  @Test
+  public void testGetLocation() {
+    assertEquals(1, dungeon.getLocation(0, 1).getId());
+    assertEquals(15, dungeon.getLocation(3, 3).getId());
+    assertEquals(dungeon.getPlayerLocation(), dungeon.getLocation(0, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetLocationOutsideDungeon() {
+    dungeon.getLocation(6, 0);
+  }
+
+  @Test
+  public void testGetShortestPath() {
+    Location start = dungeon.getStartingCave();
+    Location destination = dungeon.getDestinationCave();
+    List<Direction> path = dungeon.getShortestPath(start, destination);
+    Location current = start;
+    for (Direction direction : path) {
+      assertTrue(current.getPossibleMoves().contains(direction));
+      current = current.getNeighborLocations().get(direction);
+    }
+    assertEquals(destination.getId(), current.getId());
+    assertEquals(path.get(0), dungeon.getNextStep(start, destination));
+    assertEquals(path.size() - 1, dungeon.getShortestPath(
+            start.getNeighborLocations().get(path.get(0)), destination).size());
+  }
+
+  @Test
+  public void testGetShortestPathIsShortest() {
+    for (int from = 0; from < 24; from++) {
+      Location source = dungeon.getLocation(from / 4, from % 4);
+      Map<Integer, Integer> distances = new HashMap<>();
+      List<Location> queue = new ArrayList<>();
+      distances.put(from, 0);
+      queue.add(source);
+      for (int i = 0; i < queue.size(); i++) {
+        Location location = queue.get(i);
+        for (Location neighbor : location.getNeighborLocations().values()) {
+          if (!distances.containsKey(neighbor.getId())) {
+            distances.put(neighbor.getId(), distances.get(location.getId()) + 1);
+            queue.add(neighbor);
+          }
+        }
+      }
+      for (int to = 0; to < 24; to++) {
+        assertEquals((int) distances.get(to), dungeon.getShortestPath(source,
+                dungeon.getLocation(to / 4, to % 4)).size());
+      }
+    }
+  }
+
+  @Test
+  public void testGetShortestPathToSameLocation() {
+    Location location = dungeon.getPlayerLocation();
+    assertTrue(dungeon.getShortestPath(location, location).isEmpty());
+    assertEquals(null, dungeon.getNextStep(location, location));
+  }
+
+  @Test
+  public void testGetShortestPathAfterMove() {
+    Location destination = dungeon.getDestinationCave();
+    int length = dungeon.getShortestPath(dungeon.getPlayerLocation(), destination).size();
+    dungeon.movePlayer(dungeon.getNextStep(dungeon.getPlayerLocation(), destination));
+    assertEquals(length - 1,
+            dungeon.getShortestPath(dungeon.getPlayerLocation(), destination).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetShortestPathNullLocation() {
+    dungeon.getShortestPath(null, dungeon.getDestinationCave());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetNextStepNullLocation() {
+    dungeon.getNextStep(dungeon.getStartingCave(), null);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testMovePlayerNullDirection() {
     dungeon.movePlayer(null);
@@ -756,6 +845,102 @@ public class DungeonImplTest {
     assertEquals(0, dungeon.getPlayerLocation().getSmell());
   }
 
+  @Test
+  public void testSmellMatchesEveryMonsterAfterEveryKill() {
+    SmellCurve curve = new SmellCurve(5, 3, 2, 1);
+    int kills = 0;
+    for (long seed = 0; seed < 10; seed++) {
+      DungeonImpl large = new DungeonImpl(12, 12, 20, true, 100, "Nishtha", 20,
+              new RandomSeeded(seed), GridStorage.PACKED, GenerationListener.NONE, curve);
+      large.setHistoryDepth(0);
+      RandomSeeded choices = new RandomSeeded(seed + 100);
+      assertSmellOfLivingMonsters(large, 12, 12, curve);
+      while (!large.getPlayer().isDead() && !large.isDestinationReached()) {
+        List<Direction> moves = large.getPlayerLocation().getPossibleMoves();
+        Direction direction = moves.get(choices.getRandom(moves.size(), 0));
+        if (large.getPlayer().getNumberOfArrows() > 0) {
+          large.shootArrow(choices.getRandom(4, 1), direction);
+          assertSmellOfLivingMonsters(large, 12, 12, curve);
+        } else {
+          large.pickArrows();
+          large.movePlayer(direction);
+        }
+      }
+      for (int cell = 0; cell < 144; cell++) {
+        Location location = large.getLocation(cell / 12, cell % 12);
+        if (location.getMonster() != null && location.getMonster().getHealthPercentage() == 0) {
+          kills++;
+        }
+      }
+    }
+    assertTrue(kills > 0);
+  }
+
+  @Test
+  public void testUndoingAKillPutsBackTheSmell() {
+    dungeon = new DungeonImpl(6, 4, 4, isWrapping,
+            25, "Nishtha", 2, rand);
+    dungeon.shootArrow(1, Direction.E);
+    dungeon.shootArrow(1, Direction.E);
+    assertEquals(0, dungeon.getPlayerLocation().getSmell());
+    assertTrue(dungeon.undo());
+    assertEquals(2, dungeon.getPlayerLocation().getSmell());
+    assertSmellOfLivingMonsters(dungeon, 6, 4, SmellCurve.DEFAULT);
+  }
+
+  @Test
+  public void testSmellCurveWithoutRadius() {
+    DungeonImpl cavesOnly = new DungeonImpl(6, 4, 4, isWrapping, 25, "Nishtha", 2, rand,
+            GridStorage.CAVES, GenerationListener.NONE, new SmellCurve(2));
+    assertEquals(0, cavesOnly.getPlayerLocation().getSmell());
+    assertEquals(new SmellCurve(2), cavesOnly.getSmellCurve());
+    assertSmellOfLivingMonsters(cavesOnly, 6, 4, new SmellCurve(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullSmellCurve() {
+    new DungeonImpl(6, 4, 4, isWrapping, 25, "Nishtha", 2, rand, GridStorage.CAVES,
+            GenerationListener.NONE, null);
+  }
+
+  /**
+   * Checks the smell of every location against the smell of the living monsters, found by a
+   * search from every monster.
+   */
+  private void assertSmellOfLivingMonsters(Dungeon dungeon, int rows, int columns,
+                                           SmellCurve curve) {
+    int size = rows * columns;
+    int[] expected = new int[size];
+    for (int cell = 0; cell < size; cell++) {
+      Location monster = dungeon.getLocation(cell / columns, cell % columns);
+      if (monster.getMonster() == null || monster.getMonster().getHealthPercentage() == 0) {
+        continue;
+      }
+      Map<Integer, Integer> distances = new HashMap<>();
+      List<Location> queue = new ArrayList<>();
+      distances.put(cell, 0);
+      queue.add(monster);
+      for (int i = 0; i < queue.size(); i++) {
+        Location location = queue.get(i);
+        int distance = distances.get(location.getId());
+        expected[location.getId()] += curve.getStrength(distance);
+        if (distance == curve.getRadius()) {
+          continue;
+        }
+        for (Location neighbor : location.getNeighborLocations().values()) {
+          if (!distances.containsKey(neighbor.getId())) {
+            distances.put(neighbor.getId(), distance + 1);
+            queue.add(neighbor);
+          }
+        }
+      }
+    }
+    for (int cell = 0; cell < size; cell++) {
+      assertEquals(expected[cell], dungeon.getLocation(cell / columns, cell % columns)
+              .getSmell());
+    }
+  }
+
   @Test
   public void testSmellAfterKillingTheMonster() {
     dungeon = new DungeonImpl(6, 4, 4, isWrapping,
@@ -813,6 +998,17 @@ public class DungeonImplTest {
     assertEquals(0, dungeon.getPlayerLocation().getMonster().getHealthPercentage());
   }
 
+  @Test
+  public void testShootNegativeDistanceMisses() {
+    dungeon.movePlayer(Direction.E);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    int arrows = player.getNumberOfArrows();
+    assertFalse(dungeon.shootArrow(-1, Direction.E));
+    assertEquals(arrows - 1, player.getNumberOfArrows());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testShootInvalidDirection() {
     dungeon.shootArrow(1, Direction.N);
@@ -989,6 +1185,431 @@ public class DungeonImplTest {
     dungeon.movePlayer(Direction.W);
     assertTrue(dungeon.shootArrow(4, Direction.S));
   }
-}
 
+  @Test
+  public void testRestartAfterKillingTheMonster() {
+    String generated = dungeon.toString();
+    int arrows = player.getNumberOfArrows();
+    dungeon.movePlayer(Direction.E);
+    dungeon.pickArrows();
+    dungeon.collectAllTreasures();
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    dungeon.shootArrow(1, Direction.E);
+    dungeon.shootArrow(1, Direction.E);
+    assertEquals(0, dungeon.getPlayerLocation().getSmell());
+    dungeon.restart();
+    assertEquals(generated, dungeon.toString());
+    assertEquals(dungeon.getStartingCave(), dungeon.getPlayerLocation());
+    assertEquals(arrows, dungeon.getPlayer().getNumberOfArrows());
+    assertEquals("Nishtha", dungeon.getPlayer().getName());
+    assertFalse(dungeon.getPlayer().isDead());
+    dungeon.movePlayer(Direction.E);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    assertEquals(2, dungeon.getPlayerLocation().getSmell());
+    assertFalse(dungeon.movePlayer(Direction.E));
+    assertEquals(100, dungeon.getPlayerLocation().getMonster().getHealthPercentage());
+  }
+
+  @Test
+  public void testRestartAfterPlayerIsKilled() {
+    dungeon.movePlayer(Direction.E);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    assertFalse(dungeon.movePlayer(Direction.E));
+    dungeon.restart();
+    assertFalse(dungeon.getPlayer().isDead());
+    assertTrue(dungeon.movePlayer(Direction.E));
+  }
+
+  @Test
+  public void testRestartPutsTheTreasuresBack() {
+    dungeon = new DungeonImpl(6, 4, 4, isWrapping, 100, "Nishtha", 1, rand);
+    List<Treasure> treasures = dungeon.getPlayerLocation().getTreasures();
+    assertFalse(treasures.isEmpty());
+    dungeon.collectAllTreasures();
+    assertTrue(dungeon.getPlayerLocation().getTreasures().isEmpty());
+    Map<Treasure, Integer> empty = new DungeonImpl(6, 4, 4, isWrapping, 100, "Nishtha", 1,
+            new RandomFactory().getRandomGenerator(false)).getPlayer().getCollectedTreasures();
+    dungeon.restart();
+    assertEquals(treasures, dungeon.getPlayerLocation().getTreasures());
+    assertEquals(empty, dungeon.getPlayer().getCollectedTreasures());
+  }
+
+  @Test
+  public void testUndoAndRedoMove() {
+    assertFalse(dungeon.undo());
+    assertTrue(dungeon.movePlayer(Direction.E));
+    int moved = dungeon.getPlayerLocation().getId();
+    assertTrue(dungeon.undo());
+    assertEquals(dungeon.getStartingCave(), dungeon.getPlayerLocation());
+    assertFalse(dungeon.undo());
+    assertTrue(dungeon.redo());
+    assertEquals(moved, dungeon.getPlayerLocation().getId());
+    assertFalse(dungeon.redo());
+  }
+
+  @Test
+  public void testUndoKillingTheMonster() {
+    dungeon.movePlayer(Direction.E);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    String beforeShooting = dungeon.toString();
+    assertEquals(2, dungeon.getPlayerLocation().getSmell());
+    dungeon.shootArrow(1, Direction.E);
+    dungeon.shootArrow(1, Direction.E);
+    assertEquals(0, dungeon.getPlayerLocation().getSmell());
+    assertEquals(1, dungeon.getPlayer().getNumberOfArrows());
+    assertTrue(dungeon.undo());
+    assertEquals(2, dungeon.getPlayerLocation().getSmell());
+    assertEquals(2, dungeon.getPlayer().getNumberOfArrows());
+    assertTrue(dungeon.undo());
+    assertEquals(3, dungeon.getPlayer().getNumberOfArrows());
+    assertEquals(beforeShooting, dungeon.toString());
+    assertFalse(dungeon.movePlayer(Direction.E));
+    assertTrue(dungeon.getPlayer().isDead());
+    assertTrue(dungeon.undo());
+    assertFalse(dungeon.getPlayer().isDead());
+  }
+
+  @Test
+  public void testUndoPickingUp() {
+    dungeon = new DungeonImpl(6, 4, 4, isWrapping, 100, "Nishtha", 1, rand);
+    List<Treasure> treasures = dungeon.getPlayerLocation().getTreasures();
+    int arrows = dungeon.getPlayer().getNumberOfArrows();
+    Map<Treasure, Integer> none = dungeon.getPlayer().getCollectedTreasures();
+    dungeon.collectAllTreasures();
+    dungeon.pickArrows();
+    Map<Treasure, Integer> collected = dungeon.getPlayer().getCollectedTreasures();
+    assertTrue(dungeon.getPlayerLocation().getTreasures().isEmpty());
+    dungeon.undo();
+    assertEquals(arrows, dungeon.getPlayer().getNumberOfArrows());
+    dungeon.undo();
+    assertEquals(treasures, dungeon.getPlayerLocation().getTreasures());
+    assertEquals(none, dungeon.getPlayer().getCollectedTreasures());
+    dungeon.redo();
+    assertEquals(collected, dungeon.getPlayer().getCollectedTreasures());
+    assertTrue(dungeon.getPlayerLocation().getTreasures().isEmpty());
+  }
 
+  @Test
+  public void testActionsThatChangeNothingAreNotKept() {
+    dungeon = new DungeonImpl(6, 4, 4, isWrapping, 0, "Nishtha", 1, rand);
+    dungeon.pickArrows();
+    dungeon.collectAllTreasures();
+    dungeon.collectTreasure(List.of());
+    assertFalse(dungeon.undo());
+  }
+
+  @Test
+  public void testNewActionForgetsRedo() {
+    dungeon.movePlayer(Direction.E);
+    dungeon.undo();
+    dungeon.movePlayer(Direction.E);
+    assertFalse(dungeon.redo());
+  }
+
+  @Test
+  public void testHistoryDepth() {
+    DungeonImpl dungeon = new DungeonImpl(6, 4, 4, isWrapping, 25, "Nishtha", 1, rand);
+    dungeon.setHistoryDepth(2);
+    dungeon.movePlayer(Direction.E);
+    int first = dungeon.getPlayerLocation().getId();
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    assertTrue(dungeon.undo());
+    assertTrue(dungeon.undo());
+    assertFalse(dungeon.undo());
+    assertEquals(first, dungeon.getPlayerLocation().getId());
+    dungeon.setHistoryDepth(0);
+    dungeon.movePlayer(Direction.S);
+    assertFalse(dungeon.undo());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeHistoryDepth() {
+    new DungeonImpl(6, 4, 4, isWrapping, 25, "Nishtha", 1, rand).setHistoryDepth(-1);
+  }
+
+  @Test
+  public void testListenerIsToldAboutAMove() {
+    List<int[]> locations = new ArrayList<>();
+    List<Set<PlayerField>> fields = new ArrayList<>();
+    dungeon.setDungeonListener((changed, playerFields) -> {
+      locations.add(changed);
+      fields.add(playerFields);
+    });
+    int start = dungeon.getPlayerLocation().getId();
+    dungeon.movePlayer(Direction.E);
+    int moved = dungeon.getPlayerLocation().getId();
+    assertEquals(1, locations.size());
+    assertArrayEquals(new int[] {start, moved}, locations.get(0));
+    assertEquals(EnumSet.of(PlayerField.LOCATION), fields.get(0));
+  }
+
+  @Test
+  public void testListenerIsToldAboutPickingUp() {
+    dungeon = new DungeonImpl(6, 4, 4, isWrapping, 100, "Nishtha", 1, rand);
+    List<int[]> locations = new ArrayList<>();
+    List<Set<PlayerField>> fields = new ArrayList<>();
+    dungeon.setDungeonListener((changed, playerFields) -> {
+      locations.add(changed);
+      fields.add(playerFields);
+    });
+    int location = dungeon.getPlayerLocation().getId();
+    dungeon.collectAllTreasures();
+    dungeon.pickArrows();
+    dungeon.pickArrows();
+    assertEquals(2, locations.size());
+    assertArrayEquals(new int[] {location}, locations.get(0));
+    assertEquals(EnumSet.of(PlayerField.TREASURES), fields.get(0));
+    assertArrayEquals(new int[] {location}, locations.get(1));
+    assertEquals(EnumSet.of(PlayerField.ARROWS), fields.get(1));
+  }
+
+  @Test
+  public void testListenerIsToldAboutUndoRedoAndRestart() {
+    List<int[]> locations = new ArrayList<>();
+    List<Set<PlayerField>> fields = new ArrayList<>();
+    dungeon.setDungeonListener((changed, playerFields) -> {
+      locations.add(changed);
+      fields.add(playerFields);
+    });
+    int start = dungeon.getPlayerLocation().getId();
+    dungeon.movePlayer(Direction.E);
+    int moved = dungeon.getPlayerLocation().getId();
+    dungeon.undo();
+    dungeon.redo();
+    dungeon.restart();
+    assertEquals(4, locations.size());
+    assertArrayEquals(new int[] {moved, start}, locations.get(1));
+    assertArrayEquals(new int[] {start, moved}, locations.get(2));
+    assertArrayEquals(new int[] {moved, start}, locations.get(3));
+    for (Set<PlayerField> playerFields : fields) {
+      assertEquals(EnumSet.of(PlayerField.LOCATION), playerFields);
+    }
+  }
+
+  @Test
+  public void testListenerIsToldAboutTheSmellOfAKill() {
+    List<int[]> locations = new ArrayList<>();
+    dungeon.movePlayer(Direction.E);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    dungeon.shootArrow(1, Direction.E);
+    dungeon.setDungeonListener((changed, playerFields) -> {
+      locations.add(changed);
+      assertEquals(EnumSet.of(PlayerField.ARROWS), playerFields);
+    });
+    int location = dungeon.getPlayerLocation().getId();
+    dungeon.shootArrow(1, Direction.E);
+    assertEquals(1, locations.size());
+    assertTrue(Arrays.stream(locations.get(0)).anyMatch(changed -> changed == location));
+    assertTrue(locations.get(0).length > 2);
+  }
+
+  @Test
+  public void testListenerIsToldWithoutHistory() {
+    DungeonImpl dungeon = new DungeonImpl(6, 4, 4, isWrapping, 25, "Nishtha", 1, rand);
+    dungeon.setHistoryDepth(0);
+    List<int[]> locations = new ArrayList<>();
+    dungeon.setDungeonListener((changed, playerFields) -> locations.add(changed));
+    dungeon.movePlayer(Direction.E);
+    assertEquals(1, locations.size());
+    assertFalse(dungeon.undo());
+  }
+
+  @Test
+  public void testActionsThatChangeNothingAreNotReported() {
+    dungeon = new DungeonImpl(6, 4, 4, isWrapping, 0, "Nishtha", 1, rand);
+    dungeon.setDungeonListener((changed, playerFields) -> fail("Nothing changed"));
+    dungeon.pickArrows();
+    dungeon.collectAllTreasures();
+    dungeon.undo();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullDungeonListener() {
+    dungeon.setDungeonListener(null);
+  }
+
+  @Test
+  public void testUndoEverythingOfARandomGame() {
+    RandomSeeded rand = new RandomSeeded(7);
+    DungeonImpl dungeon = new DungeonImpl(10, 10, 8, true, 50, "Nishtha", 8, rand,
+            GridStorage.PACKED);
+    List<String> states = new ArrayList<>();
+    List<Long> positions = new ArrayList<>();
+    RandomSeeded walk = new RandomSeeded(3);
+    states.add(dungeon.toString() + dungeon.getPlayer().getCollectedTreasures()
+            + dungeon.getPlayer().getNumberOfArrows());
+    positions.add(rand.getPosition());
+    for (int i = 0; i < 40 && !dungeon.getPlayer().isDead() && !dungeon.isDestinationReached();
+         i++) {
+      List<Direction> moves = dungeon.getPlayerLocation().getPossibleMoves();
+      Direction direction = moves.get(walk.getRandom(moves.size(), 0));
+      switch (walk.getRandom(3, 0)) {
+        case 0:
+          dungeon.movePlayer(direction);
+          break;
+        case 1:
+          if (dungeon.getPlayer().getNumberOfArrows() == 0) {
+            continue;
+          }
+          dungeon.shootArrow(walk.getRandom(4, 1), direction);
+          break;
+        default:
+          dungeon.collectAllTreasures();
+          dungeon.pickArrows();
+      }
+      states.add(dungeon.toString() + dungeon.getPlayer().getCollectedTreasures()
+              + dungeon.getPlayer().getNumberOfArrows());
+      positions.add(rand.getPosition());
+    }
+    List<String> undone = new ArrayList<>();
+    List<Long> undonePositions = new ArrayList<>();
+    undone.add(states.get(states.size() - 1));
+    undonePositions.add(rand.getPosition());
+    while (dungeon.undo()) {
+      undone.add(0, dungeon.toString() + dungeon.getPlayer().getCollectedTreasures()
+              + dungeon.getPlayer().getNumberOfArrows());
+      undonePositions.add(0, rand.getPosition());
+    }
+    assertEquals(states.get(0), undone.get(0));
+    assertEquals(positions.get(0), undonePositions.get(0));
+    assertTrue(states.containsAll(undone));
+    while (dungeon.redo()) {
+      assertTrue(states.contains(dungeon.toString() + dungeon.getPlayer().getCollectedTreasures()
+              + dungeon.getPlayer().getNumberOfArrows()));
+    }
+    assertEquals(states.get(states.size() - 1), dungeon.toString()
+            + dungeon.getPlayer().getCollectedTreasures()
+            + dungeon.getPlayer().getNumberOfArrows());
+    assertEquals((long) positions.get(positions.size() - 1), rand.getPosition());
+  }
+
+  @Test
+  public void testSameSeedSameDungeon() {
+    DungeonImpl seeded = new DungeonImpl(20, 15, 10, true, 25, "Nishtha", 3,
+            new RandomFactory().getRandomGenerator(1234L));
+    assertEquals(1234, seeded.getSeed());
+    DungeonImpl regenerated = new DungeonImpl(20, 15, 10, true, 25, "Nishtha", 3,
+            new RandomSeeded(seeded.getSeed()));
+    assertEquals(seeded.toString(), regenerated.toString());
+    assertEquals(1234, new DungeonImpl(seeded).getSeed());
+  }
+
+  @Test
+  public void testRandomTrueDungeonHasSeed() {
+    DungeonImpl random = new DungeonImpl(20, 15, 10, true, 25, "Nishtha", 3, randTrue);
+    DungeonImpl regenerated = new DungeonImpl(20, 15, 10, true, 25, "Nishtha", 3,
+            new RandomSeeded(random.getSeed()));
+    assertEquals(random.toString(), regenerated.toString());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNoSeedForUnseededGenerator() {
+    ((DungeonImpl) dungeon).getSeed();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNoSeedForUsedGenerator() {
+    RandomSeeded used = new RandomSeeded(1234L);
+    used.getRandom(10, 0);
+    new DungeonImpl(20, 15, 10, true, 25, "Nishtha", 3, used).getSeed();
+  }
+
+  @Test
+  public void testSeededPathsAreTheSameAsBeforeRankedSelection() {
+    String wrapping = "     |          |                                           |     \n"
+            + "--- [ ] ------ [ ]        [ ] ------ [ ] ------ [ ]        [ ] ---\n"
+            + "                                                 |                \n"
+            + "                                                 |                \n"
+            + "--- [ ] ------ [ ] ------ [ ] ------ [ ]        [ ] ------ [ ] ---\n"
+            + "     |          |                                |                \n"
+            + "     |          |                                |                \n"
+            + "--- [ ]        [ ]        [ ] ------ [ ] ------ [ ]        [ ] ---\n"
+            + "     |                                           |          |     \n"
+            + "     |                                           |          |     \n"
+            + "    [ ] ------ [ ] ------ [ ] ------ [ ] ------ [ ]        [ ]    \n"
+            + "     |                                                            \n"
+            + "     |                                                            \n"
+            + "--- [ ] ------ [ ]        [ ] ------ [ ]        [ ]        [ ] ---\n"
+            + "     |          |          |          |          |                \n"
+            + "     |          |          |          |          |                \n"
+            + "    [ ]        [ ] ------ [ ] ------ [ ]        [ ] ------ [ ]    \n"
+            + "     |          |                                           |     \n";
+    String nonWrapping = "                                                                  \n"
+            + "    [ ] ------ [ ] ------ [ ] ------ [ ] ------ [ ]        [ ]    \n"
+            + "                |          |                                |     \n"
+            + "                |          |                                |     \n"
+            + "    [ ]        [ ]        [ ] ------ [ ] ------ [ ] ------ [ ]    \n"
+            + "     |                     |          |          |                \n"
+            + "     |                     |          |          |                \n"
+            + "    [ ] ------ [ ] ------ [ ] ------ [ ]        [ ] ------ [ ]    \n"
+            + "     |                                |                     |     \n"
+            + "     |                                |                     |     \n"
+            + "    [ ] ------ [ ] ------ [ ]        [ ]        [ ] ------ [ ]    \n"
+            + "     |                     |                                      \n"
+            + "     |                     |                                      \n"
+            + "    [ ] ------ [ ] ------ [ ] ------ [ ] ------ [ ] ------ [ ]    \n"
+            + "                                                                  \n";
+    assertEquals(wrapping, getPaths(new DungeonImpl(6, 6, 3, true, 40, "Nishtha", 3,
+            new RandomSeeded(2024))));
+    assertEquals(nonWrapping, getPaths(new DungeonImpl(5, 6, 2, false, 40, "Nishtha", 2,
+            new RandomSeeded(7))));
+  }
+
+  @Test
+  public void testGenerationPhasesAreReportedInOrder() {
+    List<GenerationPhase> phases = new ArrayList<>();
+    Dungeon listened = new DungeonImpl(6, 4, 4, isWrapping, 25, "Nishtha", 1,
+            new RandomFactory().getRandomGenerator(false), GridStorage.CAVES,
+            (phase, elapsedNanos) -> {
+              assertTrue(elapsedNanos >= 0);
+              phases.add(phase);
+            });
+    assertEquals(List.of(GenerationPhase.values()), phases);
+    assertEquals(dungeon.toString(), listened.toString());
+  }
+
+  @Test
+  public void testGenerationStopsWhenCancelled() {
+    List<GenerationPhase> phases = new ArrayList<>();
+    try {
+      new DungeonImpl(6, 4, 4, isWrapping, 25, "Nishtha", 1, rand, GridStorage.CAVES,
+              new GenerationListener() {
+                @Override
+                public void phaseCompleted(GenerationPhase phase, long elapsedNanos) {
+                  phases.add(phase);
+                }
+
+                @Override
+                public boolean isCancelled() {
+                  return phases.contains(GenerationPhase.PATHS);
+                }
+              });
+      fail("Generation was not cancelled");
+    } catch (CancellationException e) {
+      assertEquals(List.of(GenerationPhase.GRID, GenerationPhase.PATHS), phases);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullGenerationListener() {
+    new DungeonImpl(6, 4, 4, isWrapping, 25, "Nishtha", 1, rand, GridStorage.CAVES, null);
+  }
+
+  /**
+   * Returns the drawing of the dungeon with only its paths, without what is in the locations.
+   */
+  private static String getPaths(Dungeon dungeon) {
+    return dungeon.toString().replaceAll("\\[.]", "[ ]");
+  }
+}
@@ -0,0 +1,148 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonParameters;
+import model.dungeon.GenerationListener;
+import model.dungeon.GenerationPhase;
+import model.location.GridStorage;
+import model.random.RandomSeeded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link DungeonParameters}.
+ */
+public class DungeonParametersTest {
+
+  ExecutorService executor;
+  DungeonParameters parameters;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newSingleThreadExecutor();
+    parameters = new DungeonParameters(6, 4, 4, false, 25, "Nishtha", 2, GridStorage.CAVES);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test(timeout = 10000)
+  public void testAsyncDungeonIsTheSameAsTheDungeonOfTheSeed() throws Exception {
+    List<GenerationPhase> phases = new ArrayList<>();
+    DungeonImpl dungeon = parameters.createDungeonAsync(new RandomSeeded(7),
+            (phase, elapsedNanos) -> phases.add(phase), executor).get();
+    assertEquals(parameters.createDungeon(new RandomSeeded(7)).toString(), dungeon.toString());
+    assertEquals(List.of(GenerationPhase.values()), phases);
+  }
+
+  @Test(timeout = 10000)
+  public void testCancellingStopsTheGeneration() throws Exception {
+    CountDownLatch cancelled = new CountDownLatch(1);
+    List<GenerationPhase> phases = new ArrayList<>();
+    executor.execute(() -> {
+      try {
+        cancelled.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    CompletableFuture<DungeonImpl> dungeon = parameters.createDungeonAsync(new RandomSeeded(7),
+            (phase, elapsedNanos) -> phases.add(phase), executor);
+    assertTrue(dungeon.cancel(false));
+    cancelled.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    assertTrue(dungeon.isCancelled());
+    assertTrue(phases.isEmpty());
+  }
+
+  @Test(timeout = 10000)
+  public void testCancellingDuringAPhaseStopsAtItsEnd() throws Exception {
+    List<GenerationPhase> phases = new ArrayList<>();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch cancelled = new CountDownLatch(1);
+    CompletableFuture<DungeonImpl> dungeon = parameters.createDungeonAsync(new RandomSeeded(7),
+        (phase, elapsedNanos) -> {
+          phases.add(phase);
+          started.countDown();
+          try {
+            cancelled.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }, executor);
+    started.await();
+    dungeon.cancel(false);
+    cancelled.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(List.of(GenerationPhase.GRID), phases);
+    assertTrue(dungeon.isCancelled());
+  }
+
+  @Test(timeout = 10000)
+  public void testInvalidParametersFailTheFuture() throws InterruptedException {
+    parameters = new DungeonParameters(2, 2, 4, false, 25, "Nishtha", 2, GridStorage.CAVES);
+    try {
+      parameters.createDungeonAsync(new RandomSeeded(7), GenerationListener.NONE, executor).get();
+      fail("Dungeon was generated");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+  }
+
+  @Test(expected = CancellationException.class)
+  public void testListenerCanCancel() {
+    parameters.createDungeon(new RandomSeeded(7), new GenerationListener() {
+      @Override
+      public void phaseCompleted(GenerationPhase phase, long elapsedNanos) {
+        assertFalse(phase == GenerationPhase.MOVES);
+      }
+
+      @Override
+      public boolean isCancelled() {
+        return true;
+      }
+    });
+  }
+
+  @Test
+  public void testEqualParameters() {
+    DungeonParameters same = new DungeonParameters(6, 4, 4, false, 25, "Nishtha", 2,
+            GridStorage.CAVES);
+    assertEquals(parameters, same);
+    assertEquals(parameters.hashCode(), same.hashCode());
+    assertNotEquals(parameters, new DungeonParameters(6, 4, 4, false, 25, "Nishtha", 2,
+            GridStorage.PACKED));
+    assertNotEquals(parameters, new DungeonParameters(6, 4, 4, true, 25, "Nishtha", 2,
+            GridStorage.CAVES));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullExecutor() {
+    parameters.createDungeonAsync(new RandomSeeded(7), GenerationListener.NONE, null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullListener() {
+    parameters.createDungeonAsync(new RandomSeeded(7), null, executor);
+  }
+}
@@ -0,0 +1,186 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Executor;
+
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonParameters;
+import model.dungeon.DungeonPool;
+import model.location.GridStorage;
+import model.random.RandomSeeded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for {@link DungeonPool}.
+ */
+public class DungeonPoolTest {
+
+  private static final Executor SAME_THREAD = Runnable::run;
+
+  DungeonParameters parameters;
+  long[] seed;
+  DungeonPool pool;
+
+  @Before
+  public void setUp() {
+    parameters = new DungeonParameters(6, 4, 4, false, 25, "Nishtha", 2, GridStorage.CAVES);
+    seed = new long[1];
+    pool = new DungeonPool(2, 1, 1000, () -> new RandomSeeded(seed[0]++), SAME_THREAD);
+  }
+
+  @Test
+  public void testDungeonIsReadyAfterTheFirstMiss() {
+    assertNull(pool.poll(parameters));
+    assertEquals(1, pool.getMisses());
+    assertEquals(1, pool.getDungeons(parameters));
+    DungeonImpl dungeon = pool.poll(parameters);
+    assertNotNull(dungeon);
+    assertEquals(1, pool.getHits());
+    assertEquals(parameters.createDungeon(new RandomSeeded(0)).toString(), dungeon.toString());
+    assertEquals(1, pool.getDungeons(parameters));
+    assertEquals(2, pool.getGenerated());
+  }
+
+  @Test
+  public void testEqualParametersShareTheirDungeons() {
+    pool.poll(parameters);
+    assertNotNull(pool.poll(new DungeonParameters(6, 4, 4, false, 25, "Nishtha", 2,
+            GridStorage.CAVES)));
+    assertNull(pool.poll(new DungeonParameters(6, 4, 4, false, 25, "Other", 2,
+            GridStorage.CAVES)));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedParametersAreForgotten() {
+    DungeonParameters second = new DungeonParameters(4, 6, 4, false, 25, "Nishtha", 2,
+            GridStorage.CAVES);
+    DungeonParameters third = new DungeonParameters(5, 5, 4, false, 25, "Nishtha", 2,
+            GridStorage.PACKED);
+    pool.poll(parameters);
+    pool.poll(second);
+    pool.poll(parameters);
+    pool.poll(third);
+    assertEquals(2, pool.getParameterSets());
+    assertEquals(0, pool.getDungeons(second));
+    assertEquals(2, pool.getDungeons());
+    assertEquals(24 + 25, pool.getLocations());
+    assertNull(pool.poll(second));
+  }
+
+  @Test
+  public void testLocationsMakeRoomForTheMostRecentlyUsedParameters() {
+    pool = new DungeonPool(3, 2, 48, () -> new RandomSeeded(seed[0]++), SAME_THREAD);
+    DungeonParameters other = new DungeonParameters(4, 6, 4, false, 25, "Nishtha", 2,
+            GridStorage.CAVES);
+    pool.poll(parameters);
+    assertEquals(2, pool.getDungeons(parameters));
+    assertEquals(48, pool.getLocations());
+    pool.poll(other);
+    assertEquals(0, pool.getDungeons(parameters));
+    assertEquals(2, pool.getDungeons(other));
+    assertEquals(48, pool.getLocations());
+    assertEquals(2, pool.getParameterSets());
+  }
+
+  @Test
+  public void testDungeonLargerThanThePoolDropsNothing() {
+    pool = new DungeonPool(3, 1, 30, () -> new RandomSeeded(seed[0]++), SAME_THREAD);
+    DungeonParameters larger = new DungeonParameters(6, 6, 4, false, 25, "Nishtha", 2,
+            GridStorage.CAVES);
+    pool.poll(parameters);
+    assertNull(pool.poll(larger));
+    assertNull(pool.poll(larger));
+    assertEquals(1, pool.getDungeons(parameters));
+    assertEquals(24, pool.getLocations());
+    assertEquals(1, pool.getGenerated());
+    assertNotNull(pool.poll(parameters));
+  }
+
+  @Test
+  public void testFailedGenerationForgetsTheParametersAndGoesOn() {
+    boolean[] failed = new boolean[1];
+    pool = new DungeonPool(2, 1, 1000, () -> {
+      if (!failed[0]) {
+        failed[0] = true;
+        throw new IllegalStateException("No random generator.");
+      }
+      return new RandomSeeded(seed[0]++);
+    }, SAME_THREAD);
+    assertNull(pool.poll(parameters));
+    assertEquals(0, pool.getParameterSets());
+    assertNull(pool.poll(parameters));
+    assertEquals(1, pool.getDungeons(parameters));
+    assertNotNull(pool.poll(parameters));
+  }
+
+  @Test
+  public void testDungeonLargerThanThePoolIsNotGenerated() {
+    pool = new DungeonPool(2, 1, 10, () -> new RandomSeeded(seed[0]++), SAME_THREAD);
+    assertNull(pool.poll(parameters));
+    assertEquals(0, pool.getGenerated());
+    assertEquals(0, pool.getLocations());
+  }
+
+  @Test
+  public void testParametersWithoutDungeonAreForgotten() {
+    assertNull(pool.poll(new DungeonParameters(2, 2, 4, false, 25, "Nishtha", 2,
+            GridStorage.CAVES)));
+    assertEquals(0, pool.getParameterSets());
+    assertEquals(0, pool.getGenerated());
+  }
+
+  @Test(timeout = 10000)
+  public void testDungeonsAreGeneratedInTheBackground() throws InterruptedException {
+    pool = new DungeonPool(() -> new RandomSeeded(seed[0]++));
+    try {
+      assertNull(pool.poll(parameters));
+      while (pool.getDungeons(parameters) == 0) {
+        Thread.sleep(10);
+      }
+      assertNotNull(pool.poll(parameters));
+      assertEquals(1, pool.getHits());
+      assertEquals(1, pool.getMisses());
+    } finally {
+      pool.close();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPollClosedPool() {
+    pool.close();
+    pool.poll(parameters);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullParameters() {
+    pool.poll(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoParameterSets() {
+    new DungeonPool(0, 1, 1000, () -> new RandomSeeded(0), SAME_THREAD);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoDungeonsPerSet() {
+    new DungeonPool(1, 0, 1000, () -> new RandomSeeded(0), SAME_THREAD);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeLocations() {
+    new DungeonPool(1, 1, -1, () -> new RandomSeeded(0), SAME_THREAD);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullRandomGenerator() {
+    new DungeonPool(1, 1, 1000, null, SAME_THREAD);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullExecutor() {
+    new DungeonPool(1, 1, 1000, () -> new RandomSeeded(0), null);
+  }
+}
@@ -0,0 +1,77 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonRollouts;
+import model.location.Direction;
+import model.random.RandomFalse;
+import model.random.RandomTrue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests for {@link DungeonRollouts}.
+ */
+public class DungeonRolloutsTest {
+
+  DungeonImpl dungeon;
+  DungeonRollouts rollouts;
+
+  @Before
+  public void setUp() {
+    dungeon = new DungeonImpl(6, 4, 4, false, 25, "Nishtha", 1, new RandomFalse());
+    dungeon.movePlayer(Direction.E);
+    dungeon.movePlayer(Direction.S);
+    dungeon.pickArrows();
+    rollouts = new DungeonRollouts(dungeon);
+  }
+
+  @Test
+  public void testRolloutStartsFromTheCurrentState() {
+    DungeonImpl rollout = rollouts.next(new RandomFalse());
+    assertEquals(dungeon.toString(), rollout.toString());
+    assertEquals(dungeon.getPlayerLocation().getId(), rollout.getPlayerLocation().getId());
+    assertEquals(dungeon.getPlayer().getNumberOfArrows(),
+            rollout.getPlayer().getNumberOfArrows());
+    assertEquals(dungeon.getPlayer().getCollectedTreasures(),
+            rollout.getPlayer().getCollectedTreasures());
+    assertFalse(rollout.undo());
+  }
+
+  @Test
+  public void testRolloutDoesNotChangeTheDungeon() {
+    String before = dungeon.toString();
+    DungeonImpl rollout = rollouts.next(new RandomTrue());
+    rollout.movePlayer(Direction.S);
+    rollout.movePlayer(Direction.S);
+    rollout.shootArrow(1, Direction.E);
+    rollout.movePlayer(Direction.E);
+    assertEquals(before, dungeon.toString());
+    assertEquals(6, dungeon.getPlayerLocation().getId());
+    assertEquals(50, rollout.getDestinationCave().getMonster().getHealthPercentage());
+    assertEquals(100, dungeon.getDestinationCave().getMonster().getHealthPercentage());
+  }
+
+  @Test
+  public void testNextRolloutForgetsThePreviousOne() {
+    DungeonImpl first = rollouts.next(new RandomFalse());
+    first.movePlayer(Direction.S);
+    first.movePlayer(Direction.S);
+    first.shootArrow(1, Direction.E);
+    DungeonImpl second = rollouts.next(new RandomFalse());
+    assertEquals(dungeon.toString(), second.toString());
+    assertEquals(dungeon.getPlayer().getNumberOfArrows(),
+            second.getPlayer().getNumberOfArrows());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullDungeon() {
+    new DungeonRollouts(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullRandom() {
+    rollouts.next(null);
+  }
+}
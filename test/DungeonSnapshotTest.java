@@ -0,0 +1,253 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonSnapshot;
+import model.dungeon.GenerationListener;
+import model.dungeon.SmellCurve;
+import model.location.Direction;
+import model.location.GridStorage;
+import model.location.Location;
+import model.location.Treasure;
+import model.random.RandomFalse;
+import model.random.RandomSeeded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link DungeonSnapshot}.
+ */
+public class DungeonSnapshotTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  DungeonImpl dungeon;
+
+  @Before
+  public void setUp() {
+    dungeon = new DungeonImpl(6, 4, 4, false, 25, "Nishtha", 2, new RandomFalse(),
+            GridStorage.CAVES);
+  }
+
+  @Test
+  public void testRoundTrip() {
+    dungeon.movePlayer(Direction.E);
+    dungeon.pickArrows();
+    dungeon.collectAllTreasures();
+    dungeon.shootArrow(1, Direction.E);
+    DungeonImpl restored = roundTrip(dungeon);
+    assertEquals(dungeon.toString(), restored.toString());
+    assertSameLocations(dungeon, restored);
+    assertEquals(dungeon.getPlayer().getName(), restored.getPlayer().getName());
+    assertEquals(dungeon.getPlayer().getNumberOfArrows(),
+            restored.getPlayer().getNumberOfArrows());
+    assertEquals(dungeon.getPlayer().getCollectedTreasures(),
+            restored.getPlayer().getCollectedTreasures());
+    assertEquals(dungeon.getPlayerLocation().getId(), restored.getPlayerLocation().getId());
+    assertEquals(dungeon.getStartingCave().getId(), restored.getStartingCave().getId());
+    assertEquals(dungeon.getDestinationCave().getId(), restored.getDestinationCave().getId());
+  }
+
+  @Test
+  public void testRestoredGameContinuesTheSame() {
+    dungeon = new DungeonImpl(10, 10, 5, true, 50, "Nishtha", 6, new RandomSeeded(99),
+            GridStorage.PACKED);
+    DungeonImpl restored = roundTrip(dungeon);
+    assertEquals(99, restored.getSeed());
+    RandomSeeded walk = new RandomSeeded(5);
+    for (int i = 0; i < 30 && !dungeon.getPlayer().isDead() && !dungeon.isDestinationReached();
+         i++) {
+      List<Direction> moves = dungeon.getPlayerLocation().getPossibleMoves();
+      Direction direction = moves.get(walk.getRandom(moves.size(), 0));
+      if (dungeon.getPlayer().getNumberOfArrows() > 0) {
+        assertEquals(dungeon.shootArrow(2, direction), restored.shootArrow(2, direction));
+      }
+      assertEquals(dungeon.movePlayer(direction), restored.movePlayer(direction));
+      assertEquals(dungeon.toString(), restored.toString());
+      assertSameLocations(dungeon, restored);
+    }
+  }
+
+  @Test
+  public void testDeadPlayer() {
+    dungeon = new DungeonImpl(6, 4, 4, false, 25, "Nishtha", 1, new RandomFalse());
+    dungeon.movePlayer(Direction.E);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    assertFalse(dungeon.movePlayer(Direction.E));
+    assertTrue(roundTrip(dungeon).getPlayer().isDead());
+  }
+
+  @Test
+  public void testRestoredGameRestartsLikeTheSavedOne() {
+    String generated = dungeon.toString();
+    dungeon.movePlayer(Direction.E);
+    dungeon.pickArrows();
+    dungeon.collectAllTreasures();
+    dungeon.shootArrow(1, Direction.E);
+    DungeonImpl restored = roundTrip(dungeon);
+    dungeon.restart();
+    restored.restart();
+    assertEquals(generated, restored.toString());
+    assertSameLocations(dungeon, restored);
+    assertEquals(dungeon.getPlayer().getNumberOfArrows(),
+            restored.getPlayer().getNumberOfArrows());
+  }
+
+  @Test
+  public void testRestoredGameKeepsItsSmellCurve() {
+    SmellCurve curve = new SmellCurve(4, 3, 2, 1);
+    dungeon = new DungeonImpl(6, 4, 4, false, 25, "Nishtha", 2, new RandomFalse(),
+            GridStorage.CAVES, GenerationListener.NONE, curve);
+    DungeonImpl restored = roundTrip(dungeon);
+    assertEquals(curve, restored.getSmellCurve());
+    dungeon.shootArrow(1, Direction.E);
+    dungeon.shootArrow(1, Direction.E);
+    restored.shootArrow(1, Direction.E);
+    restored.shootArrow(1, Direction.E);
+    assertSameLocations(dungeon, restored);
+  }
+
+  @Test
+  public void testRestoredGameUndoesLikeTheSavedOne() {
+    dungeon.setHistoryDepth(3);
+    dungeon.movePlayer(Direction.E);
+    dungeon.pickArrows();
+    dungeon.collectAllTreasures();
+    dungeon.shootArrow(1, Direction.E);
+    dungeon.undo();
+    DungeonImpl restored = roundTrip(dungeon);
+    assertEquals(3, restored.getHistoryDepth());
+    assertTrue(restored.redo());
+    assertTrue(dungeon.redo());
+    assertSameLocations(dungeon, restored);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(dungeon.undo());
+      assertTrue(restored.undo());
+      assertEquals(dungeon.toString(), restored.toString());
+      assertSameLocations(dungeon, restored);
+    }
+    assertFalse(restored.undo());
+  }
+
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    Path file = folder.newFile("dungeon.snapshot").toPath();
+    DungeonSnapshot.save(dungeon, file);
+    DungeonImpl loaded = DungeonSnapshot.load(file);
+    assertEquals(dungeon.toString(), loaded.toString());
+    assertSameLocations(dungeon, loaded);
+  }
+
+  @Test
+  public void testSize() {
+    ByteBuffer buffer = ByteBuffer.allocate(DungeonSnapshot.size(dungeon));
+    DungeonSnapshot.write(dungeon, buffer);
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotASnapshot() {
+    DungeonSnapshot.read(ByteBuffer.allocate(200));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedVersion() {
+    ByteBuffer buffer = write(dungeon);
+    buffer.putShort(4, (short) (DungeonSnapshot.VERSION + 1));
+    DungeonSnapshot.read(buffer);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOlderVersion() {
+    ByteBuffer buffer = write(dungeon);
+    buffer.putShort(4, (short) (DungeonSnapshot.VERSION - 1));
+    DungeonSnapshot.read(buffer);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testExitOffTheGrid() {
+    ByteBuffer buffer = write(dungeon);
+    buffer.put(getExitsOffset(), (byte) 0x0f);
+    DungeonSnapshot.read(buffer);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testExitWithoutTheWayBack() {
+    ByteBuffer buffer = write(dungeon);
+    int exits = getExitsOffset();
+    buffer.put(exits, (byte) (buffer.get(exits) ^ 1 << Direction.E.ordinal()));
+    DungeonSnapshot.read(buffer);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncatedSnapshot() {
+    ByteBuffer buffer = write(dungeon);
+    buffer.limit(buffer.limit() - 1);
+    DungeonSnapshot.read(buffer);
+  }
+
+  private ByteBuffer write(DungeonImpl dungeon) {
+    ByteBuffer buffer = ByteBuffer.allocate(DungeonSnapshot.size(dungeon));
+    DungeonSnapshot.write(dungeon, buffer);
+    return buffer.flip();
+  }
+
+  /**
+   * Returns where the exit masks start in a snapshot of the dungeon of the tests, after the
+   * header and the name of the player.
+   */
+  private int getExitsOffset() {
+    return 4 + 2 + 4 + 4 + 4 + 1 + 8 + 8 + 8 + 4 + 4 + 4 + 1 + 4 + 4 * Treasure.values().length
+            + 2 + "Nishtha".length();
+  }
+
+  private DungeonImpl roundTrip(DungeonImpl dungeon) {
+    return DungeonSnapshot.read(write(dungeon));
+  }
+
+  private void assertSameLocations(DungeonImpl expected, DungeonImpl actual) {
+    Map<Integer, Location> expectedLocations = reachableLocations(expected);
+    Map<Integer, Location> actualLocations = reachableLocations(actual);
+    assertEquals(expectedLocations.keySet(), actualLocations.keySet());
+    for (Location expectedLocation : expectedLocations.values()) {
+      Location actualLocation = actualLocations.get(expectedLocation.getId());
+      assertEquals(expectedLocation.getPossibleMoves(), actualLocation.getPossibleMoves());
+      assertEquals(expectedLocation.getTreasures(), actualLocation.getTreasures());
+      assertEquals(expectedLocation.getArrows(), actualLocation.getArrows());
+      assertEquals(expectedLocation.getSmell(), actualLocation.getSmell());
+      assertEquals(expectedLocation.getMonster() == null, actualLocation.getMonster() == null);
+      if (expectedLocation.getMonster() != null) {
+        assertEquals(expectedLocation.getMonster().getHealthPercentage(),
+                actualLocation.getMonster().getHealthPercentage());
+      }
+    }
+  }
+
+  private Map<Integer, Location> reachableLocations(DungeonImpl dungeon) {
+    Map<Integer, Location> locations = new HashMap<>();
+    Deque<Location> toVisit = new ArrayDeque<>(List.of(dungeon.getStartingCave()));
+    while (!toVisit.isEmpty()) {
+      Location location = toVisit.remove();
+      if (locations.putIfAbsent(location.getId(), location) == null) {
+        toVisit.addAll(location.getNeighborLocations().values());
+      }
+    }
+    return locations;
+  }
+}
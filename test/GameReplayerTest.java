@@ -0,0 +1,221 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import model.dungeon.Dungeon;
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonParameters;
+import model.dungeon.DungeonSnapshot;
+import model.dungeon.GameReplayer;
+import model.dungeon.RecordingDungeon;
+import model.location.Direction;
+import model.location.GridStorage;
+import model.location.Treasure;
+import model.random.RandomSeeded;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link GameReplayer}.
+ */
+public class GameReplayerTest {
+
+  private static final int HEADER_BYTES = 4 + 2 + 4 + 4 + 4 + 1 + 8 + 4 + 1 + 2
+          + "Nishtha".length() + 8 + 4;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  DungeonParameters parameters;
+  Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    parameters = new DungeonParameters(8, 10, 4, true, 50, "Nishtha", 6, GridStorage.PACKED);
+    file = folder.newFile("game.log").toPath();
+  }
+
+  @Test
+  public void testReplayRebuildsTheGame() throws IOException {
+    DungeonImpl expected = parameters.createDungeon(new RandomSeeded(42));
+    long turns;
+    try (RecordingDungeon recording = new RecordingDungeon(parameters, 42, file, 16)) {
+      play(new RandomSeeded(3), 500, recording, expected);
+      turns = recording.getTurn();
+    }
+    GameReplayer replayer = GameReplayer.load(file);
+    assertEquals(42, replayer.getSeed());
+    assertEquals(turns, replayer.getTurns());
+    assertEquals(turns / 16 + 1, replayer.getKeyframes());
+    assertEquals("Nishtha", replayer.getParameters().getPlayerName());
+    assertSameGame(expected, replayer.replay());
+  }
+
+  @Test
+  public void testSeekRebuildsEveryTurn() throws IOException {
+    int turns = 120;
+    DungeonImpl expected = parameters.createDungeon(new RandomSeeded(7));
+    byte[][] snapshots = new byte[turns + 1][];
+    snapshots[0] = snapshot(expected);
+    try (RecordingDungeon recording = new RecordingDungeon(parameters, 7, file, 10)) {
+      RandomSeeded commands = new RandomSeeded(11);
+      while (recording.getTurn() < turns) {
+        play(commands, 1, recording, expected);
+        snapshots[(int) recording.getTurn()] = snapshot(expected);
+      }
+    }
+    GameReplayer replayer = GameReplayer.load(file);
+    for (int turn = turns; turn >= 0; turn--) {
+      assertArrayEquals("turn " + turn, snapshots[turn], snapshot(replayer.seek(turn)));
+    }
+  }
+
+  @Test
+  public void testLogThatWasNotClosed() throws IOException {
+    DungeonImpl expected = parameters.createDungeon(new RandomSeeded(5));
+    RecordingDungeon recording = new RecordingDungeon(parameters, 5, file, 8);
+    play(new RandomSeeded(9), 50, recording, expected);
+    recording.flush();
+    byte[] log = Files.readAllBytes(file);
+    long turns = recording.getTurn();
+    recording.close();
+
+    GameReplayer replayer = new GameReplayer(ByteBuffer.wrap(log));
+    assertEquals(turns, replayer.getTurns());
+    assertEquals(turns / 8 + 1, replayer.getKeyframes());
+    assertSameGame(expected, replayer.replay());
+
+    GameReplayer truncated = new GameReplayer(ByteBuffer.wrap(log, 0, log.length - 1));
+    assertEquals(turns - 1, truncated.getTurns());
+  }
+
+  @Test
+  public void testLogWithoutKeyframes() throws IOException {
+    DungeonImpl expected = parameters.createDungeon(new RandomSeeded(5));
+    int header = HEADER_BYTES;
+    int keyframe = 1 + 8 + 4 + DungeonSnapshot.size(expected);
+    RecordingDungeon recording = new RecordingDungeon(parameters, 5, file);
+    play(new RandomSeeded(9), 20, recording, expected);
+    recording.flush();
+    byte[] log = Files.readAllBytes(file);
+    recording.close();
+
+    ByteBuffer withoutKeyframe = ByteBuffer.allocate(log.length - keyframe);
+    withoutKeyframe.put(log, 0, header).put(log, header + keyframe, log.length - header - keyframe);
+    GameReplayer replayer = new GameReplayer(withoutKeyframe.flip());
+    assertEquals(0, replayer.getKeyframes());
+    assertSameGame(expected, replayer.replay());
+  }
+
+  @Test
+  public void testLogWithOnlyAHeader() throws IOException {
+    new RecordingDungeon(parameters, 5, file).close();
+    byte[] log = Files.readAllBytes(file);
+    GameReplayer replayer = new GameReplayer(ByteBuffer.wrap(log, 0, HEADER_BYTES));
+    assertEquals(0, replayer.getTurns());
+    assertArrayEquals(snapshot(parameters.createDungeon(new RandomSeeded(5))),
+            snapshot(replayer.replay()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotALog() {
+    new GameReplayer(ByteBuffer.allocate(100));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncatedHeader() throws IOException {
+    new RecordingDungeon(parameters, 5, file).close();
+    new GameReplayer(ByteBuffer.wrap(Files.readAllBytes(file), 0, 20));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSeekPastTheEnd() throws IOException {
+    try (RecordingDungeon recording = new RecordingDungeon(parameters, 5, file)) {
+      recording.pickArrows();
+    }
+    GameReplayer.load(file).seek(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeTurn() throws IOException {
+    new RecordingDungeon(parameters, 5, file).close();
+    GameReplayer.load(file).seek(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullLog() {
+    new GameReplayer(null);
+  }
+
+  /**
+   * Plays random commands on both dungeons, with a few of every kind.
+   */
+  static void play(RandomSeeded rand, int commands, Dungeon recording, DungeonImpl expected) {
+    for (int i = 0; i < commands; i++) {
+      boolean isOver = expected.getPlayer().isDead() || expected.isDestinationReached();
+      int command = isOver ? 7 + rand.getRandom(3, 0) : rand.getRandom(10, 0);
+      List<Direction> moves = expected.getPlayerLocation().getPossibleMoves();
+      Direction direction = moves.get(rand.getRandom(moves.size(), 0));
+      switch (command) {
+        case 0:
+        case 1:
+        case 2:
+          assertEquals(expected.movePlayer(direction), recording.movePlayer(direction));
+          break;
+        case 3:
+          if (expected.getPlayer().getNumberOfArrows() > 0) {
+            int distance = rand.getRandom(4, 1);
+            assertEquals(expected.shootArrow(distance, direction),
+                    recording.shootArrow(distance, direction));
+          } else {
+            expected.pickArrows();
+            recording.pickArrows();
+          }
+          break;
+        case 4:
+          expected.collectAllTreasures();
+          recording.collectAllTreasures();
+          break;
+        case 5:
+          List<Treasure> treasures = Arrays.asList(Treasure.RUBY, Treasure.SAPPHIRE);
+          expected.collectTreasure(treasures);
+          recording.collectTreasure(treasures);
+          break;
+        case 6:
+          expected.pickArrows();
+          recording.pickArrows();
+          break;
+        case 7:
+          assertEquals(expected.undo(), recording.undo());
+          break;
+        case 8:
+          assertEquals(expected.redo(), recording.redo());
+          break;
+        default:
+          expected.restart();
+          recording.restart();
+          break;
+      }
+    }
+  }
+
+  static byte[] snapshot(DungeonImpl dungeon) {
+    ByteBuffer buffer = ByteBuffer.allocate(DungeonSnapshot.size(dungeon));
+    DungeonSnapshot.write(dungeon, buffer);
+    return buffer.array();
+  }
+
+  private void assertSameGame(DungeonImpl expected, DungeonImpl actual) {
+    assertEquals(expected.toString(), actual.toString());
+    assertArrayEquals(snapshot(expected), snapshot(actual));
+  }
+}
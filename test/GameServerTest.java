@@ -0,0 +1,237 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import control.server.GameServer;
+import control.server.SessionStore;
+import control.server.SnapshotStorage;
+import control.textbased.DungeonConsoleController;
+import model.dungeon.DungeonParameters;
+import model.location.GridStorage;
+import model.random.RandomSeeded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link GameServer}.
+ */
+public class GameServerTest {
+
+  private static final long SEED = 42;
+  private static final String PROMPT = "(M-P-S-G)?";
+  private static final String SCRIPT = "P arrow\nP treasure\nM N\nM E\nM S\nM W\nS 1 N\n";
+
+  DungeonParameters parameters;
+  GameServer server;
+
+  @Before
+  public void setUp() throws IOException {
+    parameters = new DungeonParameters(6, 4, 4, false, 25, "Nishtha", 2, GridStorage.CAVES);
+    server = GameServer.onLoopback(0, parameters, SEED);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+  }
+
+  @Test(timeout = 10000)
+  public void testSessionPrintsWhatTheConsoleGamePrints() throws IOException {
+    try (SocketChannel client = SocketChannel.open(server.getAddress())) {
+      assertEquals(playLocally(SEED, SCRIPT), play(client, SCRIPT));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testEverySessionPlaysItsOwnDungeon() throws IOException {
+    for (int session = 0; session < 3; session++) {
+      try (SocketChannel client = SocketChannel.open(server.getAddress())) {
+        assertEquals(playLocally(SEED + session, SCRIPT), play(client, SCRIPT));
+      }
+    }
+    assertEquals(3, server.getStartedSessions());
+  }
+
+  @Test(timeout = 10000)
+  public void testPromptArrivesBeforeAnyCommand() throws IOException {
+    try (SocketChannel client = SocketChannel.open(server.getAddress())) {
+      String expected = playLocally(SEED, "");
+      assertEquals(expected, readUntilPrompt(client));
+    }
+  }
+
+  @Test(timeout = 20000)
+  public void testManyIdleSessionsAreServedAtOnce() throws Exception {
+    List<SocketChannel> clients = new ArrayList<>();
+    try {
+      for (int i = 0; i < 100; i++) {
+        SocketChannel client = SocketChannel.open(server.getAddress());
+        clients.add(client);
+        readUntilPrompt(client);
+      }
+      assertEquals(100, server.getActiveSessions());
+      for (int i = clients.size() - 1; i >= 0; i--) {
+        String output = play(clients.get(i), SCRIPT);
+        assertEquals(playLocally(SEED + i, SCRIPT), playLocally(SEED + i, "") + output);
+      }
+    } finally {
+      for (SocketChannel client : clients) {
+        client.close();
+      }
+    }
+    waitForSessions(0);
+  }
+
+  @Test(timeout = 20000)
+  public void testEvictedSessionsPlayOnWhenTheirClientsComeBack() throws Exception {
+    server.close();
+    SessionStore<Long> store = new SessionStore<>(1, Long.MAX_VALUE, SnapshotStorage.HEAP);
+    ExecutorService sessions = GameServer.newSessionExecutor();
+    server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+            parameters, SEED, sessions, store);
+    List<SocketChannel> clients = new ArrayList<>();
+    try {
+      for (int i = 0; i < 10; i++) {
+        SocketChannel client = SocketChannel.open(server.getAddress());
+        clients.add(client);
+        readUntilPrompt(client);
+      }
+      waitForSessions(10);
+      while (store.getLiveSessions() != 1) {
+        Thread.sleep(10);
+      }
+      assertEquals(10, store.getSessions());
+      assertEquals(9, store.getEvictedSessions());
+      for (int i = 0; i < clients.size(); i++) {
+        String output = play(clients.get(i), SCRIPT);
+        assertEquals(playLocally(SEED + i, SCRIPT), playLocally(SEED + i, "") + output);
+      }
+      assertTrue(store.getMisses() >= 10);
+    } finally {
+      for (SocketChannel client : clients) {
+        client.close();
+      }
+      sessions.shutdown();
+    }
+    waitForSessions(0);
+    assertEquals(0, store.getSessions());
+  }
+
+  @Test(timeout = 10000)
+  public void testSessionWithoutDungeonTellsItsClient() throws Exception {
+    server.close();
+    parameters = new DungeonParameters(4, 4, 5, true, 25, "Nishtha", 1, GridStorage.CAVES);
+    server = GameServer.onLoopback(0, parameters, 8);
+    try (SocketChannel first = SocketChannel.open(server.getAddress());
+         SocketChannel second = SocketChannel.open(server.getAddress());
+         SocketChannel third = SocketChannel.open(server.getAddress())) {
+      assertEquals(playLocally(8, SCRIPT), play(first, SCRIPT));
+      assertTrue(play(second, "").startsWith("Cannot start the game: "));
+      assertEquals(playLocally(10, SCRIPT), play(third, SCRIPT));
+    }
+    waitForSessions(0);
+    assertEquals(3, server.getStartedSessions());
+  }
+
+  @Test(timeout = 10000)
+  public void testClientLeavingEndsTheSession() throws Exception {
+    SocketChannel client = SocketChannel.open(server.getAddress());
+    readUntilPrompt(client);
+    assertEquals(1, server.getActiveSessions());
+    client.close();
+    waitForSessions(0);
+  }
+
+  @Test(timeout = 10000)
+  public void testCloseEndsTheSessions() throws Exception {
+    try (SocketChannel client = SocketChannel.open(server.getAddress())) {
+      readUntilPrompt(client);
+      server.close();
+      assertEquals(-1, client.read(ByteBuffer.allocate(64)));
+      waitForSessions(0);
+      server.awaitClose();
+    }
+    server.close();
+  }
+
+  @Test(timeout = 10000)
+  public void testUnixDomainSocket() throws IOException {
+    server.close();
+    Path path = Files.createTempDirectory("dungeon").resolve("game.sock");
+    SocketAddress address = UnixDomainSocketAddress.of(path);
+    server = new GameServer(address, parameters, SEED);
+    assertTrue(Files.exists(path));
+    try (SocketChannel client = SocketChannel.open(address)) {
+      assertEquals(playLocally(SEED, SCRIPT), play(client, SCRIPT));
+    }
+    server.close();
+    assertFalse(Files.exists(path));
+    Files.delete(path.getParent());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullAddress() throws IOException {
+    new GameServer(null, parameters, SEED);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullParameters() throws IOException {
+    GameServer.onLoopback(0, null, SEED);
+  }
+
+  private String playLocally(long seed, String script) {
+    StringBuilder out = new StringBuilder();
+    new DungeonConsoleController(new StringReader(script), out)
+            .playGame(parameters.createDungeon(new RandomSeeded(seed)));
+    return out.toString();
+  }
+
+  private static String play(SocketChannel client, String script) throws IOException {
+    client.write(ByteBuffer.wrap(script.getBytes(StandardCharsets.UTF_8)));
+    client.shutdownOutput();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    while (client.read(buffer) != -1) {
+      out.write(buffer.array(), 0, buffer.position());
+      buffer.clear();
+    }
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  private static String readUntilPrompt(SocketChannel client) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    while (!out.toString(StandardCharsets.UTF_8).endsWith(PROMPT)) {
+      if (client.read(buffer) == -1) {
+        break;
+      }
+      out.write(buffer.array(), 0, buffer.position());
+      buffer.clear();
+    }
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  private void waitForSessions(int sessions) throws InterruptedException {
+    while (server.getActiveSessions() != sessions) {
+      Thread.sleep(10);
+    }
+  }
+}
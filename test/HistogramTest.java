@@ -0,0 +1,93 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import model.simulation.Histogram;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link Histogram}.
+ */
+public class HistogramTest {
+
+  Histogram histogram;
+
+  @Before
+  public void setUp() {
+    histogram = new Histogram();
+  }
+
+  @Test
+  public void testRecord() {
+    histogram.record(3);
+    histogram.record(3);
+    histogram.record(40);
+    histogram.record(0);
+    assertEquals(4, histogram.getCount());
+    assertEquals(2, histogram.getCount(3));
+    assertEquals(1, histogram.getCount(40));
+    assertEquals(0, histogram.getCount(1000));
+    assertEquals(46, histogram.getSum());
+    assertEquals(11.5, histogram.getMean(), 1e-9);
+    assertEquals(0, histogram.getMin());
+    assertEquals(40, histogram.getMax());
+  }
+
+  @Test
+  public void testPercentile() {
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+    assertEquals(1, histogram.getPercentile(0));
+    assertEquals(50, histogram.getPercentile(50));
+    assertEquals(99, histogram.getPercentile(99));
+    assertEquals(100, histogram.getPercentile(100));
+  }
+
+  @Test
+  public void testMergeIsTheSameAsRecordingEverything() {
+    Histogram first = new Histogram();
+    Histogram second = new Histogram();
+    for (int i = 0; i < 500; i++) {
+      int value = (i * 37) % 211;
+      histogram.record(value);
+      (i % 3 == 0 ? first : second).record(value);
+    }
+    first.merge(second).merge(new Histogram());
+    assertEquals(histogram.getCount(), first.getCount());
+    assertEquals(histogram.getSum(), first.getSum());
+    assertEquals(histogram.getMin(), first.getMin());
+    assertEquals(histogram.getMax(), first.getMax());
+    for (int value = 0; value <= histogram.getMax(); value++) {
+      assertEquals(histogram.getCount(value), first.getCount(value));
+    }
+    assertEquals(histogram.getPercentile(90), first.getPercentile(90));
+  }
+
+  @Test
+  public void testEmpty() {
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMean(), 0);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPercentileOfEmpty() {
+    histogram.getPercentile(50);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeValue() {
+    histogram.record(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPercentile() {
+    histogram.record(1);
+    histogram.getPercentile(101);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeNull() {
+    histogram.merge(null);
+  }
+}
@@ -1,6 +1,7 @@
 import java.util.List;
 
 import model.dungeon.Dungeon;
+import model.dungeon.DungeonListener;
 import model.location.Cave;
 import model.location.Direction;
 import model.location.Location;
@@ -61,4 +62,39 @@ public class MockDungeon implements Dungeon {
   public void pickArrows() {
     getPlayer().getNumberOfArrows();
   }
+
+  @Override
+  public void restart() {
+    getPlayer().getName();
+  }
+
+  @Override
+  public boolean undo() {
+    return false;
+  }
+
+  @Override
+  public boolean redo() {
+    return false;
+  }
+
+  @Override
+  public Location getLocation(int row, int column) {
+    return new Cave(0, row, column);
+  }
+
+  @Override
+  public List<Direction> getShortestPath(Location from, Location to) {
+    return List.of();
+  }
+
+  @Override
+  public Direction getNextStep(Location from, Location to) {
+    return null;
+  }
+
+  @Override
+  public void setDungeonListener(DungeonListener listener) {
+    // do nothing
+  }
 }
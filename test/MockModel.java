@@ -2,6 +2,8 @@ import java.io.IOException;
 import java.util.List;
 
 import model.dungeon.Dungeon;
+import model.dungeon.DungeonListener;
+import model.location.Cave;
 import model.location.Direction;
 import model.location.Location;
 import model.location.Treasure;
@@ -75,6 +77,39 @@ class MockModel implements Dungeon {
 
   }
 
+  @Override
+  public void restart() {
+    try {
+      out.append("restart called\n");
+    } catch (IOException e) {
+       //do nothing
+
+    }
+
+  }
+
+  @Override
+  public boolean undo() {
+    try {
+      out.append("undo called\n");
+    } catch (IOException e) {
+       //do nothing
+
+    }
+    return true;
+  }
+
+  @Override
+  public boolean redo() {
+    try {
+      out.append("redo called\n");
+    } catch (IOException e) {
+       //do nothing
+
+    }
+    return true;
+  }
+
   @Override
   public Player getPlayer() {
     try {
@@ -94,7 +129,7 @@ class MockModel implements Dungeon {
         //do nothing
 
     }
-    return null;
+    return new Cave(7, 1, 3);
   }
 
   @Override
@@ -130,4 +165,47 @@ class MockModel implements Dungeon {
 
     return false;
   }
+
+  @Override
+  public Location getLocation(int row, int column) {
+    try {
+      out.append("getLocation called " + row + " " + column + "\n");
+    } catch (IOException e) {
+        //do nothing
+
+    }
+    return new Cave(row * 4 + column, row, column);
+  }
+
+  @Override
+  public List<Direction> getShortestPath(Location from, Location to) {
+    try {
+      out.append("getShortestPath called " + from.getId() + " " + to.getId() + "\n");
+    } catch (IOException e) {
+        //do nothing
+
+    }
+    return List.of(Direction.E, Direction.S);
+  }
+
+  @Override
+  public Direction getNextStep(Location from, Location to) {
+    try {
+      out.append("getNextStep called\n");
+    } catch (IOException e) {
+        //do nothing
+
+    }
+    return Direction.E;
+  }
+
+  @Override
+  public void setDungeonListener(DungeonListener listener) {
+    try {
+      out.append("setDungeonListener called\n");
+    } catch (IOException e) {
+        //do nothing
+
+    }
+  }
 }
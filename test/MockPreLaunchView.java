@@ -12,6 +12,21 @@ class MockPreLaunchView implements PreLaunchView {
     //do nothing
   }
 
+  @Override
+  public void setCancelButtonListener(ActionListener actionEvent) {
+    //do nothing
+  }
+
+  @Override
+  public void showProgress(int percent, String message) {
+    //do nothing
+  }
+
+  @Override
+  public void hideProgress() {
+    //do nothing
+  }
+
   @Override
   public int getRows() {
     return 6;
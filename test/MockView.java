@@ -63,6 +63,15 @@ class MockView implements DungeonView {
     }
   }
 
+  @Override
+  public void reset() {
+    try {
+      out.append("reset called");
+    } catch (IOException e) {
+      //do nothing
+    }
+  }
+
   @Override
   public void close() {
     try {
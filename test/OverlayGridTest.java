@@ -0,0 +1,218 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import model.location.Direction;
+import model.location.LocationChanges;
+import model.location.LocationGrid;
+import model.location.LocationUpdateState;
+import model.location.OverlayGrid;
+import model.location.PackedGrid;
+import model.location.Treasure;
+import model.monster.Otyugh;
+import model.weapon.Weapon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link OverlayGrid}.
+ */
+public class OverlayGridTest {
+
+  LocationGrid base;
+  OverlayGrid grid;
+  LocationUpdateState location;
+
+  @Before
+  public void setUp() {
+    base = new PackedGrid(3, 4);
+    base.get(1, 2).setValidMoves(Map.of(Direction.E, base.get(1, 3), Direction.N,
+            base.get(0, 2)));
+    base.get(1, 2).addTreasures(List.of(Treasure.RUBY, Treasure.DIAMOND));
+    base.get(1, 2).addArrows(List.of(Weapon.ARROW));
+    base.get(1, 2).addSmell(2);
+    base.get(1, 3).addMonster(new Otyugh());
+    grid = new OverlayGrid(base);
+    location = grid.get(1, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullBase() {
+    new OverlayGrid(null);
+  }
+
+  @Test
+  public void testReadsTheBase() {
+    assertEquals(6, location.getId());
+    assertEquals(1, location.getCoordinates().getX());
+    assertEquals(2, location.getCoordinates().getY());
+    assertEquals(List.of(Direction.N, Direction.E), location.getPossibleMoves());
+    assertEquals(List.of(Treasure.RUBY, Treasure.DIAMOND), location.getTreasures());
+    assertEquals(List.of(Weapon.ARROW), location.getArrows());
+    assertEquals(2, location.getSmell());
+    assertNull(location.getMonster());
+    assertEquals(100, grid.get(7).getMonster().getHealthPercentage());
+    assertEquals(0, grid.getChangedLocations());
+  }
+
+  @Test
+  public void testNeighborsAreInTheOverlay() {
+    assertEquals(location, grid.get(6));
+    assertNotEquals(location, base.get(6));
+    assertEquals(grid.get(1, 3), location.getNeighborLocations().get(Direction.E));
+    location.getNeighborLocations().get(Direction.E).getMonster().reduceHealth(50);
+    assertEquals(50, grid.get(7).getMonster().getHealthPercentage());
+    assertEquals(100, base.get(7).getMonster().getHealthPercentage());
+  }
+
+  @Test
+  public void testChangesDoNotReachTheBase() {
+    location.removeTreasures(List.of(Treasure.RUBY));
+    location.removeArrows();
+    location.reduceSmell(1);
+    grid.get(0).addMonster(new Otyugh());
+    assertEquals(List.of(Treasure.DIAMOND), location.getTreasures());
+    assertEquals(Collections.emptyList(), location.getArrows());
+    assertEquals(1, location.getSmell());
+    assertEquals("O", grid.get(0).toString());
+    assertEquals(List.of(Treasure.RUBY, Treasure.DIAMOND), base.get(6).getTreasures());
+    assertEquals(List.of(Weapon.ARROW), base.get(6).getArrows());
+    assertEquals(2, base.get(6).getSmell());
+    assertNull(base.get(0).getMonster());
+    assertEquals(2, grid.getChangedLocations());
+  }
+
+  @Test
+  public void testReset() {
+    location.removeTreasures(List.of(Treasure.RUBY, Treasure.DIAMOND));
+    grid.get(7).getMonster().reduceHealth(100);
+    grid.get(0).addArrows(List.of(Weapon.ARROW, Weapon.ARROW));
+    grid.reset();
+    assertEquals(0, grid.getChangedLocations());
+    assertEquals(List.of(Treasure.RUBY, Treasure.DIAMOND), location.getTreasures());
+    assertEquals(100, grid.get(7).getMonster().getHealthPercentage());
+    assertEquals(Collections.emptyList(), grid.get(0).getArrows());
+    location.removeArrows();
+    assertEquals(1, grid.getChangedLocations());
+  }
+
+  @Test
+  public void testManyChanges() {
+    for (int i = 0; i < 12; i++) {
+      grid.get(i).addSmell(i);
+    }
+    assertEquals(12, grid.getChangedLocations());
+    for (int i = 0; i < 12; i++) {
+      assertEquals(i + base.get(i).getSmell(), grid.get(i).getSmell());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMovesCannotChange() {
+    location.setValidMoves(Map.of());
+  }
+
+  @Test
+  public void testCopyRestoresMonsterHealth() {
+    grid.get(7).getMonster().reduceHealth(50);
+    location.removeArrows();
+    OverlayGrid copy = grid.copy();
+    assertEquals(100, copy.get(7).getMonster().getHealthPercentage());
+    assertTrue(copy.get(6).getArrows().isEmpty());
+    copy.get(6).addArrows(List.of(Weapon.ARROW));
+    assertTrue(location.getArrows().isEmpty());
+  }
+
+  @Test
+  public void testWriteState() {
+    location.removeTreasures(List.of(Treasure.RUBY));
+    grid.get(7).getMonster().reduceHealth(50);
+    ByteBuffer buffer = ByteBuffer.allocate(12 * PackedGrid.STATE_BYTES_PER_LOCATION);
+    grid.writeState(buffer);
+    assertFalse(buffer.hasRemaining());
+    buffer.flip();
+    byte[] exits = new byte[12];
+    LocationGrid written = new PackedGrid(3, 4, exits, buffer);
+    assertEquals(List.of(Treasure.DIAMOND), written.get(6).getTreasures());
+    assertEquals(List.of(Weapon.ARROW), written.get(6).getArrows());
+    assertEquals(2, written.get(6).getSmell());
+    assertEquals(50, written.get(7).getMonster().getHealthPercentage());
+  }
+
+  @Test
+  public void testWriteAndReadChanges() {
+    location.removeTreasures(List.of(Treasure.RUBY));
+    grid.get(7).getMonster().reduceHealth(50);
+    grid.get(11).addSmell(1);
+    ByteBuffer buffer = ByteBuffer.allocate(grid.getChangesBytes());
+    grid.writeChanges(buffer);
+    assertFalse(buffer.hasRemaining());
+    buffer.flip();
+    OverlayGrid read = new OverlayGrid(base, buffer);
+    assertEquals(3, read.getChangedLocations());
+    assertEquals(List.of(Treasure.DIAMOND), read.get(6).getTreasures());
+    assertEquals(50, read.get(7).getMonster().getHealthPercentage());
+    assertEquals(1, read.get(11).getSmell());
+    read.reset();
+    assertEquals(List.of(Treasure.RUBY, Treasure.DIAMOND), read.get(6).getTreasures());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReadChangesOutsideTheGrid() {
+    ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + PackedGrid.STATE_BYTES_PER_LOCATION);
+    buffer.putInt(1).putInt(12).flip();
+    new OverlayGrid(base, buffer);
+  }
+
+  @Test
+  public void testRecordAndApply() {
+    grid.get(0).addSmell(1);
+    grid.startRecording();
+    grid.get(0).addSmell(1);
+    location.removeTreasures(List.of(Treasure.RUBY));
+    location.removeArrows();
+    grid.get(7).getMonster().reduceHealth(50);
+    LocationChanges changes = grid.stopRecording();
+    assertEquals(3, changes.size());
+    assertEquals(3, grid.getChangedLocations());
+    LocationChanges redo = grid.apply(changes);
+    assertEquals(1, grid.getChangedLocations());
+    assertEquals(1, grid.get(0).getSmell());
+    assertEquals(List.of(Treasure.RUBY, Treasure.DIAMOND), location.getTreasures());
+    assertEquals(List.of(Weapon.ARROW), location.getArrows());
+    assertEquals(100, grid.get(7).getMonster().getHealthPercentage());
+    grid.apply(redo);
+    assertEquals(2, grid.get(0).getSmell());
+    assertEquals(List.of(Treasure.DIAMOND), location.getTreasures());
+    assertTrue(location.getArrows().isEmpty());
+    assertEquals(50, grid.get(7).getMonster().getHealthPercentage());
+  }
+
+  @Test
+  public void testRecordingNothing() {
+    grid.startRecording();
+    location.getTreasures();
+    assertTrue(grid.stopRecording().isEmpty());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStopWithoutRecording() {
+    grid.stopRecording();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testApplyWhileRecording() {
+    grid.startRecording();
+    LocationChanges changes = grid.stopRecording();
+    grid.startRecording();
+    grid.apply(changes);
+  }
+}
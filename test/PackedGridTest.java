@@ -0,0 +1,142 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import model.dungeon.Dungeon;
+import model.dungeon.DungeonImpl;
+import model.location.Direction;
+import model.location.GridStorage;
+import model.location.LocationGrid;
+import model.location.LocationUpdateState;
+import model.location.PackedGrid;
+import model.location.Treasure;
+import model.monster.Otyugh;
+import model.random.RandomFalse;
+import model.random.RandomFalseWithUpperBound;
+import model.weapon.Weapon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link PackedGrid}.
+ */
+public class PackedGridTest {
+
+  LocationGrid grid;
+  LocationUpdateState location;
+
+  @Before
+  public void setUp() {
+    grid = new PackedGrid(3, 4);
+    location = grid.get(1, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRows() {
+    new PackedGrid(0, 4);
+  }
+
+  @Test
+  public void testGetIdAndCoordinates() {
+    assertEquals(6, location.getId());
+    assertEquals(1, location.getCoordinates().getX());
+    assertEquals(2, location.getCoordinates().getY());
+    assertEquals(location, grid.get(6));
+    assertNotEquals(location, new PackedGrid(3, 4).get(6));
+  }
+
+  @Test
+  public void testSetValidMoves() {
+    assertEquals(Collections.emptyList(), location.getPossibleMoves());
+    location.setValidMoves(Map.of(Direction.E, grid.get(1, 3), Direction.N, grid.get(0, 2)));
+    assertEquals(List.of(Direction.N, Direction.E), location.getPossibleMoves());
+    assertTrue(location.isTunnel());
+    assertEquals("T", location.toString());
+    assertEquals(Map.of(Direction.E, grid.get(1, 3), Direction.N, grid.get(0, 2)),
+            location.getNeighborLocations());
+  }
+
+  @Test
+  public void testWrappingNeighbors() {
+    LocationUpdateState corner = grid.get(0, 0);
+    corner.setValidMoves(Map.of(Direction.N, grid.get(2, 0), Direction.W, grid.get(0, 3)));
+    assertEquals(grid.get(2, 0), corner.getNeighborLocations().get(Direction.N));
+    assertEquals(grid.get(0, 3), corner.getNeighborLocations().get(Direction.W));
+  }
+
+  @Test
+  public void testTreasures() {
+    location.addTreasures(List.of(Treasure.SAPPHIRE, Treasure.RUBY, Treasure.SAPPHIRE));
+    assertEquals(List.of(Treasure.RUBY, Treasure.SAPPHIRE, Treasure.SAPPHIRE),
+            grid.get(6).getTreasures());
+    location.removeTreasures(List.of(Treasure.SAPPHIRE));
+    assertEquals(List.of(Treasure.RUBY), grid.get(6).getTreasures());
+  }
+
+  @Test
+  public void testArrows() {
+    location.addArrows(List.of(Weapon.ARROW, Weapon.ARROW));
+    assertEquals(List.of(Weapon.ARROW, Weapon.ARROW), grid.get(6).getArrows());
+    location.removeArrows();
+    assertEquals(Collections.emptyList(), grid.get(6).getArrows());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddArrowsNullList() {
+    location.addArrows(null);
+  }
+
+  @Test
+  public void testSmell() {
+    location.addSmell(3);
+    location.reduceSmell(1);
+    assertEquals(2, grid.get(6).getSmell());
+    location.reduceSmell(5);
+    assertEquals(0, grid.get(6).getSmell());
+  }
+
+  @Test
+  public void testMonster() {
+    assertNull(location.getMonster());
+    location.addMonster(new Otyugh());
+    assertEquals("O", location.toString());
+    grid.get(6).getMonster().reduceHealth(50);
+    assertEquals(50, location.getMonster().getHealthPercentage());
+    grid.get(6).getMonster().reduceHealth(50);
+    assertEquals(0, location.getMonster().getHealthPercentage());
+  }
+
+  @Test
+  public void testCopyRestoresMonsterHealth() {
+    location.addMonster(new Otyugh());
+    location.getMonster().reduceHealth(50);
+    location.addArrows(List.of(Weapon.ARROW));
+    LocationGrid copy = grid.copy();
+    assertEquals(100, copy.get(6).getMonster().getHealthPercentage());
+    assertEquals(1, copy.get(6).getArrows().size());
+    copy.get(6).removeArrows();
+    assertFalse(location.getArrows().isEmpty());
+  }
+
+  @Test
+  public void testSameDungeonForEveryStorage() {
+    Dungeon caves = new DungeonImpl(6, 4, 4, false, 25, "Nishtha", 2, new RandomFalse(),
+            GridStorage.CAVES);
+    Dungeon packed = new DungeonImpl(6, 4, 4, false, 25, "Nishtha", 2, new RandomFalse(),
+            GridStorage.PACKED);
+    assertEquals(caves.toString(), packed.toString());
+    caves = new DungeonImpl(6, 4, 13, true, 25, "Nishtha", 2,
+            new RandomFalseWithUpperBound(), GridStorage.CAVES);
+    packed = new DungeonImpl(6, 4, 13, true, 25, "Nishtha", 2,
+            new RandomFalseWithUpperBound(), GridStorage.PACKED);
+    assertEquals(caves.toString(), packed.toString());
+    assertEquals(caves.getPlayerLocation().getSmell(), packed.getPlayerLocation().getSmell());
+  }
+}
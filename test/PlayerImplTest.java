@@ -44,6 +44,25 @@ public class PlayerImplTest {
     new PlayerImpl("", new Cave(1, 0, 0));
   }
 
+  @Test
+  public void testPlayerImplInTheMiddleOfAGame() {
+    player = new PlayerImpl("Nishtha", location, Map.of(Treasure.RUBY, 2, Treasure.DIAMOND, 1),
+            5, true);
+    Map<Treasure, Integer> collectedTreasures = new HashMap<>();
+    collectedTreasures.put(Treasure.RUBY, 2);
+    collectedTreasures.put(Treasure.DIAMOND, 1);
+    collectedTreasures.put(Treasure.SAPPHIRE, 0);
+    assertEquals(collectedTreasures, player.getCollectedTreasures());
+    assertEquals(5, player.getNumberOfArrows());
+    assertTrue(player.isDead());
+    assertEquals(location, player.getLocation());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPlayerImplNegativeArrows() {
+    new PlayerImpl("Nishtha", location, Map.of(), -1, false);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testPlayerImplNullLocation() {
     new PlayerImpl("Nishtha", null);
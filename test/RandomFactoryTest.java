@@ -4,8 +4,10 @@ import org.junit.Test;
 import model.random.RandomFactory;
 import model.random.RandomFalse;
 import model.random.RandomGenerator;
+import model.random.RandomSeeded;
 import model.random.RandomTrue;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -32,4 +34,11 @@ public class RandomFactoryTest {
     rand = randomFactory.getRandomGenerator(false);
     assertTrue(rand instanceof RandomFalse);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testGetRandomGeneratorSeeded() {
+    RandomSeeded seeded = randomFactory.getRandomGenerator(7L);
+    assertEquals(7, seeded.getSeed());
+    assertEquals(new RandomSeeded(7).getRandom(100, 0), seeded.getRandom(100, 0));
+  }
+}
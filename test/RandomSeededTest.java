@@ -0,0 +1,115 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.random.RandomSeeded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link RandomSeeded}.
+ */
+public class RandomSeededTest {
+
+  RandomSeeded rand;
+
+  @Before
+  public void setUp() {
+    rand = new RandomSeeded(42);
+  }
+
+  @Test
+  public void getRandom() {
+    for (int i = 0; i < 1000; i++) {
+      int random = rand.getRandom(12, 6);
+      assertTrue(random >= 6 && random < 12);
+    }
+  }
+
+  @Test
+  public void testGetRandomFullRange() {
+    for (int i = 0; i < 1000; i++) {
+      int random = rand.getRandom(Integer.MAX_VALUE, Integer.MIN_VALUE);
+      assertTrue(random < Integer.MAX_VALUE);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetRandomEmptyRange() {
+    rand.getRandom(6, 6);
+  }
+
+  @Test
+  public void testSameSeedSameNumbers() {
+    RandomSeeded other = new RandomSeeded(42);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(rand.getRandom(1000, 0), other.getRandom(1000, 0));
+    }
+  }
+
+  @Test
+  public void testSeedAndPosition() {
+    assertEquals(42, rand.getSeed());
+    assertEquals(0, rand.getPosition());
+    rand.getRandom(10, 0);
+    rand.getRandom(10, 0);
+    assertEquals(2, rand.getPosition());
+    assertEquals(42, rand.getSeed());
+  }
+
+  @Test
+  public void testStartAtPosition() {
+    for (int i = 0; i < 5; i++) {
+      rand.getRandom(1000, 0);
+    }
+    RandomSeeded moved = new RandomSeeded(42, 5);
+    assertEquals(5, moved.getPosition());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(rand.getRandom(1000, 0), moved.getRandom(1000, 0));
+    }
+  }
+
+  @Test
+  public void testSeek() {
+    List<Integer> numbers = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      numbers.add(rand.getRandom(1000, 0));
+    }
+    rand.seek(7);
+    assertEquals(7, rand.getPosition());
+    for (int i = 7; i < 20; i++) {
+      assertEquals((int) numbers.get(i), rand.getRandom(1000, 0));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSeekNegativePosition() {
+    rand.seek(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativePosition() {
+    new RandomSeeded(42, -1);
+  }
+
+  @Test
+  public void testSplit() {
+    RandomSeeded child = rand.split();
+    RandomSeeded sameChild = new RandomSeeded(42).split();
+    assertEquals(child.getSeed(), sameChild.getSeed());
+    assertEquals(0, child.getPosition());
+    assertEquals(1, rand.getPosition());
+    assertNotEquals(rand.split().getSeed(), child.getSeed());
+    int sameNumbers = 0;
+    for (int i = 0; i < 100; i++) {
+      if (rand.getRandom(1000, 0) == child.getRandom(1000, 0)) {
+        sameNumbers++;
+      }
+    }
+    assertTrue(sameNumbers < 10);
+  }
+}
@@ -0,0 +1,108 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import model.dungeon.DungeonParameters;
+import model.dungeon.GameReplayer;
+import model.dungeon.RecordingDungeon;
+import model.location.Direction;
+import model.location.GridStorage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RecordingDungeon}.
+ */
+public class RecordingDungeonTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  DungeonParameters parameters;
+  Path file;
+  RecordingDungeon dungeon;
+
+  @Before
+  public void setUp() throws IOException {
+    parameters = new DungeonParameters(6, 6, 2, false, 50, "Nishtha", 2, GridStorage.CAVES);
+    file = folder.newFile("game.log").toPath();
+    dungeon = new RecordingDungeon(parameters, 21, file);
+  }
+
+  @Test
+  public void testCommandsAreCounted() throws IOException {
+    assertEquals(21, dungeon.getSeed());
+    assertEquals(0, dungeon.getTurn());
+    dungeon.pickArrows();
+    dungeon.collectAllTreasures();
+    dungeon.setHistoryDepth(5);
+    assertEquals(5, dungeon.getHistoryDepth());
+    assertTrue(dungeon.undo());
+    assertTrue(dungeon.redo());
+    dungeon.restart();
+    assertEquals(6, dungeon.getTurn());
+    dungeon.close();
+    assertEquals(6, GameReplayer.load(file).getTurns());
+  }
+
+  @Test
+  public void testCommandsThatChangeNothingAreNotLogged() throws IOException {
+    assertFalse(dungeon.undo());
+    assertFalse(dungeon.redo());
+    try {
+      dungeon.movePlayer(null);
+      fail("Move without a direction should fail.");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+    assertEquals(0, dungeon.getTurn());
+    dungeon.close();
+    assertEquals(0, GameReplayer.load(file).getTurns());
+  }
+
+  @Test
+  public void testBufferedUntilFlushed() throws IOException {
+    assertEquals(0, Files.size(file));
+    dungeon.flush();
+    long size = Files.size(file);
+    assertTrue(size > 0);
+    dungeon.pickArrows();
+    assertEquals(size, Files.size(file));
+    dungeon.close();
+    assertTrue(Files.size(file) > size);
+  }
+
+  @Test
+  public void testCloseTwice() throws IOException {
+    dungeon.close();
+    long size = Files.size(file);
+    dungeon.close();
+    assertEquals(size, Files.size(file));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCommandAfterClose() throws IOException {
+    dungeon.close();
+    dungeon.movePlayer(Direction.E);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveKeyframeInterval() throws IOException {
+    dungeon.close();
+    new RecordingDungeon(parameters, 21, file, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullParameters() throws IOException {
+    dungeon.close();
+    new RecordingDungeon(null, 21, file);
+  }
+}
@@ -0,0 +1,218 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import control.server.SessionStore;
+import control.server.SnapshotStorage;
+import model.dungeon.DungeonImpl;
+import model.dungeon.DungeonParameters;
+import model.dungeon.DungeonSnapshot;
+import model.location.Direction;
+import model.location.GridStorage;
+import model.player.Player;
+import model.random.RandomSeeded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link SessionStore}.
+ */
+public class SessionStoreTest {
+
+  DungeonParameters parameters;
+  SessionStore<Integer> store;
+
+  @Before
+  public void setUp() {
+    parameters = new DungeonParameters(6, 4, 4, false, 100, "Nishtha", 2, GridStorage.CAVES);
+    store = new SessionStore<>(2, Long.MAX_VALUE, SnapshotStorage.HEAP);
+  }
+
+  @Test
+  public void testSessionPlaysLikeItsDungeon() {
+    DungeonImpl dungeon = createDungeon(1);
+    SessionStore<Integer>.Session session = store.put(1, dungeon);
+    assertSame(dungeon, session.getDungeon());
+    assertSame(session, store.get(1));
+    Direction direction = session.getPlayerLocation().getPossibleMoves().get(0);
+    session.movePlayer(direction);
+    session.pickArrows();
+    assertEquals(dungeon.getPlayerLocation().getId(), session.getPlayerLocation().getId());
+    assertEquals(dungeon.getPlayer().getNumberOfArrows(),
+            session.getPlayer().getNumberOfArrows());
+    assertTrue(session.undo());
+    assertTrue(session.undo());
+    assertFalse(session.undo());
+    assertEquals(dungeon.getStartingCave().getId(), session.getPlayerLocation().getId());
+  }
+
+  @Test
+  public void testEvictsTheSessionReleasedTheLongestAgo() {
+    SessionStore<Integer>.Session first = store.put(1, createDungeon(1));
+    SessionStore<Integer>.Session second = store.put(2, createDungeon(2));
+    SessionStore<Integer>.Session third = store.put(3, createDungeon(3));
+    assertEquals(3, store.getLiveSessions());
+    assertEquals(0, store.getEvictions());
+    second.release();
+    first.release();
+    assertEquals(2, store.getLiveSessions());
+    assertEquals(1, store.getEvictedSessions());
+    assertEquals(1, store.getEvictions());
+    first.acquire();
+    assertEquals(1, store.getHits());
+    assertEquals(0, store.getMisses());
+    second.acquire();
+    assertEquals(1, store.getMisses());
+    assertEquals(3, store.getLiveSessions());
+    third.release();
+    assertEquals(2, store.getEvictions());
+    assertEquals(3, store.getSessions());
+    assertEquals(2, store.getLiveSessions());
+  }
+
+  @Test
+  public void testEvictedSessionIsReadBackOnAcquire() {
+    SessionStore<Integer>.Session session = store.put(1, createDungeon(1));
+    Direction direction = session.getPlayerLocation().getPossibleMoves().get(0);
+    session.movePlayer(direction);
+    session.collectAllTreasures();
+    session.pickArrows();
+    int location = session.getPlayerLocation().getId();
+    int arrows = session.getPlayer().getNumberOfArrows();
+    String treasures = session.getPlayer().getCollectedTreasures().toString();
+    DungeonImpl before = session.getDungeon();
+    session.release();
+    store.put(2, createDungeon(2)).release();
+    store.put(3, createDungeon(3));
+    assertEquals(1, store.getEvictedSessions());
+    assertEquals(DungeonSnapshot.size(before), store.getSnapshotBytes());
+
+    session.acquire();
+    assertEquals(1, store.getMisses());
+    assertEquals(0, store.getHits());
+    assertEquals(2, store.getEvictions());
+    assertEquals(DungeonSnapshot.size(createDungeon(2)), store.getSnapshotBytes());
+    assertEquals(location, session.getPlayerLocation().getId());
+    assertEquals(arrows, session.getPlayer().getNumberOfArrows());
+    assertEquals(treasures, session.getPlayer().getCollectedTreasures().toString());
+    assertTrue(session.undo());
+    while (session.undo()) {
+      assertTrue(session.getPlayer().getNumberOfArrows() <= arrows);
+    }
+    assertEquals(session.getStartingCave().getId(), session.getPlayerLocation().getId());
+  }
+
+  @Test
+  public void testPlayerFollowsTheSessionAcrossEvictions() {
+    SessionStore<Integer>.Session session = store.put(1, createDungeon(1));
+    Player player = session.getPlayer();
+    session.release();
+    store.put(2, createDungeon(2)).release();
+    store.put(3, createDungeon(3));
+    session.acquire();
+    session.movePlayer(session.getPlayerLocation().getPossibleMoves().get(0));
+    assertEquals(session.getPlayerLocation().getId(), player.getLocation().getId());
+    assertEquals("Nishtha", player.getName());
+  }
+
+  @Test
+  public void testAcquiredSessionsAreNeverEvicted() {
+    for (int key = 0; key < 5; key++) {
+      store.put(key, createDungeon(key));
+    }
+    assertEquals(5, store.getLiveSessions());
+    assertEquals(0, store.getEvictions());
+  }
+
+  @Test
+  public void testDirectStorage() {
+    store = new SessionStore<>(1, Long.MAX_VALUE, SnapshotStorage.DIRECT);
+    SessionStore<Integer>.Session session = store.put(1, createDungeon(1));
+    session.movePlayer(session.getPlayerLocation().getPossibleMoves().get(0));
+    int location = session.getPlayerLocation().getId();
+    session.release();
+    store.put(2, createDungeon(2));
+    assertEquals(1, store.getEvictions());
+    session.acquire();
+    assertEquals(location, session.getPlayerLocation().getId());
+  }
+
+  @Test
+  public void testOldestSnapshotsExpire() {
+    int size = DungeonSnapshot.size(createDungeon(1));
+    store = new SessionStore<>(1, size * 2L, SnapshotStorage.HEAP);
+    SessionStore<Integer>.Session first = store.put(1, createDungeon(1));
+    first.release();
+    for (int key = 2; key <= 4; key++) {
+      store.put(key, createDungeon(key)).release();
+    }
+    assertEquals(1, store.getExpirations());
+    assertEquals(2, store.getEvictedSessions());
+    assertEquals(size * 2L, store.getSnapshotBytes());
+    try {
+      first.acquire();
+      assertTrue(false);
+    } catch (IllegalStateException e) {
+      assertEquals("Session 1 has expired.", e.getMessage());
+    }
+    store.get(2).acquire();
+    assertEquals(1, store.getMisses());
+  }
+
+  @Test
+  public void testRemove() {
+    SessionStore<Integer>.Session session = store.put(1, createDungeon(1));
+    assertTrue(store.remove(1));
+    assertFalse(store.remove(1));
+    assertNull(store.get(1));
+    assertEquals(0, store.getLiveSessions());
+    assertEquals(0, store.getSessions());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAcquireRemovedSession() {
+    SessionStore<Integer>.Session session = store.put(1, createDungeon(1));
+    store.remove(1);
+    session.acquire();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPlayReleasedSession() {
+    SessionStore<Integer>.Session session = store.put(1, createDungeon(1));
+    session.release();
+    session.getPlayerLocation();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateKey() {
+    store.put(1, createDungeon(1));
+    store.put(1, createDungeon(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullDungeon() {
+    store.put(1, null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoLiveSessions() {
+    new SessionStore<Integer>(0, 0, SnapshotStorage.HEAP);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSnapshotBytes() {
+    new SessionStore<Integer>(1, -1, SnapshotStorage.HEAP);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullStorage() {
+    new SessionStore<Integer>(1, 0, null);
+  }
+
+  private DungeonImpl createDungeon(long seed) {
+    return parameters.createDungeon(new RandomSeeded(seed));
+  }
+}
@@ -0,0 +1,353 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import model.dungeon.DungeonImpl;
+import model.dungeon.SharedDungeon;
+import model.dungeon.SmellCurve;
+import model.location.Direction;
+import model.location.GridStorage;
+import model.location.Location;
+import model.location.LocationUpdateState;
+import model.location.Treasure;
+import model.player.PlayerField;
+import model.random.RandomFactory;
+import model.random.RandomSeeded;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link SharedDungeon}.
+ */
+public class SharedDungeonTest {
+
+  private static final int THREADS = 64;
+
+  DungeonImpl dungeon;
+  SharedDungeon shared;
+
+  @Before
+  public void setUp() {
+    dungeon = new DungeonImpl(6, 4, 4, false, 25, "Nishtha", 2,
+            new RandomFactory().getRandomGenerator(false));
+    shared = new SharedDungeon(dungeon);
+  }
+
+  @Test
+  public void testStartsWithTheLocationsOfTheDungeon() {
+    for (int cell = 0; cell < 24; cell++) {
+      Location expected = dungeon.getLocation(cell / 4, cell % 4);
+      Location actual = shared.getLocation(cell / 4, cell % 4);
+      assertEquals(expected.getId(), actual.getId());
+      assertEquals(expected.getPossibleMoves(), actual.getPossibleMoves());
+      assertEquals(expected.getTreasures().size(), actual.getTreasures().size());
+      assertEquals(expected.getArrows().size(), actual.getArrows().size());
+      assertEquals(expected.getSmell(), actual.getSmell());
+      assertEquals(expected.getMonster() == null, actual.getMonster() == null);
+      assertEquals(expected.toString(), actual.toString());
+    }
+  }
+
+  @Test
+  public void testPlayersMoveOnTheirOwn() {
+    SharedDungeon.PlayerHandle first = shared.join("First", new RandomSeeded(1));
+    SharedDungeon.PlayerHandle second = shared.join("Second", new RandomSeeded(2));
+    assertEquals(1, first.getPlayerLocation().getId());
+    first.movePlayer(Direction.S);
+    assertEquals(5, first.getPlayerLocation().getId());
+    assertEquals(1, second.getPlayerLocation().getId());
+    assertEquals("Second", second.getPlayer().getName());
+    assertEquals(3, second.getPlayer().getNumberOfArrows());
+  }
+
+  @Test
+  public void testItemsAreCollectedOnce() {
+    SharedDungeon.PlayerHandle first = shared.join("First", new RandomSeeded(1));
+    SharedDungeon.PlayerHandle second = shared.join("Second", new RandomSeeded(2));
+    first.movePlayer(Direction.S);
+    first.movePlayer(Direction.E);
+    second.movePlayer(Direction.S);
+    second.movePlayer(Direction.E);
+    int treasures = first.getPlayerLocation().getTreasures().size();
+    int arrows = first.getPlayerLocation().getArrows().size();
+    first.collectAllTreasures();
+    second.collectAllTreasures();
+    first.pickArrows();
+    second.pickArrows();
+    assertEquals(treasures, total(first.getPlayer().getCollectedTreasures()));
+    assertEquals(0, total(second.getPlayer().getCollectedTreasures()));
+    assertEquals(3 + arrows, first.getPlayer().getNumberOfArrows());
+    assertEquals(3, second.getPlayer().getNumberOfArrows());
+    assertTrue(second.getPlayerLocation().getTreasures().isEmpty());
+    assertTrue(second.getPlayerLocation().getArrows().isEmpty());
+  }
+
+  @Test
+  public void testArrowsOfTwoPlayersKillAMonster() {
+    SharedDungeon.PlayerHandle first = shared.join("First", new RandomSeeded(1));
+    SharedDungeon.PlayerHandle second = shared.join("Second", new RandomSeeded(2));
+    assertEquals(2, first.getPlayerLocation().getSmell());
+    assertTrue(first.shootArrow(1, Direction.E));
+    assertEquals(2, first.getPlayerLocation().getSmell());
+    assertTrue(second.shootArrow(1, Direction.E));
+    assertEquals(0, first.getPlayerLocation().getSmell());
+    assertFalse(first.shootArrow(1, Direction.E));
+    assertEquals(0, second.getPlayerLocation().getSmell());
+    assertEquals(1, first.getPlayer().getNumberOfArrows());
+    assertEquals(2, second.getPlayer().getNumberOfArrows());
+  }
+
+  @Test
+  public void testListenerIsToldAboutItsOwnPlayer() {
+    SharedDungeon.PlayerHandle first = shared.join("First", new RandomSeeded(1));
+    SharedDungeon.PlayerHandle second = shared.join("Second", new RandomSeeded(2));
+    List<int[]> locations = new ArrayList<>();
+    List<Set<PlayerField>> fields = new ArrayList<>();
+    first.setDungeonListener((changed, playerFields) -> {
+      locations.add(changed);
+      fields.add(playerFields);
+    });
+    second.shootArrow(1, Direction.E);
+    assertTrue(locations.isEmpty());
+    first.shootArrow(1, Direction.E);
+    assertEquals(EnumSet.of(PlayerField.ARROWS), fields.get(0));
+    assertTrue(Arrays.stream(locations.get(0)).anyMatch(changed -> changed == 1));
+    first.movePlayer(Direction.S);
+    assertArrayEquals(new int[] {1, 5}, locations.get(1));
+    assertEquals(EnumSet.of(PlayerField.LOCATION), fields.get(1));
+    assertEquals(2, locations.size());
+  }
+
+  @Test
+  public void testDungeonIsNotChanged() {
+    SharedDungeon.PlayerHandle player = shared.join("First", new RandomSeeded(1));
+    player.shootArrow(1, Direction.E);
+    player.shootArrow(1, Direction.E);
+    player.collectAllTreasures();
+    assertEquals(2, dungeon.getPlayerLocation().getSmell());
+    assertNotEquals(0, dungeon.getPlayerLocation().getTreasures().size());
+  }
+
+  @Test
+  public void testPathsAreShared() {
+    SharedDungeon.PlayerHandle player = shared.join("First", new RandomSeeded(1));
+    assertEquals(dungeon.getShortestPath(dungeon.getStartingCave(),
+            dungeon.getDestinationCave()), player.getShortestPath(player.getStartingCave(),
+            player.getDestinationCave()));
+  }
+
+  @Test
+  public void testActionsCannotBeUndone() {
+    SharedDungeon.PlayerHandle player = shared.join("First", new RandomSeeded(1));
+    player.movePlayer(Direction.S);
+    assertFalse(player.undo());
+    assertFalse(player.redo());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRestart() {
+    shared.join("First", new RandomSeeded(1)).restart();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testLocationsAreChangedOnlyByPlayers() {
+    ((LocationUpdateState) shared.getLocation(0, 1)).removeArrows();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testShootWithoutArrows() {
+    SharedDungeon.PlayerHandle player = shared.join("First", new RandomSeeded(1));
+    for (int i = 0; i < 4; i++) {
+      player.shootArrow(3, Direction.S);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullDungeon() {
+    new SharedDungeon(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyName() {
+    shared.join("", new RandomSeeded(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullRandomGenerator() {
+    shared.join("First", null);
+  }
+
+  @Test
+  public void testManyPlayersNeverDuplicateOrLoseItems() throws Exception {
+    DungeonImpl source = new DungeonImpl(6, 6, 6, true, 100, "Host", 4, new RandomSeeded(7),
+            GridStorage.PACKED);
+    SharedDungeon crowded = new SharedDungeon(source);
+    int[] treasuresBefore = new int[Treasure.values().length];
+    int arrowsBefore = 0;
+    for (int cell = 0; cell < 36; cell++) {
+      Location location = crowded.getLocation(cell / 6, cell % 6);
+      for (Treasure treasure : location.getTreasures()) {
+        treasuresBefore[treasure.ordinal()]++;
+      }
+      arrowsBefore += location.getArrows().size();
+    }
+
+    ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch ready = new CountDownLatch(THREADS);
+    List<Future<Tally>> tallies = new ArrayList<>();
+    for (int thread = 0; thread < THREADS; thread++) {
+      long seed = thread;
+      tallies.add(threads.submit(() -> {
+        ready.countDown();
+        ready.await();
+        return play(crowded, seed, 500);
+      }));
+    }
+    int[] treasuresAfter = new int[Treasure.values().length];
+    int arrowsAfter = 0;
+    int hits = 0;
+    for (Future<Tally> future : tallies) {
+      Tally tally = future.get();
+      for (int i = 0; i < treasuresAfter.length; i++) {
+        treasuresAfter[i] += tally.treasures[i];
+      }
+      arrowsAfter += tally.arrows - 3 * tally.players + tally.shots;
+      hits += tally.hits;
+    }
+    threads.shutdown();
+    assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+
+    int wounds = 0;
+    for (int cell = 0; cell < 36; cell++) {
+      Location location = crowded.getLocation(cell / 6, cell % 6);
+      for (Treasure treasure : location.getTreasures()) {
+        treasuresAfter[treasure.ordinal()]++;
+      }
+      arrowsAfter += location.getArrows().size();
+      if (location.getMonster() != null) {
+        wounds += (100 - location.getMonster().getHealthPercentage()) / 50;
+      }
+    }
+    for (int i = 0; i < treasuresBefore.length; i++) {
+      assertEquals(treasuresBefore[i], treasuresAfter[i]);
+    }
+    assertEquals(arrowsBefore, arrowsAfter);
+    assertTrue(hits > 0);
+    assertEquals(hits, wounds);
+    assertSmellOfLivingMonsters(crowded, 6, 6, source.getSmellCurve());
+  }
+
+  /**
+   * Plays games in the dungeon with random actions, joining again whenever a game is over, and
+   * adds up what the players took out of the dungeon.
+   */
+  private Tally play(SharedDungeon dungeon, long seed, int actions) {
+    RandomSeeded choices = new RandomSeeded(seed);
+    Tally tally = new Tally();
+    SharedDungeon.PlayerHandle player = null;
+    for (int action = 0; action < actions; action++) {
+      if (player == null || player.getPlayer().isDead() || player.isDestinationReached()) {
+        if (player != null) {
+          tally.add(player);
+        }
+        player = dungeon.join("Player" + seed, new RandomSeeded(seed, action));
+        tally.players++;
+      }
+      List<Direction> moves = player.getPlayerLocation().getPossibleMoves();
+      Direction direction = moves.get(choices.getRandom(moves.size(), 0));
+      switch (choices.getRandom(4, 0)) {
+        case 0:
+          player.movePlayer(direction);
+          break;
+        case 1:
+          player.collectTreasure(List.of(Treasure.values()[choices.getRandom(3, 0)]));
+          break;
+        case 2:
+          player.pickArrows();
+          break;
+        default:
+          if (player.getPlayer().getNumberOfArrows() > 0) {
+            tally.shots++;
+            if (player.shootArrow(choices.getRandom(3, 1), direction)) {
+              tally.hits++;
+            }
+          }
+      }
+    }
+    tally.add(player);
+    return tally;
+  }
+
+  private static int total(Map<Treasure, Integer> treasures) {
+    return treasures.values().stream().mapToInt(Integer::intValue).sum();
+  }
+
+  private void assertSmellOfLivingMonsters(SharedDungeon dungeon, int rows, int columns,
+                                           SmellCurve curve) {
+    int[] expected = new int[rows * columns];
+    for (int cell = 0; cell < expected.length; cell++) {
+      Location monster = dungeon.getLocation(cell / columns, cell % columns);
+      if (monster.getMonster() == null || monster.getMonster().getHealthPercentage() == 0) {
+        continue;
+      }
+      Map<Integer, Integer> distances = new HashMap<>();
+      List<Location> queue = new ArrayList<>();
+      distances.put(cell, 0);
+      queue.add(monster);
+      for (int i = 0; i < queue.size(); i++) {
+        Location location = queue.get(i);
+        int distance = distances.get(location.getId());
+        expected[location.getId()] += curve.getStrength(distance);
+        if (distance == curve.getRadius()) {
+          continue;
+        }
+        for (Location neighbor : location.getNeighborLocations().values()) {
+          if (!distances.containsKey(neighbor.getId())) {
+            distances.put(neighbor.getId(), distance + 1);
+            queue.add(neighbor);
+          }
+        }
+      }
+    }
+    for (int cell = 0; cell < expected.length; cell++) {
+      assertEquals(expected[cell], dungeon.getLocation(cell / columns, cell % columns)
+              .getSmell());
+    }
+  }
+
+  /**
+   * What the players of one thread took out of the dungeon.
+   */
+  private static final class Tally {
+
+    private final int[] treasures = new int[Treasure.values().length];
+    private int arrows;
+    private int players;
+    private int shots;
+    private int hits;
+
+    private void add(SharedDungeon.PlayerHandle player) {
+      for (Map.Entry<Treasure, Integer> entry
+              : player.getPlayer().getCollectedTreasures().entrySet()) {
+        this.treasures[entry.getKey().ordinal()] += entry.getValue();
+      }
+      this.arrows += player.getPlayer().getNumberOfArrows();
+    }
+  }
+}
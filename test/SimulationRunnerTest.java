@@ -0,0 +1,125 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.dungeon.Dungeon;
+import model.dungeon.DungeonParameters;
+import model.dungeon.ReadOnlyDungeon;
+import model.location.GridStorage;
+import model.random.RandomGenerator;
+import model.simulation.BotStrategy;
+import model.simulation.RandomWalkBot;
+import model.simulation.SimulationResult;
+import model.simulation.SimulationRunner;
+import model.simulation.SmellAvoidingBot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link SimulationRunner}.
+ */
+public class SimulationRunnerTest {
+
+  ForkJoinPool pool;
+  SimulationRunner runner;
+  DungeonParameters parameters;
+
+  @Before
+  public void setUp() {
+    pool = new ForkJoinPool(4);
+    runner = new SimulationRunner(pool);
+    parameters = new DungeonParameters(6, 6, 3, true, 50, "Bot", 3, GridStorage.PACKED);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void testEveryGameIsCounted() {
+    // Enough monsters that the bot, which walks away from strong smells, still gets eaten.
+    DungeonParameters crowded = new DungeonParameters(6, 6, 3, true, 50, "Bot", 5,
+            GridStorage.PACKED);
+    SimulationResult result = runner.run(crowded, SmellAvoidingBot::new, 1, 200, 50);
+    assertEquals(200, result.getGames());
+    assertEquals(200, result.getTurns().getCount());
+    assertEquals(200, result.getTreasures().getCount());
+    assertEquals(200, result.getWins() + result.getDeaths() + result.getTimeouts());
+    assertTrue(result.getTurns().getMax() <= 50);
+    assertTrue(result.getWins() > 0);
+    assertTrue(result.getDeaths() > 0);
+  }
+
+  @Test
+  public void testSameResultOnAnyNumberOfThreads() {
+    SimulationResult parallel = runner.run(parameters, SmellAvoidingBot::new, 9, 300, 100);
+    ForkJoinPool single = new ForkJoinPool(1);
+    try {
+      SimulationResult sequential = new SimulationRunner(single).run(parameters,
+              SmellAvoidingBot::new, 9, 300, 100);
+      assertEquals(sequential.getWins(), parallel.getWins());
+      assertEquals(sequential.getDeaths(), parallel.getDeaths());
+      assertEquals(sequential.getTurns().getSum(), parallel.getTurns().getSum());
+      assertEquals(sequential.getTreasures().getSum(), parallel.getTreasures().getSum());
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testStrategyOnlySeesGamesThatAreNotOver() {
+    AtomicInteger starts = new AtomicInteger();
+    BotStrategy bot = new BotStrategy() {
+      final RandomWalkBot walk = new RandomWalkBot();
+
+      @Override
+      public void startGame(ReadOnlyDungeon dungeon) {
+        starts.incrementAndGet();
+      }
+
+      @Override
+      public void takeTurn(Dungeon dungeon, RandomGenerator rand) {
+        assertFalse(dungeon.getPlayer().isDead());
+        assertFalse(dungeon.isDestinationReached());
+        walk.takeTurn(dungeon, rand);
+      }
+    };
+    SimulationResult result = runner.run(parameters, () -> bot, 3, 50, 1000);
+    assertEquals(50, starts.get());
+    assertEquals(0, result.getTimeouts());
+  }
+
+  @Test
+  public void testNoGames() {
+    SimulationResult result = runner.run(parameters, RandomWalkBot::new, 1, 0, 10);
+    assertEquals(0, result.getGames());
+    assertEquals(0, result.getWinRate(), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidParameters() {
+    runner.run(new DungeonParameters(2, 2, 0, false, 50, "Bot", 1, GridStorage.PACKED),
+            RandomWalkBot::new, 1, 10, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeGames() {
+    runner.run(parameters, RandomWalkBot::new, 1, -1, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoTurns() {
+    runner.run(parameters, RandomWalkBot::new, 1, 10, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullStrategies() {
+    runner.run(parameters, null, 1, 10, 10);
+  }
+}
@@ -0,0 +1,68 @@
+import org.junit.Test;
+
+import model.dungeon.SmellCurve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests for {@link SmellCurve}.
+ */
+public class SmellCurveTest {
+
+  @Test
+  public void testDefaultCurve() {
+    assertEquals(2, SmellCurve.DEFAULT.getRadius());
+    assertEquals(3, SmellCurve.DEFAULT.getStrength(0));
+    assertEquals(2, SmellCurve.DEFAULT.getStrength(1));
+    assertEquals(1, SmellCurve.DEFAULT.getStrength(2));
+    assertEquals(0, SmellCurve.DEFAULT.getStrength(3));
+  }
+
+  @Test
+  public void testRadius() {
+    assertEquals(0, new SmellCurve(1).getRadius());
+    assertEquals(4, new SmellCurve(8, 4, 2, 1, 1).getRadius());
+  }
+
+  @Test
+  public void testStrengthBeyondRadius() {
+    assertEquals(0, new SmellCurve(8, 4).getStrength(100));
+  }
+
+  @Test
+  public void testCurveIsCopied() {
+    int[] strengths = {3, 2, 1};
+    SmellCurve curve = new SmellCurve(strengths);
+    strengths[0] = 9;
+    assertEquals(3, curve.getStrength(0));
+  }
+
+  @Test
+  public void testEquals() {
+    assertEquals(SmellCurve.DEFAULT, new SmellCurve(3, 2, 1));
+    assertEquals(SmellCurve.DEFAULT.hashCode(), new SmellCurve(3, 2, 1).hashCode());
+    assertNotEquals(SmellCurve.DEFAULT, new SmellCurve(3, 2));
+    assertEquals("[3, 2, 1]", SmellCurve.DEFAULT.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullCurve() {
+    new SmellCurve((int[]) null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyCurve() {
+    new SmellCurve();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeStrength() {
+    new SmellCurve(2, -1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeDistance() {
+    SmellCurve.DEFAULT.getStrength(-1);
+  }
+}
@@ -0,0 +1,118 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import model.dungeon.Dungeon;
+import model.dungeon.DungeonImpl;
+import model.location.Direction;
+import model.random.RandomFalse;
+import model.random.RandomGenerator;
+import model.simulation.BotStrategy;
+import model.simulation.RandomWalkBot;
+import model.simulation.SurvivalEstimate;
+import model.simulation.SurvivalEstimator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link SurvivalEstimator}.
+ */
+public class SurvivalEstimatorTest {
+
+  ForkJoinPool pool;
+  SurvivalEstimator estimator;
+  DungeonImpl dungeon;
+
+  @Before
+  public void setUp() {
+    pool = new ForkJoinPool(4);
+    estimator = new SurvivalEstimator(pool);
+    dungeon = new DungeonImpl(6, 4, 4, false, 25, "Nishtha", 1, new RandomFalse());
+    dungeon.movePlayer(Direction.E);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+    dungeon.movePlayer(Direction.S);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void testInjuredMonsterAtTheDestination() {
+    dungeon.shootArrow(1, Direction.E);
+    String before = dungeon.toString();
+    SurvivalEstimate estimate = estimator.estimate(dungeon, GoEast::new, 1, 0.02, 100_000,
+            10);
+    assertTrue(estimate.getHalfWidth() <= 0.02);
+    assertTrue(estimate.getRollouts() < 100_000);
+    assertTrue(estimate.getLowerBound() < 0.5 && estimate.getUpperBound() > 0.5);
+    assertEquals(before, dungeon.toString());
+    assertEquals(14, dungeon.getPlayerLocation().getId());
+    assertEquals(2, dungeon.getPlayer().getNumberOfArrows());
+  }
+
+  @Test
+  public void testMonsterAtFullHealth() {
+    SurvivalEstimate estimate = estimator.estimate(dungeon, GoEast::new, 1, 0.01, 100_000, 10);
+    assertEquals(0, estimate.getProbability(), 0);
+    assertEquals(0, estimate.getSurvivals());
+    assertEquals(256, estimate.getRollouts());
+    assertEquals(0, estimate.getLowerBound(), 0);
+  }
+
+  @Test
+  public void testStopsAtTheMaximumNumberOfRollouts() {
+    dungeon.shootArrow(1, Direction.E);
+    SurvivalEstimate estimate = estimator.estimate(dungeon, GoEast::new, 1, 0.001, 300, 10);
+    assertEquals(300, estimate.getRollouts());
+    assertTrue(estimate.getHalfWidth() > 0.001);
+  }
+
+  @Test
+  public void testSameEstimateOnAnyNumberOfThreads() {
+    dungeon.shootArrow(1, Direction.E);
+    SurvivalEstimate parallel = estimator.estimate(dungeon, RandomWalkBot::new, 5, 0.03, 5000,
+            50);
+    ForkJoinPool single = new ForkJoinPool(1);
+    try {
+      SurvivalEstimate sequential = new SurvivalEstimator(single).estimate(dungeon,
+              RandomWalkBot::new, 5, 0.03, 5000, 50);
+      assertEquals(sequential.getRollouts(), parallel.getRollouts());
+      assertEquals(sequential.getSurvivals(), parallel.getSurvivals());
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidHalfWidth() {
+    estimator.estimate(dungeon, GoEast::new, 1, 0, 100, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoRollouts() {
+    estimator.estimate(dungeon, GoEast::new, 1, 0.1, 0, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullDungeon() {
+    estimator.estimate(null, GoEast::new, 1, 0.1, 100, 10);
+  }
+
+  /**
+   * A bot that always moves east, and south when it cannot.
+   */
+  private static class GoEast implements BotStrategy {
+
+    @Override
+    public void takeTurn(Dungeon dungeon, RandomGenerator rand) {
+      dungeon.movePlayer(dungeon.getPlayerLocation().getPossibleMoves().contains(Direction.E)
+              ? Direction.E : Direction.S);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package model.dungeon;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link RankedSelection}.
+ */
+public class RankedSelectionTest {
+
+  @Test
+  public void testRemovesTheSameSlotsAsAnArrayList() {
+    Random random = new Random(42);
+    for (int n : new int[]{1, 63, 64, 65, 4095, 4096, 4097, 70_000}) {
+      RankedSelection selection = new RankedSelection(n);
+      List<Integer> list = new ArrayList<>();
+      for (int i = 0; i < n; i++) {
+        list.add(i);
+      }
+      while (!list.isEmpty()) {
+        assertEquals(list.size(), selection.size());
+        int rank = random.nextInt(list.size());
+        assertEquals((int) list.remove(rank), selection.removeAt(rank));
+      }
+      assertEquals(0, selection.size());
+    }
+  }
+
+  @Test
+  public void testRemovesFirstAndLast() {
+    RankedSelection selection = new RankedSelection(130);
+    assertEquals(0, selection.removeAt(0));
+    assertEquals(129, selection.removeAt(selection.size() - 1));
+    assertEquals(1, selection.removeAt(0));
+    assertEquals(128, selection.removeAt(selection.size() - 1));
+    assertEquals(126, selection.size());
+  }
+
+  @Test
+  public void testEmptySelection() {
+    assertEquals(0, new RankedSelection(0).size());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testNegativeRank() {
+    new RankedSelection(10).removeAt(-1);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testRankOfPickedSlot() {
+    RankedSelection selection = new RankedSelection(10);
+    selection.removeAt(3);
+    selection.removeAt(9);
+  }
+}
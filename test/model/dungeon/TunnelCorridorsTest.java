@@ -0,0 +1,122 @@
+package model.dungeon;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import model.location.Direction;
+import model.location.Location;
+import model.random.RandomSeeded;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link TunnelCorridors}.
+ */
+public class TunnelCorridorsTest {
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  @Test
+  public void testFlightIsTheSameAsAWalkThroughTheLocations() {
+    for (long seed = 0; seed < 4; seed++) {
+      assertFlights(new DungeonImpl(6, 8, 0, false, 25, "Nishtha", 1, new RandomSeeded(seed)),
+              6, 8, false);
+      assertFlights(new DungeonImpl(7, 5, 3, false, 25, "Nishtha", 1, new RandomSeeded(seed)),
+              7, 5, false);
+      assertFlights(new DungeonImpl(6, 8, 0, true, 25, "Nishtha", 1, new RandomSeeded(seed)),
+              6, 8, true);
+      assertFlights(new DungeonImpl(9, 6, 4, true, 25, "Nishtha", 1, new RandomSeeded(seed)),
+              9, 6, true);
+    }
+  }
+
+  @Test
+  public void testFlightOfNoDistanceStaysInPlace() {
+    DungeonImpl dungeon = new DungeonImpl(6, 8, 0, true, 25, "Nishtha", 1, new RandomSeeded(1));
+    TunnelCorridors corridors = getCorridors(dungeon, 6, 8, true);
+    for (int cell = 0; cell < 6 * 8; cell++) {
+      for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+        assertEquals(cell * DIRECTIONS.length + direction, corridors.fly(cell, direction, 0));
+      }
+    }
+  }
+
+  @Test
+  public void testFlightOfNegativeDistanceIsLost() {
+    DungeonImpl dungeon = new DungeonImpl(6, 8, 0, true, 25, "Nishtha", 1, new RandomSeeded(1));
+    assertEquals(TunnelCorridors.LOST, getCorridors(dungeon, 6, 8, true).fly(0, 0, -1));
+  }
+
+  /**
+   * Checks the flight from every location in every direction over every distance against a walk
+   * through the locations of the dungeon, the way arrows were moved before the corridors were
+   * precomputed.
+   */
+  private static void assertFlights(DungeonImpl dungeon, int rows, int columns,
+                                    boolean isWrapping) {
+    TunnelCorridors corridors = getCorridors(dungeon, rows, columns, isWrapping);
+    for (int cell = 0; cell < rows * columns; cell++) {
+      for (Direction direction : DIRECTIONS) {
+        for (int distance = 1; distance <= rows * columns; distance++) {
+          assertEquals("cell " + cell + " " + direction + " " + distance,
+                  walk(dungeon, rows, columns, isWrapping, cell, direction, distance),
+                  corridors.fly(cell, direction.ordinal(), distance));
+        }
+      }
+    }
+  }
+
+  private static TunnelCorridors getCorridors(DungeonImpl dungeon, int rows, int columns,
+                                              boolean isWrapping) {
+    byte[] exits = new byte[rows * columns];
+    for (int cell = 0; cell < exits.length; cell++) {
+      for (Direction direction : dungeon.getLocation(cell / columns, cell % columns)
+              .getPossibleMoves()) {
+        exits[cell] |= (byte) (1 << direction.ordinal());
+      }
+    }
+    return new TunnelCorridors(new GridTopology(rows, columns, isWrapping), exits);
+  }
+
+  private static int walk(DungeonImpl dungeon, int rows, int columns, boolean isWrapping,
+                          int cell, Direction direction, int distance) {
+    Location location = dungeon.getLocation(cell / columns, cell % columns);
+    int maxSteps = rows * columns * (distance + 1);
+    for (int steps = 0; distance != 0; steps++) {
+      List<Direction> moves = location.getPossibleMoves();
+      if (steps > maxSteps || !moves.contains(direction)
+              && !location.isTunnel()) {
+        return TunnelCorridors.LOST;
+      }
+      if (location.isTunnel() && !moves.contains(direction)) {
+        Direction entering = DIRECTIONS[(direction.ordinal() + 2) % DIRECTIONS.length];
+        direction = moves.get(0) == entering ? moves.get(1) : moves.get(0);
+      }
+      int row = location.getCoordinates().getX();
+      int column = location.getCoordinates().getY();
+      switch (direction) {
+        case N:
+          row--;
+          break;
+        case S:
+          row++;
+          break;
+        case E:
+          column++;
+          break;
+        default:
+          column--;
+      }
+      if (isWrapping) {
+        row = Math.floorMod(row, rows);
+        column = Math.floorMod(column, columns);
+      }
+      location = dungeon.getLocation(row, column);
+      if (!location.isTunnel()) {
+        distance--;
+      }
+    }
+    return location.getId() * DIRECTIONS.length + direction.ordinal();
+  }
+}